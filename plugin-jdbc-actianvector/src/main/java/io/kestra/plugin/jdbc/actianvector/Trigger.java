@@ -77,7 +77,7 @@ public class Trigger extends AbstractJdbcTrigger implements ActianVectorConnecti
             .additionalVars(this.additionalVars)
             .parameters(this.getParameters())
             .build();
-        return query.run(runContext);
+        return this.runInSession(runContext, query);
     }
 
     @Override
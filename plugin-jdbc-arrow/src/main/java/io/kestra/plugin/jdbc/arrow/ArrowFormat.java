@@ -0,0 +1,27 @@
+package io.kestra.plugin.jdbc.arrow;
+
+import io.kestra.plugin.jdbc.ColumnarRowWriter;
+import io.kestra.plugin.jdbc.StoreFormat;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+public class ArrowFormat implements ColumnarRowWriter.Provider {
+    // Arrow memory reads the address of direct buffers by reflection, which fails on first use without the JVM flag
+    private static final boolean NIO_OPENED = ByteBuffer.class.getModule().isOpen("java.nio", ArrowFormat.class.getModule());
+
+    @Override
+    public StoreFormat format() {
+        return StoreFormat.ARROW;
+    }
+
+    @Override
+    public ColumnarRowWriter open(OutputStream output, ColumnarRowWriter.Options options) {
+        if (!NIO_OPENED) {
+            throw new IllegalStateException("storeFormat ARROW requires the worker JVM to run with " +
+                "`--add-opens=java.base/java.nio=ALL-UNNAMED`, e.g. in JAVA_OPTS; use PARQUET or ION otherwise");
+        }
+
+        return new ArrowRowWriter(output, options.arrowBatchSize(), options.zoneId());
+    }
+}
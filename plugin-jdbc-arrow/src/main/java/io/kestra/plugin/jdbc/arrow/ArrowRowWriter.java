@@ -0,0 +1,169 @@
+package io.kestra.plugin.jdbc.arrow;
+
+import io.kestra.plugin.jdbc.ColumnPlan;
+import io.kestra.plugin.jdbc.ColumnarRowWriter;
+import io.kestra.plugin.jdbc.StoreColumn;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.*;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.FieldType;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * Writes STORE rows from a ResultSet as an Arrow IPC stream. Converted values are set directly into the Arrow
+ * vectors, which are flushed as a record batch every {@code batchSize} rows; the schema is derived from the
+ * {@link ResultSetMetaData} with the same column mapping as the Parquet format.
+ */
+final class ArrowRowWriter implements ColumnarRowWriter {
+    private final OutputStream output;
+    private final int batchSize;
+    private final ZoneId zoneId;
+    private final BufferAllocator allocator = new RootAllocator();
+
+    private ColumnPlan plan;
+    private StoreColumn[] columns;
+    private FieldVector[] vectors;
+    private VectorSchemaRoot root;
+    private ArrowStreamWriter writer;
+    private int rowCount;
+
+    ArrowRowWriter(OutputStream output, int batchSize, ZoneId zoneId) {
+        this.output = output;
+        this.batchSize = batchSize;
+        this.zoneId = zoneId;
+    }
+
+    @Override
+    public ArrowRowWriter start(ColumnPlan plan, ResultSetMetaData meta) throws SQLException, IOException {
+        if (this.writer != null) {
+            if (!Arrays.equals(this.plan.labels(), plan.labels())) {
+                throw new IllegalArgumentException("Arrow output only supports result sets with the same columns, got " +
+                    Arrays.toString(plan.labels()) + " after " + Arrays.toString(this.plan.labels()));
+            }
+            this.plan = plan;
+            return this;
+        }
+
+        this.columns = StoreColumn.of(plan, meta);
+        this.root = VectorSchemaRoot.create(new Schema(Arrays.stream(this.columns).map(ArrowRowWriter::field).toList()), this.allocator);
+        this.vectors = this.root.getFieldVectors().toArray(FieldVector[]::new);
+        this.root.allocateNew();
+
+        this.writer = new ArrowStreamWriter(this.root, null, this.output);
+        this.writer.start();
+        this.plan = plan;
+
+        return this;
+    }
+
+    @Override
+    public void write(ResultSet rs) throws SQLException, IOException {
+        for (int i = 0; i < this.columns.length; i++) {
+            setValue(i, this.plan.read(rs, i));
+        }
+
+        endRow();
+    }
+
+    @Override
+    public void write(Object[] row) throws IOException {
+        for (int i = 0; i < this.columns.length; i++) {
+            setValue(i, row[i]);
+        }
+
+        endRow();
+    }
+
+    private void setValue(int column, Object value) {
+        // vectors are zeroed on allocation, so skipped slots are already null
+        if (value != null) {
+            try {
+                setValue(this.columns[column], this.vectors[column], value);
+            } catch (RuntimeException e) {
+                throw this.columns[column].unsupported(value, "Arrow", e);
+            }
+        }
+    }
+
+    private void endRow() throws IOException {
+        if (++this.rowCount == this.batchSize) {
+            flush();
+        }
+    }
+
+    private void setValue(StoreColumn column, FieldVector vector, Object value) {
+        int index = this.rowCount;
+        switch (column.kind()) {
+            case BOOLEAN -> ((BitVector) vector).setSafe(index, StoreColumn.asBoolean(value) ? 1 : 0);
+            case INT -> ((IntVector) vector).setSafe(index, StoreColumn.asNumber(value).intValue());
+            case LONG -> ((BigIntVector) vector).setSafe(index, StoreColumn.asNumber(value).longValue());
+            case FLOAT -> ((Float4Vector) vector).setSafe(index, StoreColumn.asNumber(value).floatValue());
+            case DOUBLE -> ((Float8Vector) vector).setSafe(index, StoreColumn.asNumber(value).doubleValue());
+            case DECIMAL -> ((DecimalVector) vector).setSafe(index, column.asDecimal(value));
+            case DATE -> ((DateDayVector) vector).setSafe(index, (int) StoreColumn.asDate(value).toEpochDay());
+            case TIME -> ((TimeMicroVector) vector).setSafe(index, StoreColumn.asTimeMicros(value));
+            case TIMESTAMP -> ((TimeStampMicroTZVector) vector).setSafe(index, StoreColumn.asTimestampMicros(value, this.zoneId));
+            case BINARY -> ((VarBinaryVector) vector).setSafe(index, (byte[]) value);
+            case STRING -> ((VarCharVector) vector).setSafe(index, StoreColumn.asString(value).getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void flush() throws IOException {
+        this.root.setRowCount(this.rowCount);
+        this.writer.writeBatch();
+
+        this.root.allocateNew();
+        this.rowCount = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (this.writer != null) {
+                if (this.rowCount > 0) {
+                    flush();
+                }
+                // ends the stream and closes the underlying output
+                this.writer.close();
+            }
+        } finally {
+            if (this.root != null) {
+                this.root.close();
+            }
+            this.allocator.close();
+        }
+    }
+
+    private static Field field(StoreColumn column) {
+        ArrowType type = switch (column.kind()) {
+            case BOOLEAN -> ArrowType.Bool.INSTANCE;
+            case INT -> new ArrowType.Int(32, true);
+            case LONG -> new ArrowType.Int(64, true);
+            case FLOAT -> new ArrowType.FloatingPoint(FloatingPointPrecision.SINGLE);
+            case DOUBLE -> new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE);
+            case DECIMAL -> new ArrowType.Decimal(column.precision(), column.scale(), 128);
+            case DATE -> new ArrowType.Date(DateUnit.DAY);
+            case TIME -> new ArrowType.Time(TimeUnit.MICROSECOND, 64);
+            case TIMESTAMP -> new ArrowType.Timestamp(TimeUnit.MICROSECOND, "UTC");
+            case BINARY -> ArrowType.Binary.INSTANCE;
+            case STRING -> ArrowType.Utf8.INSTANCE;
+        };
+
+        return new Field(column.name(), FieldType.nullable(type), null);
+    }
+}
@@ -0,0 +1,105 @@
+package io.kestra.plugin.jdbc.arrow;
+
+import io.kestra.plugin.jdbc.AbstractCellConverter;
+import io.kestra.plugin.jdbc.ColumnarRowWriter;
+import io.kestra.plugin.jdbc.StoreFormat;
+import io.kestra.plugin.jdbc.StubResultSet;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.*;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ServiceLoader;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class ArrowRowWriterTest {
+    private static final StubResultSet.Column[] COLUMNS = {
+        new StubResultSet.Column("id", "int4", Types.INTEGER, 1),
+        new StubResultSet.Column("name", "varchar", Types.VARCHAR, "John"),
+        new StubResultSet.Column("amount", "numeric", Types.NUMERIC, new BigDecimal("12.50")),
+        new StubResultSet.Column("birth", "date", Types.DATE, Date.valueOf(LocalDate.of(1990, 1, 2))),
+        new StubResultSet.Column("created", "timestamp", Types.TIMESTAMP, Timestamp.valueOf(LocalDateTime.of(2024, 5, 6, 7, 8, 9))),
+        new StubResultSet.Column("missing", "varchar", Types.VARCHAR, null)
+    };
+
+    private static AbstractCellConverter converter() {
+        return new AbstractCellConverter(ZoneId.of("UTC")) {
+            @Override
+            public Object convertCell(int columnIndex, ResultSet rs, Connection connection) throws SQLException {
+                return super.convert(columnIndex, rs);
+            }
+        };
+    }
+
+    @Test
+    void writesRecordBatches() throws SQLException, IOException {
+        byte[] bytes = write(5, 2);
+
+        try (var allocator = new RootAllocator(); var reader = new ArrowStreamReader(new ByteArrayInputStream(bytes), allocator)) {
+            var root = reader.getVectorSchemaRoot();
+            assertThat(root.getSchema().findField("id").getType(), is(new ArrowType.Int(32, true)));
+            assertThat(root.getSchema().findField("amount").getType(), is(new ArrowType.Decimal(4, 2, 128)));
+
+            int batches = 0;
+            int rows = 0;
+            while (reader.loadNextBatch()) {
+                batches++;
+                rows += root.getRowCount();
+
+                assertThat(((IntVector) root.getVector("id")).get(0), is(1));
+                assertThat(new String(((VarCharVector) root.getVector("name")).get(0)), is("John"));
+                assertThat(((DecimalVector) root.getVector("amount")).getObject(0), is(new BigDecimal("12.50")));
+                assertThat(((DateDayVector) root.getVector("birth")).get(0), is((int) LocalDate.of(1990, 1, 2).toEpochDay()));
+                assertThat(root.getVector("missing").isNull(0), is(true));
+            }
+
+            assertThat(batches, is(3));
+            assertThat(rows, is(5));
+        }
+    }
+
+    @Test
+    void emptyResultKeepsSchema() throws SQLException, IOException {
+        byte[] bytes = write(0, 10);
+
+        try (var allocator = new RootAllocator(); var reader = new ArrowStreamReader(new ByteArrayInputStream(bytes), allocator)) {
+            assertThat(reader.getVectorSchemaRoot().getSchema().getFields(), hasSize(6));
+            assertThat(reader.loadNextBatch(), is(false));
+        }
+    }
+
+    @Test
+    void formatIsRegistered() {
+        var formats = ServiceLoader.load(ColumnarRowWriter.Provider.class).stream()
+            .map(provider -> provider.get().format())
+            .toList();
+
+        assertThat(formats, contains(StoreFormat.ARROW));
+    }
+
+    private static byte[] write(int rows, int batchSize) throws SQLException, IOException {
+        var output = new ByteArrayOutputStream();
+        var rs = new StubResultSet(rows, COLUMNS).resultSet();
+        var plan = converter().plan(rs, null);
+
+        try (var writer = new ArrowFormat().open(output, new ColumnarRowWriter.Options(0, batchSize, ZoneId.of("UTC")))) {
+            writer.start(plan, rs.getMetaData());
+            while (rs.next()) {
+                writer.write(rs);
+            }
+        }
+
+        return output.toByteArray();
+    }
+}
@@ -80,7 +80,7 @@ public class Trigger extends AbstractJdbcTrigger implements As400ConnectionInter
             .parameters(this.getParameters())
             .build();
 
-        return query.run(runContext);
+        return this.runInSession(runContext, query);
     }
 
     @Override
@@ -2,13 +2,16 @@ package io.kestra.plugin.jdbc.clickhouse;
 
 import com.clickhouse.data.value.UnsignedLong;
 import io.kestra.plugin.jdbc.AbstractCellConverter;
+import io.kestra.plugin.jdbc.ColumnPlan;
 
 import java.math.BigInteger;
 import java.net.Inet4Address;
 import java.net.Inet6Address;
 import java.sql.Connection;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -26,110 +29,136 @@ public class ClickHouseCellConverter extends AbstractCellConverter {
 
     @Override
     public Object convertCell(int columnIndex, ResultSet rs, Connection connection) throws SQLException {
-        Object data = rs.getObject(columnIndex);
-
-        if (data == null) {
-            return null;
-        }
+        return columnReader(columnIndex, rs.getMetaData(), connection).read(rs);
+    }
 
-        Object columnVal = rs.getObject(columnIndex);
-        String columnTypeName = rs.getMetaData().getColumnTypeName(columnIndex);
+    @Override
+    protected ColumnPlan.ColumnReader columnReader(int columnIndex, ResultSetMetaData meta, Connection connection) throws SQLException {
+        String columnTypeName = meta.getColumnTypeName(columnIndex);
 
         if (columnTypeName.equals("Array(Int8)")) {
-            Object raw = rs.getObject(columnIndex);
-            if (raw instanceof java.sql.Array sqlArray) {
-                Object arrayObj = sqlArray.getArray();
-                if (arrayObj instanceof Object[] objArray) {
-                    Byte[] byteArray = new Byte[objArray.length];
-                    for (int i = 0; i < objArray.length; i++) {
-                        byteArray[i] = ((Number) objArray[i]).byteValue();
+            return rs -> {
+                Object raw = rs.getObject(columnIndex);
+                if (raw instanceof java.sql.Array sqlArray) {
+                    Object arrayObj = sqlArray.getArray();
+                    if (arrayObj instanceof Object[] objArray) {
+                        Byte[] byteArray = new Byte[objArray.length];
+                        for (int i = 0; i < objArray.length; i++) {
+                            byteArray[i] = ((Number) objArray[i]).byteValue();
+                        }
+                        return byteArray;
                     }
-                    return byteArray;
+                    return arrayObj;
                 }
-            }
+                return raw;
+            };
         }
 
         if (columnTypeName.startsWith("Array(")) {
-            Object value = rs.getObject(columnIndex);
+            return rs -> {
+                Object value = rs.getObject(columnIndex);
 
-            if (value instanceof java.sql.Array) {
-                return ((java.sql.Array) value).getArray();
-            }
-            return value;
+                if (value instanceof java.sql.Array) {
+                    return ((java.sql.Array) value).getArray();
+                }
+                return value;
+            };
         }
 
         if (columnTypeName.equals("DateTime")) {
-            return rs.getTimestamp(columnIndex).toLocalDateTime();
+            return rs -> {
+                Timestamp timestamp = rs.getTimestamp(columnIndex);
+                return timestamp == null ? null : timestamp.toLocalDateTime();
+            };
         } else if (columnTypeName.startsWith("DateTime(") || columnTypeName.startsWith("DateTime64(")) {
-            return rs.getObject(columnIndex, ZonedDateTime.class);
+            // a single typed read, the driver returns null for SQL NULL
+            return rs -> rs.getObject(columnIndex, ZonedDateTime.class);
         }
 
-        if (columnTypeName.equals("Int8") || columnTypeName.equals("Nullable(Int8)")) {
-            if (columnVal instanceof Number number) {
-                return number.intValue();
-            }
-            return Integer.parseInt(columnVal.toString());
+        if (columnTypeName.equals("Int8") || columnTypeName.equals("Nullable(Int8)") || columnTypeName.equals("UInt8")) {
+            return valueReader(columnIndex, columnVal -> {
+                if (columnVal instanceof Number number) {
+                    return number.intValue();
+                }
+                return Integer.parseInt(columnVal.toString());
+            });
         }
 
         if (columnTypeName.equals("Date")) {
-            if (columnVal instanceof java.sql.Date) {
-                return ((java.sql.Date) columnVal).toLocalDate();
-            } else if (columnVal instanceof LocalDate) {
-                return columnVal;
-            } else {
-                return LocalDate.parse(columnVal.toString());
-            }
+            return valueReader(columnIndex, columnVal -> {
+                if (columnVal instanceof java.sql.Date) {
+                    return ((java.sql.Date) columnVal).toLocalDate();
+                } else if (columnVal instanceof LocalDate) {
+                    return columnVal;
+                } else {
+                    return LocalDate.parse(columnVal.toString());
+                }
+            });
         }
 
         if (columnTypeName.startsWith("Tuple(")) {
-            if (columnVal instanceof Object[]) {
-                return Arrays.asList((Object[]) columnVal);
-            }
-            return columnVal;
+            return valueReader(columnIndex, columnVal -> {
+                if (columnVal instanceof Object[]) {
+                    return Arrays.asList((Object[]) columnVal);
+                }
+                return columnVal;
+            });
         }
 
         if (columnTypeName.equals("IPv4")) {
-            Inet4Address col = (Inet4Address) columnVal;
-            return col.toString().substring(1);
+            return valueReader(columnIndex, columnVal -> ((Inet4Address) columnVal).toString().substring(1));
         }
 
         if (columnTypeName.equals("IPv6")) {
-            Inet6Address col = (Inet6Address) columnVal;
-            return col.toString().substring(1);
-        }
-
-        if (columnTypeName.equals("UInt8")) {
-            if (columnVal instanceof Number number) {
-                return number.intValue();
-            }
-            return Integer.parseInt(columnVal.toString());
+            return valueReader(columnIndex, columnVal -> ((Inet6Address) columnVal).toString().substring(1));
         }
 
         if (columnTypeName.equals("UInt16")) {
-            if (columnVal instanceof Number) {
-                return ((Number) columnVal).intValue();
-            } else {
-                throw new IllegalArgumentException("Unexpected type for UInt16: " + columnVal.getClass());
-            }
+            return valueReader(columnIndex, columnVal -> {
+                if (columnVal instanceof Number) {
+                    return ((Number) columnVal).intValue();
+                } else {
+                    throw new IllegalArgumentException("Unexpected type for UInt16: " + columnVal.getClass());
+                }
+            });
         }
 
         if (columnTypeName.equals("UInt64")) {
-            return switch (columnVal) {
+            return valueReader(columnIndex, columnVal -> switch (columnVal) {
                 case UnsignedLong unsigned -> unsigned.longValue();
                 case BigInteger bigInt -> bigInt.longValue();
                 case Number number -> number.longValue();
                 default -> throw new IllegalArgumentException("Unexpected type for UInt64: " + columnVal.getClass());
-            };
+            });
         }
 
         if ("Float32".equals(columnTypeName)) {
-            return rs.getFloat(columnIndex);
+            return rs -> {
+                float value = rs.getFloat(columnIndex);
+                return rs.wasNull() ? null : value;
+            };
         }
 
         if ("Float64".equals(columnTypeName)) {
-            return rs.getDouble(columnIndex);
+            return rs -> {
+                double value = rs.getDouble(columnIndex);
+                return rs.wasNull() ? null : value;
+            };
         }
 
-        return super.convert(columnIndex, rs);
+        return rs -> super.convert(columnIndex, rs);
+    }
+
+    // Read the cell once, skip nulls and hand the raw value to a type-specific conversion.
+    private static ColumnPlan.ColumnReader valueReader(int columnIndex, ValueConverter converter) {
+        return rs -> {
+            Object columnVal = rs.getObject(columnIndex);
+            return columnVal == null ? null : converter.convert(columnVal);
+        };
+    }
+
+    @FunctionalInterface
+    private interface ValueConverter {
+        Object convert(Object columnVal) throws SQLException;
     }
 }
@@ -76,7 +76,7 @@ public class Trigger extends AbstractJdbcTrigger implements ClickhouseConnection
             .additionalVars(this.additionalVars)
             .parameters(this.getParameters())
             .build();
-        return query.run(runContext);
+        return this.runInSession(runContext, query);
     }
 
     @Override
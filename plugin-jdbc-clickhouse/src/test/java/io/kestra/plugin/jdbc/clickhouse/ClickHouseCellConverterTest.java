@@ -0,0 +1,64 @@
+package io.kestra.plugin.jdbc.clickhouse;
+
+import io.kestra.plugin.jdbc.CellConverterBenchmark;
+import io.kestra.plugin.jdbc.StubResultSet;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class ClickHouseCellConverterTest {
+    private static final StubResultSet.Column[] COLUMNS = {
+        new StubResultSet.Column("i8", "Int8", (byte) 3),
+        new StubResultSet.Column("u16", "UInt16", 65_000),
+        new StubResultSet.Column("u64", "UInt64", new BigInteger("18446744073709551")),
+        new StubResultSet.Column("f32", "Float32", 1.5F),
+        new StubResultSet.Column("f64", "Float64", 2.5D),
+        new StubResultSet.Column("s", "String", "kestra"),
+        new StubResultSet.Column("d", "Date", Date.valueOf(LocalDate.of(2030, 12, 25))),
+        new StubResultSet.Column("dt", "DateTime", Timestamp.valueOf(LocalDateTime.of(2004, 10, 19, 10, 23, 54))),
+        new StubResultSet.Column("dtz", "DateTime64(3, 'UTC')", ZonedDateTime.of(2004, 10, 19, 10, 23, 54, 0, ZoneId.of("UTC"))),
+        new StubResultSet.Column("missing_dtz", "DateTime('UTC')", null),
+        new StubResultSet.Column("missing", "Nullable(Float64)", null)
+    };
+
+    @Test
+    void planMatchesTypes() throws SQLException {
+        var rs = new StubResultSet(1, COLUMNS).resultSet();
+        var plan = new ClickHouseCellConverter(ZoneId.of("UTC")).plan(rs, null);
+
+        assertThat(rs.next(), is(true));
+        var row = plan.toMap(rs);
+
+        assertThat(row.get("i8"), is(3));
+        assertThat(row.get("u16"), is(65_000));
+        assertThat(row.get("u64"), is(18446744073709551L));
+        assertThat(row.get("f32"), is(1.5F));
+        assertThat(row.get("d"), is(LocalDate.of(2030, 12, 25)));
+        assertThat(row.get("dt"), is(LocalDateTime.of(2004, 10, 19, 10, 23, 54)));
+        assertThat(row.get("dtz"), is(ZonedDateTime.of(2004, 10, 19, 10, 23, 54, 0, ZoneId.of("UTC"))));
+        assertThat(row.get("missing_dtz"), is(nullValue()));
+        assertThat(row.get("missing"), is(nullValue()));
+    }
+
+    @Test
+    void planMatchesPerCellDispatch() throws SQLException {
+        CellConverterBenchmark.assertSameRows(new BaselineClickHouseCellConverter(ZoneId.of("UTC")), new ClickHouseCellConverter(ZoneId.of("UTC")), COLUMNS);
+    }
+
+    @Test
+    @Disabled("Benchmark, run manually")
+    void benchmark() throws SQLException {
+        CellConverterBenchmark.run("clickhouse", new BaselineClickHouseCellConverter(ZoneId.of("UTC")), new ClickHouseCellConverter(ZoneId.of("UTC")), 100_000, COLUMNS);
+    }
+}
@@ -77,7 +77,7 @@ public class Trigger extends AbstractJdbcTrigger implements Db2ConnectionInterfa
             .parameters(this.getParameters())
             .build();
 
-        return query.run(runContext);
+        return this.runInSession(runContext, query);
     }
 
     @Override
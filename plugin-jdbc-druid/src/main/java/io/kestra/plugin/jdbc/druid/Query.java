@@ -77,6 +77,11 @@ public class Query extends AbstractJdbcQuery implements DruidConnectionInterface
         return conn.createStatement();
     }
 
+    @Override
+    protected PreparedStatement createPreparedStatement(Connection conn, String preparedSql) throws SQLException {
+        return conn.prepareStatement(preparedSql);
+    }
+
     @Override
     protected Integer getFetchSize(RunContext runContext) throws IllegalVariableEvaluationException {
         return runContext.render(this.fetchSize).as(Integer.class).orElse(10000);
@@ -75,7 +75,7 @@ public class Trigger extends AbstractJdbcTrigger implements DruidConnectionInter
             .additionalVars(this.additionalVars)
             .parameters(this.getParameters())
             .build();
-        return query.run(runContext);
+        return this.runInSession(runContext, query);
     }
 
     @Override
@@ -66,7 +66,7 @@ public class Trigger extends AbstractJdbcTrigger implements HanaConnectionInterf
             .parameters(this.getParameters())
             .build();
 
-        return query.run(runContext);
+        return this.runInSession(runContext, query);
     }
 
     @Override
@@ -1,10 +1,20 @@
 package io.kestra.plugin.jdbc.mariadb;
 
 import io.kestra.plugin.jdbc.JdbcConnectionInterface;
+import io.kestra.plugin.jdbc.SessionReset;
+import org.mariadb.jdbc.Connection;
 
 public interface MariaDbConnectionInterface extends JdbcConnectionInterface {
     @Override
     default String getScheme() {
         return "jdbc:mariadb";
     }
+
+    // sends COM_RESET_CONNECTION when useResetConnection is set (see MariaDbUtils), which also deallocates the
+    // prepared statements, and resets the driver state
+    @Override
+    default SessionReset sessionReset() {
+        SessionReset reset = connection -> connection.unwrap(Connection.class).reset();
+        return reset.droppingStatements();
+    }
 }
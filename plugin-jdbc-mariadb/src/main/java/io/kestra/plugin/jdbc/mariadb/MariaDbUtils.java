@@ -15,6 +15,9 @@ public abstract class MariaDbUtils {
         // By default, ResultSets are completely retrieved and stored in memory.
         builder.replaceQueryParam("useCursorFetch", true);
 
+        // let the session reset of pooled connections clear the server state too
+        builder.replaceQueryParam("useResetConnection", true);
+
         builder.scheme("jdbc:mariadb");
 
         if (isMultiQuery) {
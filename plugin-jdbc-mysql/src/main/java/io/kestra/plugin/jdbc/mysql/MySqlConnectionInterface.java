@@ -1,6 +1,8 @@
 package io.kestra.plugin.jdbc.mysql;
 
+import com.mysql.cj.jdbc.JdbcConnection;
 import io.kestra.plugin.jdbc.JdbcConnectionInterface;
+import io.kestra.plugin.jdbc.SessionReset;
 import io.micronaut.http.uri.UriBuilder;
 
 import java.net.URI;
@@ -13,6 +15,20 @@ public interface MySqlConnectionInterface extends JdbcConnectionInterface {
         return "jdbc:mysql";
     }
 
+    // resets session variables, temp tables, prepared statements and settings on the server, like a new connection
+    @Override
+    default SessionReset sessionReset() {
+        SessionReset reset = connection -> connection.unwrap(JdbcConnection.class).resetServerState();
+        return reset.droppingStatements();
+    }
+
+    // client side cache of parsed statements: server side ones (useServerPrepStmts) would not survive the session reset
+    @Override
+    default void configureStatementCache(Properties props, int size) {
+        props.putIfAbsent("cachePrepStmts", String.valueOf(size > 0));
+        props.putIfAbsent("prepStmtCacheSize", String.valueOf(size));
+    }
+
     default Properties createMysqlProperties(Properties props, Path workingDirectory,
                                              boolean isMultiQuery) {
         URI url = URI.create((String) props.get("jdbc.url"));
@@ -2,6 +2,7 @@ package io.kestra.plugin.jdbc.oracle;
 
 import io.kestra.plugin.jdbc.AbstractCellConverter;
 import io.kestra.plugin.jdbc.AbstractJdbcBatch;
+import io.kestra.plugin.jdbc.ColumnPlan;
 import lombok.SneakyThrows;
 
 import java.io.ByteArrayOutputStream;
@@ -24,10 +25,20 @@ public class OracleCellConverter extends AbstractCellConverter {
         super(zoneId);
     }
 
+    @Override
+    public Object convertCell(int columnIndex, ResultSet rs, Connection connection) throws SQLException {
+        return columnReader(columnIndex, rs.getMetaData(), connection).read(rs);
+    }
+
+    @Override
+    protected ColumnPlan.ColumnReader columnReader(int columnIndex, ResultSetMetaData meta, Connection connection) throws SQLException {
+        boolean isDate = meta.getColumnTypeName(columnIndex).equals("DATE");
+        return rs -> convertValue(columnIndex, rs, connection, isDate);
+    }
+
     @SneakyThrows
     @SuppressWarnings("deprecation")
-    @Override
-    public Object convertCell(int columnIndex, ResultSet rs, Connection connection) {
+    private Object convertValue(int columnIndex, ResultSet rs, Connection connection, boolean isDate) {
         final Object data = rs.getObject(columnIndex);
 
         if (data == null) {
@@ -83,12 +94,11 @@ public class OracleCellConverter extends AbstractCellConverter {
             return col.toLocalDateTime(connection);
         }
 
-        String columnTypeName = rs.getMetaData().getColumnTypeName(columnIndex);
-        if (columnTypeName.equals("DATE")) {
+        if (isDate) {
             return ((Timestamp) data).toLocalDateTime();
         }
 
-        return super.convert(columnIndex, rs);
+        return super.convert(data, columnIndex, rs);
     }
 
     @Override
@@ -78,7 +78,7 @@ public class Trigger extends AbstractJdbcTrigger implements OracleConnectionInte
             .additionalVars(this.additionalVars)
             .parameters(this.getParameters())
             .build();
-        return query.run(runContext);
+        return this.runInSession(runContext, query);
     }
     @Override
     public void registerDriver() throws SQLException {
@@ -0,0 +1,50 @@
+package io.kestra.plugin.jdbc.oracle;
+
+import io.kestra.plugin.jdbc.CellConverterBenchmark;
+import io.kestra.plugin.jdbc.StubResultSet;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class OracleCellConverterTest {
+    private static final StubResultSet.Column[] COLUMNS = {
+        new StubResultSet.Column("ID", "NUMBER", new BigDecimal("42")),
+        new StubResultSet.Column("NAME", "VARCHAR2", "John"),
+        new StubResultSet.Column("CREATED", "DATE", Timestamp.valueOf(LocalDateTime.of(2024, 5, 6, 7, 8, 9))),
+        new StubResultSet.Column("UPDATED", "TIMESTAMP", new oracle.sql.TIMESTAMP(Timestamp.valueOf(LocalDateTime.of(2024, 5, 6, 7, 8, 9)))),
+        new StubResultSet.Column("MISSING", "VARCHAR2", null)
+    };
+
+    @Test
+    void planMatchesTypes() throws SQLException {
+        var rs = new StubResultSet(1, COLUMNS).resultSet();
+        var plan = new OracleCellConverter(ZoneId.of("UTC")).plan(rs, null);
+
+        assertThat(rs.next(), is(true));
+        var row = plan.toMap(rs);
+
+        assertThat(row.get("ID"), is(new BigDecimal("42")));
+        assertThat(row.get("CREATED"), is(LocalDateTime.of(2024, 5, 6, 7, 8, 9)));
+        assertThat(row.get("UPDATED"), is(LocalDateTime.of(2024, 5, 6, 7, 8, 9)));
+        assertThat(row.get("MISSING"), is(nullValue()));
+    }
+
+    @Test
+    void planMatchesPerCellDispatch() throws SQLException {
+        CellConverterBenchmark.assertSameRows(new BaselineOracleCellConverter(ZoneId.of("UTC")), new OracleCellConverter(ZoneId.of("UTC")), COLUMNS);
+    }
+
+    @Test
+    @Disabled("Benchmark, run manually")
+    void benchmark() throws SQLException {
+        CellConverterBenchmark.run("oracle", new BaselineOracleCellConverter(ZoneId.of("UTC")), new OracleCellConverter(ZoneId.of("UTC")), 100_000, COLUMNS);
+    }
+}
@@ -0,0 +1,18 @@
+package io.kestra.plugin.jdbc.parquet;
+
+import io.kestra.plugin.jdbc.ColumnarRowWriter;
+import io.kestra.plugin.jdbc.StoreFormat;
+
+import java.io.OutputStream;
+
+public class ParquetFormat implements ColumnarRowWriter.Provider {
+    @Override
+    public StoreFormat format() {
+        return StoreFormat.PARQUET;
+    }
+
+    @Override
+    public ColumnarRowWriter open(OutputStream output, ColumnarRowWriter.Options options) {
+        return new ParquetRowWriter(output, options.parquetRowGroupSize(), options.zoneId());
+    }
+}
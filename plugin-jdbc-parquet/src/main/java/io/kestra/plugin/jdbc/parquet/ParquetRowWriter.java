@@ -0,0 +1,240 @@
+package io.kestra.plugin.jdbc.parquet;
+
+import io.kestra.plugin.jdbc.ColumnPlan;
+import io.kestra.plugin.jdbc.ColumnarRowWriter;
+import io.kestra.plugin.jdbc.StoreColumn;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
+import org.apache.parquet.schema.Types;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Writes STORE rows from a ResultSet to a Parquet file. The Parquet schema is derived from the
+ * {@link ResultSetMetaData} and every converted row is handed to the column writers directly, so rows are buffered
+ * column by column in the current row group without building any intermediate record.
+ */
+final class ParquetRowWriter implements ColumnarRowWriter {
+    private final OutputStream output;
+    private final long rowGroupSize;
+    private final ZoneId zoneId;
+
+    private ParquetWriter<Object[]> writer;
+    private ColumnPlan plan;
+    private Object[] values;
+
+    ParquetRowWriter(OutputStream output, long rowGroupSize, ZoneId zoneId) {
+        this.output = output;
+        this.rowGroupSize = rowGroupSize;
+        this.zoneId = zoneId;
+    }
+
+    @Override
+    public ParquetRowWriter start(ColumnPlan plan, ResultSetMetaData meta) throws SQLException, IOException {
+        if (this.writer != null) {
+            if (!Arrays.equals(this.plan.labels(), plan.labels())) {
+                throw new IllegalArgumentException("Parquet output only supports result sets with the same columns, got " +
+                    Arrays.toString(plan.labels()) + " after " + Arrays.toString(this.plan.labels()));
+            }
+            this.plan = plan;
+            return this;
+        }
+
+        this.writer = new Builder(new StreamOutputFile(this.output), new RowWriteSupport(StoreColumn.of(plan, meta), this.zoneId))
+            .withCompressionCodec(CompressionCodecName.SNAPPY)
+            .withRowGroupSize(this.rowGroupSize)
+            .build();
+        this.plan = plan;
+        this.values = new Object[plan.size()];
+
+        return this;
+    }
+
+    @Override
+    public void write(ResultSet rs) throws SQLException, IOException {
+        for (int i = 0; i < this.values.length; i++) {
+            this.values[i] = this.plan.read(rs, i);
+        }
+
+        this.writer.write(this.values);
+    }
+
+    @Override
+    public void write(Object[] row) throws IOException {
+        this.writer.write(row);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.writer != null) {
+            this.writer.close();
+        }
+    }
+
+    private static Type type(StoreColumn column) {
+        String name = column.name();
+        return switch (column.kind()) {
+            case BOOLEAN -> Types.optional(PrimitiveTypeName.BOOLEAN).named(name);
+            case INT -> Types.optional(PrimitiveTypeName.INT32).named(name);
+            case LONG -> Types.optional(PrimitiveTypeName.INT64).named(name);
+            case FLOAT -> Types.optional(PrimitiveTypeName.FLOAT).named(name);
+            case DOUBLE -> Types.optional(PrimitiveTypeName.DOUBLE).named(name);
+            case DECIMAL -> Types.optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.decimalType(column.scale(), column.precision())).named(name);
+            case DATE -> Types.optional(PrimitiveTypeName.INT32).as(LogicalTypeAnnotation.dateType()).named(name);
+            case TIME -> Types.optional(PrimitiveTypeName.INT64).as(LogicalTypeAnnotation.timeType(false, LogicalTypeAnnotation.TimeUnit.MICROS)).named(name);
+            case TIMESTAMP -> Types.optional(PrimitiveTypeName.INT64).as(LogicalTypeAnnotation.timestampType(true, LogicalTypeAnnotation.TimeUnit.MICROS)).named(name);
+            case BINARY -> Types.optional(PrimitiveTypeName.BINARY).named(name);
+            case STRING -> Types.optional(PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named(name);
+        };
+    }
+
+    private static class Builder extends ParquetWriter.Builder<Object[], Builder> {
+        private final RowWriteSupport writeSupport;
+
+        private Builder(OutputFile file, RowWriteSupport writeSupport) {
+            super(file);
+            this.writeSupport = writeSupport;
+        }
+
+        @Override
+        protected Builder self() {
+            return this;
+        }
+
+        @Override
+        protected WriteSupport<Object[]> getWriteSupport(Configuration conf) {
+            return this.writeSupport;
+        }
+    }
+
+    /**
+     * Parquet only appends to its output, so the file can be written to a plain stream as long as the position is tracked.
+     */
+    private record StreamOutputFile(OutputStream output) implements OutputFile {
+        @Override
+        public PositionOutputStream create(long blockSizeHint) {
+            return new PositionOutputStream() {
+                private long position;
+
+                @Override
+                public long getPos() {
+                    return this.position;
+                }
+
+                @Override
+                public void write(int b) throws IOException {
+                    output.write(b);
+                    this.position++;
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    output.write(b, off, len);
+                    this.position += len;
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    output.flush();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    output.close();
+                }
+            };
+        }
+
+        @Override
+        public PositionOutputStream createOrOverwrite(long blockSizeHint) {
+            return create(blockSizeHint);
+        }
+
+        @Override
+        public boolean supportsBlockSize() {
+            return false;
+        }
+
+        @Override
+        public long defaultBlockSize() {
+            return 0;
+        }
+    }
+
+    private static class RowWriteSupport extends WriteSupport<Object[]> {
+        private final StoreColumn[] columns;
+        private final MessageType schema;
+        private final ZoneId zoneId;
+        private RecordConsumer consumer;
+
+        private RowWriteSupport(StoreColumn[] columns, ZoneId zoneId) {
+            this.columns = columns;
+            this.schema = new MessageType("row", Arrays.stream(columns).map(ParquetRowWriter::type).toList());
+            this.zoneId = zoneId;
+        }
+
+        @Override
+        public WriteContext init(Configuration configuration) {
+            return new WriteContext(this.schema, Map.of());
+        }
+
+        @Override
+        public void prepareForWrite(RecordConsumer recordConsumer) {
+            this.consumer = recordConsumer;
+        }
+
+        @Override
+        public void write(Object[] row) {
+            this.consumer.startMessage();
+            for (int i = 0; i < this.columns.length; i++) {
+                Object value = row[i];
+                if (value == null) {
+                    continue;
+                }
+
+                StoreColumn column = this.columns[i];
+                this.consumer.startField(column.name(), i);
+                try {
+                    writeValue(column, value);
+                } catch (RuntimeException e) {
+                    throw column.unsupported(value, "Parquet", e);
+                }
+                this.consumer.endField(column.name(), i);
+            }
+            this.consumer.endMessage();
+        }
+
+        private void writeValue(StoreColumn column, Object value) {
+            switch (column.kind()) {
+                case BOOLEAN -> this.consumer.addBoolean(StoreColumn.asBoolean(value));
+                case INT -> this.consumer.addInteger(StoreColumn.asNumber(value).intValue());
+                case LONG -> this.consumer.addLong(StoreColumn.asNumber(value).longValue());
+                case FLOAT -> this.consumer.addFloat(StoreColumn.asNumber(value).floatValue());
+                case DOUBLE -> this.consumer.addDouble(StoreColumn.asNumber(value).doubleValue());
+                case DECIMAL -> this.consumer.addBinary(Binary.fromConstantByteArray(column.asDecimal(value).unscaledValue().toByteArray()));
+                case DATE -> this.consumer.addInteger((int) StoreColumn.asDate(value).toEpochDay());
+                case TIME -> this.consumer.addLong(StoreColumn.asTimeMicros(value));
+                case TIMESTAMP -> this.consumer.addLong(StoreColumn.asTimestampMicros(value, this.zoneId));
+                case BINARY -> this.consumer.addBinary(Binary.fromConstantByteArray((byte[]) value));
+                case STRING -> this.consumer.addBinary(Binary.fromString(StoreColumn.asString(value)));
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package io.kestra.plugin.jdbc.parquet;
+
+import io.kestra.plugin.jdbc.AbstractCellConverter;
+import io.kestra.plugin.jdbc.StubResultSet;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetReader;
+import org.apache.parquet.hadoop.api.ReadSupport;
+import org.apache.parquet.hadoop.example.GroupReadSupport;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.LocalInputFile;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class ParquetRowWriterTest {
+    private static final StubResultSet.Column[] COLUMNS = {
+        new StubResultSet.Column("id", "int4", Types.INTEGER, 1),
+        new StubResultSet.Column("name", "varchar", Types.VARCHAR, "John"),
+        new StubResultSet.Column("amount", "numeric", Types.NUMERIC, new BigDecimal("12.50")),
+        new StubResultSet.Column("birth", "date", Types.DATE, Date.valueOf(LocalDate.of(1990, 1, 2))),
+        new StubResultSet.Column("created", "timestamp", Types.TIMESTAMP, Timestamp.valueOf(LocalDateTime.of(2024, 5, 6, 7, 8, 9))),
+        new StubResultSet.Column("missing", "varchar", Types.VARCHAR, null),
+        new StubResultSet.Column("id", "int8", Types.BIGINT, 2L)
+    };
+
+    @TempDir
+    Path tempDir;
+
+    private static AbstractCellConverter converter() {
+        return new AbstractCellConverter(ZoneId.of("UTC")) {
+            @Override
+            public Object convertCell(int columnIndex, ResultSet rs, Connection connection) throws SQLException {
+                return super.convert(columnIndex, rs);
+            }
+        };
+    }
+
+    @Test
+    void schemaIsDerivedFromMetadata() throws SQLException, IOException {
+        Path file = write(3);
+
+        try (var reader = ParquetFileReader.open(new LocalInputFile(file))) {
+            var schema = reader.getFooter().getFileMetaData().getSchema();
+
+            assertThat(reader.getRecordCount(), is(3L));
+            assertThat(schema.getFieldCount(), is(7));
+            assertThat(schema.getType("id").asPrimitiveType().getPrimitiveTypeName(), is(PrimitiveTypeName.INT32));
+            assertThat(schema.getType("name").getLogicalTypeAnnotation(), is(LogicalTypeAnnotation.stringType()));
+            assertThat(schema.getType("amount").getLogicalTypeAnnotation(), is(LogicalTypeAnnotation.decimalType(2, 4)));
+            assertThat(schema.getType("birth").getLogicalTypeAnnotation(), is(LogicalTypeAnnotation.dateType()));
+            assertThat(schema.getType("created").getLogicalTypeAnnotation(), is(LogicalTypeAnnotation.timestampType(true, LogicalTypeAnnotation.TimeUnit.MICROS)));
+            // duplicated labels get a positional suffix
+            assertThat(schema.getType("id_7").asPrimitiveType().getPrimitiveTypeName(), is(PrimitiveTypeName.INT64));
+        }
+    }
+
+    @Test
+    void rowsCanBeReadBack() throws SQLException, IOException {
+        Path file = write(2);
+
+        try (var reader = new GroupReader(new LocalInputFile(file)).build()) {
+            Group row = reader.read();
+
+            assertThat(row.getInteger("id", 0), is(1));
+            assertThat(row.getString("name", 0), is("John"));
+            assertThat(new BigDecimal(new java.math.BigInteger(row.getBinary("amount", 0).getBytes()), 2), is(new BigDecimal("12.50")));
+            assertThat(row.getInteger("birth", 0), is((int) LocalDate.of(1990, 1, 2).toEpochDay()));
+            assertThat(row.getFieldRepetitionCount("missing"), is(0));
+            assertThat(row.getLong("id_7", 0), is(2L));
+
+            assertThat(reader.read(), notNullValue());
+            assertThat(reader.read(), nullValue());
+        }
+    }
+
+    private Path write(int rows) throws SQLException, IOException {
+        Path file = tempDir.resolve("out.parquet");
+        var rs = new StubResultSet(rows, COLUMNS).resultSet();
+        var plan = converter().plan(rs, null);
+
+        try (var output = new FileOutputStream(file.toFile()); var writer = new ParquetRowWriter(output, 1024 * 1024, ZoneId.of("UTC"))) {
+            writer.start(plan, rs.getMetaData());
+            while (rs.next()) {
+                writer.write(rs);
+            }
+        }
+
+        return file;
+    }
+
+    private static class GroupReader extends ParquetReader.Builder<Group> {
+        private GroupReader(InputFile file) {
+            super(file);
+        }
+
+        @Override
+        protected ReadSupport<Group> getReadSupport() {
+            return new GroupReadSupport();
+        }
+    }
+}
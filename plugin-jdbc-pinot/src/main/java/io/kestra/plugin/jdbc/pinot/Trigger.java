@@ -77,7 +77,7 @@ public class Trigger extends AbstractJdbcTrigger implements PinotConnectionInter
             .fetchSize(this.getFetchSize())
             .additionalVars(this.additionalVars)
             .build();
-        return query.run(runContext);
+        return this.runInSession(runContext, query);
     }
 
     @Override
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import io.kestra.core.serializers.JacksonMapper;
 import io.kestra.plugin.jdbc.AbstractCellConverter;
 import io.kestra.plugin.jdbc.AbstractJdbcBatch;
+import io.kestra.plugin.jdbc.ColumnPlan;
 import org.postgresql.jdbc.PgArray;
 import org.postgresql.util.PGInterval;
 import org.postgresql.util.PGobject;
@@ -12,11 +13,13 @@ import org.postgresql.util.HStoreConverter;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.LocalTime;
 import java.time.ZoneId;
-import java.util.Map;
 
 public class PostgresCellConverter extends AbstractCellConverter {
     public PostgresCellConverter(ZoneId zoneId) {
@@ -25,35 +28,53 @@ public class PostgresCellConverter extends AbstractCellConverter {
 
     @Override
     public Object convertCell(int columnIndex, ResultSet rs, Connection connection) throws SQLException {
+        return columnReader(columnIndex, rs.getMetaData(), connection).read(rs);
+    }
 
-        Object data = rs.getObject(columnIndex);
-
-        if (data == null) {
-            return null;
-        }
-
-        String pgColumnType = rs.getMetaData().getColumnTypeName(columnIndex);
-
-        switch (pgColumnType.toLowerCase()) {
-            case "time":
-                return LocalTime.parse(rs.getTime(columnIndex).toString());
-            case "timetz":
-            case "time with time zone":
+    @Override
+    protected ColumnPlan.ColumnReader columnReader(int columnIndex, ResultSetMetaData meta, Connection connection) throws SQLException {
+        String pgColumnType = meta.getColumnTypeName(columnIndex);
+
+        return switch (pgColumnType.toLowerCase()) {
+            case "time" -> rs -> {
+                Time time = rs.getTime(columnIndex);
+                return time == null ? null : LocalTime.parse(time.toString());
+            };
+            case "timetz", "time with time zone" -> rs -> {
                 // FIXME : Since Time uses 01-01-1970 by default, timezone needs to be adjusted
-                return LocalTime.from(rs.getTimestamp(columnIndex).toInstant().atZone(zoneId));
-            case "timestamp":
-                return rs.getTimestamp(columnIndex).toLocalDateTime();
-            case "timestamptz":
-            case "timestamp with time zone":
-                return rs.getTimestamp(columnIndex).toInstant().atZone(zoneId);
-            case "interval":
-                PGInterval interval = (PGInterval) data;
+                Timestamp timestamp = rs.getTimestamp(columnIndex);
+                return timestamp == null ? null : LocalTime.from(timestamp.toInstant().atZone(zoneId));
+            };
+            case "timestamp" -> rs -> {
+                Timestamp timestamp = rs.getTimestamp(columnIndex);
+                return timestamp == null ? null : timestamp.toLocalDateTime();
+            };
+            case "timestamptz", "timestamp with time zone" -> rs -> {
+                Timestamp timestamp = rs.getTimestamp(columnIndex);
+                return timestamp == null ? null : timestamp.toInstant().atZone(zoneId);
+            };
+            case "interval" -> rs -> {
+                PGInterval interval = (PGInterval) rs.getObject(columnIndex);
+                if (interval == null) {
+                    return null;
+                }
                 // Returns an iso 8601 duration format
                 return getISO8601Interval(interval.getYears(), interval.getMonths(), interval.getDays(), interval.getHours(), interval.getMinutes(), (int) interval.getSeconds());
-            case "hstore":
+            };
+            case "hstore" -> rs -> {
                 // Convert hstore to a Map<String, String>
-                Map<String, String> hstoreMap = HStoreConverter.fromString(rs.getString(columnIndex));
-                return hstoreMap;
+                String hstore = rs.getString(columnIndex);
+                return hstore == null ? null : HStoreConverter.fromString(hstore);
+            };
+            default -> rs -> convertObject(columnIndex, rs);
+        };
+    }
+
+    private Object convertObject(int columnIndex, ResultSet rs) throws SQLException {
+        Object data = rs.getObject(columnIndex);
+
+        if (data == null) {
+            return null;
         }
 
         Class<?> clazz = data.getClass();
@@ -86,7 +107,7 @@ public class PostgresCellConverter extends AbstractCellConverter {
             }
         }
 
-        return super.convert(columnIndex, rs);
+        return super.convert(data, columnIndex, rs);
     }
 
     private String getISO8601Interval(int years, int months, int days, int hours, int minutes, int seconds) {
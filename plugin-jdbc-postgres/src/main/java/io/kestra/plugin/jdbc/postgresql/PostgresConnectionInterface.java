@@ -3,8 +3,11 @@ package io.kestra.plugin.jdbc.postgresql;
 import io.kestra.core.models.annotations.PluginProperty;
 import io.kestra.core.models.property.Property;
 import io.kestra.plugin.jdbc.JdbcConnectionInterface;
+import io.kestra.plugin.jdbc.SessionReset;
 import io.swagger.v3.oas.annotations.media.Schema;
 
+import java.util.Properties;
+
 public interface PostgresConnectionInterface extends JdbcConnectionInterface {
     @Schema(
         title = "Is the connection SSL?"
@@ -58,4 +61,25 @@ public interface PostgresConnectionInterface extends JdbcConnectionInterface {
     default String getScheme() {
         return "jdbc:postgresql";
     }
+
+    // drops temp tables, prepared statements, cursors, advisory locks and resets settings (search_path, ...) in one round trip
+    @Override
+    default SessionReset sessionReset() {
+        return SessionReset.sql("DISCARD ALL").droppingStatements();
+    }
+
+    // pgjdbc re-prepares on its own after DISCARD ALL; 0 also stops preparing statements server side
+    @Override
+    default void configureStatementCache(Properties props, int size) {
+        props.putIfAbsent("preparedStatementCacheQueries", String.valueOf(size));
+        if (size == 0) {
+            props.putIfAbsent("prepareThreshold", "0");
+        }
+    }
+
+    // pgjdbc only reads rows by fetchSize through a portal, which it opens outside autocommit
+    @Override
+    default boolean fetchesInTransaction() {
+        return true;
+    }
 }
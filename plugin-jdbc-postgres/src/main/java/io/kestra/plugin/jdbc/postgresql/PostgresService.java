@@ -1,7 +1,7 @@
 package io.kestra.plugin.jdbc.postgresql;
 
-import io.kestra.core.exceptions.IllegalVariableEvaluationException;
 import io.kestra.core.runners.RunContext;
+import io.kestra.plugin.jdbc.TlsMaterialCache;
 import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.bouncycastle.openssl.PEMDecryptorProvider;
@@ -18,7 +18,6 @@ import org.bouncycastle.pkcs.PKCSException;
 
 import java.io.IOException;
 import java.io.StringReader;
-import java.nio.charset.StandardCharsets;
 import java.security.PrivateKey;
 import java.security.Provider;
 import java.security.Security;
@@ -35,17 +34,22 @@ public abstract class PostgresService {
             properties.put("sslmode", runContext.render(conn.getSslMode()).as(PostgresConnectionInterface.SslMode.class).orElseThrow().name().toUpperCase(Locale.ROOT).replace("_", "-"));
         }
 
+        // Certificate and key files are addressed by their content, so the connection properties (and the pool key)
+        // are the same for every execution using the same material.
         if (conn.getSslRootCert() != null) {
-            properties.put("sslrootcert", runContext.workingDir().createTempFile(runContext.render(conn.getSslRootCert()).as(String.class).orElseThrow().getBytes(StandardCharsets.UTF_8), ".pem").toAbsolutePath().toString());
+            properties.put("sslrootcert", TlsMaterialCache.file(runContext.render(conn.getSslRootCert()).as(String.class).orElseThrow(), ".pem").toAbsolutePath().toString());
         }
 
         if (conn.getSslCert() != null) {
-            properties.put("sslcert", runContext.workingDir().createTempFile(runContext.render(conn.getSslCert()).as(String.class).orElseThrow().getBytes(StandardCharsets.UTF_8), ".pem").toAbsolutePath().toString());
+            properties.put("sslcert", TlsMaterialCache.file(runContext.render(conn.getSslCert()).as(String.class).orElseThrow(), ".pem").toAbsolutePath().toString());
         }
 
         if (conn.getSslKey() != null) {
-            properties.put("sslkey", convertPrivateKey(runContext, runContext.render(conn.getSslKey()).as(String.class).orElse(null),
-                runContext.render(conn.getSslKeyPassword()).as(String.class).orElse(null)));
+            String key = runContext.render(runContext.render(conn.getSslKey()).as(String.class).orElse(null));
+            String password = runContext.render(conn.getSslKeyPassword()).as(String.class).orElse(null);
+            byte[] der = TlsMaterialCache.parsed("postgres-sslkey", () -> convertPrivateKey(key, password), key, password);
+            // the decrypted key only stays on disk while a connection or a pool needs it
+            properties.put("sslkey", TlsMaterialCache.secretFile(der, ".der").toAbsolutePath().toString());
         }
 
         if (conn.getSslKeyPassword() != null) {
@@ -53,9 +57,9 @@ public abstract class PostgresService {
         }
     }
 
-    private static Object readPem(RunContext runContext, String vars) throws IllegalVariableEvaluationException, IOException {
+    private static Object readPem(String pem) throws IOException {
         try (
-            StringReader reader = new StringReader(runContext.render(vars));
+            StringReader reader = new StringReader(pem);
             PEMParser pemParser = new PEMParser(reader)
         ) {
             return pemParser.readObject();
@@ -69,10 +73,10 @@ public abstract class PostgresService {
         }
     }
 
-    private static String convertPrivateKey(RunContext runContext, String vars, String password) throws IOException, IllegalVariableEvaluationException, PKCSException, OperatorCreationException {
+    private static byte[] convertPrivateKey(String pem, String password) throws IOException, PKCSException, OperatorCreationException {
         PostgresService.addProvider();
 
-        Object pemObject = readPem(runContext, vars);
+        Object pemObject = readPem(pem);
 
         PrivateKeyInfo keyInfo;
         if (pemObject instanceof PEMEncryptedKeyPair) {
@@ -104,6 +108,6 @@ public abstract class PostgresService {
 
         PrivateKey privateKey = new JcaPEMKeyConverter().getPrivateKey(keyInfo);
 
-        return runContext.workingDir().createTempFile(privateKey.getEncoded(), ".der").toAbsolutePath().toString();
+        return privateKey.getEncoded();
     }
 }
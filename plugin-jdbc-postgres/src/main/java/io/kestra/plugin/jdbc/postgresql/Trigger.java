@@ -90,7 +90,7 @@ public class Trigger extends AbstractJdbcTrigger implements PostgresConnectionIn
             .additionalVars(this.additionalVars)
             .parameters(this.getParameters())
             .build();
-        return query.run(runContext);
+        return this.runInSession(runContext, query);
     }
 
     @Override
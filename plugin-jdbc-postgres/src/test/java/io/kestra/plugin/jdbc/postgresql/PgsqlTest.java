@@ -27,6 +27,7 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.time.*;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.stream.Stream;
@@ -205,6 +206,38 @@ public class PgsqlTest extends AbstractRdbmsTest {
         }
     }
 
+    @Test
+    void storeStreamsResultThroughAPortal() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+
+        // pgjdbc only reads rows through a named portal (C_n) outside autocommit and with a positive fetchSize,
+        // otherwise it reads the whole result in memory through the unnamed one
+        Query task = Query.builder()
+            .url(Property.ofValue(TestUtils.url()))
+            .username(Property.ofValue(TestUtils.username()))
+            .password(Property.ofValue(TestUtils.password()))
+            .ssl(Property.ofValue(TestUtils.ssl()))
+            .sslMode(Property.ofValue(TestUtils.sslMode()))
+            .sslRootCert(Property.ofValue(TestUtils.ca()))
+            .sslCert(Property.ofValue(TestUtils.cert()))
+            .sslKey(Property.ofValue(TestUtils.keyNoPass()))
+            .fetchType(Property.ofValue(STORE))
+            .fetchSize(Property.ofValue(1000))
+            .sql(Property.ofValue("""
+                SELECT g AS id, EXISTS(SELECT 1 FROM pg_cursors WHERE name LIKE 'C\\_%') AS portal
+                FROM generate_series(1, 2500) g"""))
+            .build();
+
+        AbstractJdbcQuery.Output runOutput = task.run(runContext);
+        assertThat(runOutput.getSize(), is(2500L));
+
+        try (var inputStream = new BufferedInputStream(this.storageInterface.get(TenantService.MAIN_TENANT, null, runOutput.getUri()))) {
+            List<Object> rows = FileSerde.readAll(inputStream).collectList().block();
+            assertThat(rows, hasSize(2500));
+            assertThat(rows.stream().allMatch(row -> Boolean.TRUE.equals(((Map<?, ?>) row).get("portal"))), is(true));
+        }
+    }
+
     @Test
     void selectWithCompositeType() throws Exception {
 
@@ -0,0 +1,58 @@
+package io.kestra.plugin.jdbc.postgresql;
+
+import io.kestra.plugin.jdbc.CellConverterBenchmark;
+import io.kestra.plugin.jdbc.StubResultSet;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.postgresql.util.PGInterval;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class PostgresCellConverterTest {
+    private static final StubResultSet.Column[] COLUMNS = {
+        new StubResultSet.Column("id", "int4", 1),
+        new StubResultSet.Column("name", "varchar", "John"),
+        new StubResultSet.Column("amount", "numeric", new BigDecimal("12.50")),
+        new StubResultSet.Column("time_type", "time", Time.valueOf(LocalTime.of(3, 4, 5))),
+        new StubResultSet.Column("timestamp_type", "timestamp", Timestamp.valueOf(LocalDateTime.of(2024, 5, 6, 7, 8, 9))),
+        new StubResultSet.Column("timestampz_type", "timestamptz", Timestamp.valueOf(LocalDateTime.of(2024, 5, 6, 7, 8, 9))),
+        new StubResultSet.Column("interval_type", "interval", new PGInterval(1, 2, 3, 4, 5, 6)),
+        new StubResultSet.Column("missing", "timestamptz", null)
+    };
+
+    @Test
+    void planMatchesTypes() throws SQLException {
+        var rs = new StubResultSet(1, COLUMNS).resultSet();
+        var plan = new PostgresCellConverter(ZoneId.of("UTC")).plan(rs, null);
+
+        assertThat(rs.next(), is(true));
+        var row = plan.toMap(rs);
+
+        assertThat(row.get("time_type"), is(LocalTime.of(3, 4, 5)));
+        assertThat(row.get("timestamp_type"), is(LocalDateTime.of(2024, 5, 6, 7, 8, 9)));
+        assertThat(row.get("timestampz_type"), instanceOf(ZonedDateTime.class));
+        assertThat(row.get("interval_type"), is("P1Y2M3DT4H5M6S"));
+        assertThat(row.get("missing"), is(nullValue()));
+    }
+
+    @Test
+    void planMatchesPerCellDispatch() throws SQLException {
+        CellConverterBenchmark.assertSameRows(new BaselinePostgresCellConverter(ZoneId.of("UTC")), new PostgresCellConverter(ZoneId.of("UTC")), COLUMNS);
+    }
+
+    @Test
+    @Disabled("Benchmark, run manually")
+    void benchmark() throws SQLException {
+        CellConverterBenchmark.run("postgres", new BaselinePostgresCellConverter(ZoneId.of("UTC")), new PostgresCellConverter(ZoneId.of("UTC")), 100_000, COLUMNS);
+    }
+}
@@ -3,14 +3,19 @@ package io.kestra.plugin.jdbc.postgresql;
 import io.kestra.core.junit.annotations.KestraTest;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.runners.RunContext;
+import io.kestra.core.tenant.TenantService;
+import io.kestra.core.utils.IdUtils;
 import io.kestra.plugin.jdbc.AbstractJdbcQueries;
 import io.kestra.plugin.jdbc.AbstractRdbmsTest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
@@ -286,6 +291,104 @@ public class QueriesPostgresTest extends AbstractRdbmsTest {
         assertThat(names, containsInAnyOrder("test_no_rollback_success_1", "test_no_rollback_success_2"));
     }
 
+    @Test
+    void testBatchedUpdatesAreFlushedBeforeSelects() throws Exception {
+        RunContext runContext = runContextFactory.of(Collections.emptyMap());
+
+        Queries queries = Queries.builder()
+            .url(Property.ofValue(getUrl()))
+            .username(Property.ofValue(getUsername()))
+            .password(Property.ofValue(getPassword()))
+            .fetchType(Property.ofValue(FETCH_ONE))
+            .timeZoneId(Property.ofValue("Europe/Paris"))
+            .sql(Property.ofValue("""
+                DROP TABLE IF EXISTS batched;
+                CREATE TABLE batched (id INT);
+                INSERT INTO batched VALUES (1);
+                INSERT INTO batched VALUES (2);
+                SELECT count(*) AS first_count FROM batched;
+                INSERT INTO batched VALUES (3);
+                UPDATE batched SET id = id * 10;
+                INSERT INTO batched VALUES (4) RETURNING id;
+                SELECT sum(id) AS total FROM batched;
+                """))
+            .build();
+
+        AbstractJdbcQueries.MultiQueryOutput runOutput = queries.run(runContext);
+
+        assertThat(runOutput.getOutputs().size(), is(3));
+        assertThat(runOutput.getOutputs().get(0).getRow().get("first_count"), is(2L));
+        assertThat(runOutput.getOutputs().get(1).getRow().get("id"), is(4));
+        assertThat(runOutput.getOutputs().get(2).getRow().get("total"), is(64L));
+    }
+
+    @Test
+    void testScriptFromStorage() throws Exception {
+        RunContext runContext = runContextFactory.of(Collections.emptyMap());
+
+        StringBuilder script = new StringBuilder("""
+            DROP TABLE IF EXISTS streamed;
+            CREATE TABLE streamed (id INT, note TEXT);
+            """);
+        for (int i = 0; i < 5_000; i++) {
+            script.append("INSERT INTO streamed VALUES (").append(i).append(", 'row; ").append(i).append("');\n");
+        }
+        script.append("SELECT count(*) AS streamed_count FROM streamed;");
+        URI uri = storageInterface.put(
+            TenantService.MAIN_TENANT,
+            null,
+            URI.create("/" + IdUtils.create() + ".sql"),
+            new ByteArrayInputStream(script.toString().getBytes(StandardCharsets.UTF_8))
+        );
+
+        Queries queries = Queries.builder()
+            .url(Property.ofValue(getUrl()))
+            .username(Property.ofValue(getUsername()))
+            .password(Property.ofValue(getPassword()))
+            .fetchType(Property.ofValue(FETCH_ONE))
+            .timeZoneId(Property.ofValue("Europe/Paris"))
+            .from(Property.ofValue(uri.toString()))
+            .build();
+
+        AbstractJdbcQueries.MultiQueryOutput runOutput = queries.run(runContext);
+
+        assertThat(runOutput.getOutputs().size(), is(1));
+        assertThat(runOutput.getOutputs().getFirst().getRow().get("streamed_count"), is(5_000L));
+    }
+
+    @Test
+    void testParallelQueriesKeepScriptOrder() throws Exception {
+        RunContext runContext = runContextFactory.of(Collections.emptyMap());
+
+        Queries queries = Queries.builder()
+            .url(Property.ofValue(getUrl()))
+            .username(Property.ofValue(getUsername()))
+            .password(Property.ofValue(getPassword()))
+            .fetchType(Property.ofValue(FETCH_ONE))
+            .timeZoneId(Property.ofValue("Europe/Paris"))
+            .transaction(Property.ofValue(false))
+            .parallelism(Property.ofValue(3))
+            .sql(Property.ofValue("""
+                DROP TABLE IF EXISTS parallel_a;
+                DROP TABLE IF EXISTS parallel_b;
+                CREATE TABLE parallel_a (id INT);
+                CREATE TABLE parallel_b (id INT);
+                INSERT INTO parallel_a SELECT generate_series(1, 10);
+                INSERT INTO parallel_b SELECT generate_series(1, 20);
+                SELECT count(*) AS a_count, pg_sleep(0.5)::text AS slept FROM parallel_a;
+                SELECT count(*) AS b_count FROM parallel_b;
+                """))
+            .build();
+
+        AbstractJdbcQueries.MultiQueryOutput runOutput = queries.run(runContext);
+
+        // the count of parallel_b ends first, its output still comes second
+
+        assertThat(runOutput.getOutputs().size(), is(2));
+        assertThat(runOutput.getOutputs().get(0).getRow().get("a_count"), is(10L));
+        assertThat(runOutput.getOutputs().get(1).getRow().get("b_count"), is(20L));
+    }
+
     @Test
     void testDoDollarBlock() throws Exception {
         RunContext runContext = runContextFactory.of(Collections.emptyMap());
@@ -0,0 +1,54 @@
+package io.kestra.plugin.jdbc.postgresql;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import jakarta.inject.Inject;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+@KestraTest
+class QueryValidationTest {
+    @Inject
+    protected Validator validator;
+
+    @Test
+    void queryWithoutSqlFailsValidation() {
+        var task = Query.builder()
+            .id("test")
+            .type(Query.class.getName())
+            .url(Property.ofValue(TestUtils.url()))
+            .build();
+
+        var violations = validator.validate(task).stream().map(ConstraintViolation::getMessage).toList();
+
+        assertThat(violations, hasSize(1));
+        assertThat(violations.getFirst(), is("`sql` is required"));
+    }
+
+    @Test
+    void queriesNeedsExactlyOneOfSqlAndFrom() {
+        assertThat(violations(null, null), is(List.of("Exactly one of `sql` and `from` must be set")));
+        assertThat(violations("SELECT 1", "kestra:///script.sql"), is(List.of("Exactly one of `sql` and `from` must be set")));
+        assertThat(violations("SELECT 1", null), hasSize(0));
+        assertThat(violations(null, "kestra:///script.sql"), hasSize(0));
+    }
+
+    private List<String> violations(String sql, String from) {
+        var task = Queries.builder()
+            .id("test")
+            .type(Queries.class.getName())
+            .url(Property.ofValue(TestUtils.url()))
+            .sql(sql == null ? null : Property.ofValue(sql))
+            .from(from == null ? null : Property.ofValue(from))
+            .build();
+
+        return validator.validate(task).stream().map(ConstraintViolation::getMessage).toList();
+    }
+}
@@ -0,0 +1,67 @@
+package io.kestra.plugin.jdbc.postgresql;
+
+import io.kestra.plugin.jdbc.SessionReset;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Giving a pooled connection back costs a session reset, which must stay cheaper than opening a new connection.
+ */
+@Slf4j
+class SessionResetTest {
+    private static final int ROUNDS = 50;
+
+    private static final SessionReset RESET = new QueriesPostgresTest.PostgresConnection().sessionReset();
+
+    @Test
+    void resetIsCheaperThanConnect() throws Exception {
+        long[] connects = new long[ROUNDS];
+        long[] resets = new long[ROUNDS];
+
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            try (Connection connection = connect()) {
+                connects[i] = System.nanoTime() - start;
+            }
+        }
+
+        try (Connection connection = connect()) {
+            for (int i = 0; i < ROUNDS; i++) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET search_path TO public");
+                    statement.execute("CREATE TEMP TABLE IF NOT EXISTS reset_test (id int)");
+                }
+
+                long start = System.nanoTime();
+                RESET.reset(connection);
+                resets[i] = System.nanoTime() - start;
+            }
+        }
+
+        Duration connect = median(connects);
+        Duration reset = median(resets);
+        log.info("PostgreSQL median over {} rounds: connect {} µs, DISCARD ALL {} µs", ROUNDS, connect.toNanos() / 1000, reset.toNanos() / 1000);
+
+        assertThat(reset, lessThan(connect));
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection("jdbc:postgresql://127.0.0.1:56983/", TestUtils.username(), TestUtils.password());
+    }
+
+    private static Duration median(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return Duration.ofNanos(sorted[sorted.length / 2]);
+    }
+}
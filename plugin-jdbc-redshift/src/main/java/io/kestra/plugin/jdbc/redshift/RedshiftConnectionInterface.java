@@ -1,10 +1,23 @@
 package io.kestra.plugin.jdbc.redshift;
 
 import io.kestra.plugin.jdbc.JdbcConnectionInterface;
+import io.kestra.plugin.jdbc.SessionReset;
 
 public interface RedshiftConnectionInterface extends JdbcConnectionInterface {
     @Override
     default String getScheme() {
         return "jdbc:redshift";
     }
+
+    // Redshift has no DISCARD, only the settings (search_path, ...) can be reset
+    @Override
+    default SessionReset sessionReset() {
+        return SessionReset.sql("RESET ALL");
+    }
+
+    // like pgjdbc it derives from, the driver only uses a cursor for fetchSize outside autocommit
+    @Override
+    default boolean fetchesInTransaction() {
+        return true;
+    }
 }
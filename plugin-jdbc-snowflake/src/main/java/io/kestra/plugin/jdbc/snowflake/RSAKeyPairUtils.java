@@ -1,5 +1,6 @@
 package io.kestra.plugin.jdbc.snowflake;
 
+import io.kestra.plugin.jdbc.TlsMaterialCache;
 import lombok.extern.slf4j.Slf4j;
 import org.bouncycastle.asn1.ASN1Sequence;
 import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
@@ -37,8 +38,19 @@ public class RSAKeyPairUtils {
      * - PEM PKCS1 RSA ("BEGIN RSA PRIVATE KEY")
      * - encrypted PKCS8 (if password provided)
      * - multiline keys
+     * <p>
+     * Parsed keys are cached for the worker, keyed by the hash of the key and its password.
      */
     public static PrivateKey deserializePrivateKey(String privateKey, Optional<String> privateKeyPassword) {
+        return TlsMaterialCache.parsed(
+            "snowflake-private-key",
+            () -> parsePrivateKey(privateKey, privateKeyPassword),
+            privateKey,
+            privateKeyPassword.orElse(null)
+        );
+    }
+
+    private static PrivateKey parsePrivateKey(String privateKey, Optional<String> privateKeyPassword) {
         try {
             if (privateKey.contains("BEGIN")) {
                 log.info("Trying to parse private key as PEM format");
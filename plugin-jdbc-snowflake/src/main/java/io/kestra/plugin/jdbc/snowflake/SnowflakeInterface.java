@@ -5,8 +5,13 @@ import io.kestra.core.models.annotations.PluginProperty;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.runners.RunContext;
 import io.kestra.plugin.jdbc.JdbcConnectionInterface;
+import io.kestra.plugin.jdbc.SessionReset;
 import io.swagger.v3.oas.annotations.media.Schema;
 
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 
@@ -163,4 +168,24 @@ public interface SnowflakeInterface extends JdbcConnectionInterface {
     default String getScheme() {
         return "jdbc:snowflake";
     }
+
+    // Only session variables are unset: session parameters set by ALTER SESSION can't be told apart from the ones set
+    // by the connection properties (query_tag, ...) and the driver at login.
+    @Override
+    default SessionReset sessionReset() {
+        return connection -> {
+            try (Statement statement = connection.createStatement()) {
+                List<String> variables = new ArrayList<>();
+                try (ResultSet rs = statement.executeQuery("SHOW VARIABLES")) {
+                    while (rs.next()) {
+                        variables.add("\"" + rs.getString("name").replace("\"", "\"\"") + "\"");
+                    }
+                }
+
+                if (!variables.isEmpty()) {
+                    statement.execute("UNSET (" + String.join(", ", variables) + ")");
+                }
+            }
+        };
+    }
 }
@@ -113,7 +113,7 @@ public class Trigger extends AbstractJdbcTrigger implements SnowflakeInterface {
         if(this.getPrivateKeyPassword() != null) {
             queryBuilder.privateKeyPassword(this.getPrivateKeyPassword());
         }
-        return queryBuilder.build().run(runContext);
+        return this.runInSession(runContext, queryBuilder.build());
     }
 
     @Override
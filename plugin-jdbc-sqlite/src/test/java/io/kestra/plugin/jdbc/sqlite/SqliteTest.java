@@ -7,7 +7,12 @@ import io.kestra.core.runners.RunContext;
 import io.kestra.core.tenant.TenantService;
 import io.kestra.plugin.jdbc.AbstractJdbcQuery;
 import io.kestra.plugin.jdbc.AbstractRdbmsTest;
+import io.kestra.plugin.jdbc.StoreFormat;
 import org.apache.commons.codec.binary.Hex;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.io.LocalInputFile;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type;
 import org.junit.jupiter.api.Test;
 
 import java.io.FileInputStream;
@@ -15,6 +20,9 @@ import java.io.FileNotFoundException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
@@ -125,6 +133,26 @@ public class SqliteTest extends AbstractRdbmsTest {
         assertThat(row2.get("timestamp_column"), is(Instant.parse("2012-12-26T12:06:28Z")));
     }
 
+    @Test
+    void selectWithMaxRows() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+
+        Query task = Query.builder()
+            .url(Property.ofValue(getUrl()))
+            .username(Property.ofValue(getUsername()))
+            .password(Property.ofValue(getPassword()))
+            .fetchType(Property.ofValue(FETCH))
+            .maxRows(Property.ofValue(2))
+            .timeZoneId(Property.ofValue("UTC"))
+            .sql(Property.ofValue("SELECT id FROM lite_types ORDER BY id"))
+            .build();
+
+        AbstractJdbcQuery.Output runOutput = task.run(runContext);
+        assertThat(runOutput.getRows(), hasSize(2));
+        assertThat(runOutput.getSize(), is(2L));
+        assertThat(runOutput.getRows().get(1).get("id"), is(2));
+    }
+
     @Test
     void selectFromExistingDatabase() throws Exception {
         RunContext runContext = runContextFactory.of(ImmutableMap.of());
@@ -406,6 +434,37 @@ public class SqliteTest extends AbstractRdbmsTest {
         assertThat(readOutput.getRow().get("name"), is("hello"));
     }
 
+    @Test
+    void storeParquet() throws Exception {
+        RunContext runContext = runContextFactory.of(ImmutableMap.of());
+
+        Query task = Query.builder()
+            .url(Property.ofValue(getUrl()))
+            .fetchType(Property.ofValue(STORE))
+            .storeFormat(Property.ofValue(StoreFormat.PARQUET))
+            .sql(Property.ofValue("SELECT id, text_column, int_column FROM lite_types"))
+            .build();
+
+        AbstractJdbcQuery.Output runOutput = task.run(runContext);
+        assertThat(runOutput.getUri().getPath(), endsWith(".parquet"));
+        assertThat(runOutput.getSize(), greaterThan(0L));
+
+        Path file = Files.createTempFile("store", ".parquet");
+        try (var inputStream = this.storageInterface.get(TenantService.MAIN_TENANT, null, runOutput.getUri())) {
+            Files.copy(inputStream, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        try (var reader = ParquetFileReader.open(new LocalInputFile(file))) {
+            var schema = reader.getFooter().getFileMetaData().getSchema();
+
+            assertThat(reader.getRecordCount(), is(runOutput.getSize()));
+            assertThat(schema.getFields().stream().map(Type::getName).toList(), contains("id", "text_column", "int_column"));
+            assertThat(schema.getType("id").asPrimitiveType().getPrimitiveTypeName(), is(PrimitiveTypeName.INT32));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
     @Override
     protected String getUrl() {
         return TestUtils.url();
@@ -3,8 +3,13 @@ package io.kestra.plugin.jdbc.sqlserver;
 import io.kestra.core.models.annotations.PluginProperty;
 import io.kestra.core.models.property.Property;
 import io.kestra.plugin.jdbc.JdbcConnectionInterface;
+import io.kestra.plugin.jdbc.SessionReset;
 import io.swagger.v3.oas.annotations.media.Schema;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+
 public interface SqlServerConnectionInterface extends JdbcConnectionInterface {
     @Schema(
         title = "Whether to encrypt the connection",
@@ -65,4 +70,33 @@ public interface SqlServerConnectionInterface extends JdbcConnectionInterface {
     default String getScheme() {
         return "jdbc:sqlserver";
     }
+
+    // JDBC 4.3 requests: the driver rolls back, closes the statements and restores the database and connection settings
+    // of the request start, without a round trip
+    @Override
+    default SessionReset sessionReset() {
+        return new SessionReset() {
+            @Override
+            public void begin(Connection connection) throws SQLException {
+                connection.beginRequest();
+            }
+
+            @Override
+            public void reset(Connection connection) throws SQLException {
+                connection.endRequest();
+            }
+
+            // endRequest closes the statements, prepared statement handles are cached by the driver instead
+            @Override
+            public boolean dropsStatements() {
+                return true;
+            }
+        };
+    }
+
+    @Override
+    default void configureStatementCache(Properties props, int size) {
+        props.putIfAbsent("disableStatementPooling", String.valueOf(size == 0));
+        props.putIfAbsent("statementPoolingCacheSize", String.valueOf(size));
+    }
 }
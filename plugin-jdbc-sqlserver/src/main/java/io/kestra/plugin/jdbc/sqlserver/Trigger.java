@@ -93,7 +93,7 @@ public class Trigger extends AbstractJdbcTrigger implements SqlServerConnectionI
             .trustStore(this.getTrustStore())
             .trustStorePassword(this.getTrustStorePassword())
             .build();
-        return query.run(runContext);
+        return this.runInSession(runContext, query);
     }
 
     @Override
@@ -79,7 +79,7 @@ public class Trigger extends AbstractJdbcTrigger implements SybaseConnectionInte
             .parameters(this.getParameters())
             .build();
 
-        return query.run(runContext);
+        return this.runInSession(runContext, query);
     }
 
     @Override
@@ -74,7 +74,7 @@ public class Trigger extends AbstractJdbcTrigger implements TrinoConnectionInter
             .fetchType(Property.ofValue(this.renderFetchType(runContext)))
             .additionalVars(this.additionalVars)
             .build();
-        return query.run(runContext);
+        return this.runInSession(runContext, query);
     }
 
     @Override
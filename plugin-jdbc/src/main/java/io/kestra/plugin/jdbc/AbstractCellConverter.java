@@ -1,7 +1,5 @@
 package io.kestra.plugin.jdbc;
 
-import com.google.common.collect.ImmutableList;
-
 import java.io.ByteArrayInputStream;
 import java.io.StringReader;
 import java.math.BigDecimal;
@@ -24,7 +22,34 @@ public abstract class AbstractCellConverter {
 
     public abstract Object convertCell(int columnIndex, ResultSet rs, Connection connection) throws SQLException;
 
-    private static final List<Class<?>> SIMPLE_TYPES = ImmutableList.of(
+    /**
+     * Build the conversion plan for a ResultSet, resolving one reader per column from its metadata.
+     * Must be called once per ResultSet, before iterating over its rows.
+     */
+    public ColumnPlan plan(ResultSet rs, Connection connection) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int count = meta.getColumnCount();
+
+        String[] labels = new String[count];
+        ColumnPlan.ColumnReader[] readers = new ColumnPlan.ColumnReader[count];
+        for (int i = 0; i < count; i++) {
+            labels[i] = meta.getColumnLabel(i + 1); // JDBC columns are 1-based
+            readers[i] = columnReader(i + 1, meta, connection);
+        }
+
+        return new ColumnPlan(labels, readers);
+    }
+
+    /**
+     * Resolve the reader for a single column. Converters override this to specialize on the column type once
+     * per ResultSet instead of inspecting the metadata for every cell; the default delegates to
+     * {@link #convertCell(int, ResultSet, Connection)}.
+     */
+    protected ColumnPlan.ColumnReader columnReader(int columnIndex, ResultSetMetaData meta, Connection connection) throws SQLException {
+        return rs -> convertCell(columnIndex, rs, connection);
+    }
+
+    private static final Set<Class<?>> SIMPLE_TYPES = Set.of(
         java.lang.String.class,
         java.lang.Boolean.class,
         java.lang.Integer.class,
@@ -37,7 +62,14 @@ public abstract class AbstractCellConverter {
     );
 
     protected Object convert(int columnIndex, ResultSet rs) throws SQLException {
-        Object data = rs.getObject(columnIndex);
+        return convert(rs.getObject(columnIndex), columnIndex, rs);
+    }
+
+    /**
+     * Same as {@link #convert(int, ResultSet)} for a value already read from the ResultSet,
+     * so converters that inspect the value first don't fetch it twice.
+     */
+    protected Object convert(Object data, int columnIndex, ResultSet rs) throws SQLException {
         if (data == null) {
             return null;
         }
@@ -1,6 +1,7 @@
 package io.kestra.plugin.jdbc;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import io.kestra.core.exceptions.IllegalVariableEvaluationException;
 import io.kestra.core.models.annotations.PluginProperty;
 import io.kestra.core.models.assets.Custom;
@@ -10,21 +11,22 @@ import io.kestra.core.models.tasks.common.FetchType;
 import io.kestra.core.queues.QueueException;
 import io.kestra.core.runners.AssetEmit;
 import io.kestra.core.runners.RunContext;
-import io.kestra.core.serializers.FileSerde;
+import io.kestra.core.utils.IdUtils;
 import io.kestra.core.utils.Rethrow;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
 
-import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.URI;
 import java.sql.*;
+import java.time.Duration;
 import java.time.ZoneId;
 import java.util.*;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -49,15 +51,17 @@ public abstract class AbstractJdbcBaseQuery extends Task implements JdbcQueryInt
     @PluginProperty(group = "advanced")
     private Property<String> timeZoneId;
 
-    // Off-switch for the rare flow whose SQL keeps state on the connection (e.g. SET search_path) that must not leak to the next pooled run.
+    // Off-switch for flows keeping state on the connection (e.g. SET search_path) on databases without a full session reset.
     @Schema(
         title = "Reuse database connections via a connection pool",
         description = """
             When true (default), connections are pooled and reused across executions, keyed by URL and \
-            credentials, removing the connect and TLS-handshake cost on each run. Set to false if your SQL \
-            relies on session state persisting on the connection (for example SET search_path, session-scoped \
-            temp tables or variables), since pooled connections are reused. Embedded drivers (DuckDB, SQLite, \
-            MS Access) never pool regardless of this setting."""
+            credentials, removing the connect and TLS-handshake cost on each run. The session of a connection \
+            is reset before it goes back to the pool on PostgreSQL, MySQL and MariaDB; SQL Server restores the \
+            connection settings and database, Redshift the settings and Snowflake unsets session variables. \
+            Set to false if your SQL relies on other session state persisting on the connection (for example \
+            SET search_path, session-scoped temp tables or variables), since pooled connections are reused. \
+            Embedded drivers (DuckDB, SQLite, MS Access) never pool regardless of this setting."""
     )
     @Builder.Default
     @PluginProperty(group = "advanced")
@@ -74,13 +78,80 @@ public abstract class AbstractJdbcBaseQuery extends Task implements JdbcQueryInt
     @PluginProperty(group = "advanced")
     private Property<Integer> connectionPoolSize = Property.ofValue(10);
 
+    @Schema(
+        title = "Prepared statements kept open per pooled connection",
+        description = """
+            Number of prepared statements cached on each pooled connection, keyed by SQL text, so that a statement run \
+            again, e.g. by the next execution, is not parsed and planned again by the driver and \
+            the server. Least recently used statements are closed first. When set, it also sizes the driver's own \
+            statement cache (PostgreSQL preparedStatementCacheQueries, MySQL cachePrepStmts and prepStmtCacheSize, \
+            SQL Server statement pooling) unless the URL sets them; 0 disables both. Not set by default: no statement \
+            is kept open by the pool and drivers keep their defaults. The pool does not keep statements open for \
+            databases whose session reset drops them (PostgreSQL, MySQL, MariaDB, SQL Server), only their driver \
+            cache is used there. Elsewhere, cached statements stay open across the session reset of their connection, \
+            only set it for SQL that does not depend on session state. Ignored when connectionPooling is false."""
+    )
+    @PluginProperty(group = "advanced")
+    private Property<Integer> statementCacheSize;
+
+    @Schema(
+        title = "Connection scope",
+        description = """
+            TASK (default) gives every task its own connection. EXECUTION keeps the connection open on the worker \
+            and reuses it for the following tasks of the same execution having the same connection settings and \
+            connectionScope EXECUTION, so session state such as temp tables or SET statements is shared between them. \
+            A task starting while the shared connection is used by another task of the execution (parallel branches) \
+            gets its own connection. Transactions are not shared: uncommitted work is rolled back when a task ends."""
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<ConnectionScope> connectionScope = Property.ofValue(ConnectionScope.TASK);
+
+    @Schema(
+        title = "Idle time before an execution-scoped connection is closed",
+        description = "With connectionScope EXECUTION, the shared connection is closed once no task used it for this duration. Default 10 minutes."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Duration> connectionScopeIdleTimeout = Property.ofValue(Duration.ofMinutes(10));
+
+    @Schema(
+        title = "Maximum number of tasks connected to the database at the same time on the worker",
+        description = """
+            Limits the tasks of the worker using this database (same host, port and database, whatever the user, \
+            driver properties or connection pool) that hold a connection at the same time, to protect the database \
+            from connection storms and lock thrashing, e.g. during a backfill. A task only starts while fewer tasks \
+            than its own limit are connected; the others wait in line, see concurrencyFairness. The time spent \
+            waiting is reported in the concurrency.wait.duration metric. Not limited by default."""
+    )
+    @PluginProperty(group = "advanced")
+    private Property<Integer> maxDatabaseConcurrency;
+
+    @Schema(
+        title = "Order in which tasks waiting for maxDatabaseConcurrency are let in",
+        description = """
+            FIFO (default) lets waiting tasks in by arrival order. NAMESPACE makes namespaces take turns, in \
+            proportion to concurrencyWeight, so a namespace queuing many tasks does not delay the others."""
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<ConcurrencyFairness> concurrencyFairness = Property.ofValue(ConcurrencyFairness.FIFO);
+
+    @Schema(
+        title = "Share of the turns given to this task's namespace with concurrencyFairness NAMESPACE",
+        description = "A namespace with weight 2 gets in twice as often as a namespace with weight 1 when both are waiting. Default 1."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Integer> concurrencyWeight = Property.ofValue(1);
+
     @Schema(
         title = "SQL statement(s) to execute",
         description = """
             Runs one or more SQL statements rendered with flow variables.
-            Query tasks accept a single statement; Queries tasks can execute multiple statements separated by semicolons"""
+            Query tasks accept a single statement; Queries tasks can execute multiple statements separated by semicolons. \
+            Required, except for Queries tasks reading their script from `from`"""
     )
-    @NotNull
     @PluginProperty(language = MonacoLanguages.SQL, group = "main")
     protected Property<String> sql;
 
@@ -116,7 +187,7 @@ public abstract class AbstractJdbcBaseQuery extends Task implements JdbcQueryInt
 
     @Schema(
         title = "Result fetching mode",
-        description = "FETCH returns all rows, FETCH_ONE returns the first row only, STORE streams rows to internal storage (ION), NONE returns no data. Default: NONE"
+        description = "FETCH returns all rows, FETCH_ONE returns the first row only, STORE streams rows to internal storage (see storeFormat), NONE returns no data. Default: NONE"
     )
     @NotNull
     @Builder.Default
@@ -125,15 +196,142 @@ public abstract class AbstractJdbcBaseQuery extends Task implements JdbcQueryInt
 
     @Schema(
         title = "Number of rows to fetch per database round trip",
-        description = "Controls JDBC fetch size for STORE mode. Default: 10,000 rows; use Integer.MIN_VALUE for MySQL streaming. Ignored for FETCH and FETCH_ONE"
+        description = """
+            Controls JDBC fetch size for STORE mode. Default: 10,000 rows; use Integer.MIN_VALUE for MySQL streaming. Ignored for FETCH and FETCH_ONE, \
+            except on PostgreSQL and Redshift where STORE and FETCH queries run in a transaction, committed once the rows are read, \
+            so that the driver streams rows by fetchSize instead of reading the whole result in memory."""
     )
     @Builder.Default
     @PluginProperty(group = "execution")
     protected Property<Integer> fetchSize = Property.ofValue(10000);
 
+    @Schema(
+        title = "Maximum number of rows to return per result set",
+        description = """
+            Used when fetchType is FETCH or STORE; FETCH_ONE is always limited to a single row. The limit is pushed \
+            to the driver with `setMaxRows` so the database stops sending rows, and the statement is cancelled if a \
+            driver ignores it. Default: no limit"""
+    )
+    @PluginProperty(group = "execution")
+    protected Property<Integer> maxRows;
+
+    @Schema(
+        title = "File format of stored results",
+        description = """
+            Only used when fetchType is STORE. ION (default) writes one row per line in Amazon Ion text format, \
+            ION_BINARY writes the same rows in the smaller and faster to parse Amazon Ion binary format. \
+            PARQUET writes a compressed columnar file and ARROW an Arrow IPC stream (`.arrows`) that can be \
+            read without parsing by DuckDB, pandas or polars. For both columnar formats the schema is derived from the \
+            result set metadata; columns without a native type are stored as strings, arrays and maps as JSON. \
+            PARQUET and ARROW are only available in the plugins bundling them (PostgreSQL, SQLite). \
+            ARROW requires the worker JVM to run with `--add-opens=java.base/java.nio=ALL-UNNAMED`."""
+    )
+    @Builder.Default
+    @PluginProperty(group = "destination")
+    protected Property<StoreFormat> storeFormat = Property.ofValue(StoreFormat.ION);
+
+    @Schema(
+        title = "Compression of stored ION results",
+        description = """
+            Only used when storeFormat is ION or ION_BINARY; PARQUET is always compressed. Default: NONE. \
+            The JDBC Batch tasks decode every ION encoding and compression transparently; other tasks reading the \
+            file may only support uncompressed text ION."""
+    )
+    @Builder.Default
+    @PluginProperty(group = "destination")
+    protected Property<StoreCompression> storeCompression = Property.ofValue(StoreCompression.NONE);
+
+    @Schema(
+        title = "Parquet row group size in bytes",
+        description = "Only used when storeFormat is PARQUET. Rows are buffered in memory until a row group reaches this size. Default: 128 MiB"
+    )
+    @Builder.Default
+    @PluginProperty(group = "destination")
+    protected Property<Long> parquetRowGroupSize = Property.ofValue(128L * 1024 * 1024);
+
+    @Schema(
+        title = "Number of rows per Arrow record batch",
+        description = "Only used when storeFormat is ARROW. Rows are buffered in Arrow vectors until a batch is full. Default: 10,000 rows"
+    )
+    @Builder.Default
+    @PluginProperty(group = "destination")
+    protected Property<Integer> arrowBatchSize = Property.ofValue(10000);
+
+    @Schema(
+        title = "Maximum number of rows per stored file",
+        description = """
+            Only used when fetchType is STORE. Splits the results into several files, starting a new one once the \
+            current file holds this many rows; the files are listed in the `uris` output and each one is uploaded as \
+            soon as it is closed. Can be combined with storeShardBytes, whichever limit is reached first wins."""
+    )
+    @PluginProperty(group = "destination")
+    protected Property<Long> storeShardRows;
+
+    @Schema(
+        title = "Maximum size in bytes per stored file",
+        description = """
+            Only used when fetchType is STORE. Splits the results into several files, starting a new one once the \
+            current file reaches this size after compression. The size is checked after each row, so a file can be \
+            slightly larger; PARQUET and ARROW only grow when a row group or a batch is flushed."""
+    )
+    @PluginProperty(group = "destination")
+    protected Property<Long> storeShardBytes;
+
+    @Schema(
+        title = "Columns whose values route each row to a stored file",
+        description = """
+            Only used when fetchType is STORE, together with storeShardCount. Rows are split into storeShardCount \
+            files by a hash of these columns, so rows with the same values always end up in the same file. \
+            Cannot be combined with storeShardRows or storeShardBytes. Every file stays open until the end of the \
+            result set, so PARQUET and ARROW buffer one row group or batch per file."""
+    )
+    @PluginProperty(group = "destination")
+    protected Property<List<String>> storeShardKeys;
+
+    @Schema(
+        title = "Number of stored files when sharding by storeShardKeys",
+        description = "Only used when fetchType is STORE and storeShardKeys is set. Files that receive no row are not created"
+    )
+    @PluginProperty(group = "destination")
+    protected Property<Integer> storeShardCount;
+
+    @Schema(
+        title = "Maximum number of rows kept in memory by FETCH",
+        description = """
+            Only used when fetchType is FETCH. Once more rows are fetched, fetchBudgetAction decides whether the \
+            rows are stored to internal storage or the task fails. Default: no limit"""
+    )
+    @PluginProperty(group = "execution")
+    protected Property<Long> fetchRowBudget;
+
+    @Schema(
+        title = "Maximum estimated memory in bytes used by FETCH rows",
+        description = """
+            Only used when fetchType is FETCH. The heap size of the converted values is estimated while rows are \
+            fetched; once it goes over this budget, fetchBudgetAction decides whether the rows are stored to \
+            internal storage or the task fails. Default: no limit"""
+    )
+    @PluginProperty(group = "execution")
+    protected Property<Long> fetchMemoryBudget;
+
+    @Schema(
+        title = "What FETCH does when fetchRowBudget or fetchMemoryBudget is exceeded",
+        description = """
+            STORE (default) writes every row as ION to internal storage, like fetchType STORE with storeCompression, \
+            and returns `uri` instead of `rows`. FAIL stops fetching and fails the task."""
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    protected Property<FetchBudgetAction> fetchBudgetAction = Property.ofValue(FetchBudgetAction.STORE);
+
     @Schema(
         title = "Named parameter bindings for SQL query",
-        description = "Map of parameter names to values. Use :name placeholders rendered then bound as prepared-statement parameters; supports nulls and typed values"
+        description = """
+            Map of parameter names to values. Use :name placeholders rendered then bound as prepared-statement parameters; supports nulls and typed values. \
+            A list value is bound as a SQL array in `= ANY(:name)` or `ALL(:name)` (PostgreSQL and other databases with arrays), \
+            and expanded to one placeholder per element anywhere else, e.g. `IN (:name)`; \
+            expanded lists are padded to a power of two by repeating their last element so that similar sizes reuse the same prepared statement, \
+            and an empty list is bound as NULL."""
     )
     @PluginProperty(group = "advanced")
     protected Property<Map<String, Object>> parameters;
@@ -155,6 +353,14 @@ public abstract class AbstractJdbcBaseQuery extends Task implements JdbcQueryInt
     @Getter(AccessLevel.NONE)
     protected transient Map<String, Object> additionalVars = new HashMap<>();
 
+    // time spent in each phase by the running task, see startPhaseTimers()
+    @Getter(AccessLevel.NONE)
+    private transient volatile PhaseTimers phaseTimers;
+
+    // uploads of STORE results the running task does not wait for, see deferUploads()
+    @Getter(AccessLevel.NONE)
+    private transient volatile PendingUploads pendingUploads;
+
     private static final List<String> MULTI_STATEMENT_DRIVERS = List.of(
         "redshift",
         "snowflake",
@@ -170,6 +376,42 @@ public abstract class AbstractJdbcBaseQuery extends Task implements JdbcQueryInt
         );
     }
 
+    /**
+     * Start timing the phases of a new run, the task reports them with {@link PhaseTimers#report} once it is done.
+     */
+    PhaseTimers startPhaseTimers() {
+        PhaseTimers timers = new PhaseTimers();
+        this.phaseTimers = timers;
+        return timers;
+    }
+
+    PhaseTimers phaseTimers() {
+        PhaseTimers timers = this.phaseTimers;
+        return timers == null ? startPhaseTimers() : timers;
+    }
+
+    /**
+     * Let the uploads of the STORE results of the running task end in the background, see {@link PendingUploads}.
+     * The task places its outputs with {@link PendingUploads#place} and waits for them before returning.
+     */
+    PendingUploads deferUploads(PhaseTimers timers) {
+        PendingUploads uploads = new PendingUploads(timers);
+        this.pendingUploads = uploads;
+        return uploads;
+    }
+
+    PendingUploads pendingUploads() {
+        return this.pendingUploads;
+    }
+
+    void clearPendingUploads() {
+        PendingUploads uploads = this.pendingUploads;
+        this.pendingUploads = null;
+        if (uploads != null) {
+            uploads.close();
+        }
+    }
+
     protected String[] tags(RunContext runContext) throws IllegalVariableEvaluationException {
         var fetchTypeRendered = this.renderFetchType(runContext);
         return new String[]{
@@ -178,39 +420,275 @@ public abstract class AbstractJdbcBaseQuery extends Task implements JdbcQueryInt
         };
     }
 
+    /**
+     * Push the row limit of the fetch type to the driver before executing the statement, so rows that are never read
+     * are not sent to the client: FETCH_ONE needs a single row, FETCH and STORE use {@link #maxRows}.
+     */
+    protected void applyRowLimit(RunContext runContext, Statement stmt, FetchType fetchType) throws SQLException, IllegalVariableEvaluationException {
+        int limit = switch (fetchType) {
+            case FETCH_ONE -> 1;
+            case FETCH, STORE -> runContext.render(this.maxRows).as(Integer.class).orElse(0);
+            default -> 0;
+        };
+
+        if (limit <= 0) {
+            return;
+        }
+
+        try {
+            stmt.setMaxRows(limit);
+            if (fetchType == FetchType.FETCH_ONE) {
+                stmt.setFetchSize(1);
+            }
+        } catch (SQLFeatureNotSupportedException e) {
+            runContext.logger().debug("Driver does not support limiting rows: {}", e.getMessage());
+        }
+    }
+
     protected Map<String, Object> fetchResult(ResultSet rs, AbstractCellConverter cellConverter, Connection connection) throws SQLException {
-        if (rs.next()) {
-            var labels = columnLabels(rs);
-            return mapResultSetToMap(rs, labels, cellConverter, connection);
+        PhaseTimers timers = this.phaseTimers();
+        long start = System.nanoTime();
+        boolean hasRow = rs.next();
+        long fetched = System.nanoTime();
+        timers.add(PhaseTimers.Phase.FETCH, fetched - start);
+
+        if (!hasRow) {
+            return null;
         }
-        return null;
+        Map<String, Object> row = cellConverter.plan(rs, connection).toMap(rs);
+        timers.add(PhaseTimers.Phase.CONVERT, System.nanoTime() - fetched);
+        return row;
     }
 
     protected long fetchResults(Statement stmt, ResultSet rs, List<Map<String, Object>> maps, AbstractCellConverter cellConverter, Connection connection) throws SQLException {
         return fetch(stmt, rs, Rethrow.throwConsumer(maps::add), cellConverter, connection);
     }
 
+    /**
+     * Fetch all rows in memory and set them on the output, unless they go over {@link #fetchRowBudget} or
+     * {@link #fetchMemoryBudget}: then the rows are stored to internal storage and the output gets their URI instead,
+     * or the task fails, depending on {@link #fetchBudgetAction}.
+     */
+    protected long fetchResultsWithinBudget(RunContext runContext, Statement stmt, ResultSet rs, Output.OutputBuilder<?, ?> output, AbstractCellConverter cellConverter, Connection connection) throws SQLException, IOException, IllegalVariableEvaluationException {
+        long maxRows = runContext.render(this.fetchRowBudget).as(Long.class).orElse(0L);
+        long maxBytes = runContext.render(this.fetchMemoryBudget).as(Long.class).orElse(0L);
+
+        if (maxRows <= 0 && maxBytes <= 0) {
+            List<Map<String, Object>> maps = new ArrayList<>();
+            long size = fetchResults(stmt, rs, maps, cellConverter, connection);
+            output
+                .rows(maps)
+                .size(size);
+
+            return size;
+        }
+
+        FetchBudgetAction action = runContext.render(this.fetchBudgetAction).as(FetchBudgetAction.class).orElse(FetchBudgetAction.STORE);
+        StoreCompression compression = runContext.render(this.storeCompression).as(StoreCompression.class).orElse(StoreCompression.NONE);
+        var fetch = new BudgetedFetch(
+            maxRows,
+            maxBytes,
+            action,
+            input -> runContext.storage().putFile(input, IdUtils.create() + StoreFormat.ION.extension() + compression.extension()),
+            compression
+        );
+
+        long size;
+        try {
+            size = fetchWithinBudget(stmt, rs, fetch, cellConverter, connection);
+        } catch (IOException e) {
+            throw fetch.abort(e);
+        } catch (SQLException | RuntimeException e) {
+            fetch.abort(e);
+            throw e;
+        }
+
+        if (fetch.spilled()) {
+            URI uri = fetch.complete();
+            this.phaseTimers().uploaded(fetch.blockedNanos(), fetch.waitNanos());
+
+            runContext.logger().warn("FETCH went over its budget, {} rows were stored to internal storage instead of being returned as rows", size);
+            output
+                .uri(uri)
+                .size(size);
+        } else {
+            output
+                .rows(fetch.rows())
+                .size(size);
+        }
+
+        return size;
+    }
+
+    protected long fetchWithinBudget(Statement stmt, ResultSet rs, BudgetedFetch fetch, AbstractCellConverter cellConverter, Connection connection) throws SQLException, IOException {
+        return fetchRows(stmt, rs, fetch::handler, cellConverter, connection);
+    }
+
+    /**
+     * Stream all rows in the rendered {@link StoreFormat} to internal storage while they are fetched and set the
+     * resulting URI and row count on the output.
+     */
+    protected long storeResults(RunContext runContext, Statement stmt, ResultSet rs, Output.OutputBuilder<?, ?> output, AbstractCellConverter cellConverter, Connection connection) throws SQLException, IOException, IllegalVariableEvaluationException {
+        StoreFormat format = runContext.render(this.storeFormat).as(StoreFormat.class).orElse(StoreFormat.ION);
+        long rowGroupSize = runContext.render(this.parquetRowGroupSize).as(Long.class).orElse(128L * 1024 * 1024);
+        int batchSize = runContext.render(this.arrowBatchSize).as(Integer.class).orElse(10000);
+
+        StoreCompression compression = format.isIon()
+            ? runContext.render(this.storeCompression).as(StoreCompression.class).orElse(StoreCompression.NONE)
+            : StoreCompression.NONE;
+
+        StorePipeline.Upload upload = input -> runContext.storage().putFile(input, IdUtils.create() + format.extension() + compression.extension());
+
+        StoreShards shards = this.shards(runContext, upload, StoreShards.Format.of(format, compression, rowGroupSize, batchSize, cellConverter.zoneId));
+        if (shards != null) {
+            long size;
+            try {
+                size = fetchToShards(stmt, rs, shards, cellConverter, connection);
+            } catch (IOException e) {
+                throw shards.abort(e);
+            } catch (SQLException | RuntimeException e) {
+                shards.abort(e);
+                throw e;
+            }
+
+            List<URI> uris = shards.complete();
+            this.phaseTimers().uploaded(shards.blockedNanos(), shards.waitNanos());
+
+            output
+                .uris(uris)
+                .size(size);
+
+            return size;
+        }
+
+        StorePipeline.Producer producer = storeOutput -> {
+            OutputStream encoded = compression.wrap(storeOutput);
+            long size = switch (format) {
+                case ION -> fetchToFile(stmt, rs, encoded, cellConverter, connection);
+                case ION_BINARY -> fetchToBinaryIon(stmt, rs, encoded, cellConverter, connection);
+                case PARQUET, ARROW -> fetchToColumnar(stmt, rs, ColumnarFormats.open(format, encoded, new ColumnarRowWriter.Options(rowGroupSize, batchSize, cellConverter.zoneId)), cellConverter, connection);
+            };
+            // finishes the compressed stream, the pipeline itself is only completed by StorePipeline
+            encoded.close();
+            return size;
+        };
+
+        PendingUploads uploads = this.pendingUploads;
+        if (uploads != null) {
+            StorePipeline.Pending pending = StorePipeline.start(upload, producer);
+            output.size(pending.size());
+            uploads.add(pending, output);
+            return pending.size();
+        }
+
+        StorePipeline.Result stored = StorePipeline.run(upload, producer);
+        this.phaseTimers().uploaded(stored.blockedNanos(), stored.waitNanos());
+
+        output
+            .uri(stored.uri())
+            .size(stored.size());
+
+        return stored.size();
+    }
+
+    private StoreShards shards(RunContext runContext, StorePipeline.Upload upload, StoreShards.Format format) throws IllegalVariableEvaluationException {
+        long rows = runContext.render(this.storeShardRows).as(Long.class).orElse(0L);
+        long bytes = runContext.render(this.storeShardBytes).as(Long.class).orElse(0L);
+        List<String> keys = runContext.render(this.storeShardKeys).asList(String.class);
+        Integer count = runContext.render(this.storeShardCount).as(Integer.class).orElse(null);
+
+        if (!keys.isEmpty()) {
+            if (rows > 0 || bytes > 0) {
+                throw new IllegalArgumentException("storeShardKeys cannot be combined with storeShardRows or storeShardBytes");
+            }
+            if (count == null) {
+                throw new IllegalArgumentException("storeShardCount is required when storeShardKeys is set");
+            }
+            return StoreShards.hashed(upload, format, keys, count);
+        }
+
+        if (count != null) {
+            throw new IllegalArgumentException("storeShardCount requires storeShardKeys");
+        }
+
+        return rows > 0 || bytes > 0 ? StoreShards.rolling(upload, format, rows, bytes) : null;
+    }
+
+    protected long fetchToShards(Statement stmt, ResultSet rs, StoreShards shards, AbstractCellConverter cellConverter, Connection connection) throws SQLException, IOException {
+        return fetchRows(
+            stmt,
+            rs,
+            Rethrow.throwFunction(plan -> {
+                shards.start(plan, rs.getMetaData());
+                return Rethrow.throwConsumer(shards::write);
+            }),
+            cellConverter,
+            connection
+        );
+    }
+
+    protected long fetchToColumnar(Statement stmt, ResultSet rs, ColumnarRowWriter writer, AbstractCellConverter cellConverter, Connection connection) throws SQLException, IOException {
+        try (writer) {
+            return fetchRows(
+                stmt,
+                rs,
+                Rethrow.throwFunction(plan -> Rethrow.throwConsumer(writer.start(plan, rs.getMetaData())::write)),
+                cellConverter,
+                connection
+            );
+        }
+    }
+
+    protected long fetchToBinaryIon(Statement stmt, ResultSet rs, OutputStream output, AbstractCellConverter cellConverter, Connection connection) throws SQLException, IOException {
+        try (SequenceWriter sequence = IonRowWriter.binarySequence(output)) {
+            return fetchRows(
+                stmt,
+                rs,
+                plan -> Rethrow.throwConsumer(new IonRowWriter(sequence, plan)::write),
+                cellConverter,
+                connection
+            );
+        }
+    }
+
     protected long fetchToFile(Statement stmt, ResultSet rs, OutputStream output, AbstractCellConverter cellConverter, Connection connection) throws SQLException, IOException {
-        return fetch(
+        // Rows are serialized straight from the ResultSet, no intermediate map is built per row.
+        return fetchRows(
             stmt,
             rs,
-            Rethrow.throwConsumer(map -> FileSerde.write(output, map)),
+            plan -> Rethrow.throwConsumer(new IonRowWriter(output, plan)::write),
             cellConverter,
             connection
         );
     }
 
     protected long fetch(Statement stmt, ResultSet rs, Consumer<Map<String, Object>> c, AbstractCellConverter cellConverter, Connection connection) throws SQLException {
+        return fetchRows(
+            stmt,
+            rs,
+            plan -> Rethrow.throwConsumer(row -> c.accept(plan.toMap(row))),
+            cellConverter,
+            connection
+        );
+    }
+
+    /**
+     * Iterate over every row of every result set returned by the statement.
+     * The row handler is created once per result set from its {@link ColumnPlan} and receives the ResultSet positioned on each row.
+     */
+    protected long fetchRows(Statement stmt, ResultSet rs, Function<ColumnPlan, Consumer<ResultSet>> rowHandler, AbstractCellConverter cellConverter, Connection connection) throws SQLException {
         boolean hasMoreResults;
         long count = 0;
+        long limit = maxRows(stmt);
 
         do {
-            // Labels are invariant within a single ResultSet; recompute only when a new result set starts.
-            var labels = columnLabels(rs);
-            while (rs.next()) {
-                Map<String, Object> map = mapResultSetToMap(rs, labels, cellConverter, connection);
-                c.accept(map);
-                count++;
+            // Column readers are invariant within a single ResultSet; resolve them only when a new result set starts.
+            var handler = rowHandler.apply(cellConverter.plan(rs, connection));
+            long rows = readRows(rs, handler, limit);
+            count += rows;
+
+            if (limit > 0 && rows >= limit && cancelIfMoreRows(stmt, rs)) {
+                break;
             }
             hasMoreResults = stmt.getMoreResults();
         } while (hasMoreResults);
@@ -218,30 +696,70 @@ public abstract class AbstractJdbcBaseQuery extends Task implements JdbcQueryInt
         return count;
     }
 
-    // Keep the original signature so any external caller compiled against the old API still works.
-    protected Map<String, Object> mapResultSetToMap(ResultSet rs, AbstractCellConverter cellConverter, Connection connection) throws SQLException {
-        return mapResultSetToMap(rs, columnLabels(rs), cellConverter, connection);
+    /**
+     * Pass the rows of a result set to the handler, at most {@code limit} when it is positive, timing the cursor moves
+     * as fetching and the handler as converting.
+     */
+    long readRows(ResultSet rs, Consumer<ResultSet> handler, long limit) throws SQLException {
+        PhaseTimers timers = this.phaseTimers();
+        long rows = 0;
+        long fetchNanos = 0;
+        long convertNanos = 0;
+
+        try {
+            long start = System.nanoTime();
+            while ((limit <= 0 || rows < limit) && rs.next()) {
+                long fetched = System.nanoTime();
+                fetchNanos += fetched - start;
+
+                handler.accept(rs);
+                rows++;
+
+                start = System.nanoTime();
+                convertNanos += start - fetched;
+            }
+            fetchNanos += System.nanoTime() - start;
+        } finally {
+            timers.add(PhaseTimers.Phase.FETCH, fetchNanos);
+            timers.add(PhaseTimers.Phase.CONVERT, convertNanos);
+        }
+
+        return rows;
     }
 
-    Map<String, Object> mapResultSetToMap(ResultSet rs, String[] labels, AbstractCellConverter cellConverter, Connection connection) throws SQLException {
-        var map = new LinkedHashMap<String, Object>(labels.length * 2);
-        for (int i = 1; i <= labels.length; i++) {
-            map.put(labels[i - 1], convertCell(i, rs, cellConverter, connection));
+    /**
+     * The row limit set on the statement by {@link #applyRowLimit}, 0 when there is none.
+     */
+    protected static long maxRows(Statement stmt) {
+        try {
+            return stmt.getMaxRows();
+        } catch (SQLException e) {
+            return 0;
         }
-        return map;
     }
 
-    String[] columnLabels(ResultSet rs) throws SQLException {
-        var meta = rs.getMetaData();
-        var labels = new String[meta.getColumnCount()];
-        for (int i = 0; i < labels.length; i++) {
-            labels[i] = meta.getColumnLabel(i + 1); // JDBC columns are 1-based
+    /**
+     * Called once the row limit is reached: a driver that ignored it still has rows to send, so the statement is
+     * cancelled instead of letting the result set drain the rest when it is closed.
+     *
+     * @return whether the statement was cancelled, its remaining results can't be read anymore
+     */
+    protected static boolean cancelIfMoreRows(Statement stmt, ResultSet rs) throws SQLException {
+        if (!rs.next()) {
+            return false;
+        }
+
+        try {
+            stmt.cancel();
+        } catch (SQLFeatureNotSupportedException ignored) {
+            // nothing else to do, the driver will drain the result set on close
         }
-        return labels;
+        return true;
     }
 
-    private Object convertCell(int columnIndex, ResultSet rs, AbstractCellConverter cellConverter, Connection connection) throws SQLException {
-        return cellConverter.convertCell(columnIndex, rs, connection);
+    // Keep the original signature so any external caller compiled against the old API still works.
+    protected Map<String, Object> mapResultSetToMap(ResultSet rs, AbstractCellConverter cellConverter, Connection connection) throws SQLException {
+        return cellConverter.plan(rs, connection).toMap(rs);
     }
 
     public FetchType renderFetchType(RunContext runContext) throws IllegalVariableEvaluationException {
@@ -255,6 +773,13 @@ public abstract class AbstractJdbcBaseQuery extends Task implements JdbcQueryInt
         return runContext.render(fetchType).as(FetchType.class).orElseThrow();
     }
 
+    /**
+     * Whether the rows of this fetch type are streamed in a transaction, see {@link #fetchesInTransaction()}.
+     */
+    protected boolean streamsInTransaction(FetchType fetchType) {
+        return this.fetchesInTransaction() && (fetchType == FetchType.STORE || fetchType == FetchType.FETCH);
+    }
+
     protected PreparedStatement prepareStatement(final RunContext runContext,
                                                  final Connection conn,
                                                  final String sql) throws SQLException, IllegalVariableEvaluationException {
@@ -266,25 +791,10 @@ public abstract class AbstractJdbcBaseQuery extends Task implements JdbcQueryInt
             return createPreparedStatement(conn, sql);
         }
 
-        //Extract parameters in orders and replace them with '?'
-        String preparedSql = sql;
-        Pattern pattern = Pattern.compile(":\\w+");
-        Matcher matcher = pattern.matcher(preparedSql);
-
-        List<String> params = new LinkedList<>();
-
-        while (matcher.find()) {
-            String param = matcher.group();
-            params.add(param.substring(1));
-            preparedSql = matcher.replaceFirst("?");
-            matcher = pattern.matcher(preparedSql);
-        }
-
-        PreparedStatement stmt = createPreparedStatement(conn, preparedSql);
-
-        for (int i = 0; i < params.size(); i++) {
-            stmt.setObject(i + 1, namedParamsRendered.get(params.get(i)));
-        }
+        // Replace them with '?' outside literals and comments, expand the lists, then bind them by position
+        NamedParameters compiled = NamedParameters.of(sql).expand(namedParamsRendered);
+        PreparedStatement stmt = createPreparedStatement(conn, compiled.sql());
+        compiled.bind(stmt, namedParamsRendered);
 
         return stmt;
     }
@@ -295,9 +805,10 @@ public abstract class AbstractJdbcBaseQuery extends Task implements JdbcQueryInt
 
     protected boolean supportsMultiStatements(Connection conn) {
         try {
-            String driver = conn.getMetaData().getDriverName().toLowerCase();
-            String product = conn.getMetaData().getDatabaseProductName().toLowerCase();
-            String url = conn.getMetaData().getURL().toLowerCase();
+            DatabaseInfo info = DatabaseInfo.of(conn);
+            String driver = info.driver();
+            String product = info.product();
+            String url = info.url();
 
             boolean nativeSupport = MULTI_STATEMENT_DRIVERS.stream()
                 .anyMatch(s -> driver.contains(s) || product.contains(s));
@@ -326,7 +837,7 @@ public abstract class AbstractJdbcBaseQuery extends Task implements JdbcQueryInt
     protected void kill(Connection connection) {
         try {
             if (connection != null && !connection.isClosed()) {
-                connection.close();
+                JdbcConnectionInterface.abort(connection, Runnable::run);
             }
         } catch (SQLException e) {
             throw new RuntimeException(e);
@@ -338,8 +849,9 @@ public abstract class AbstractJdbcBaseQuery extends Task implements JdbcQueryInt
     protected void upsertAsset(RunContext runContext, Connection conn, String query) throws SQLException, QueueException, IllegalVariableEvaluationException {
         var table = extractTableNameFromCreateTable(query);
         if (table != null) {
-            var system = conn.getMetaData().getDatabaseProductName();
-            var database = getDatabaseName(conn);
+            var info = DatabaseInfo.of(conn);
+            var system = info.productName();
+            var database = info.databaseName(conn);
             Map<String, Object> metadata = Map.of(
                 "system", system,
                 "database", database,
@@ -365,91 +877,6 @@ public abstract class AbstractJdbcBaseQuery extends Task implements JdbcQueryInt
         }
     }
 
-    /**
-     * Get the database name by executing a database-specific query.
-     * Different databases have different ways to query the current database name.
-     */
-    private String getDatabaseName(Connection conn) {
-        try {
-            String productName = conn.getMetaData().getDatabaseProductName().toLowerCase();
-            String query = switch (productName) {
-                case String p when p.contains("postgresql") || p.contains("postgres") -> "SELECT current_database()";
-                case String p when p.contains("mysql") || p.contains("mariadb") -> "SELECT DATABASE()";
-                case String p when p.contains("oracle") -> "SELECT SYS_CONTEXT('USERENV', 'DB_NAME') FROM DUAL";
-                case String p when p.contains("sql server") || p.contains("sqlserver") -> "SELECT DB_NAME()";
-                case String p when p.contains("db2") -> "SELECT CURRENT SERVER FROM SYSIBM.SYSDUMMY1";
-                case String p when p.contains("h2") -> "SELECT DATABASE()";
-                case String p when p.contains("sqlite") -> "PRAGMA database_list";
-                case String p when p.contains("duckdb") -> "SELECT current_database()";
-                case String p when p.contains("snowflake") -> "SELECT CURRENT_DATABASE()";
-                case String p when p.contains("redshift") -> "SELECT CURRENT_DATABASE()";
-                case String p when p.contains("clickhouse") -> "SELECT currentDatabase()";
-                case String p when p.contains("trino") || p.contains("presto") -> "SELECT current_catalog";
-                case String p when p.contains("vertica") -> "SELECT CURRENT_DATABASE()";
-                case String p when p.contains("sybase") -> "SELECT DB_NAME()";
-                case String p when p.contains("hana") -> "SELECT CURRENT_SCHEMA FROM DUMMY";
-                case String p when p.contains("apache pinot") || p.contains("pinot") ->
-                    null; // Pinot doesn't have a database concept
-                case String p when p.contains("apache druid") || p.contains("druid") ->
-                    null; // Druid doesn't have a database concept
-                case String p when p.contains("apache arrow") || p.contains("arrow") ->
-                    null; // Arrow Flight doesn't have a database concept
-                default -> null;
-            };
-
-            if (query == null) {
-                // Fallback: try to get from catalog or schema
-                String catalog = conn.getCatalog();
-                if (catalog != null && !catalog.isEmpty()) {
-                    return catalog;
-                }
-                String schema = conn.getSchema();
-                if (schema != null && !schema.isEmpty()) {
-                    return schema;
-                }
-                return "unknown";
-            }
-
-            // Special handling for SQLite which returns a result set with multiple rows
-            if (productName.contains("sqlite")) {
-                try (Statement stmt = conn.createStatement();
-                     ResultSet rs = stmt.executeQuery(query)) {
-                    if (rs.next()) {
-                        // SQLite PRAGMA database_list returns: seq, name, file
-                        // We want the "main" database
-                        return rs.getString("name");
-                    }
-                }
-                return "unknown";
-            }
-
-            // Execute the query to get the database name
-            try (Statement stmt = conn.createStatement();
-                 ResultSet rs = stmt.executeQuery(query)) {
-                if (rs.next()) {
-                    String dbName = rs.getString(1);
-                    return dbName != null ? dbName : "unknown";
-                }
-            }
-            return "unknown";
-        } catch (SQLException e) {
-            // If query fails, fallback to catalog or schema
-            try {
-                String catalog = conn.getCatalog();
-                if (catalog != null && !catalog.isEmpty()) {
-                    return catalog;
-                }
-                String schema = conn.getSchema();
-                if (schema != null && !schema.isEmpty()) {
-                    return schema;
-                }
-            } catch (SQLException ex) {
-                // Ignore
-            }
-            return "unknown";
-        }
-    }
-
     /**
      * Extract the table name from a CREATE TABLE statement.
      * Returns null if the SQL is not a CREATE TABLE statement.
@@ -506,16 +933,22 @@ public abstract class AbstractJdbcBaseQuery extends Task implements JdbcQueryInt
 
         @Schema(
             title = "List of all fetched rows",
-            description = "Only populated when fetchType is FETCH"
+            description = "Only populated when fetchType is FETCH, unless the rows went over fetchRowBudget or fetchMemoryBudget and were stored to `uri` instead"
         )
         private final List<Map<String, Object>> rows;
 
         @Schema(
             title = "URI of stored results in internal storage",
-            description = "Only populated when fetchType is STORE; file is stored in internal storage using ION format"
+            description = "Only populated when fetchType is STORE without sharding, or FETCH over its budget; file is stored in internal storage using the storeFormat (ION by default)"
         )
         private final URI uri;
 
+        @Schema(
+            title = "URIs of stored result files in internal storage",
+            description = "Only populated when fetchType is STORE with storeShardRows, storeShardBytes or storeShardKeys; one URI per file, in the order the files were closed"
+        )
+        private final List<URI> uris;
+
         @Schema(
             title = "Number of rows fetched",
             description = "Only populated when fetchType is FETCH or STORE"
@@ -48,15 +48,17 @@ public abstract class AbstractJdbcBatch extends Task implements RunnableTask<Abs
     @PluginProperty(group = "advanced")
     private Property<String> timeZoneId;
 
-    // Off-switch for the rare flow whose SQL keeps state on the connection (e.g. SET search_path) that must not leak to the next pooled run.
+    // Off-switch for flows keeping state on the connection (e.g. SET search_path) on databases without a full session reset.
     @Schema(
         title = "Reuse database connections via a connection pool",
         description = """
             When true (default), connections are pooled and reused across executions, keyed by URL and \
-            credentials, removing the connect and TLS-handshake cost on each run. Set to false if your SQL \
-            relies on session state persisting on the connection (for example SET search_path, session-scoped \
-            temp tables or variables), since pooled connections are reused. Embedded drivers (DuckDB, SQLite, \
-            MS Access) never pool regardless of this setting."""
+            credentials, removing the connect and TLS-handshake cost on each run. The session of a connection \
+            is reset before it goes back to the pool on PostgreSQL, MySQL and MariaDB; SQL Server restores the \
+            connection settings and database, Redshift the settings and Snowflake unsets session variables. \
+            Set to false if your SQL relies on other session state persisting on the connection (for example \
+            SET search_path, session-scoped temp tables or variables), since pooled connections are reused. \
+            Embedded drivers (DuckDB, SQLite, MS Access) never pool regardless of this setting."""
     )
     @Builder.Default
     @PluginProperty(group = "advanced")
@@ -73,10 +75,77 @@ public abstract class AbstractJdbcBatch extends Task implements RunnableTask<Abs
     @PluginProperty(group = "advanced")
     private Property<Integer> connectionPoolSize = Property.ofValue(10);
 
+    @Schema(
+        title = "Prepared statements kept open per pooled connection",
+        description = """
+            Number of prepared statements cached on each pooled connection, keyed by SQL text, so that a statement run \
+            again, e.g. by the next execution, is not parsed and planned again by the driver and \
+            the server. Least recently used statements are closed first. When set, it also sizes the driver's own \
+            statement cache (PostgreSQL preparedStatementCacheQueries, MySQL cachePrepStmts and prepStmtCacheSize, \
+            SQL Server statement pooling) unless the URL sets them; 0 disables both. Not set by default: no statement \
+            is kept open by the pool and drivers keep their defaults. The pool does not keep statements open for \
+            databases whose session reset drops them (PostgreSQL, MySQL, MariaDB, SQL Server), only their driver \
+            cache is used there. Elsewhere, cached statements stay open across the session reset of their connection, \
+            only set it for SQL that does not depend on session state. Ignored when connectionPooling is false."""
+    )
+    @PluginProperty(group = "advanced")
+    private Property<Integer> statementCacheSize;
+
+    @Schema(
+        title = "Connection scope",
+        description = """
+            TASK (default) gives every task its own connection. EXECUTION keeps the connection open on the worker \
+            and reuses it for the following tasks of the same execution having the same connection settings and \
+            connectionScope EXECUTION, so session state such as temp tables or SET statements is shared between them. \
+            A task starting while the shared connection is used by another task of the execution (parallel branches) \
+            gets its own connection. Transactions are not shared: uncommitted work is rolled back when a task ends."""
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<ConnectionScope> connectionScope = Property.ofValue(ConnectionScope.TASK);
+
+    @Schema(
+        title = "Idle time before an execution-scoped connection is closed",
+        description = "With connectionScope EXECUTION, the shared connection is closed once no task used it for this duration. Default 10 minutes."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Duration> connectionScopeIdleTimeout = Property.ofValue(Duration.ofMinutes(10));
+
+    @Schema(
+        title = "Maximum number of tasks connected to the database at the same time on the worker",
+        description = """
+            Limits the tasks of the worker using this database (same host, port and database, whatever the user, \
+            driver properties or connection pool) that hold a connection at the same time, to protect the database \
+            from connection storms and lock thrashing, e.g. during a backfill. A task only starts while fewer tasks \
+            than its own limit are connected; the others wait in line, see concurrencyFairness. The time spent \
+            waiting is reported in the concurrency.wait.duration metric. Not limited by default."""
+    )
+    @PluginProperty(group = "advanced")
+    private Property<Integer> maxDatabaseConcurrency;
+
+    @Schema(
+        title = "Order in which tasks waiting for maxDatabaseConcurrency are let in",
+        description = """
+            FIFO (default) lets waiting tasks in by arrival order. NAMESPACE makes namespaces take turns, in \
+            proportion to concurrencyWeight, so a namespace queuing many tasks does not delay the others."""
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<ConcurrencyFairness> concurrencyFairness = Property.ofValue(ConcurrencyFairness.FIFO);
+
+    @Schema(
+        title = "Share of the turns given to this task's namespace with concurrencyFairness NAMESPACE",
+        description = "A namespace with weight 2 gets in twice as often as a namespace with weight 1 when both are waiting. Default 1."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Integer> concurrencyWeight = Property.ofValue(1);
+
     @NotNull
     @Schema(
         title = "Input file from internal storage",
-        description = "URI of the source file (kestra://) containing rows to insert"
+        description = "URI of the source file (kestra://) containing rows to insert; text or binary ION, optionally gzip or zstd compressed, detected automatically"
     )
     @PluginProperty(internalStorageURI = true, group = "main")
     private Property<String> from;
@@ -205,6 +274,7 @@ public abstract class AbstractJdbcBatch extends Task implements RunnableTask<Abs
 
             runContext.metric(Counter.of("records", output.getRowCount()));
             runContext.metric(Counter.of("updated", output.getUpdatedCount()));
+            executor.timers().report(runContext);
 
             logger.info(
                 "Successfully executed {} bulk queries and updated {} rows",
@@ -444,7 +514,7 @@ public abstract class AbstractJdbcBatch extends Task implements RunnableTask<Abs
 
         try {
             if (this.runningConnection != null && !this.runningConnection.isClosed()) {
-                this.runningConnection.close();
+                JdbcConnectionInterface.abort(this.runningConnection, Runnable::run);
             }
         } catch (SQLException e) {
             throw new RuntimeException(e);
@@ -522,6 +592,7 @@ public abstract class AbstractJdbcBatch extends Task implements RunnableTask<Abs
         private final RunContext runContext;
         private final AbstractCellConverter cellConverter;
         private final Logger logger;
+        private final PhaseTimers timers = new PhaseTimers();
 
         private long rowCount;
         private int updatedCount;
@@ -565,20 +636,31 @@ public abstract class AbstractJdbcBatch extends Task implements RunnableTask<Abs
                 runningConnection = connection;
                 runningStatement = ps;
 
-                boolean supportsTx = connection.getMetaData().supportsTransactions();
+                boolean supportsTx = DatabaseInfo.of(connection).supportsTransactions();
                 if (supportsTx) connection.setAutoCommit(false);
 
                 ParameterType meta = ParameterType.of(ps.getParameterMetaData());
                 List<Object> buffer = new ArrayList<>(config.chunk());
                 long skip = resumeOffset;
 
-                for (Object row : FileSerde.readAll(inputStream).toIterable()) {
-                    if (skip-- > 0) continue;
-
-                    buffer.add(row);
-                    if (buffer.size() >= config.chunk()) {
-                        flush(ps, meta, buffer, connection, supportsTx);
+                Iterator<Object> rows = IonRowReader.readAll(inputStream).iterator();
+                long readNanos = 0;
+                try {
+                    long start = System.nanoTime();
+                    while (rows.hasNext()) {
+                        Object row = rows.next();
+                        readNanos += System.nanoTime() - start;
+
+                        if (skip-- <= 0) {
+                            buffer.add(row);
+                            if (buffer.size() >= config.chunk()) {
+                                flush(ps, meta, buffer, connection, supportsTx);
+                            }
+                        }
+                        start = System.nanoTime();
                     }
+                } finally {
+                    timers.add(PhaseTimers.Phase.READ, readNanos);
                 }
 
                 if (!buffer.isEmpty()) {
@@ -588,13 +670,17 @@ public abstract class AbstractJdbcBatch extends Task implements RunnableTask<Abs
         }
 
         private void flush(PreparedStatement ps, ParameterType meta, List<Object> rows, Connection connection, boolean supportsTx) throws Exception {
+            long start = System.nanoTime();
             for (Object row : rows) {
                 addBatch(ps, meta, row, config.columns(), cellConverter, connection);
             }
+            long bound = System.nanoTime();
+            timers.add(PhaseTimers.Phase.CONVERT, bound - start);
 
             int[] updated = ps.executeBatch();
             if (supportsTx) connection.commit();
             ps.clearBatch();
+            timers.add(PhaseTimers.Phase.EXECUTE, System.nanoTime() - bound);
 
             int size = rows.size();
             rows.clear();
@@ -626,6 +712,10 @@ public abstract class AbstractJdbcBatch extends Task implements RunnableTask<Abs
         long getQueryCount() {
             return queryCount;
         }
+
+        PhaseTimers timers() {
+            return timers;
+        }
     }
 
     public enum RetryScope {
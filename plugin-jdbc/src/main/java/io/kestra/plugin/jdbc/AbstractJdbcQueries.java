@@ -1,6 +1,7 @@
 package io.kestra.plugin.jdbc;
 
 import io.kestra.core.exceptions.IllegalVariableEvaluationException;
+import io.kestra.core.models.annotations.PluginProperty;
 import io.kestra.core.models.executions.metrics.Counter;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.kestra.core.models.property.Property;
@@ -8,21 +9,30 @@ import io.kestra.core.models.tasks.RunnableTask;
 import io.kestra.core.models.tasks.common.FetchType;
 import io.kestra.core.queues.QueueException;
 import io.kestra.core.runners.RunContext;
-import io.kestra.core.serializers.FileSerde;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
 import org.slf4j.Logger;
 
-import java.io.BufferedOutputStream;
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static io.kestra.plugin.jdbc.SqlSplitter.getQueries;
 
@@ -36,108 +46,406 @@ public abstract class AbstractJdbcQueries extends AbstractJdbcBaseQuery implemen
     @Builder.Default
     protected Property<Boolean> transaction = Property.ofValue(Boolean.TRUE);
 
+    @Schema(
+        title = "Internal storage URI of the SQL script to run, instead of `sql`",
+        description = """
+            For scripts too large to be rendered in memory: the file (kestra://, UTF-8) is read as its statements run, \
+            the first one starting before the rest is read. Its content is not rendered, its statements run one at a time \
+            (`parallelism` does not apply) and `parameters` are bound as for `sql`."""
+    )
+    @PluginProperty(internalStorageURI = true, group = "main")
+    protected Property<String> from;
+
+    @Schema(
+        title = "Maximum number of statements to run at once",
+        description = """
+            Statements of a non-transactional script (`transaction: false`) run concurrently on up to this many pooled connections, \
+            each one once the statements it depends on are done; outputs keep the order of the script. \
+            Scripts changing the session (SET, USE, temporary tables, ...) and drivers without connection pooling run sequentially. \
+            Capped to `connectionPoolSize`. Default: 1, sequential."""
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    protected Property<Integer> parallelism = Property.ofValue(1);
+
+    @Schema(
+        title = "Infer the dependencies between statements from the tables they read and write",
+        description = """
+            With `parallelism`, a statement waits for the earlier statements writing a table it reads or writes and reading a table it writes. \
+            Statements of unknown kind (DO, CALL, GRANT, ...) wait for all earlier ones and are waited for by all later ones. \
+            Reads through views and functions are not seen: declare them in `statementDependencies`, or disable inference to only use those."""
+    )
+    @Builder.Default
+    @PluginProperty(group = "execution")
+    protected Property<Boolean> inferDependencies = Property.ofValue(Boolean.TRUE);
+
+    @Schema(
+        title = "Declared dependencies between statements",
+        description = """
+            With `parallelism`, maps a statement number (1-based, in script order) to the numbers of the earlier statements it must run after, \
+            in addition to the inferred ones, e.g. `{"3": [1, 2]}`."""
+    )
+    @PluginProperty(group = "execution")
+    protected Property<Map<String, List<Integer>>> statementDependencies;
+
     // will be used when killing
     @Getter(AccessLevel.NONE)
-    private transient volatile Statement runningStatement;
+    private transient volatile Set<Statement> runningStatements;
 
     @Getter(AccessLevel.NONE)
     private transient volatile Connection runningConnection;
 
+    @AssertTrue(message = "Exactly one of `sql` and `from` must be set")
+    @JsonIgnore
+    boolean isSqlOrFromSet() {
+        return (this.sql == null) != (this.from == null);
+    }
+
     protected void beforeExecute(RunContext runContext, Connection connection) throws Exception {
     }
 
     public MultiQueryOutput run(RunContext runContext) throws Exception {
-        Logger logger = runContext.logger();
         AbstractCellConverter cellConverter = getCellConverter(this.zoneId(runContext));
+        PhaseTimers timers = this.startPhaseTimers();
 
         final boolean isTransactional = runContext.render(this.transaction).as(Boolean.class).orElseThrow();
+        String rSql = runContext.render(this.sql).as(String.class, this.additionalVars).orElse(null);
+        URI from = runContext.render(this.from).as(String.class).map(URI::create).orElse(null);
+        if ((rSql == null) == (from == null)) {
+            throw new IllegalArgumentException("Exactly one of `sql` and `from` must be set");
+        }
         long totalSize = 0L;
         List<Output> outputList = new LinkedList<>();
+        this.runningStatements = ConcurrentHashMap.newKeySet();
 
         // Create connection in not autocommit mode to enable rollback on error
         Savepoint savepoint = null;
         boolean supportsTx = false;
+        boolean streaming = false;
 
         try {
             this.runningConnection = this.connection(runContext);
             this.beforeExecute(runContext, this.runningConnection);
             supportsTx = supportsTransactions(this.runningConnection);
             final boolean useTransactions = supportsTx && isTransactional;
+            FetchType fetchType = this.renderFetchType(runContext);
+            // some drivers only stream rows through a cursor outside autocommit, each statement then runs in its own transaction
+            streaming = supportsTx && this.streamsInTransaction(fetchType);
 
-            if (useTransactions) {
-                try {
-                    this.runningConnection.setAutoCommit(false);
-                } catch (SQLException e) {
-                    runContext.logger().warn("Auto-commit disabling not supported: {}", e.getMessage());
-                }
+            if (useTransactions || streaming) {
+                disableAutoCommit(runContext, this.runningConnection);
             }
 
             if (useTransactions) {
                 savepoint = initializeSavepoint(this.runningConnection);
             }
 
-            String rSql = runContext.render(this.sql).as(String.class, this.additionalVars).orElseThrow();
-            FetchType fetchType = this.renderFetchType(runContext);
             boolean supportsMulti = supportsMultiStatements(this.runningConnection);
 
-            boolean shouldBatchQueries = supportsMulti && useTransactions;
-
-            String[] queries = shouldBatchQueries
-                ? new String[]{rSql}
-                : getQueries(rSql);
-
-            for (String query : queries) {
-                // Create statement, execute
-                try (PreparedStatement stmt = prepareStatement(runContext, this.runningConnection, query)) {
-                    this.runningStatement = stmt;
-
-                    if (fetchType == FetchType.STORE) {
-                        stmt.setFetchSize(this.getFetchSize(runContext));
-                    }
+            // a script from the storage is split as it is read, never sent whole
+            boolean shouldBatchQueries = supportsMulti && useTransactions && from == null;
+
+            String[] queries = from != null
+                ? null
+                : shouldBatchQueries
+                    ? new String[]{rSql}
+                    : getQueries(rSql);
+            List<String> created = new ArrayList<>();
+
+            var execution = new QueryExecution(runContext, cellConverter, timers, fetchType, streaming, !useTransactions && supportsTx, shouldBatchQueries);
+            // the next statements run while the uploads of the stored results end
+            PendingUploads uploads = fetchType == FetchType.STORE ? this.deferUploads(timers) : null;
+            if (from != null && runContext.render(this.parallelism).as(Integer.class).orElse(1) > 1) {
+                runContext.logger().warn("parallelism is ignored for a script read from `from`, statements run sequentially");
+            }
+            StatementGraph graph = queries == null ? null : this.parallelGraph(runContext, queries, useTransactions);
+            if (graph == null) {
+                // in a transaction a failed batch is rolled back as a whole like the statements would be, outside one
+                // some drivers would roll back the statements before the failure too
+                boolean batching = useTransactions && !shouldBatchQueries && this.supportsBatchUpdates(this.runningConnection);
+                boolean parameters = !runContext.render(this.getParameters()).asMap(String.class, Object.class).isEmpty();
+                List<String> batch = new ArrayList<>();
+                try (Reader reader = from == null ? null : new InputStreamReader(runContext.storage().getFile(from), StandardCharsets.UTF_8)) {
+                    Iterator<String> statements = reader == null ? Arrays.asList(queries).iterator() : new SqlSplitter(reader);
+                    while (statements.hasNext()) {
+                        String query = statements.next();
+                        // only CREATE statements emit assets, the others of a streamed script are not kept
+                        if (reader != null && query.regionMatches(true, 0, "CREATE", 0, 6)) {
+                            created.add(query);
+                        }
+                        if (batching && UpdateBatch.batchable(query) && (!parameters || NamedParameters.of(query).slots().isEmpty())) {
+                            batch.add(query);
+                            if (batch.size() >= UpdateBatch.MAX_SIZE) {
+                                totalSize += this.executeBatch(execution, this.runningConnection, batch, outputList);
+                            }
+                            continue;
+                        }
+                        totalSize += this.executeBatch(execution, this.runningConnection, batch, outputList);
+                        totalSize += this.executeQuery(execution, this.runningConnection, query, outputList);
 
-                    logger.debug("Starting query: {}", query);
-                    stmt.execute();
-                    if (!useTransactions && supportsTx && !this.runningConnection.getAutoCommit()) {
-                        this.runningConnection.commit();
-                    }
-                    totalSize = extractResultsFromResultSet(
-                        this.runningConnection,
-                        stmt,
-                        runContext,
-                        cellConverter,
-                        totalSize,
-                        outputList,
-                        fetchType,
-                        shouldBatchQueries
-                    );
-
-                    // if the task has been killed, avoid processing the next query
-                    if (Thread.currentThread().isInterrupted()) {
-                        break;
+                        // if the task has been killed, avoid processing the next query
+                        if (Thread.currentThread().isInterrupted()) {
+                            break;
+                        }
                     }
-                } finally {
-                    this.runningStatement = null;
                 }
+                if (!Thread.currentThread().isInterrupted()) {
+                    totalSize += this.executeBatch(execution, this.runningConnection, batch, outputList);
+                }
+            } else {
+                totalSize = this.executeInParallel(execution, graph, queries, outputList);
+            }
+            // a failed upload fails the task before the transaction is committed
+            if (uploads != null) {
+                uploads.awaitAll();
             }
             if (useTransactions) {
                 this.runningConnection.commit();
             }
             runContext.metric(Counter.of("fetch.size", totalSize, this.tags(runContext)));
+            timers.report(runContext, this.tags(runContext));
 
-            upsertAssets(runContext, queries, this.runningConnection);
+            upsertAssets(runContext, queries == null ? created : Arrays.asList(queries), this.runningConnection);
 
             return MultiQueryOutput.builder().outputs(outputList).build();
         } catch (Exception e) {
-            if (supportsTx && isTransactional) {
+            if (supportsTx && (isTransactional || streaming)) {
                 rollbackIfTransactional(this.runningConnection, savepoint);
             }
             throw new RuntimeException(e);
         } finally {
+            this.clearPendingUploads();
             safelyCloseConnection(runContext, this.runningConnection);
             this.runningConnection = null;
         }
     }
 
+    private record QueryExecution(
+        RunContext runContext,
+        AbstractCellConverter cellConverter,
+        PhaseTimers timers,
+        FetchType fetchType,
+        boolean streaming,
+        boolean commitEach,
+        boolean multiStatements
+    ) {}
+
+    /**
+     * Execute one query and read its results, returning the number of rows.
+     */
+    private long executeQuery(QueryExecution execution, Connection connection, String query, List<Output> outputs) throws Exception {
+        RunContext runContext = execution.runContext();
+        try (PreparedStatement stmt = prepareStatement(runContext, connection, query)) {
+            this.runningStatements.add(stmt);
+            try {
+                if (execution.fetchType() == FetchType.STORE || execution.streaming()) {
+                    stmt.setFetchSize(this.getFetchSize(runContext));
+                }
+                this.applyRowLimit(runContext, stmt, execution.fetchType());
+
+                runContext.logger().debug("Starting query: {}", query);
+                long start = System.nanoTime();
+                stmt.execute();
+                execution.timers().add(PhaseTimers.Phase.EXECUTE, System.nanoTime() - start);
+                long size = extractResultsFromResultSet(
+                    connection,
+                    stmt,
+                    runContext,
+                    execution.cellConverter(),
+                    0L,
+                    outputs,
+                    execution.fetchType(),
+                    execution.multiStatements()
+                );
+                // once the rows are read, committing closes the cursor they are streamed from
+                if (execution.commitEach() && !connection.getAutoCommit()) {
+                    connection.commit();
+                }
+                return size;
+            } finally {
+                this.runningStatements.remove(stmt);
+            }
+        }
+    }
+
+    /**
+     * Execute the batched queries in one round trip and empty the batch, returning the number of rows.
+     */
+    private long executeBatch(QueryExecution execution, Connection connection, List<String> batch, List<Output> outputs) throws Exception {
+        if (batch.size() <= 1) {
+            long size = batch.isEmpty() ? 0L : this.executeQuery(execution, connection, batch.getFirst(), outputs);
+            batch.clear();
+            return size;
+        }
+
+        Logger logger = execution.runContext().logger();
+        try (Statement stmt = this.createStatement(connection)) {
+            this.runningStatements.add(stmt);
+            try {
+                for (String query : batch) {
+                    stmt.addBatch(query);
+                }
+
+                logger.debug("Starting batch of {} queries", batch.size());
+                long start = System.nanoTime();
+                int[] updateCounts = stmt.executeBatch();
+                execution.timers().add(PhaseTimers.Phase.EXECUTE, System.nanoTime() - start);
+                for (int i = 0; i < updateCounts.length && i < batch.size(); i++) {
+                    if (updateCounts[i] >= 0) {
+                        logger.debug("{} rows updated by query: {}", updateCounts[i], batch.get(i));
+                    } else {
+                        logger.debug("Query done: {}", batch.get(i));
+                    }
+                }
+            } finally {
+                this.runningStatements.remove(stmt);
+            }
+        }
+        batch.clear();
+        return 0L;
+    }
+
+    private boolean supportsBatchUpdates(Connection connection) {
+        try {
+            return DatabaseInfo.of(connection).supportsBatchUpdates();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * The graph to run the queries concurrently with, or null if they must run sequentially.
+     */
+    private StatementGraph parallelGraph(RunContext runContext, String[] queries, boolean useTransactions) throws IllegalVariableEvaluationException {
+        int parallelism = runContext.render(this.parallelism).as(Integer.class).orElse(1);
+        if (parallelism <= 1 || queries.length <= 1) {
+            return null;
+        }
+
+        Logger logger = runContext.logger();
+        if (useTransactions) {
+            logger.warn("parallelism is ignored in a transaction, set `transaction: false` to run statements concurrently");
+            return null;
+        }
+        if (!this.usesConnectionPool() || !runContext.render(this.getConnectionPooling()).as(Boolean.class).orElse(true)) {
+            logger.warn("parallelism is ignored without connection pooling, statements run sequentially");
+            return null;
+        }
+
+        Map<Integer, List<Integer>> declared = new HashMap<>();
+        Map<String, List> rendered = runContext.render(this.statementDependencies).asMap(String.class, List.class);
+        for (Map.Entry<String, List> entry : rendered.entrySet()) {
+            List<Integer> numbers = new ArrayList<>();
+            for (Object number : entry.getValue()) {
+                numbers.add(number instanceof Number n ? n.intValue() : Integer.valueOf(number.toString().trim()));
+            }
+            declared.put(Integer.valueOf(entry.getKey().trim()), numbers);
+        }
+        boolean infer = runContext.render(this.inferDependencies).as(Boolean.class).orElse(true);
+
+        StatementGraph graph = StatementGraph.of(List.of(queries), infer, declared);
+        if (graph.changesSession()) {
+            logger.info("Statement {} changes the session, statements run sequentially", graph.sessionStatement());
+            return null;
+        }
+        return graph;
+    }
+
+    /**
+     * Execute the queries on up to parallelism connections, this task's one included, returning the number of rows.
+     */
+    private long executeInParallel(QueryExecution execution, StatementGraph graph, String[] queries, List<Output> outputList) throws Exception {
+        RunContext runContext = execution.runContext();
+        int parallelism = runContext.render(this.parallelism).as(Integer.class).orElse(1);
+        int poolSize = runContext.render(this.getConnectionPoolSize()).as(Integer.class).orElse(10);
+        if (parallelism > poolSize) {
+            runContext.logger().warn("parallelism {} is capped to the connection pool size {}", parallelism, poolSize);
+            parallelism = poolSize;
+        }
+        // lanes share the permit of the task, its connections still stay within the limit
+        Integer maxConcurrency = this.getMaxDatabaseConcurrency() == null
+            ? null
+            : runContext.render(this.getMaxDatabaseConcurrency()).as(Integer.class).orElse(null);
+        if (maxConcurrency != null && parallelism > maxConcurrency) {
+            runContext.logger().warn("parallelism {} is capped to the database concurrency {}", parallelism, maxConcurrency);
+            parallelism = Math.max(1, maxConcurrency);
+        }
+
+        List<List<Output>> outputs = new ArrayList<>(queries.length);
+        for (int i = 0; i < queries.length; i++) {
+            outputs.add(new ArrayList<>());
+        }
+        AtomicLong totalSize = new AtomicLong();
+
+        ParallelStatements.run(
+            graph,
+            parallelism,
+            new QueryLane(execution, this.runningConnection, queries, outputs, totalSize, false),
+            () -> {
+                Connection connection = this.additionalConnection(runContext);
+                try {
+                    this.beforeExecute(runContext, connection);
+                    if (execution.streaming()) {
+                        disableAutoCommit(runContext, connection);
+                    }
+                } catch (Exception e) {
+                    safelyCloseConnection(runContext, connection);
+                    throw e;
+                }
+                return new QueryLane(execution, connection, queries, outputs, totalSize, true);
+            }
+        );
+
+        // the outputs of the statements are only set once their upload ended
+        PendingUploads uploads = this.pendingUploads();
+        if (uploads != null) {
+            uploads.awaitAll();
+        }
+        outputs.forEach(outputList::addAll);
+        return totalSize.get();
+    }
+
+    /**
+     * Runs queries on one connection, closing it at the end if it was opened for the lane.
+     */
+    private final class QueryLane implements ParallelStatements.Lane {
+        private final QueryExecution execution;
+        private final Connection connection;
+        private final String[] queries;
+        private final List<List<Output>> outputs;
+        private final AtomicLong totalSize;
+        private final boolean owned;
+
+        private QueryLane(QueryExecution execution, Connection connection, String[] queries, List<List<Output>> outputs, AtomicLong totalSize, boolean owned) {
+            this.execution = execution;
+            this.connection = connection;
+            this.queries = queries;
+            this.outputs = outputs;
+            this.totalSize = totalSize;
+            this.owned = owned;
+        }
+
+        @Override
+        public void run(int index) throws Exception {
+            this.totalSize.addAndGet(executeQuery(this.execution, this.connection, this.queries[index], this.outputs.get(index)));
+        }
+
+        @Override
+        public void close() {
+            if (this.owned) {
+                safelyCloseConnection(this.execution.runContext(), this.connection);
+            }
+        }
+    }
+
+    private static void disableAutoCommit(final RunContext runContext, final Connection connection) {
+        try {
+            connection.setAutoCommit(false);
+        } catch (SQLException e) {
+            runContext.logger().warn("Auto-commit disabling not supported: {}", e.getMessage());
+        }
+    }
+
     private static void safelyCloseConnection(final RunContext runContext, final Connection connection) {
         try {
             if (connection != null) {
@@ -156,7 +464,7 @@ public abstract class AbstractJdbcQueries extends AbstractJdbcBaseQuery implemen
                                              final List<Output> outputList,
                                              final FetchType fetchType,
                                              final boolean multiStatements
-    ) throws SQLException, IOException {
+    ) throws SQLException, IOException, IllegalVariableEvaluationException {
 
         // ---------------------------------------------------------------------
         // Case 1: single statement execution (split mode)
@@ -182,29 +490,21 @@ public abstract class AbstractJdbcQueries extends AbstractJdbcBaseQuery implemen
                         .row(fetchResult(rs, cellConverter, connection))
                         .size(size);
                 }
-                case STORE -> {
-                    File tempFile = runContext.workingDir().createTempFile(".ion").toFile();
-                    try (var fileOutput = new BufferedOutputStream(new FileOutputStream(tempFile), FileSerde.BUFFER_SIZE)) {
-                        size = fetchToFile(stmt, rs, fileOutput, cellConverter, connection);
-                    }
-                    output
-                        .uri(runContext.storage().putFile(tempFile))
-                        .size(size);
-                }
-                case FETCH -> {
-                    List<Map<String, Object>> maps = new ArrayList<>();
-                    size = fetchResults(stmt, rs, maps, cellConverter, connection);
-                    output
-                        .rows(maps)
-                        .size(size);
-                }
+                case STORE -> size = storeResults(runContext, stmt, rs, output, cellConverter, connection);
+                case FETCH -> size = fetchResultsWithinBudget(runContext, stmt, rs, output, cellConverter, connection);
                 case NONE -> runContext.logger().info("fetchType is set to NONE, no output will be returned");
                 default ->
                     throw new IllegalArgumentException("fetchType must be either FETCH, FETCH_ONE, STORE, or NONE");
             }
 
+            // a single statement has no other result to read, so a driver ignoring the row limit can be cancelled
+            long limit = maxRows(stmt);
+            if (limit > 0 && size >= limit) {
+                cancelIfMoreRows(stmt, rs);
+            }
+
             totalSize += size;
-            outputList.add(output.build());
+            this.addOutput(output, outputList);
 
             return totalSize;
         }
@@ -230,29 +530,15 @@ public abstract class AbstractJdbcQueries extends AbstractJdbcBaseQuery implemen
                             .row(fetchResult(rs, cellConverter, connection))
                             .size(size);
                     }
-                    case STORE -> {
-                        File tempFile = runContext.workingDir().createTempFile(".ion").toFile();
-                        try (var fileOutput = new BufferedOutputStream(new FileOutputStream(tempFile), FileSerde.BUFFER_SIZE)) {
-                            size = fetchToFile(stmt, rs, fileOutput, cellConverter, connection);
-                        }
-                        output
-                            .uri(runContext.storage().putFile(tempFile))
-                            .size(size);
-                    }
-                    case FETCH -> {
-                        List<Map<String, Object>> maps = new ArrayList<>();
-                        size = fetchResults(stmt, rs, maps, cellConverter, connection);
-                        output
-                            .rows(maps)
-                            .size(size);
-                    }
+                    case STORE -> size = storeResults(runContext, stmt, rs, output, cellConverter, connection);
+                    case FETCH -> size = fetchResultsWithinBudget(runContext, stmt, rs, output, cellConverter, connection);
                     case NONE -> runContext.logger().info("fetchType is set to NONE, no output will be returned");
                     default ->
                         throw new IllegalArgumentException("fetchType must be either FETCH, FETCH_ONE, STORE, or NONE");
                 }
 
                 totalSize += size;
-                outputList.add(output.build());
+                this.addOutput(output, outputList);
             } else if (updateCount == -1) {
                 // End of results
                 break;
@@ -265,6 +551,18 @@ public abstract class AbstractJdbcQueries extends AbstractJdbcBaseQuery implemen
         return totalSize;
     }
 
+    /**
+     * Add the output of a statement, a stored result whose upload is still running gets its URI once it ends.
+     */
+    private void addOutput(Output.OutputBuilder<?, ?> output, List<Output> outputList) {
+        PendingUploads uploads = this.pendingUploads();
+        if (uploads != null) {
+            uploads.place(output, outputList);
+        } else {
+            outputList.add(output.build());
+        }
+    }
+
     private static void rollbackIfTransactional(final Connection connection,
                                                 final Savepoint savepoint) throws SQLException {
         if (connection != null) {
@@ -286,28 +584,21 @@ public abstract class AbstractJdbcQueries extends AbstractJdbcBaseQuery implemen
     }
 
     @Override
-    protected long fetch(Statement stmt, ResultSet rs, Consumer<Map<String, Object>> c, AbstractCellConverter cellConverter, Connection connection) throws SQLException {
-        long count = 0L;
-        var labels = columnLabels(rs);
-
-        while (rs.next()) {
-            Map<String, Object> map = super.mapResultSetToMap(rs, labels, cellConverter, connection);
-            c.accept(map);
-            count++;
-        }
+    protected long fetchRows(Statement stmt, ResultSet rs, Function<ColumnPlan, Consumer<ResultSet>> rowHandler, AbstractCellConverter cellConverter, Connection connection) throws SQLException {
+        var handler = rowHandler.apply(cellConverter.plan(rs, connection));
 
-        return count;
+        return readRows(rs, handler, maxRows(stmt));
     }
 
     private boolean supportsTransactions(Connection connection) {
         try {
-            return connection.getMetaData().supportsTransactions();
+            return DatabaseInfo.of(connection).supportsTransactions();
         } catch (SQLException e) {
             return false;
         }
     }
 
-    private void upsertAssets(RunContext runContext, String[] queries, Connection conn)
+    private void upsertAssets(RunContext runContext, List<String> queries, Connection conn)
         throws SQLException, QueueException, IllegalVariableEvaluationException {
 
         for (String query : queries) {
@@ -317,7 +608,10 @@ public abstract class AbstractJdbcQueries extends AbstractJdbcBaseQuery implemen
 
     @Override
     public void kill() {
-        super.kill(this.runningStatement);
+        Set<Statement> statements = this.runningStatements;
+        if (statements != null) {
+            statements.forEach(super::kill);
+        }
         super.kill(this.runningConnection);
     }
 
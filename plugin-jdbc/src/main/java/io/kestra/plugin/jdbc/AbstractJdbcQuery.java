@@ -5,19 +5,15 @@ import io.kestra.core.models.executions.metrics.Counter;
 import io.kestra.core.models.tasks.RunnableTask;
 import io.kestra.core.models.tasks.common.FetchType;
 import io.kestra.core.runners.RunContext;
-import io.kestra.core.serializers.FileSerde;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
 import org.slf4j.Logger;
 
-import java.io.BufferedOutputStream;
-import java.io.File;
-import java.io.FileOutputStream;
 import java.sql.*;
-import java.util.ArrayList;
+import java.time.ZoneId;
 import java.util.Arrays;
-import java.util.List;
-import java.util.Map;
 
 import static io.kestra.plugin.jdbc.SqlSplitter.getQueries;
 
@@ -35,22 +31,39 @@ public abstract class AbstractJdbcQuery extends AbstractJdbcBaseQuery implements
     @Getter(AccessLevel.NONE)
     private transient volatile Connection runningConnection;
 
+    @AssertTrue(message = "`sql` is required")
+    @JsonIgnore
+    boolean isSqlSet() {
+        return this.sql != null;
+    }
+
     protected void beforeExecute(RunContext runContext, Connection connection) throws Exception {
     }
 
     @Override
     public AbstractJdbcBaseQuery.Output run(RunContext runContext) throws Exception {
+        return this.run(runContext, null);
+    }
+
+    /**
+     * Run the query on the connection of a polling trigger, its statement prepared so that the session keeps it with
+     * the column plan of its rows for the next poll, or on a connection of its own without a session.
+     */
+    AbstractJdbcBaseQuery.Output run(RunContext runContext, TriggerSessions.Session session) throws Exception {
         Logger logger = runContext.logger();
-        AbstractCellConverter cellConverter = getCellConverter(this.zoneId(runContext));
+        ZoneId zoneId = this.zoneId(runContext);
+        AbstractCellConverter cellConverter = session == null ? getCellConverter(zoneId) : session.cellConverter(() -> getCellConverter(zoneId));
+        PhaseTimers timers = this.startPhaseTimers();
 
         Savepoint savepoint = null;
         boolean supportsTx = false;
 
-        try (Connection conn = this.connection(runContext)) {
+        try (Connection conn = session == null ? this.connection(runContext) : session.connection()) {
             this.runningConnection = conn;
             this.beforeExecute(runContext, conn);
 
-            String rSql = runContext.render(this.sql).as(String.class, this.additionalVars).orElseThrow();
+            String rSql = runContext.render(this.sql).as(String.class, this.additionalVars)
+                .orElseThrow(() -> new IllegalArgumentException("`sql` is required"));
             FetchType fetchType = this.renderFetchType(runContext);
             long queriesAmount = countQueries(this.runningConnection, rSql);
 
@@ -60,34 +73,44 @@ public abstract class AbstractJdbcQuery extends AbstractJdbcBaseQuery implements
                 );
             }
 
-            supportsTx = this.runningConnection.getMetaData().supportsTransactions();
+            // a trigger session keeps the statement for the next poll, only a single statement can be prepared
+            boolean prepared = this.getParameters() != null || (session != null && countStatements(rSql) == 1);
+
+            supportsTx = DatabaseInfo.of(this.runningConnection).supportsTransactions();
+            // some drivers only stream rows through a cursor outside autocommit; on failure, closing the connection rolls back
+            boolean streaming = supportsTx && this.afterSQL == null && this.streamsInTransaction(fetchType);
 
             if (supportsTx) {
-                conn.setAutoCommit(this.afterSQL == null);
+                conn.setAutoCommit(this.afterSQL == null && !streaming);
                 savepoint = (this.afterSQL != null) ? initializeSavepoint(conn) : null;
             }
 
             Output.OutputBuilder<?, ?> output = AbstractJdbcBaseQuery.Output.builder();
             long size = 0L;
 
-            try (Statement stmt = this.getParameters() == null ? this.createStatement(this.runningConnection) : this.prepareStatement(runContext, this.runningConnection, rSql)) {
+            try (Statement stmt = !prepared ? this.createStatement(this.runningConnection)
+                : this.getParameters() == null ? this.createPreparedStatement(this.runningConnection, rSql)
+                : this.prepareStatement(runContext, this.runningConnection, rSql)) {
                 this.runningStatement = stmt;
 
-                if (fetchType == FetchType.STORE) {
+                if (fetchType == FetchType.STORE || streaming) {
                     stmt.setFetchSize(this.getFetchSize(runContext));
                 }
+                this.applyRowLimit(runContext, stmt, fetchType);
 
                 logger.debug("Starting query: {}", rSql);
 
+                long start = System.nanoTime();
                 boolean isResult = switch (stmt) {
                     case PreparedStatement preparedStatement -> {
-                        if (this.getParameters() == null) { // Null check for DuckDB which always use PreparedStatement
+                        if (!prepared) { // DuckDB always uses PreparedStatement
                             yield preparedStatement.execute(rSql);
                         }
                         yield preparedStatement.execute();
                     }
                     case Statement statement -> statement.execute(rSql);
                 };
+                timers.add(PhaseTimers.Phase.EXECUTE, System.nanoTime() - start);
 
                 if (isResult) {
                     try (ResultSet rs = stmt.getResultSet()) {
@@ -100,30 +123,21 @@ public abstract class AbstractJdbcQuery extends AbstractJdbcBaseQuery implements
                                     .row(result)
                                     .size(size);
                             }
-                            case STORE -> {
-                                File tempFile = runContext.workingDir().createTempFile(".ion").toFile();
-                                try (var fileOutput = new BufferedOutputStream(new FileOutputStream(tempFile), FileSerde.BUFFER_SIZE)) {
-                                    size = fetchToFile(stmt, rs, fileOutput, cellConverter, conn);
-                                }
-                                output
-                                    .uri(runContext.storage().putFile(tempFile))
-                                    .size(size);
-                            }
-                            case FETCH -> {
-                                List<Map<String, Object>> maps = new ArrayList<>();
-                                size = fetchResults(stmt, rs, maps, cellConverter, conn);
-                                output
-                                    .rows(maps)
-                                    .size(size);
-                            }
+                            case STORE -> size = storeResults(runContext, stmt, rs, output, cellConverter, conn);
+                            case FETCH -> size = fetchResultsWithinBudget(runContext, stmt, rs, output, cellConverter, conn);
                         }
                     }
                 }
             }
 
+            if (streaming) {
+                conn.commit();
+            }
+
             executeAfterSQL(runContext, conn, logger, supportsTx);
 
             runContext.metric(Counter.of("fetch.size", size, this.tags(runContext)));
+            timers.report(runContext, this.tags(runContext));
 
             upsertAsset(runContext, conn, rSql);
 
@@ -143,6 +157,10 @@ public abstract class AbstractJdbcQuery extends AbstractJdbcBaseQuery implements
             return 1;
         }
 
+        return countStatements(rSql);
+    }
+
+    private static long countStatements(String rSql) {
         return Arrays.stream(getQueries(rSql))
             .filter(s -> !s.isBlank())
             .filter(s -> !s.toLowerCase().startsWith("set file_search_path"))
@@ -46,15 +46,17 @@ public abstract class AbstractJdbcTrigger extends AbstractTrigger implements Pol
     @PluginProperty(group = "advanced")
     private Property<String> timeZoneId;
 
-    // Off-switch for the rare flow whose SQL keeps state on the connection (e.g. SET search_path) that must not leak to the next pooled run.
+    // Off-switch for flows keeping state on the connection (e.g. SET search_path) on databases without a full session reset.
     @Schema(
         title = "Reuse database connections via a connection pool",
         description = """
             When true (default), connections are pooled and reused across executions, keyed by URL and \
-            credentials, removing the connect and TLS-handshake cost on each run. Set to false if your SQL \
-            relies on session state persisting on the connection (for example SET search_path, session-scoped \
-            temp tables or variables), since pooled connections are reused. Embedded drivers (DuckDB, SQLite, \
-            MS Access) never pool regardless of this setting."""
+            credentials, removing the connect and TLS-handshake cost on each run. The session of a connection \
+            is reset before it goes back to the pool on PostgreSQL, MySQL and MariaDB; SQL Server restores the \
+            connection settings and database, Redshift the settings and Snowflake unsets session variables. \
+            Set to false if your SQL relies on other session state persisting on the connection (for example \
+            SET search_path, session-scoped temp tables or variables), since pooled connections are reused. \
+            Embedded drivers (DuckDB, SQLite, MS Access) never pool regardless of this setting."""
     )
     @Builder.Default
     @PluginProperty(group = "advanced")
@@ -166,4 +168,17 @@ public abstract class AbstractJdbcTrigger extends AbstractTrigger implements Pol
     }
 
     protected abstract AbstractJdbcQuery.Output runQuery(RunContext runContext) throws Exception;
+
+    /**
+     * Run the query of a poll on the connection this trigger keeps from one poll to the next, with the prepared
+     * statement and column plan of its SQL, see {@link TriggerSessions}. Drivers preparing something on each poll, like
+     * a working directory or database file, run the query on its own connection instead.
+     */
+    protected AbstractJdbcQuery.Output runInSession(RunContext runContext, AbstractJdbcQuery query) throws Exception {
+        return TriggerSessions.poll(
+            runContext.getVariables(),
+            () -> query.triggerConnection(runContext),
+            session -> query.run(runContext, session)
+        );
+    }
 }
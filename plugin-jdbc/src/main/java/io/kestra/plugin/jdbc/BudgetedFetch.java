@@ -0,0 +1,193 @@
+package io.kestra.plugin.jdbc;
+
+import io.kestra.core.utils.Rethrow;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Collects FETCH rows in memory while they stay under a row and an estimated heap size budget. Once a budget is
+ * exceeded, either fails or spills: the rows collected so far and every following row are written as ION to internal
+ * storage through a {@link StorePipeline}, and the in-memory rows are released.
+ */
+final class BudgetedFetch {
+    // rough 64-bit JVM sizes with compressed oops, aligned on 8 bytes
+    private static final long OBJECT_SIZE = 16;
+    private static final long MAP_SIZE = 64;
+    private static final long MAP_ENTRY_SIZE = 40;
+    private static final long STRING_SIZE = 40;
+    private static final long ARRAY_SIZE = 16;
+    private static final long REFERENCE_SIZE = 8;
+    private static final long DEFAULT_VALUE_SIZE = 64;
+
+    private final long maxRows;
+    private final long maxBytes;
+    private final FetchBudgetAction action;
+    private final StorePipeline.Upload upload;
+    private final StoreCompression compression;
+
+    private List<Map<String, Object>> rows = new ArrayList<>();
+    private long rowCount;
+    private long estimatedBytes;
+
+    private StorePipeline pipeline;
+    private OutputStream encoded;
+
+    BudgetedFetch(long maxRows, long maxBytes, FetchBudgetAction action, StorePipeline.Upload upload, StoreCompression compression) {
+        this.maxRows = maxRows;
+        this.maxBytes = maxBytes;
+        this.action = action;
+        this.upload = upload;
+        this.compression = compression;
+    }
+
+    Consumer<ResultSet> handler(ColumnPlan plan) {
+        if (this.pipeline != null) {
+            return Rethrow.throwConsumer(new IonRowWriter(this.encoded, plan)::write);
+        }
+
+        // the handler outlives a spill in the middle of the result set, so it checks on every row
+        IonRowWriter[] spilled = new IonRowWriter[1];
+        return Rethrow.throwConsumer(rs -> {
+            if (this.pipeline != null) {
+                if (spilled[0] == null) {
+                    spilled[0] = new IonRowWriter(this.encoded, plan);
+                }
+                spilled[0].write(rs);
+                return;
+            }
+
+            add(plan.toMap(rs));
+        });
+    }
+
+    boolean spilled() {
+        return this.pipeline != null;
+    }
+
+    /**
+     * Rows fetched in memory, only when the budget was never exceeded.
+     */
+    List<Map<String, Object>> rows() {
+        return this.rows;
+    }
+
+    long estimatedBytes() {
+        return this.estimatedBytes;
+    }
+
+    /**
+     * End the spilled file and wait for its upload.
+     */
+    URI complete() throws IOException {
+        try {
+            this.encoded.close();
+        } catch (IOException e) {
+            throw this.pipeline.abort(e);
+        }
+        return this.pipeline.complete();
+    }
+
+    /**
+     * See {@link StorePipeline#blockedNanos()}, 0 when nothing was spilled.
+     */
+    long blockedNanos() {
+        return this.pipeline == null ? 0 : this.pipeline.blockedNanos();
+    }
+
+    /**
+     * See {@link StorePipeline#waitNanos()}, 0 when nothing was spilled.
+     */
+    long waitNanos() {
+        return this.pipeline == null ? 0 : this.pipeline.waitNanos();
+    }
+
+    /**
+     * Abort the spilled file if any, see {@link StorePipeline#abort(Exception)}.
+     */
+    IOException abort(Exception failure) {
+        if (this.pipeline == null) {
+            return failure instanceof IOException ioException ? ioException : null;
+        }
+        return this.pipeline.abort(failure);
+    }
+
+    private void add(Map<String, Object> row) throws IOException {
+        this.rows.add(row);
+        this.rowCount++;
+        if (this.maxBytes > 0) {
+            this.estimatedBytes += REFERENCE_SIZE + estimateSize(row);
+        }
+
+        boolean overRows = this.maxRows > 0 && this.rowCount > this.maxRows;
+        boolean overBytes = this.maxBytes > 0 && this.estimatedBytes > this.maxBytes;
+        if (!overRows && !overBytes) {
+            return;
+        }
+
+        if (this.action == FetchBudgetAction.FAIL) {
+            throw new IllegalStateException(overRows
+                ? "FETCH returned more than " + this.maxRows + " rows (fetchRowBudget), use fetchType STORE for large results"
+                : "FETCH rows use more than an estimated " + this.maxBytes + " bytes of memory (fetchMemoryBudget) after " + this.rowCount + " rows, use fetchType STORE for large results");
+        }
+
+        spill();
+    }
+
+    private void spill() throws IOException {
+        this.pipeline = StorePipeline.open(this.upload);
+        this.encoded = this.compression.wrap(this.pipeline.output());
+
+        for (Map<String, Object> row : this.rows) {
+            IonRowWriter.write(this.encoded, row);
+        }
+        this.rows = null;
+    }
+
+    /**
+     * Estimate the heap retained by a converted value. Row labels are shared by every row of a result set, so map keys
+     * only count for their entry.
+     */
+    static long estimateSize(Object value) {
+        return switch (value) {
+            case null -> 0;
+            case String string -> STRING_SIZE + 2L * string.length();
+            case BigInteger integer -> 56 + integer.bitLength() / 8;
+            case BigDecimal decimal -> 40 + 56 + decimal.unscaledValue().bitLength() / 8;
+            case Long ignored -> 24;
+            case Double ignored -> 24;
+            case Number ignored -> OBJECT_SIZE;
+            case Boolean ignored -> OBJECT_SIZE;
+            case byte[] bytes -> ARRAY_SIZE + bytes.length;
+            case Map<?, ?> map -> {
+                long size = MAP_SIZE + REFERENCE_SIZE * map.size();
+                for (Object entry : map.values()) {
+                    size += MAP_ENTRY_SIZE + estimateSize(entry);
+                }
+                yield size;
+            }
+            case Collection<?> collection -> {
+                long size = MAP_SIZE + REFERENCE_SIZE * collection.size();
+                for (Object element : collection) {
+                    size += estimateSize(element);
+                }
+                yield size;
+            }
+            case Object[] array -> {
+                long size = ARRAY_SIZE + REFERENCE_SIZE * array.length;
+                for (Object element : array) {
+                    size += estimateSize(element);
+                }
+                yield size;
+            }
+            default -> value.getClass().isArray() ? ARRAY_SIZE + 8L * Array.getLength(value) : DEFAULT_VALUE_SIZE;
+        };
+    }
+}
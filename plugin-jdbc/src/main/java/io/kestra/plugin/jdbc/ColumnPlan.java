@@ -0,0 +1,64 @@
+package io.kestra.plugin.jdbc;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Conversion plan for a single ResultSet: the column labels and one reader per column.
+ * Built once from the {@link java.sql.ResultSetMetaData} by {@link AbstractCellConverter#plan},
+ * so rows are converted without any per-cell metadata lookup or type dispatch.
+ */
+public final class ColumnPlan {
+    private final String[] labels;
+    private final ColumnReader[] readers;
+
+    public ColumnPlan(String[] labels, ColumnReader[] readers) {
+        if (labels.length != readers.length) {
+            throw new IllegalArgumentException("Expected one reader per column, got " + readers.length + " readers for " + labels.length + " columns");
+        }
+        this.labels = labels;
+        this.readers = readers;
+    }
+
+    public int size() {
+        return this.labels.length;
+    }
+
+    /**
+     * @param column 0-based column position
+     */
+    public String label(int column) {
+        return this.labels[column];
+    }
+
+    public String[] labels() {
+        return this.labels.clone();
+    }
+
+    /**
+     * Read and convert the given column of the current row.
+     *
+     * @param column 0-based column position
+     */
+    public Object read(ResultSet rs, int column) throws SQLException {
+        return this.readers[column].read(rs);
+    }
+
+    public Map<String, Object> toMap(ResultSet rs) throws SQLException {
+        var map = new LinkedHashMap<String, Object>(this.labels.length * 2);
+        for (int i = 0; i < this.labels.length; i++) {
+            map.put(this.labels[i], this.readers[i].read(rs));
+        }
+        return map;
+    }
+
+    /**
+     * Reads and converts one column of the current row; the column index is bound when the plan is built.
+     */
+    @FunctionalInterface
+    public interface ColumnReader {
+        Object read(ResultSet rs) throws SQLException;
+    }
+}
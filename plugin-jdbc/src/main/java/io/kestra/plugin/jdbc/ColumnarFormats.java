@@ -0,0 +1,32 @@
+package io.kestra.plugin.jdbc;
+
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * The {@link ColumnarRowWriter.Provider}s bundled with this plugin, looked up once with the plugin class loader:
+ * a format module is only visible to the plugins depending on it.
+ */
+final class ColumnarFormats {
+    private static final Map<StoreFormat, ColumnarRowWriter.Provider> PROVIDERS = new EnumMap<>(StoreFormat.class);
+
+    static {
+        ServiceLoader.load(ColumnarRowWriter.Provider.class, ColumnarFormats.class.getClassLoader())
+            .forEach(provider -> PROVIDERS.put(provider.format(), provider));
+    }
+
+    private ColumnarFormats() {
+    }
+
+    static ColumnarRowWriter open(StoreFormat format, OutputStream output, ColumnarRowWriter.Options options) {
+        ColumnarRowWriter.Provider provider = PROVIDERS.get(format);
+        if (provider == null) {
+            throw new IllegalArgumentException("storeFormat " + format + " is not available in this plugin, it is only " +
+                "bundled with the plugins depending on the plugin-jdbc-" + format.name().toLowerCase() + " module");
+        }
+
+        return provider.open(output, options);
+    }
+}
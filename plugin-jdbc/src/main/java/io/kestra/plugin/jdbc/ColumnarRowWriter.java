@@ -0,0 +1,45 @@
+package io.kestra.plugin.jdbc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.ZoneId;
+import java.util.ServiceLoader;
+
+/**
+ * Writes STORE rows in a columnar {@link StoreFormat}. The columnar formats pull large libraries, so they are not part
+ * of this module: each one ships in its own module (e.g. {@code plugin-jdbc-parquet}) registering a {@link Provider},
+ * and only the plugins depending on that module can store results in that format.
+ */
+public interface ColumnarRowWriter extends Closeable {
+    /**
+     * Open the file for the given result set. A columnar file holds a single schema, so every result set written to it
+     * must expose the same columns.
+     */
+    ColumnarRowWriter start(ColumnPlan plan, ResultSetMetaData meta) throws SQLException, IOException;
+
+    void write(ResultSet rs) throws SQLException, IOException;
+
+    /**
+     * Write a row already converted with the current {@link ColumnPlan}.
+     */
+    void write(Object[] row) throws IOException;
+
+    /**
+     * Settings of the columnar formats, each format only reads its own.
+     */
+    record Options(long parquetRowGroupSize, int arrowBatchSize, ZoneId zoneId) {
+    }
+
+    /**
+     * Creates the writers of one columnar format, registered as a {@link ServiceLoader} service.
+     */
+    interface Provider {
+        StoreFormat format();
+
+        ColumnarRowWriter open(OutputStream output, Options options);
+    }
+}
@@ -0,0 +1,16 @@
+package io.kestra.plugin.jdbc;
+
+/**
+ * How tasks waiting for a database limited by {@code maxDatabaseConcurrency} are let in.
+ */
+public enum ConcurrencyFairness {
+    /**
+     * In arrival order.
+     */
+    FIFO,
+    /**
+     * Namespaces take turns, in proportion to the {@code concurrencyWeight} of their tasks; tasks of a namespace are
+     * let in in arrival order. A namespace queuing many tasks does not delay the other namespaces.
+     */
+    NAMESPACE
+}
@@ -0,0 +1,15 @@
+package io.kestra.plugin.jdbc;
+
+/**
+ * Which tasks share a database connection.
+ */
+public enum ConnectionScope {
+    /**
+     * Every task gets its own connection, from the connection pool unless pooling is disabled.
+     */
+    TASK,
+    /**
+     * The tasks of an execution running on the same worker share one connection, see {@link ExecutionConnections}.
+     */
+    EXECUTION
+}
@@ -0,0 +1,220 @@
+package io.kestra.plugin.jdbc;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * What a task needs to know about the database behind a connection: its product, driver and URL, whether it supports
+ * transactions and batches, and the name of its current database.
+ * <p>
+ * None of them change from one connection of a pool to the next, so they are read once per pool, from the first
+ * connection asking for them, and kept with it by {@link JdbcConnectionPool}: tasks then skip the metadata calls and
+ * the database name query, a round trip each on some drivers. Connections outside a pool keep theirs for as long as
+ * they are open.
+ * <p>
+ * The database name is the one of the connection it was first asked on, i.e. the database of the pool unless a task
+ * switched it before creating a table.
+ */
+final class DatabaseInfo {
+    // connections outside a pool, weakly held so they can be collected once closed
+    private static final Map<Connection, DatabaseInfo> UNPOOLED = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final String productName;
+    // lower case, for matching
+    private final String product;
+    private final String driver;
+    private final String url;
+    private final boolean supportsTransactions;
+    private final boolean supportsBatchUpdates;
+    private volatile String databaseName;
+
+    private DatabaseInfo(String productName, String driverName, String url, boolean supportsTransactions, boolean supportsBatchUpdates) {
+        this.productName = productName;
+        this.product = lower(productName);
+        this.driver = lower(driverName);
+        this.url = lower(url);
+        this.supportsTransactions = supportsTransactions;
+        this.supportsBatchUpdates = supportsBatchUpdates;
+    }
+
+    /**
+     * The facts of the database behind the given connection, from its pool if it comes from one.
+     */
+    static DatabaseInfo of(Connection connection) throws SQLException {
+        if (connection.isWrapperFor(DatabaseInfo.class)) {
+            return connection.unwrap(DatabaseInfo.class);
+        }
+
+        DatabaseInfo info = UNPOOLED.get(connection);
+        if (info == null) {
+            info = read(connection);
+            UNPOOLED.put(connection, info);
+        }
+        return info;
+    }
+
+    /**
+     * Read the facts from the metadata of the connection.
+     */
+    static DatabaseInfo read(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        return new DatabaseInfo(
+            metaData.getDatabaseProductName(),
+            metaData.getDriverName(),
+            metaData.getURL(),
+            metaData.supportsTransactions(),
+            metaData.supportsBatchUpdates()
+        );
+    }
+
+    String productName() {
+        return this.productName;
+    }
+
+    /**
+     * The product name in lower case, for matching.
+     */
+    String product() {
+        return this.product;
+    }
+
+    /**
+     * The driver name in lower case, for matching.
+     */
+    String driver() {
+        return this.driver;
+    }
+
+    /**
+     * The URL in lower case, for matching.
+     */
+    String url() {
+        return this.url;
+    }
+
+    boolean supportsTransactions() {
+        return this.supportsTransactions;
+    }
+
+    boolean supportsBatchUpdates() {
+        return this.supportsBatchUpdates;
+    }
+
+    /**
+     * The name of the current database, queried on the given connection the first time it is found. A failed lookup
+     * falls back to the catalog or schema of the connection, or {@code unknown}, and is retried on the next call.
+     */
+    String databaseName(Connection connection) {
+        String name = this.databaseName;
+        if (name != null) {
+            return name;
+        }
+
+        try {
+            name = queryDatabaseName(connection, this.product);
+        } catch (SQLException e) {
+            return fallbackDatabaseName(connection);
+        }
+        if (name == null) {
+            return "unknown";
+        }
+        this.databaseName = name;
+        return name;
+    }
+
+    /**
+     * Get the database name by executing a database-specific query.
+     * Different databases have different ways to query the current database name.
+     */
+    private static String queryDatabaseName(Connection conn, String productName) throws SQLException {
+        String query = switch (productName) {
+            case String p when p.contains("postgresql") || p.contains("postgres") -> "SELECT current_database()";
+            case String p when p.contains("mysql") || p.contains("mariadb") -> "SELECT DATABASE()";
+            case String p when p.contains("oracle") -> "SELECT SYS_CONTEXT('USERENV', 'DB_NAME') FROM DUAL";
+            case String p when p.contains("sql server") || p.contains("sqlserver") -> "SELECT DB_NAME()";
+            case String p when p.contains("db2") -> "SELECT CURRENT SERVER FROM SYSIBM.SYSDUMMY1";
+            case String p when p.contains("h2") -> "SELECT DATABASE()";
+            case String p when p.contains("sqlite") -> "PRAGMA database_list";
+            case String p when p.contains("duckdb") -> "SELECT current_database()";
+            case String p when p.contains("snowflake") -> "SELECT CURRENT_DATABASE()";
+            case String p when p.contains("redshift") -> "SELECT CURRENT_DATABASE()";
+            case String p when p.contains("clickhouse") -> "SELECT currentDatabase()";
+            case String p when p.contains("trino") || p.contains("presto") -> "SELECT current_catalog";
+            case String p when p.contains("vertica") -> "SELECT CURRENT_DATABASE()";
+            case String p when p.contains("sybase") -> "SELECT DB_NAME()";
+            case String p when p.contains("hana") -> "SELECT CURRENT_SCHEMA FROM DUMMY";
+            case String p when p.contains("apache pinot") || p.contains("pinot") ->
+                null; // Pinot doesn't have a database concept
+            case String p when p.contains("apache druid") || p.contains("druid") ->
+                null; // Druid doesn't have a database concept
+            case String p when p.contains("apache arrow") || p.contains("arrow") ->
+                null; // Arrow Flight doesn't have a database concept
+            default -> null;
+        };
+
+        if (query == null) {
+            // Fallback: try to get from catalog or schema
+            String catalog = conn.getCatalog();
+            if (catalog != null && !catalog.isEmpty()) {
+                return catalog;
+            }
+            String schema = conn.getSchema();
+            if (schema != null && !schema.isEmpty()) {
+                return schema;
+            }
+            return null;
+        }
+
+        // Special handling for SQLite which returns a result set with multiple rows
+        if (productName.contains("sqlite")) {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(query)) {
+                if (rs.next()) {
+                    // SQLite PRAGMA database_list returns: seq, name, file
+                    // We want the "main" database
+                    return rs.getString("name");
+                }
+            }
+            return null;
+        }
+
+        // Execute the query to get the database name
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            if (rs.next()) {
+                return rs.getString(1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The catalog or schema of the connection, when the database name query failed.
+     */
+    private static String fallbackDatabaseName(Connection conn) {
+        try {
+            String catalog = conn.getCatalog();
+            if (catalog != null && !catalog.isEmpty()) {
+                return catalog;
+            }
+            String schema = conn.getSchema();
+            if (schema != null && !schema.isEmpty()) {
+                return schema;
+            }
+        } catch (SQLException ex) {
+            // Ignore
+        }
+        return "unknown";
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+}
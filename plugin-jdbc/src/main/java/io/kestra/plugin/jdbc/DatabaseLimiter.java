@@ -0,0 +1,242 @@
+package io.kestra.plugin.jdbc;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Worker-wide limit of the tasks connected at the same time to a database, whatever their connection pool.
+ * <p>
+ * Databases are identified by their URL without its parameters and credentials, i.e. host, port and database (only
+ * the server when the database is a parameter, like on SQL Server), so tasks using different users or driver
+ * properties still share the limit. The limit is given by each task: a task only gets in while fewer tasks than its
+ * own limit are in.
+ * <p>
+ * Waiting tasks are queued in lanes: one per namespace for {@link ConcurrencyFairness#NAMESPACE}, a single one for
+ * all the {@link ConcurrencyFairness#FIFO} tasks. Lanes take turns in proportion to their weight (stride
+ * scheduling), tasks of a lane in arrival order. The head of the next lane blocks the others until it gets in, so a
+ * task with a lower limit is not overtaken forever.
+ */
+final class DatabaseLimiter {
+    private static final DatabaseLimiter SHARED = new DatabaseLimiter();
+
+    private final ConcurrentHashMap<String, Gate> gates = new ConcurrentHashMap<>();
+
+    static Permit acquire(String jdbcUrl, int limit, String lane, int weight) throws InterruptedException {
+        return SHARED.gate(key(jdbcUrl)).acquire(limit, lane, weight);
+    }
+
+    static String key(String jdbcUrl) {
+        int end = jdbcUrl.length();
+        for (char separator : new char[]{'?', ';'}) {
+            int index = jdbcUrl.indexOf(separator);
+            if (index >= 0 && index < end) {
+                end = index;
+            }
+        }
+
+        String key = jdbcUrl.substring(0, end).toLowerCase(Locale.ROOT);
+        int authority = key.indexOf("//");
+        int credentials = key.lastIndexOf('@');
+        if (authority >= 0 && credentials > authority) {
+            key = key.substring(0, authority + 2) + key.substring(credentials + 1);
+        }
+        return key.endsWith("/") ? key.substring(0, key.length() - 1) : key;
+    }
+
+    Gate gate(String key) {
+        return this.gates.computeIfAbsent(key, k -> new Gate());
+    }
+
+    /**
+     * A task let in, until it is released.
+     */
+    interface Permit {
+        /**
+         * Let the next task in, only the first call counts.
+         */
+        void release();
+
+        /**
+         * The given connection, releasing this permit once closed or aborted.
+         */
+        default Connection releaseOnClose(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close" -> {
+                        try {
+                            connection.close();
+                        } finally {
+                            this.release();
+                        }
+                        return null;
+                    }
+                    case "abort" -> {
+                        try {
+                            JdbcConnectionInterface.abort(connection, (Executor) args[0]);
+                        } finally {
+                            this.release();
+                        }
+                        return null;
+                    }
+                    case "equals" -> {
+                        return proxy == args[0];
+                    }
+                    case "hashCode" -> {
+                        return System.identityHashCode(proxy);
+                    }
+                    default -> {
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    static final class Gate {
+        private final ReentrantLock lock = new ReentrantLock();
+        // kept once empty, with their pass, so a lane leaving and joining again right away gets no extra turn
+        private final Map<String, Lane> lanes = new LinkedHashMap<>();
+        private int inFlight;
+        private int waiting;
+        private double virtualTime;
+
+        Permit acquire(int limit, String lane, int weight) throws InterruptedException {
+            Waiter waiter;
+
+            this.lock.lock();
+            try {
+                if (this.waiting == 0 && this.inFlight < limit) {
+                    this.inFlight++;
+                    return this.permit();
+                }
+
+                Lane queue = this.lanes.computeIfAbsent(lane, k -> new Lane());
+                if (queue.waiters.isEmpty()) {
+                    queue.pass = Math.max(queue.pass, this.virtualTime);
+                }
+                queue.weight = Math.max(1, weight);
+                waiter = new Waiter(limit, this.lock.newCondition());
+                queue.waiters.add(waiter);
+                this.waiting++;
+                // we may be the head of the next lane, and the limit of the previous head may have been lower
+                this.dispatch();
+
+                try {
+                    while (!waiter.admitted) {
+                        waiter.condition.await();
+                    }
+                } catch (InterruptedException e) {
+                    if (waiter.admitted) {
+                        this.release();
+                    } else {
+                        queue.waiters.remove(waiter);
+                        this.waiting--;
+                        this.dispatch();
+                    }
+                    throw e;
+                }
+            } finally {
+                this.lock.unlock();
+            }
+
+            return this.permit();
+        }
+
+        int inFlight() {
+            this.lock.lock();
+            try {
+                return this.inFlight;
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        int waiting() {
+            this.lock.lock();
+            try {
+                return this.waiting;
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        private Permit permit() {
+            AtomicBoolean released = new AtomicBoolean();
+            return () -> {
+                if (released.compareAndSet(false, true)) {
+                    this.release();
+                }
+            };
+        }
+
+        private void release() {
+            this.lock.lock();
+            try {
+                this.inFlight--;
+                this.dispatch();
+            } finally {
+                this.lock.unlock();
+            }
+        }
+
+        /**
+         * Let waiting tasks in, the head of the lane with the lowest pass first, while their limit allows it.
+         */
+        private void dispatch() {
+            while (this.waiting > 0) {
+                Lane next = null;
+                for (Lane lane : this.lanes.values()) {
+                    if (!lane.waiters.isEmpty() && (next == null || lane.pass < next.pass)) {
+                        next = lane;
+                    }
+                }
+
+                Waiter head = next.waiters.peek();
+                if (this.inFlight >= head.limit) {
+                    return;
+                }
+
+                next.waiters.poll();
+                this.waiting--;
+                this.inFlight++;
+                head.admitted = true;
+                head.condition.signal();
+
+                this.virtualTime = next.pass;
+                next.pass += 1.0 / next.weight;
+            }
+        }
+    }
+
+    private static final class Lane {
+        private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+        // moved up to the current virtual time when it starts waiting, so it gets no credit for the time it was not
+        private double pass;
+        private int weight = 1;
+    }
+
+    private static final class Waiter {
+        private final int limit;
+        private final Condition condition;
+        private boolean admitted;
+
+        private Waiter(int limit, Condition condition) {
+            this.limit = limit;
+            this.condition = condition;
+        }
+    }
+}
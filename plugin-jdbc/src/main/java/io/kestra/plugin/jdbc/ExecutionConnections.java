@@ -0,0 +1,213 @@
+package io.kestra.plugin.jdbc;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Connections shared by the tasks of an execution using {@link ConnectionScope#EXECUTION}, keyed by (execution id,
+ * jdbcUrl, all connection properties) like {@link JdbcConnectionPool}.
+ * <p>
+ * The first task opens the connection, every following task of the execution on this worker reuses it, so session
+ * state such as temp tables is shared between them. A task closing the connection only hands it back: its pending
+ * transaction is rolled back. The connection is closed for good once unused for its idle timeout, on JVM shutdown,
+ * when closed by another thread than the task using it, or when aborted (a killed task).
+ * <p>
+ * A shared connection is used by one task at a time; a task starting while it is in use (parallel branches of the
+ * execution) gets a connection of its own.
+ */
+final class ExecutionConnections {
+    private static final ExecutionConnections SHARED = new ExecutionConnections(System::nanoTime);
+    private static final AtomicBoolean HOUSEKEEPING_STARTED = new AtomicBoolean(false);
+    private static final long HOUSEKEEPING_PERIOD_SECONDS = 30;
+
+    private static final int IDLE = 0;
+    private static final int IN_USE = 1;
+    private static final int CLOSED = -1;
+
+    private final ConcurrentHashMap<String, Shared> connections = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    ExecutionConnections(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    static Connection connection(String executionId, String key, Duration idleTimeout, Opener opener) throws SQLException {
+        startHousekeeping();
+        return SHARED.lease(executionId, key, idleTimeout, opener);
+    }
+
+    @FunctionalInterface
+    interface Opener {
+        Connection open() throws SQLException;
+    }
+
+    Connection lease(String executionId, String key, Duration idleTimeout, Opener opener) throws SQLException {
+        String sharedKey = executionId + '\u0000' + key;
+
+        while (true) {
+            Shared shared = this.connections.get(sharedKey);
+            if (shared == null) {
+                shared = new Shared(opener.open(), idleTimeout.toNanos(), this.clock.getAsLong());
+                if (this.connections.putIfAbsent(sharedKey, shared) != null) {
+                    // another task of the execution opened one at the same time, keep this one for the task only
+                    return shared.connection;
+                }
+                return shared.lease(sharedKey);
+            }
+
+            if (!shared.state.compareAndSet(IDLE, IN_USE)) {
+                if (shared.state.get() == CLOSED) {
+                    // being closed and will leave the map right away
+                    Thread.onSpinWait();
+                    continue;
+                }
+                return opener.open();
+            }
+
+            if (shared.connection.isClosed()) {
+                discard(sharedKey, shared);
+                continue;
+            }
+            return shared.lease(sharedKey);
+        }
+    }
+
+    /**
+     * Close every shared connection unused for longer than its idle timeout.
+     */
+    void evictIdle() {
+        long now = this.clock.getAsLong();
+        for (Map.Entry<String, Shared> entry : this.connections.entrySet()) {
+            Shared shared = entry.getValue();
+            if (now - shared.lastUsed >= shared.idleTimeoutNanos && shared.state.compareAndSet(IDLE, CLOSED)) {
+                discard(entry.getKey(), shared);
+            }
+        }
+    }
+
+    int size() {
+        return this.connections.size();
+    }
+
+    void close() {
+        this.connections.forEach(this::discard);
+    }
+
+    private void discard(String key, Shared shared) {
+        shared.state.set(CLOSED);
+        this.connections.remove(key, shared);
+        try {
+            shared.connection.close();
+        } catch (SQLException ignored) {
+            // the connection is dropped anyway
+        }
+    }
+
+    private static void startHousekeeping() {
+        if (HOUSEKEEPING_STARTED.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(SHARED::close, "kestra-jdbc-execution-connections-shutdown"));
+
+            ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "kestra-jdbc-execution-connections-eviction");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleWithFixedDelay(() -> {
+                try {
+                    SHARED.evictIdle();
+                } catch (RuntimeException ignored) {
+                    // a failing close must not cancel the next evictions
+                }
+            }, HOUSEKEEPING_PERIOD_SECONDS, HOUSEKEEPING_PERIOD_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    private final class Shared {
+        private final Connection connection;
+        private final long idleTimeoutNanos;
+        private final AtomicInteger state = new AtomicInteger(IN_USE);
+        private volatile long lastUsed;
+
+        private Shared(Connection connection, long idleTimeoutNanos, long now) {
+            this.connection = connection;
+            this.idleTimeoutNanos = idleTimeoutNanos;
+            this.lastUsed = now;
+        }
+
+        /**
+         * The connection as seen by one task, closing it hands the connection back.
+         */
+        private Connection lease(String key) {
+            Thread owner = Thread.currentThread();
+            AtomicBoolean closed = new AtomicBoolean();
+
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close" -> {
+                        if (closed.compareAndSet(false, true)) {
+                            handBack(key, Thread.currentThread() == owner);
+                        }
+                        return null;
+                    }
+                    case "abort" -> {
+                        if (closed.compareAndSet(false, true)) {
+                            this.state.set(CLOSED);
+                            ExecutionConnections.this.connections.remove(key, this);
+                            JdbcConnectionInterface.abort(this.connection, (Executor) args[0]);
+                        }
+                        return null;
+                    }
+                    case "isClosed" -> {
+                        return closed.get() || this.connection.isClosed();
+                    }
+                    case "equals" -> {
+                        return proxy == args[0];
+                    }
+                    case "hashCode" -> {
+                        return System.identityHashCode(proxy);
+                    }
+                    default -> {
+                        try {
+                            return method.invoke(this.connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                }
+            });
+        }
+
+        private void handBack(String key, boolean byOwner) {
+            if (!byOwner) {
+                // closed while the task may still be using it, its state is unknown
+                discard(key, this);
+                return;
+            }
+
+            try {
+                if (!this.connection.getAutoCommit()) {
+                    this.connection.rollback();
+                    this.connection.setAutoCommit(true);
+                }
+            } catch (SQLException | RuntimeException e) {
+                discard(key, this);
+                return;
+            }
+
+            this.lastUsed = ExecutionConnections.this.clock.getAsLong();
+            this.state.compareAndSet(IN_USE, IDLE);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package io.kestra.plugin.jdbc;
+
+/**
+ * What a {@code FETCH} does once its rows go over {@code fetchRowBudget} or {@code fetchMemoryBudget}.
+ */
+public enum FetchBudgetAction {
+    /**
+     * Write every row to internal storage and return its {@code uri}, like {@code STORE}, instead of {@code rows}.
+     */
+    STORE,
+    /**
+     * Fail the task.
+     */
+    FAIL
+}
@@ -0,0 +1,60 @@
+package io.kestra.plugin.jdbc;
+
+import com.github.luben.zstd.ZstdInputStream;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.core.serializers.JacksonMapper;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the rows of an ION file in any of the encodings produced by STORE: text or binary ION, optionally gzip or
+ * zstd compressed. The encoding is detected from the leading magic bytes, so callers don't need to know how the
+ * file was written.
+ */
+final class IonRowReader {
+    private static final byte[] GZIP_MAGIC = {(byte) 0x1F, (byte) 0x8B};
+    private static final byte[] ZSTD_MAGIC = {(byte) 0x28, (byte) 0xB5, (byte) 0x2F, (byte) 0xFD};
+    private static final byte[] ION_BINARY_VERSION_MARKER = {(byte) 0xE0, (byte) 0x01, (byte) 0x00, (byte) 0xEA};
+
+    private IonRowReader() {
+    }
+
+    static Iterable<Object> readAll(InputStream input) throws IOException {
+        InputStream buffered = input.markSupported() ? input : new BufferedInputStream(input, FileSerde.BUFFER_SIZE);
+
+        if (startsWith(buffered, GZIP_MAGIC)) {
+            return readAll(new GZIPInputStream(buffered, FileSerde.BUFFER_SIZE));
+        }
+
+        if (startsWith(buffered, ZSTD_MAGIC)) {
+            return readAll(new ZstdInputStream(buffered));
+        }
+
+        if (startsWith(buffered, ION_BINARY_VERSION_MARKER)) {
+            // the ION mapper detects binary input by itself, it only needs the raw bytes instead of a text reader
+            return () -> {
+                try {
+                    return JacksonMapper.ofIon().readerFor(Object.class).readValues(buffered);
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Unable to read binary ION input", e);
+                }
+            };
+        }
+
+        return FileSerde.readAll(buffered).toIterable();
+    }
+
+    private static boolean startsWith(InputStream input, byte[] magic) throws IOException {
+        input.mark(magic.length);
+        try {
+            byte[] head = input.readNBytes(magic.length);
+            return Arrays.equals(head, magic);
+        } finally {
+            input.reset();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package io.kestra.plugin.jdbc;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.dataformat.ion.IonObjectMapper;
+import io.kestra.core.serializers.JacksonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Writes STORE rows straight from a ResultSet to ION, one value per line like {@link io.kestra.core.serializers.FileSerde#write},
+ * without building a map for each row. Field names are encoded once per ResultSet and the value array is reused across rows;
+ * the row itself is serialized by the same ION mapper, so the file is byte-for-byte what {@code FileSerde} would produce.
+ * <p>
+ * In binary mode, rows are appended to a single binary ION stream opened with {@link #binarySequence(OutputStream)}, so
+ * field names are written once in the stream symbol table instead of for every row.
+ */
+final class IonRowWriter implements JsonSerializable {
+    // Same mapper as FileSerde; the target stream belongs to the caller, so it must not be closed after each row.
+    private static final ObjectWriter WRITER = JacksonMapper.ofIon().writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private static final ObjectWriter BINARY_WRITER = binaryMapper().writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    // the binary writer holds values in memory until flushed, flush regularly to keep memory bounded on large results
+    private static final int BINARY_FLUSH_ROWS = 1000;
+
+    private final OutputStream output;
+    private final SequenceWriter sequence;
+    private final ColumnPlan plan;
+    private final SerializedString[] names;
+    private final Object[] values;
+    private int pendingRows;
+
+    IonRowWriter(OutputStream output, ColumnPlan plan) {
+        this(output, null, plan);
+    }
+
+    IonRowWriter(SequenceWriter sequence, ColumnPlan plan) {
+        this(null, sequence, plan);
+    }
+
+    private IonRowWriter(OutputStream output, SequenceWriter sequence, ColumnPlan plan) {
+        this.output = output;
+        this.sequence = sequence;
+        this.plan = plan;
+        this.names = new SerializedString[plan.size()];
+        for (int i = 0; i < this.names.length; i++) {
+            this.names[i] = new SerializedString(plan.label(i));
+        }
+        this.values = new Object[plan.size()];
+    }
+
+    /**
+     * Open a binary ION stream on the output; closing it ends the stream but leaves the output open.
+     */
+    static SequenceWriter binarySequence(OutputStream output) throws IOException {
+        return BINARY_WRITER.writeValues(output);
+    }
+
+    void write(ResultSet rs) throws SQLException, IOException {
+        for (int i = 0; i < this.values.length; i++) {
+            this.values[i] = this.plan.read(rs, i);
+        }
+
+        writeValues();
+    }
+
+    /**
+     * Write a row already converted with the same {@link ColumnPlan}.
+     */
+    void write(Object[] row) throws IOException {
+        System.arraycopy(row, 0, this.values, 0, this.values.length);
+
+        writeValues();
+    }
+
+    /**
+     * Write a row already converted to a map, with the same encoding as the rows written from a ResultSet.
+     */
+    static void write(OutputStream output, Map<String, Object> row) throws IOException {
+        WRITER.writeValue(output, row);
+        output.write('\n');
+    }
+
+    private void writeValues() throws IOException {
+        if (this.sequence != null) {
+            this.sequence.write(this);
+            if (++this.pendingRows == BINARY_FLUSH_ROWS) {
+                this.sequence.flush();
+                this.pendingRows = 0;
+            }
+            return;
+        }
+
+        WRITER.writeValue(this.output, this);
+        this.output.write('\n');
+    }
+
+    private static IonObjectMapper binaryMapper() {
+        // copy so the shared text mapper keeps its configuration
+        IonObjectMapper mapper = (IonObjectMapper) JacksonMapper.ofIon().copy();
+        mapper.setCreateBinaryWriters(true);
+        return mapper;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        // Mirror the map serializer: null values are dropped when the mapper excludes null content.
+        JsonInclude.Include contentInclusion = serializers.getDefaultPropertyInclusion(Map.class).getContentInclusion();
+        boolean skipNulls = contentInclusion != JsonInclude.Include.ALWAYS && contentInclusion != JsonInclude.Include.USE_DEFAULTS;
+
+        gen.writeStartObject();
+        for (int i = 0; i < this.values.length; i++) {
+            Object value = this.values[i];
+            if (value == null) {
+                if (!skipNulls) {
+                    gen.writeFieldName(this.names[i]);
+                    serializers.defaultSerializeNull(gen);
+                }
+                continue;
+            }
+
+            gen.writeFieldName(this.names[i]);
+            serializers.defaultSerializeValue(value, gen);
+        }
+        gen.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+        serialize(gen, serializers);
+    }
+}
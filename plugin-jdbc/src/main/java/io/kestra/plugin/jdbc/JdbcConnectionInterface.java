@@ -2,6 +2,8 @@ package io.kestra.plugin.jdbc;
 
 import io.kestra.core.exceptions.IllegalVariableEvaluationException;
 import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.executions.metrics.Timer;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.runners.RunContext;
 import io.micronaut.http.uri.UriBuilder;
@@ -12,7 +14,11 @@ import java.net.URISyntaxException;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Executor;
 
 import jakarta.validation.constraints.NotNull;
 import org.apache.commons.lang3.StringUtils;
@@ -108,20 +114,201 @@ public interface JdbcConnectionInterface {
         return Property.ofValue(10);
     }
 
+    default Property<ConnectionScope> getConnectionScope() {
+        return Property.ofValue(ConnectionScope.TASK);
+    }
+
+    default Property<Duration> getConnectionScopeIdleTimeout() {
+        return Property.ofValue(Duration.ofMinutes(10));
+    }
+
+    default Property<Integer> getStatementCacheSize() {
+        return null;
+    }
+
+    /**
+     * Size the driver's own prepared statement cache, for drivers having one, by setting its properties unless already
+     * set. Only called for pooled connections when statementCacheSize is set.
+     */
+    default void configureStatementCache(Properties props, int size) {
+    }
+
+    /**
+     * Whether the driver only honors the fetch size inside a transaction and reads the whole result in memory in
+     * autocommit, like pgjdbc. Query and Queries then stream their STORE and FETCH results in a transaction.
+     */
+    default boolean fetchesInTransaction() {
+        return false;
+    }
+
+    default Property<Integer> getMaxDatabaseConcurrency() {
+        return null;
+    }
+
+    default Property<ConcurrencyFairness> getConcurrencyFairness() {
+        return Property.ofValue(ConcurrencyFairness.FIFO);
+    }
+
+    default Property<Integer> getConcurrencyWeight() {
+        return Property.ofValue(1);
+    }
+
+    /**
+     * How to clear the session state left by a task before a pooled connection is reused, see {@link SessionReset}.
+     * Databases without one keep their session state on pooled connections.
+     */
+    default SessionReset sessionReset() {
+        return SessionReset.NONE;
+    }
+
     default Connection connection(RunContext runContext) throws Exception {
+        return this.connection(runContext, true);
+    }
+
+    /**
+     * Drop a connection a statement may still be running on, e.g. the one of a killed task: a pooled connection is
+     * closed for good instead of being reset while in use. Closed when the driver does not support abort.
+     */
+    static void abort(Connection connection, Executor executor) throws SQLException {
+        try {
+            connection.abort(executor);
+        } catch (SQLFeatureNotSupportedException | AbstractMethodError e) {
+            connection.close();
+        }
+    }
+
+    /**
+     * Another connection for a task already holding one, e.g. for a lane of its parallel statements. It does not go
+     * through maxDatabaseConcurrency again: the task got in with its first connection, and tasks each holding a permit
+     * while waiting for another one would wait for each other forever.
+     */
+    default Connection additionalConnection(RunContext runContext) throws Exception {
+        return this.connection(runContext, false);
+    }
+
+    /**
+     * A connection of its own for a polling trigger, kept from one poll to the next by {@link TriggerSessions}. It is
+     * neither taken from the pool nor counted by maxDatabaseConcurrency, the trigger would hold them as long as it lives.
+     */
+    default Connection triggerConnection(RunContext runContext) throws Exception {
+        registerDriver();
+
+        Properties props = this.connectionProperties(runContext);
+        try {
+            String jdbcUrl = props.getProperty("jdbc.url");
+            props.remove("jdbc.url");
+            return this.openConnection(runContext, jdbcUrl, props, false, 0, 0);
+        } finally {
+            TlsMaterialCache.release(props);
+        }
+    }
+
+    private Connection connection(RunContext runContext, boolean limited) throws Exception {
         registerDriver();
 
         Properties props = this.connectionProperties(runContext);
+        try {
+            return this.connect(runContext, props, limited);
+        } finally {
+            // the connection is open, secret files like a decrypted key are only kept for the pool still needing them
+            TlsMaterialCache.release(props);
+        }
+    }
+
+    private Connection connect(RunContext runContext, Properties props, boolean limited) throws Exception {
         String jdbcUrl = props.getProperty("jdbc.url");
         props.remove("jdbc.url");
 
         boolean pool = usesConnectionPool()
             && runContext.render(getConnectionPooling()).as(Boolean.class).orElse(true);
+        int size = runContext.render(getConnectionPoolSize()).as(Integer.class).orElse(10);
+
+        // opt-in: cached statements bypass the statement tracking of the pool and outlive session resets
+        int statementCacheSize = 0;
+        Integer configuredCacheSize = getStatementCacheSize() == null
+            ? null
+            : runContext.render(getStatementCacheSize()).as(Integer.class).orElse(null);
+        if (pool && configuredCacheSize != null) {
+            statementCacheSize = Math.max(0, configuredCacheSize);
+            this.configureStatementCache(props, statementCacheSize);
+        }
+        // a session reset dropping prepared statements would leave the pool with statements the server forgot,
+        // those databases only rely on the driver cache
+        if (!pool || this.sessionReset().dropsStatements()) {
+            statementCacheSize = 0;
+        }
+
+        Integer maxConcurrency = getMaxDatabaseConcurrency() == null
+            ? null
+            : runContext.render(getMaxDatabaseConcurrency()).as(Integer.class).orElse(null);
+        if (maxConcurrency == null || !limited) {
+            return this.scopedConnection(runContext, jdbcUrl, props, pool, size, statementCacheSize);
+        }
+
+        ConcurrencyFairness fairness = runContext.render(getConcurrencyFairness()).as(ConcurrencyFairness.class).orElse(ConcurrencyFairness.FIFO);
+        String lane = fairness == ConcurrencyFairness.NAMESPACE
+            && runContext.getVariables().get("flow") instanceof Map<?, ?> flow
+            && flow.get("namespace") instanceof String namespace ? namespace : "";
+        int weight = runContext.render(getConcurrencyWeight()).as(Integer.class).orElse(1);
+
+        long start = System.nanoTime();
+        DatabaseLimiter.Permit permit = DatabaseLimiter.acquire(jdbcUrl, maxConcurrency, lane, weight);
+        runContext.metric(Timer.of("concurrency.wait.duration", Duration.ofNanos(System.nanoTime() - start)));
+        try {
+            return permit.releaseOnClose(this.scopedConnection(runContext, jdbcUrl, props, pool, size, statementCacheSize));
+        } catch (Exception e) {
+            permit.release();
+            throw e;
+        }
+    }
+
+    private Connection scopedConnection(RunContext runContext, String jdbcUrl, Properties props, boolean pool, int size, int statementCacheSize) throws Exception {
+        ConnectionScope scope = runContext.render(getConnectionScope()).as(ConnectionScope.class).orElse(ConnectionScope.TASK);
+        String executionId = runContext.getVariables().get("execution") instanceof Map<?, ?> execution && execution.get("id") instanceof String id ? id : null;
+        if (scope == ConnectionScope.EXECUTION && executionId != null) {
+            Duration idleTimeout = runContext.render(getConnectionScopeIdleTimeout()).as(Duration.class).orElse(Duration.ofMinutes(10));
+            return ExecutionConnections.connection(
+                executionId,
+                JdbcConnectionPool.poolKey(jdbcUrl, props),
+                idleTimeout,
+                () -> this.openConnection(runContext, jdbcUrl, props, pool, size, statementCacheSize)
+            );
+        }
+
+        return this.openConnection(runContext, jdbcUrl, props, pool, size, statementCacheSize);
+    }
+
+    private Connection openConnection(RunContext runContext, String jdbcUrl, Properties props, boolean pool, int size, int statementCacheSize) throws SQLException {
         if (!pool) {
-            return DriverManager.getConnection(jdbcUrl, props);
+            long start = System.nanoTime();
+            Connection connection = DriverManager.getConnection(jdbcUrl, props);
+            runContext.metric(Timer.of("connect.duration", Duration.ofNanos(System.nanoTime() - start)));
+            return connection;
         }
-        int size = runContext.render(getConnectionPoolSize()).as(Integer.class).orElse(10);
-        return JdbcConnectionPool.connection(jdbcUrl, props, size);
+        return JdbcConnectionPool.connection(jdbcUrl, props, size, statementCacheSize, this.sessionReset(), new JdbcConnectionPool.Listener() {
+            @Override
+            public void borrowed(JdbcConnectionPool.Metrics metrics) {
+                if (metrics.connectNanos() > 0) {
+                    runContext.metric(Timer.of("connect.duration", Duration.ofNanos(metrics.connectNanos())));
+                }
+                // counters are summed across runs, so the pool state at the borrow is a tag of its single wait sample
+                runContext.metric(Timer.of(
+                    "pool.wait.duration",
+                    Duration.ofNanos(metrics.waitNanos()),
+                    "activeAtBorrow", String.valueOf(metrics.active()),
+                    "idleAtBorrow", String.valueOf(metrics.idle()),
+                    "pendingAtBorrow", String.valueOf(metrics.pending()),
+                    "maximumPoolSize", String.valueOf(metrics.maximumPoolSize())
+                ));
+                // summed, the number of borrows that found every connection of the pool in use
+                runContext.metric(Counter.of("pool.saturated.borrows", metrics.active() >= metrics.maximumPoolSize() ? 1 : 0));
+            }
+
+            @Override
+            public void reset(long nanos) {
+                runContext.metric(Timer.of("reset.duration", Duration.ofNanos(nanos)));
+            }
+        });
     }
 
     private Properties createConnectionProperties(RunContext runContext) throws IllegalVariableEvaluationException {
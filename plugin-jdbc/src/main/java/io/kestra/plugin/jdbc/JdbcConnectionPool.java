@@ -2,36 +2,123 @@ package io.kestra.plugin.jdbc;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.Map;
 import java.util.Properties;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 /**
  * Shared JDBC connection pools keyed by (jdbcUrl, all connection properties).
  * All properties are included in the key so that connections with different settings
  * (credentials, SSL, ...) never share a pool.
- * Pools are created on first use and released on JVM shutdown or via closeAll().
+ * <p>
+ * Pools are created on first use and closed once they have been idle for 10 minutes, when more than 100 pools are
+ * open (least recently used first), on JVM shutdown or via closeAll(). A pool is never
+ * closed while a connection is borrowed from it. A task asking for a bigger pool than the one already open grows it
+ * in place.
+ * <p>
+ * Both limits are worker-wide and can be changed with the {@code kestra.jdbc.pool.idle-ttl} (ISO-8601 duration) and
+ * {@code kestra.jdbc.pool.max-pools} system properties, read on first use. A malformed value is logged and replaced
+ * by the default.
+ * <p>
+ * Every borrow reports its {@link Metrics}: how long it took to open a new pool and to get a connection, and the
+ * state of the pool right after.
+ * <p>
+ * A borrowed connection is reset with the {@link SessionReset} of its database when it is closed, from whichever
+ * thread, so session state never leaks from one task to the next: the statements of a parallel lane or a background
+ * upload are done with it by then. A connection aborted ({@link Connection#abort}, how a killed task drops it while a
+ * statement may still be running on it) or failing to reset is closed for good instead of going back to the pool.
+ * <p>
+ * When asked for, the prepared statements of each pooled connection are kept in a {@link StatementCache}, closed with
+ * the connection when it is evicted or its pool closed. Never for a session reset dropping prepared statements.
+ * <p>
+ * Each pool also keeps the {@link DatabaseInfo} of its database, handed out by {@code unwrap(DatabaseInfo.class)} on
+ * its connections.
  */
+@Slf4j
 final class JdbcConnectionPool {
+    static final String IDLE_TTL_PROPERTY = "kestra.jdbc.pool.idle-ttl";
+    static final String MAX_POOLS_PROPERTY = "kestra.jdbc.pool.max-pools";
+    static final Duration DEFAULT_IDLE_TTL = Duration.ofMinutes(10);
+    static final int DEFAULT_MAX_POOLS = 100;
 
-    private static final ConcurrentHashMap<String, HikariDataSource> POOLS = new ConcurrentHashMap<>();
-    private static final AtomicBoolean SHUTDOWN_HOOK_REGISTERED = new AtomicBoolean(false);
+    private static final AtomicBoolean HOUSEKEEPING_STARTED = new AtomicBoolean(false);
 
-    private JdbcConnectionPool() {}
+    private final ConcurrentHashMap<String, Pool> pools = new ConcurrentHashMap<>();
+    private final SourceFactory factory;
+    private final long idleTtlNanos;
+    private final int maxPools;
+    private final LongSupplier clock;
 
-    static Connection connection(String jdbcUrl, Properties props, int maxPoolSize) throws SQLException {
-        var key = poolKey(jdbcUrl, props);
-        var ds = POOLS.computeIfAbsent(key, k -> buildDataSource(jdbcUrl, props, maxPoolSize));
-        return ds.getConnection();
+    JdbcConnectionPool(SourceFactory factory, Duration idleTtl, int maxPools, LongSupplier clock) {
+        this.factory = factory;
+        this.idleTtlNanos = idleTtl.toNanos();
+        this.maxPools = maxPools;
+        this.clock = clock;
+    }
+
+    static Connection connection(String jdbcUrl, Properties props, int maxPoolSize, int statementCacheSize, SessionReset reset, Listener listener) throws SQLException {
+        startHousekeeping();
+        return Shared.POOLS.borrow(jdbcUrl, props, maxPoolSize, statementCacheSize, reset, listener);
     }
 
     static void closeAll() {
-        POOLS.values().forEach(HikariDataSource::close);
-        POOLS.clear();
+        Shared.POOLS.close();
+    }
+
+    /**
+     * The idle TTL set by the given system property value, the default if unset or malformed.
+     */
+    static Duration idleTtl(String value) {
+        if (value == null) {
+            return DEFAULT_IDLE_TTL;
+        }
+        try {
+            Duration idleTtl = Duration.parse(value.trim());
+            if (!idleTtl.isNegative() && !idleTtl.isZero()) {
+                return idleTtl;
+            }
+        } catch (DateTimeParseException ignored) {
+            // logged below
+        }
+        log.warn("Invalid {} '{}', expected a positive ISO-8601 duration, using {}", IDLE_TTL_PROPERTY, value, DEFAULT_IDLE_TTL);
+        return DEFAULT_IDLE_TTL;
+    }
+
+    /**
+     * The maximum number of pools set by the given system property value, the default if unset or malformed.
+     */
+    static int maxPools(String value) {
+        if (value == null) {
+            return DEFAULT_MAX_POOLS;
+        }
+        try {
+            int maxPools = Integer.parseInt(value.trim());
+            if (maxPools > 0) {
+                return maxPools;
+            }
+        } catch (NumberFormatException ignored) {
+            // logged below
+        }
+        log.warn("Invalid {} '{}', expected a positive integer, using {}", MAX_POOLS_PROPERTY, value, DEFAULT_MAX_POOLS);
+        return DEFAULT_MAX_POOLS;
     }
 
     static String poolKey(String jdbcUrl, Properties props) {
@@ -44,40 +131,474 @@ final class JdbcConnectionPool {
         return key.toString();
     }
 
-    private static HikariDataSource buildDataSource(String jdbcUrl, Properties props, int maxPoolSize) {
-        registerShutdownHook();
+    Connection borrow(String jdbcUrl, Properties props, int maxPoolSize) throws SQLException {
+        return borrow(jdbcUrl, props, maxPoolSize, SessionReset.NONE, metrics -> {});
+    }
+
+    Connection borrow(String jdbcUrl, Properties props, int maxPoolSize, SessionReset reset, Listener listener) throws SQLException {
+        return borrow(jdbcUrl, props, maxPoolSize, 0, reset, listener);
+    }
+
+    Connection borrow(String jdbcUrl, Properties props, int maxPoolSize, int statementCacheSize, SessionReset reset, Listener listener) throws SQLException {
+        var key = poolKey(jdbcUrl, props);
+
+        while (true) {
+            var created = new AtomicBoolean(false);
+            var connectNanos = new AtomicLong();
+            var pool = this.pools.computeIfAbsent(key, k -> {
+                created.set(true);
+                // creating a pool opens its first connection
+                long start = System.nanoTime();
+                var source = this.factory.create(jdbcUrl, props, maxPoolSize);
+                connectNanos.set(System.nanoTime() - start);
+                return new Pool(source, props, this.clock.getAsLong());
+            });
+
+            if (!pool.acquire()) {
+                // the pool is being closed and will leave the map right away
+                Thread.onSpinWait();
+                continue;
+            }
+
+            try {
+                pool.touch(this.clock.getAsLong(), maxPoolSize);
+                if (created.get() && this.pools.size() > this.maxPools) {
+                    evictLeastRecentlyUsed();
+                }
+
+                long start = System.nanoTime();
+                Connection connection = pool.source.getConnection();
+                listener.borrowed(new Metrics(
+                    connectNanos.get(),
+                    System.nanoTime() - start,
+                    pool.source.activeConnections(),
+                    pool.source.idleConnections(),
+                    pool.source.pendingThreads(),
+                    pool.source.maximumPoolSize()
+                ));
+
+                return pooled(pool, connection, reset, statementCacheSize, listener);
+            } finally {
+                pool.release();
+            }
+        }
+    }
+
+    private static Connection pooled(Pool pool, Connection connection, SessionReset reset, int statementCacheSize, Listener listener) throws SQLException {
+        StatementCache statements;
+        try {
+            reset.begin(connection);
+            // the server would forget the statements kept open on the connection at its next reset
+            statements = statementCacheSize > 0 && !reset.dropsStatements() ? pool.statements(connection) : null;
+        } catch (SQLException | RuntimeException e) {
+            pool.evict(connection);
+            connection.close();
+            throw e;
+        }
+
+        AtomicBoolean closed = new AtomicBoolean();
+
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (closed.compareAndSet(false, true)) {
+                        giveBack(pool, connection, statements, reset, listener);
+                    }
+                    return null;
+                }
+                case "abort" -> {
+                    if (closed.compareAndSet(false, true)) {
+                        // a statement may still be running, its state is unknown
+                        pool.evict(connection);
+                        connection.close();
+                    }
+                    return null;
+                }
+                case "prepareStatement" -> {
+                    if (statements != null && !closed.get() && StatementCache.cacheable(args)) {
+                        PreparedStatement statement = statements.prepare((Connection) proxy, args, statementCacheSize);
+                        if (statement != null) {
+                            return statement;
+                        }
+                    }
+                }
+                case "isWrapperFor" -> {
+                    if (args[0] == DatabaseInfo.class) {
+                        return true;
+                    }
+                }
+                case "unwrap" -> {
+                    if (args[0] == DatabaseInfo.class) {
+                        return pool.info(connection);
+                    }
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                }
+            }
+
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    private static void giveBack(Pool pool, Connection connection, StatementCache statements, SessionReset reset, Listener listener) throws SQLException {
+        try {
+            if (statements != null) {
+                // statements left open by the task, like the pool would close them
+                statements.giveBackAll();
+            }
 
-        var config = new HikariConfig();
-        config.setJdbcUrl(jdbcUrl);
-        config.setUsername(props.getProperty("user"));
-        config.setPassword(props.getProperty("password"));
-        config.setMaximumPoolSize(maxPoolSize);
-        // Release idle connections quickly to avoid pinning them on the worker.
-        config.setMinimumIdle(0);
-        config.setIdleTimeout(60_000);
-        config.setMaxLifetime(1_800_000);
+            long start = System.nanoTime();
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            reset.reset(connection);
+            if (reset != SessionReset.NONE) {
+                listener.reset(System.nanoTime() - start);
+            }
+        } catch (SQLException | RuntimeException e) {
+            pool.evict(connection);
+        } finally {
+            connection.close();
+        }
+    }
 
-        // Short name for JMX / thread naming; derived from the URL without credentials.
-        var shortKey = jdbcUrl.replaceAll("[^a-zA-Z0-9:._-]", "_");
-        if (shortKey.length() > 40) {
-            shortKey = shortKey.substring(0, 40);
+    /**
+     * Close every pool unused for longer than the idle TTL.
+     */
+    void evictIdle() {
+        long now = this.clock.getAsLong();
+        for (Map.Entry<String, Pool> entry : this.pools.entrySet()) {
+            if (now - entry.getValue().lastUsed >= this.idleTtlNanos) {
+                evict(entry.getKey(), entry.getValue());
+            } else {
+                entry.getValue().purgeStatements();
+            }
         }
-        config.setPoolName("kestra-jdbc-" + shortKey);
+    }
+
+    int size() {
+        return this.pools.size();
+    }
+
+    void close() {
+        this.pools.forEach((key, pool) -> {
+            this.pools.remove(key, pool);
+            pool.close();
+        });
+    }
+
+    private void evictLeastRecentlyUsed() {
+        // snapshot the last use first, pools touched while sorting must not change the order
+        var candidates = this.pools.entrySet().stream()
+            .map(entry -> new Candidate(entry.getKey(), entry.getValue(), entry.getValue().lastUsed))
+            .sorted(Comparator.comparingLong(Candidate::lastUsed))
+            .toList();
 
-        // Pass any remaining driver-specific properties (ssl, applicationName, etc.).
-        for (var entry : props.entrySet()) {
-            var name = (String) entry.getKey();
-            if (!"user".equals(name) && !"password".equals(name)) {
-                config.addDataSourceProperty(name, entry.getValue());
+        for (Candidate candidate : candidates) {
+            if (this.pools.size() <= this.maxPools) {
+                return;
             }
+            evict(candidate.key(), candidate.pool());
         }
+    }
+
+    private record Candidate(String key, Pool pool, long lastUsed) {}
+
+    /**
+     * What a borrow cost and the state of its pool once the connection was handed out.
+     *
+     * @param connectNanos time to open the pool when this borrow created it, 0 otherwise
+     * @param waitNanos time to get a connection from the pool, including opening it if none was idle
+     * @param active connections in use, including the borrowed one
+     * @param idle connections open and available
+     * @param pending threads waiting for a connection
+     * @param maximumPoolSize maximum number of connections of the pool
+     */
+    record Metrics(long connectNanos, long waitNanos, int active, int idle, int pending, int maximumPoolSize) {}
+
+    @FunctionalInterface
+    interface Listener {
+        void borrowed(Metrics metrics);
 
-        return new HikariDataSource(config);
+        /**
+         * A connection went back to the pool after a session reset of {@code nanos}.
+         */
+        default void reset(long nanos) {
+        }
+    }
+
+    private void evict(String key, Pool pool) {
+        if (pool.closing()) {
+            this.pools.remove(key, pool);
+            pool.close();
+        }
     }
 
-    private static void registerShutdownHook() {
-        if (SHUTDOWN_HOOK_REGISTERED.compareAndSet(false, true)) {
+    private static void startHousekeeping() {
+        if (HOUSEKEEPING_STARTED.compareAndSet(false, true)) {
             Runtime.getRuntime().addShutdownHook(new Thread(JdbcConnectionPool::closeAll, "kestra-jdbc-pool-shutdown"));
+
+            ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "kestra-jdbc-pool-eviction");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(1, Math.min(Shared.IDLE_TTL.toSeconds(), 60));
+            executor.scheduleWithFixedDelay(() -> {
+                try {
+                    Shared.POOLS.evictIdle();
+                } catch (RuntimeException ignored) {
+                    // a failing close must not cancel the next evictions
+                }
+            }, period, period, TimeUnit.SECONDS);
+        }
+    }
+
+    // the worker-wide pools, created on first use from the system properties
+    private static final class Shared {
+        private static final Duration IDLE_TTL = idleTtl(System.getProperty(IDLE_TTL_PROPERTY));
+        private static final JdbcConnectionPool POOLS = new JdbcConnectionPool(
+            HikariSource::new,
+            IDLE_TTL,
+            maxPools(System.getProperty(MAX_POOLS_PROPERTY)),
+            System::nanoTime
+        );
+    }
+
+    private static final class Pool {
+        private final Source source;
+        private final Properties props;
+        // by physical connection, statements outlive the connection handed out by the source
+        private final ConcurrentHashMap<Connection, StatementCache> statements = new ConcurrentHashMap<>();
+        // number of threads between the lookup and getConnection(), -1 once the pool is being closed
+        private final AtomicInteger borrowers = new AtomicInteger();
+        private volatile long lastUsed;
+        private volatile DatabaseInfo info;
+
+        private Pool(Source source, Properties props, long now) {
+            this.source = source;
+            this.props = (Properties) props.clone();
+            this.lastUsed = now;
+            // new connections are opened with the secret files of these properties until the pool is closed
+            TlsMaterialCache.retain(props);
+        }
+
+        private boolean acquire() {
+            while (true) {
+                int current = this.borrowers.get();
+                if (current < 0) {
+                    return false;
+                }
+                if (this.borrowers.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void release() {
+            this.borrowers.decrementAndGet();
+        }
+
+        private synchronized void touch(long now, int maxPoolSize) {
+            this.lastUsed = now;
+            if (maxPoolSize > this.source.maximumPoolSize()) {
+                this.source.maximumPoolSize(maxPoolSize);
+            }
+        }
+
+        /**
+         * The facts of the database of this pool, read from the given connection the first time.
+         */
+        private DatabaseInfo info(Connection connection) throws SQLException {
+            DatabaseInfo info = this.info;
+            if (info == null) {
+                info = DatabaseInfo.read(connection);
+                this.info = info;
+            }
+            return info;
+        }
+
+        /**
+         * The statement cache of the physical connection behind the given pooled one, null if the source cannot tell it.
+         */
+        private StatementCache statements(Connection connection) throws SQLException {
+            Connection physical = this.source.physical(connection);
+            return physical == null ? null : this.statements.computeIfAbsent(physical, StatementCache::new);
+        }
+
+        /**
+         * Close the connection for good once it is closed, with its cached statements.
+         */
+        private void evict(Connection connection) {
+            try {
+                Connection physical = this.source.physical(connection);
+                StatementCache cache = physical == null ? null : this.statements.remove(physical);
+                if (cache != null) {
+                    cache.close();
+                }
+            } catch (SQLException | RuntimeException ignored) {
+                // the statements are closed with the connection anyway
+            }
+            this.source.evict(connection);
+        }
+
+        /**
+         * Forget the statement caches of connections the source closed on its own, e.g. at the end of their lifetime.
+         */
+        private void purgeStatements() {
+            this.statements.values().removeIf(StatementCache::isConnectionClosed);
+        }
+
+        private void close() {
+            this.statements.values().forEach(StatementCache::close);
+            this.statements.clear();
+            this.source.close();
+            TlsMaterialCache.release(this.props);
+        }
+
+        /**
+         * Mark the pool as closing if nobody is borrowing from it and none of its connections is in use.
+         */
+        private boolean closing() {
+            if (!this.borrowers.compareAndSet(0, -1)) {
+                return false;
+            }
+            // no new connection can be handed out from now on, so the active count can only go down
+            if (this.source.activeConnections() > 0) {
+                this.borrowers.set(0);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The pooled data source behind a key.
+     */
+    interface Source {
+        Connection getConnection() throws SQLException;
+
+        int activeConnections();
+
+        int idleConnections();
+
+        int pendingThreads();
+
+        int maximumPoolSize();
+
+        void maximumPoolSize(int size);
+
+        /**
+         * Close the connection for good once it is closed, instead of returning it to the pool.
+         */
+        void evict(Connection connection);
+
+        /**
+         * The physical connection behind a connection handed out by this source, which outlives it, or null if unknown.
+         */
+        default Connection physical(Connection connection) throws SQLException {
+            return null;
+        }
+
+        void close();
+    }
+
+    @FunctionalInterface
+    interface SourceFactory {
+        Source create(String jdbcUrl, Properties props, int maxPoolSize);
+    }
+
+    private static final class HikariSource implements Source {
+        private final HikariDataSource dataSource;
+
+        private HikariSource(String jdbcUrl, Properties props, int maxPoolSize) {
+            var config = new HikariConfig();
+            config.setJdbcUrl(jdbcUrl);
+            config.setUsername(props.getProperty("user"));
+            config.setPassword(props.getProperty("password"));
+            config.setMaximumPoolSize(maxPoolSize);
+            // Release idle connections quickly to avoid pinning them on the worker.
+            config.setMinimumIdle(0);
+            config.setIdleTimeout(60_000);
+            config.setMaxLifetime(1_800_000);
+
+            // Short name for JMX / thread naming; derived from the URL without credentials.
+            var shortKey = jdbcUrl.replaceAll("[^a-zA-Z0-9:._-]", "_");
+            if (shortKey.length() > 40) {
+                shortKey = shortKey.substring(0, 40);
+            }
+            config.setPoolName("kestra-jdbc-" + shortKey);
+
+            // Pass any remaining driver-specific properties (ssl, applicationName, etc.).
+            for (var entry : props.entrySet()) {
+                var name = (String) entry.getKey();
+                if (!"user".equals(name) && !"password".equals(name)) {
+                    config.addDataSourceProperty(name, entry.getValue());
+                }
+            }
+
+            this.dataSource = new HikariDataSource(config);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return this.dataSource.getConnection();
+        }
+
+        @Override
+        public int activeConnections() {
+            var pool = this.dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+
+        @Override
+        public int idleConnections() {
+            var pool = this.dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getIdleConnections();
+        }
+
+        @Override
+        public int pendingThreads() {
+            var pool = this.dataSource.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getThreadsAwaitingConnection();
+        }
+
+        @Override
+        public int maximumPoolSize() {
+            return this.dataSource.getMaximumPoolSize();
+        }
+
+        @Override
+        public void maximumPoolSize(int size) {
+            // the config MXBean is the only way to change a started pool, Hikari picks it up on the next fill
+            this.dataSource.getHikariConfigMXBean().setMaximumPoolSize(size);
+        }
+
+        @Override
+        public void evict(Connection connection) {
+            this.dataSource.evictConnection(connection);
+        }
+
+        @Override
+        public Connection physical(Connection connection) throws SQLException {
+            // Hikari unwraps its proxy to the driver connection
+            return connection.unwrap(Connection.class);
+        }
+
+        @Override
+        public void close() {
+            this.dataSource.close();
         }
     }
 }
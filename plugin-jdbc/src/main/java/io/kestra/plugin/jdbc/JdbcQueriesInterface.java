@@ -9,7 +9,8 @@ import io.kestra.core.models.annotations.PluginProperty;
 public interface JdbcQueriesInterface {
     @Schema(
         title = "Transaction",
-        description = "If one query failed, rollback transactions."
+        description = "If one query failed, rollback transactions. " +
+            "In a transaction, consecutive queries returning no rows (INSERT, UPDATE, DELETE, MERGE and table DDL) are sent in a single batch, one round trip for all of them."
     )
     @PluginProperty(group = "advanced")
     Property<Boolean> getTransaction();
@@ -0,0 +1,285 @@
+package io.kestra.plugin.jdbc;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * SQL with {@code :name} placeholders compiled to JDBC {@code ?} placeholders.
+ * <p>
+ * Placeholders inside string literals, quoted identifiers, comments and dollar-quoted strings are left alone, as are
+ * Postgres {@code ::type} casts. Compiled statements are cached by SQL text, so a statement run again and again by
+ * the tasks of the worker is only scanned once.
+ * <p>
+ * A list value is bound as a SQL array where the placeholder is the operand of {@code ANY(...)} or {@code ALL(...)}
+ * (e.g. {@code id = ANY(:ids)} on PostgreSQL). Anywhere else, e.g. {@code id IN (:ids)}, its placeholder is expanded
+ * to one placeholder per element, rounded up to a power of two by repeating the last element, so that lists of
+ * similar sizes share the same SQL and the statement caches and query plans of the database. An empty list is bound
+ * as a single null.
+ *
+ * @param sql the SQL with {@code ?} placeholders
+ * @param slots the placeholders, in order of their JDBC index
+ */
+record NamedParameters(String sql, List<Slot> slots) {
+    private static final int MAX_CACHED = 512;
+
+    private static final Map<String, NamedParameters> CACHE = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, NamedParameters> eldest) {
+            return size() > MAX_CACHED;
+        }
+    });
+
+    /**
+     * A {@code ?} of the compiled SQL.
+     *
+     * @param name the parameter bound to it
+     * @param offset its position in the SQL
+     * @param array whether it is the operand of ANY or ALL, a list is bound there as a SQL array
+     * @param element the element of the list bound to it once expanded, -1 for the whole value
+     */
+    record Slot(String name, int offset, boolean array, int element) {}
+
+    static NamedParameters of(String sql) {
+        return cached(sql, () -> compile(sql));
+    }
+
+    static NamedParameters compile(String sql) {
+        if (sql.indexOf(':') == -1) {
+            return new NamedParameters(sql, List.of());
+        }
+
+        int len = sql.length();
+        StringBuilder compiled = new StringBuilder(len);
+        List<Slot> slots = new ArrayList<>();
+
+        int i = 0;
+        while (i < len) {
+            int end = SqlLexer.skip(sql, i);
+            if (end > i) {
+                compiled.append(sql, i, end);
+                i = end;
+                continue;
+            }
+
+            char c = sql.charAt(i);
+            if (c != ':') {
+                compiled.append(c);
+                i++;
+                continue;
+            }
+
+            // Postgres cast: value::type
+            if (i + 1 < len && sql.charAt(i + 1) == ':') {
+                compiled.append("::");
+                i += 2;
+                continue;
+            }
+
+            int nameEnd = i + 1;
+            while (nameEnd < len && isNameChar(sql.charAt(nameEnd))) {
+                nameEnd++;
+            }
+            if (nameEnd == i + 1) {
+                // not a placeholder, e.g. PL/SQL := assignment
+                compiled.append(c);
+                i++;
+                continue;
+            }
+
+            slots.add(new Slot(sql.substring(i + 1, nameEnd), compiled.length(), isArrayOperand(compiled), -1));
+            compiled.append('?');
+            i = nameEnd;
+        }
+
+        return new NamedParameters(compiled.toString(), List.copyOf(slots));
+    }
+
+    /**
+     * The JDBC parameter indexes (1-based) of each name, in order of appearance.
+     */
+    Map<String, int[]> indexes() {
+        Map<String, List<Integer>> positions = new LinkedHashMap<>();
+        for (int i = 0; i < this.slots.size(); i++) {
+            positions.computeIfAbsent(this.slots.get(i).name(), k -> new ArrayList<>()).add(i + 1);
+        }
+
+        Map<String, int[]> indexes = new LinkedHashMap<>();
+        positions.forEach((name, list) -> indexes.put(name, list.stream().mapToInt(Integer::intValue).toArray()));
+        return indexes;
+    }
+
+    /**
+     * These parameters with the placeholders of the list values expanded, see the class documentation.
+     */
+    NamedParameters expand(Map<String, Object> values) {
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        for (Slot slot : this.slots) {
+            if (!slot.array() && slot.element() < 0 && !sizes.containsKey(slot.name())) {
+                List<Object> elements = elements(values.get(slot.name()));
+                if (elements != null) {
+                    sizes.put(slot.name(), bucket(elements.size()));
+                }
+            }
+        }
+        if (sizes.isEmpty()) {
+            return this;
+        }
+
+        var key = new StringBuilder(this.sql);
+        // NUL separated so that an expansion never collides with a SQL text
+        sizes.forEach((name, size) -> key.append('\u0000').append(name).append('\u0000').append(size));
+
+        return cached(key.toString(), () -> {
+            StringBuilder expanded = new StringBuilder(this.sql.length() + sizes.values().stream().mapToInt(size -> size * 3).sum());
+            List<Slot> slots = new ArrayList<>();
+            int from = 0;
+            for (Slot slot : this.slots) {
+                expanded.append(this.sql, from, slot.offset());
+                from = slot.offset() + 1;
+
+                Integer size = slot.array() ? null : sizes.get(slot.name());
+                if (size == null) {
+                    slots.add(new Slot(slot.name(), expanded.length(), slot.array(), slot.element()));
+                    expanded.append('?');
+                    continue;
+                }
+                for (int element = 0; element < size; element++) {
+                    if (element > 0) {
+                        expanded.append(", ");
+                    }
+                    slots.add(new Slot(slot.name(), expanded.length(), false, element));
+                    expanded.append('?');
+                }
+            }
+            expanded.append(this.sql, from, this.sql.length());
+
+            return new NamedParameters(expanded.toString(), List.copyOf(slots));
+        });
+    }
+
+    /**
+     * Bind the given values to the placeholders, a name without value is bound to null.
+     */
+    void bind(PreparedStatement statement, Map<String, Object> values) throws SQLException {
+        for (int i = 0; i < this.slots.size(); i++) {
+            Slot slot = this.slots.get(i);
+            Object value = values.get(slot.name());
+
+            if (slot.element() >= 0) {
+                List<Object> elements = elements(value);
+                value = elements == null || elements.isEmpty() ? null : elements.get(Math.min(slot.element(), elements.size() - 1));
+            } else if (slot.array()) {
+                List<Object> elements = elements(value);
+                if (elements != null) {
+                    value = statement.getConnection().createArrayOf(arrayType(elements), elements.toArray());
+                }
+            }
+
+            statement.setObject(i + 1, value);
+        }
+    }
+
+    private static NamedParameters cached(String key, Supplier<NamedParameters> compiler) {
+        NamedParameters cached = CACHE.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        NamedParameters compiled = compiler.get();
+        CACHE.put(key, compiled);
+        return compiled;
+    }
+
+    private static List<Object> elements(Object value) {
+        if (value instanceof Collection<?> collection) {
+            return new ArrayList<>(collection);
+        }
+        if (value != null && value.getClass().isArray() && !(value instanceof byte[])) {
+            int length = Array.getLength(value);
+            List<Object> elements = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                elements.add(Array.get(value, i));
+            }
+            return elements;
+        }
+        return null;
+    }
+
+    private static int bucket(int size) {
+        return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /**
+     * Whether the placeholder about to be appended is right after {@code ANY(} or {@code ALL(}.
+     */
+    private static boolean isArrayOperand(CharSequence compiled) {
+        int i = compiled.length() - 1;
+        while (i >= 0 && Character.isWhitespace(compiled.charAt(i))) {
+            i--;
+        }
+        if (i < 0 || compiled.charAt(i) != '(') {
+            return false;
+        }
+        i--;
+        while (i >= 0 && Character.isWhitespace(compiled.charAt(i))) {
+            i--;
+        }
+
+        int end = i + 1;
+        while (i >= 0 && SqlLexer.isWordChar(compiled.charAt(i))) {
+            i--;
+        }
+        String word = compiled.subSequence(i + 1, end).toString().toUpperCase(Locale.ROOT);
+        return word.equals("ANY") || word.equals("ALL");
+    }
+
+    /**
+     * SQL type name of the array elements, as known by PostgreSQL and most databases supporting arrays.
+     */
+    private static String arrayType(List<Object> elements) {
+        Object sample = elements.stream().filter(Objects::nonNull).findFirst().orElse(null);
+        return switch (sample) {
+            case Integer ignored -> "integer";
+            case Short ignored -> "smallint";
+            case Byte ignored -> "smallint";
+            case Long ignored -> "bigint";
+            case BigInteger ignored -> "numeric";
+            case BigDecimal ignored -> "numeric";
+            case Float ignored -> "real";
+            case Double ignored -> "double precision";
+            case Boolean ignored -> "boolean";
+            case UUID ignored -> "uuid";
+            case LocalDate ignored -> "date";
+            case LocalTime ignored -> "time";
+            case LocalDateTime ignored -> "timestamp";
+            case OffsetDateTime ignored -> "timestamptz";
+            case ZonedDateTime ignored -> "timestamptz";
+            case Instant ignored -> "timestamptz";
+            case null, default -> "varchar";
+        };
+    }
+
+    private static boolean isNameChar(char c) {
+        // same as the \w placeholders matched so far: ASCII letters, digits and underscore
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+}
@@ -0,0 +1,190 @@
+package io.kestra.plugin.jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs the statements of a {@link StatementGraph} on up to {@code parallelism} lanes at once, each statement once all
+ * the ones it depends on are done. Ready statements are started in script order.
+ * <p>
+ * The calling thread runs statements on the connection of the task, every other lane is a connection of its own, opened
+ * by its thread on its first statement and closed by the same thread once no statement is left, as pooled connections
+ * must be. A statement is only left to a new lane while the lane of the task is busy, so no connection is opened for
+ * statements that can only run one at a time. After a failure no statement is started anymore, the running ones end and the first failure is thrown.
+ */
+final class ParallelStatements {
+    private final StatementGraph graph;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = this.lock.newCondition();
+    private final PriorityQueue<Integer> ready = new PriorityQueue<>();
+    private final List<List<Integer>> dependents;
+    private final int[] pending;
+    private int done;
+    // whether the lane of the task waits for a statement, the others only open a connection when it is busy
+    private boolean firstIdle = true;
+    private Exception failure;
+
+    private ParallelStatements(StatementGraph graph) {
+        this.graph = graph;
+        this.pending = new int[graph.size()];
+        this.dependents = new ArrayList<>(graph.size());
+        for (int i = 0; i < graph.size(); i++) {
+            this.dependents.add(new ArrayList<>());
+        }
+        for (int i = 0; i < graph.size(); i++) {
+            for (int dependency : graph.dependencies(i)) {
+                this.dependents.get(dependency).add(i);
+                this.pending[i]++;
+            }
+            if (this.pending[i] == 0) {
+                this.ready.add(i);
+            }
+        }
+    }
+
+    /**
+     * A connection running statements one at a time.
+     */
+    interface Lane extends AutoCloseable {
+        void run(int index) throws Exception;
+
+        @Override
+        void close();
+    }
+
+    @FunctionalInterface
+    interface Lanes {
+        Lane open() throws Exception;
+    }
+
+    /**
+     * Run the statements, on the calling thread with {@code first} and on up to {@code parallelism - 1} other lanes.
+     */
+    static void run(StatementGraph graph, int parallelism, Lane first, Lanes lanes) throws Exception {
+        new ParallelStatements(graph).run(Math.max(1, Math.min(parallelism, graph.size())), first, lanes);
+    }
+
+    private void run(int parallelism, Lane first, Lanes lanes) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>(parallelism - 1);
+            for (int i = 1; i < parallelism; i++) {
+                workers.add(executor.submit(() -> this.work(null, lanes)));
+            }
+
+            try {
+                this.work(first, lanes);
+                for (Future<?> worker : workers) {
+                    worker.get();
+                }
+            } catch (InterruptedException e) {
+                // killed: no statement is started anymore and the other lanes are interrupted
+                this.fail(e);
+                workers.forEach(worker -> worker.cancel(true));
+                Thread.currentThread().interrupt();
+                throw e;
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception exception ? exception : new RuntimeException(e.getCause());
+            }
+        }
+
+        if (this.failure != null) {
+            throw this.failure;
+        }
+    }
+
+    /**
+     * Run statements until none is left, on the given lane or on one opened and closed by this thread.
+     */
+    private Void work(Lane given, Lanes lanes) throws Exception {
+        Lane lane = given;
+        try {
+            while (true) {
+                int index = this.next(given != null, lane != null);
+                if (index < 0) {
+                    return null;
+                }
+
+                try {
+                    if (lane == null) {
+                        lane = lanes.open();
+                    }
+                    lane.run(index);
+                } catch (Exception e) {
+                    this.fail(e);
+                    return null;
+                }
+
+                this.complete(index);
+            }
+        } finally {
+            if (lane != null && lane != given) {
+                lane.close();
+            }
+        }
+    }
+
+    /**
+     * The next statement to run, waiting for one to be ready, -1 once there is none left or after a failure.
+     * A thread without a connection yet leaves a single ready statement to the idle lane of the task.
+     */
+    private int next(boolean first, boolean connected) throws InterruptedException {
+        this.lock.lock();
+        try {
+            if (first) {
+                this.firstIdle = true;
+            }
+            int left = connected || !this.firstIdle ? 0 : 1;
+            while (this.failure == null && this.done < this.graph.size() && this.ready.size() <= left) {
+                this.changed.await();
+                left = connected || !this.firstIdle ? 0 : 1;
+            }
+            if (this.failure != null || this.ready.isEmpty()) {
+                return -1;
+            }
+            if (first) {
+                // the lane of the task is busy now, the other threads may take the statements still ready
+                this.firstIdle = false;
+                this.changed.signalAll();
+            }
+            return this.ready.poll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void complete(int index) {
+        this.lock.lock();
+        try {
+            this.done++;
+            for (int dependent : this.dependents.get(index)) {
+                if (--this.pending[dependent] == 0) {
+                    this.ready.add(dependent);
+                }
+            }
+            this.changed.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void fail(Exception e) {
+        this.lock.lock();
+        try {
+            if (this.failure == null) {
+                this.failure = e;
+            } else {
+                this.failure.addSuppressed(e);
+            }
+            this.changed.signalAll();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package io.kestra.plugin.jdbc;
+
+import io.kestra.plugin.jdbc.AbstractJdbcBaseQuery.Output;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uploads of STORE results left to end in the background while the next statements of a script run.
+ * <p>
+ * A {@link StorePipeline} already uploads a result while it is fetched, but the storage usually only ends its upload
+ * (e.g. completes an S3 multipart upload) once the whole result is written. That end is not waited for anymore: the
+ * output of the statement is placed without its URI, and set once its upload ends, at the latest when the task waits
+ * for them all before returning. At most {@link #MAX_PENDING} uploads are pending, a statement adding one more first
+ * waits for the oldest one, so a script of many small results does not pile up upload threads and buffers.
+ * <p>
+ * Safe for statements running concurrently on several connections.
+ */
+final class PendingUploads {
+    static final int MAX_PENDING = 4;
+
+    private final PhaseTimers timers;
+    private final ArrayDeque<Entry> pending = new ArrayDeque<>();
+    private final Map<Output.OutputBuilder<?, ?>, Entry> unplaced = new IdentityHashMap<>();
+
+    PendingUploads(PhaseTimers timers) {
+        this.timers = timers;
+    }
+
+    private static final class Entry {
+        private final StorePipeline.Pending upload;
+        private final Output.OutputBuilder<?, ?> output;
+        private List<Output> outputs;
+        private int index = -1;
+        private boolean done;
+
+        private Entry(StorePipeline.Pending upload, Output.OutputBuilder<?, ?> output) {
+            this.upload = upload;
+            this.output = output;
+        }
+    }
+
+    /**
+     * Leave the upload of the result of the given output to end in the background.
+     */
+    void add(StorePipeline.Pending upload, Output.OutputBuilder<?, ?> output) throws IOException {
+        Entry oldest = null;
+        synchronized (this) {
+            Entry entry = new Entry(upload, output);
+            this.pending.add(entry);
+            this.unplaced.put(output, entry);
+            if (this.pending.size() > MAX_PENDING) {
+                oldest = this.pending.poll();
+            }
+        }
+
+        if (oldest != null) {
+            this.finish(oldest);
+        }
+    }
+
+    /**
+     * Add the output to the outputs of the task, its URI is set there once its upload ends.
+     */
+    synchronized void place(Output.OutputBuilder<?, ?> output, List<Output> outputs) {
+        outputs.add(output.build());
+
+        Entry entry = this.unplaced.remove(output);
+        if (entry != null && !entry.done) {
+            entry.outputs = outputs;
+            entry.index = outputs.size() - 1;
+        }
+    }
+
+    /**
+     * Wait for all the uploads to end, throwing the first failure once they all did.
+     */
+    void awaitAll() throws IOException {
+        IOException failure = null;
+        Entry entry;
+        while ((entry = this.poll()) != null) {
+            try {
+                this.finish(entry);
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Wait for the uploads left after a failure of the task, ignoring theirs.
+     */
+    void close() {
+        try {
+            this.awaitAll();
+        } catch (IOException ignored) {
+            // the task already failed, its failure is the one reported
+        }
+    }
+
+    private synchronized Entry poll() {
+        return this.pending.poll();
+    }
+
+    private void finish(Entry entry) throws IOException {
+        StorePipeline.Result stored = entry.upload.await();
+        this.timers.uploaded(stored.blockedNanos(), stored.waitNanos());
+
+        synchronized (this) {
+            entry.output.uri(stored.uri());
+            entry.done = true;
+            if (entry.outputs != null) {
+                entry.outputs.set(entry.index, entry.output.build());
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package io.kestra.plugin.jdbc;
+
+import io.kestra.core.models.executions.metrics.Timer;
+import io.kestra.core.runners.RunContext;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Time spent by a task in each JDBC phase, reported as task metrics once it is done.
+ * <p>
+ * When streaming, fetching, converting and uploading are interleaved row by row, so each phase sums the time the
+ * task thread spent in it: converting covers reading the column values and serializing them, and the time blocked on
+ * a full upload pipe is moved from converting to uploading.
+ */
+final class PhaseTimers {
+    enum Phase {
+        /** running the statement until the driver returns its first result */
+        EXECUTE("execute.duration"),
+        /** moving the result set cursor, i.e. waiting for the driver and the network */
+        FETCH("fetch.duration"),
+        /** reading, converting and serializing (or binding) column values */
+        CONVERT("convert.duration"),
+        /** waiting for internal storage: on a full upload pipe then for the upload to end */
+        UPLOAD("upload.duration"),
+        /** reading and parsing the input file of a batch */
+        READ("read.duration");
+
+        private final String metric;
+
+        Phase(String metric) {
+            this.metric = metric;
+        }
+    }
+
+    private final AtomicLongArray nanos = new AtomicLongArray(Phase.values().length);
+
+    void add(Phase phase, long nanos) {
+        this.nanos.addAndGet(phase.ordinal(), nanos);
+    }
+
+    /**
+     * Account for the time spent waiting on internal storage, {@code blockedNanos} of which were spent writing rows,
+     * i.e. while they were being converted.
+     */
+    void uploaded(long blockedNanos, long waitNanos) {
+        this.add(Phase.CONVERT, -blockedNanos);
+        this.add(Phase.UPLOAD, waitNanos);
+    }
+
+    long nanos(Phase phase) {
+        return this.nanos.get(phase.ordinal());
+    }
+
+    void report(RunContext runContext, String... tags) {
+        for (Phase phase : Phase.values()) {
+            long value = this.nanos(phase);
+            if (value > 0) {
+                runContext.metric(Timer.of(phase.metric, Duration.ofNanos(value), tags));
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.kestra.plugin.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * How a database clears the session state (settings, temp tables, variables, ...) left by a task on a pooled
+ * connection before the connection goes back to the pool, so it never leaks to the next task using it.
+ * <p>
+ * Any pending transaction is rolled back before {@link #reset(Connection)} is called. If the reset fails, the
+ * connection is closed instead of going back to the pool.
+ * <p>
+ * A reset that also drops the prepared statements of the session tells so with {@link #dropsStatements()}: the pool
+ * then never keeps statements open on its connections, they would outlive their server side counterpart.
+ */
+@FunctionalInterface
+public interface SessionReset {
+    /**
+     * Nothing to reset, the connection goes back to the pool as is.
+     */
+    SessionReset NONE = connection -> {};
+
+    /**
+     * Called when the connection is borrowed from the pool.
+     */
+    default void begin(Connection connection) throws SQLException {
+    }
+
+    /**
+     * Called when the task closes the connection, before it goes back to the pool.
+     */
+    void reset(Connection connection) throws SQLException;
+
+    /**
+     * Whether the reset drops or closes the prepared statements of the session.
+     */
+    default boolean dropsStatements() {
+        return false;
+    }
+
+    /**
+     * This reset, telling that it drops or closes the prepared statements of the session.
+     */
+    default SessionReset droppingStatements() {
+        SessionReset reset = this;
+        return new SessionReset() {
+            @Override
+            public void begin(Connection connection) throws SQLException {
+                reset.begin(connection);
+            }
+
+            @Override
+            public void reset(Connection connection) throws SQLException {
+                reset.reset(connection);
+            }
+
+            @Override
+            public boolean dropsStatements() {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Reset the session by running the given statements, in order.
+     */
+    static SessionReset sql(String... statements) {
+        return connection -> {
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : statements) {
+                    statement.execute(sql);
+                }
+            }
+        };
+    }
+}
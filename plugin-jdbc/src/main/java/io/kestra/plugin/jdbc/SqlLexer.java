@@ -0,0 +1,87 @@
+package io.kestra.plugin.jdbc;
+
+/**
+ * Finds the parts of SQL text that are not code: string literals, quoted identifiers, comments and Postgres
+ * dollar-quoted strings. Shared by {@link SqlSplitter} and {@link NamedParameters} so that both agree on where a
+ * semicolon or a {@code :name} placeholder is SQL.
+ */
+final class SqlLexer {
+    private SqlLexer() {
+    }
+
+    /**
+     * End (exclusive) of the string, quoted identifier, comment or dollar-quoted string starting at {@code i}, or
+     * {@code i} if none starts there. An unterminated one runs to the end of the text.
+     */
+    static int skip(String sql, int i) {
+        int len = sql.length();
+        char c = sql.charAt(i);
+        char next = (i + 1 < len) ? sql.charAt(i + 1) : '\0';
+
+        return switch (c) {
+            // string literal, escaped quote is ''
+            case '\'' -> closeDoubled(sql, i, '\'');
+            // Postgres/standard quoted identifier, escaped quote is ""
+            case '"' -> closeDoubled(sql, i, '"');
+            // MySQL/MariaDB/Snowflake/BigQuery quoted identifier, escaped backtick is ``
+            case '`' -> closeDoubled(sql, i, '`');
+            // SQL Server quoted identifier, escaped bracket is ]]
+            case '[' -> closeDoubled(sql, i, ']');
+            case '-' -> {
+                if (next != '-') {
+                    yield i;
+                }
+                int end = sql.indexOf('\n', i + 2);
+                yield end == -1 ? len : end + 1;
+            }
+            case '/' -> {
+                if (next != '*') {
+                    yield i;
+                }
+                int end = sql.indexOf("*/", i + 2);
+                yield end == -1 ? len : end + 2;
+            }
+            case '$' -> {
+                // $$...$$ or $tag$...$tag$
+                int closing = sql.indexOf('$', i + 1);
+                if (closing == -1 || !isValidDollarTag(sql, i, closing)) {
+                    yield i;
+                }
+                String tag = sql.substring(i, closing + 1);
+                int end = sql.indexOf(tag, closing + 1);
+                yield end == -1 ? len : end + tag.length();
+            }
+            default -> i;
+        };
+    }
+
+    static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static int closeDoubled(String sql, int i, char close) {
+        int len = sql.length();
+        int j = i + 1;
+        while (j < len) {
+            if (sql.charAt(j) == close) {
+                if (j + 1 < len && sql.charAt(j + 1) == close) {
+                    j += 2;
+                    continue;
+                }
+                return j + 1;
+            }
+            j++;
+        }
+        return len;
+    }
+
+    private static boolean isValidDollarTag(String sql, int start, int closing) {
+        // "$$" or "$tag$" where tag is [A-Za-z0-9_]+
+        for (int i = start + 1; i < closing; i++) {
+            if (!isWordChar(sql.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -1,362 +1,233 @@
 package io.kestra.plugin.jdbc;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.NoSuchElementException;
 
-public class SqlSplitter {
+/**
+ * Splits SQL scripts into statements on the semicolons that are SQL, i.e. not in strings, quoted identifiers,
+ * comments, dollar-quoted strings nor BEGIN ... END and PL/SQL blocks.
+ * <p>
+ * A splitter reads its script lazily: {@link #next()} reads just enough to return the next statement, keeping the state
+ * of the lexer and of the blocks from one buffer to the next, so a script read from a {@link Reader} never needs to be
+ * in memory as a whole.
+ */
+public class SqlSplitter implements Iterator<String> {
+    private static final int BUFFER_SIZE = 64 * 1024;
 
-    public static String[] getQueries(String sql) {
-        List<String> statements = new ArrayList<>();
-        StringBuilder current = new StringBuilder();
+    // enough to tell "--", "/*" or a dollar quote tag from the rest without being at the end of the buffer
+    private static final int LOOKAHEAD = 256;
 
-        int len = sql.length();
+    private final Reader reader;
+    private String text;
+    private int i;
+    private boolean eof;
+    private String next;
 
-        boolean inSingleQuote = false;
-        boolean inDoubleQuote = false;
-        boolean inLineComment = false;
-        boolean inBlockComment = false;
+    private final StringBuilder current = new StringBuilder();
+    private final StringBuilder token = new StringBuilder();
 
-        // Postgres dollar-quoted strings: $$...$$ or $tag$...$tag$
-        boolean inDollarQuote = false;
-        String dollarTag = null; // e.g. "$$" or "$json$"
+    private int beginDepth = 0;
+    private boolean sawEndToken = false;
 
-        boolean inBacktick = false;
-        boolean inSquareBracket = false;
+    private boolean doDollarBlock = false;
 
-        int beginDepth = 0;
-        boolean sawEndToken = false;
-        StringBuilder token = new StringBuilder();
+    // Oracle PL/SQL: DECLARE ... BEGIN ... END; is a single anonymous block.
+    // We treat DECLARE as opening a block, and the subsequent BEGIN as the same block (no extra nesting).
+    private boolean inDeclareSection = false;
 
-        boolean doDollarBlock = false;
-        String lastTokenUpper = null;
+    // Oracle PL/SQL DDL (PACKAGE / PACKAGE BODY / PROCEDURE / FUNCTION / TRIGGER / TYPE):
+    // Those can contain semicolons without any top-level BEGIN...END. Only the final END ...; ends the statement.
+    private int plsqlDdlDepth = 0;
 
-        // Oracle PL/SQL: DECLARE ... BEGIN ... END; is a single anonymous block.
-        // We treat DECLARE as opening a block, and the subsequent BEGIN as the same block (no extra nesting).
-        boolean inDeclareSection = false;
+    // Track CREATE [OR REPLACE] <object_type>
+    private boolean sawCreate = false;
+    private boolean sawOr = false;
+    private boolean sawReplace = false;
 
-        // Oracle PL/SQL DDL (PACKAGE / PACKAGE BODY / PROCEDURE / FUNCTION / TRIGGER / TYPE):
-        // Those can contain semicolons without any top-level BEGIN...END. Only the final END ...; ends the statement.
-        int plsqlDdlDepth = 0;
+    // Small mutable holder for lastTokenUpper (so helper can update it).
+    private final String[] lastTokenHolder = new String[1];
 
-        // Track CREATE [OR REPLACE] <object_type>
-        boolean sawCreate = false;
-        boolean sawOr = false;
-        boolean sawReplace = false;
+    /**
+     * A splitter of the given script, read as needed and not closed.
+     */
+    public SqlSplitter(Reader reader) {
+        this.reader = reader;
+        this.text = "";
+    }
 
-        // Small mutable holder for lastTokenUpper (so helper can update it).
-        String[] lastTokenHolder = new String[1];
-        lastTokenHolder[0] = null;
+    private SqlSplitter(String sql) {
+        this.reader = null;
+        this.text = sql;
+        this.eof = true;
+    }
 
-        for (int i = 0; i < len; i++) {
-            char c = sql.charAt(i);
-            char next = (i + 1 < len) ? sql.charAt(i + 1) : '\0';
+    public static String[] getQueries(String sql) {
+        List<String> statements = new ArrayList<>();
+        new SqlSplitter(sql).forEachRemaining(statements::add);
+        return statements.toArray(new String[0]);
+    }
 
-            // Exit line comment
-            if (inLineComment) {
-                current.append(c);
-                if (c == '\n') {
-                    inLineComment = false;
-                }
-                continue;
+    @Override
+    public boolean hasNext() {
+        if (this.next == null) {
+            try {
+                this.next = this.split();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
+        }
+        return this.next != null;
+    }
 
-            // Exit block comment
-            if (inBlockComment) {
-                current.append(c);
-                if (c == '*' && next == '/') {
-                    current.append('/');
-                    i++;
-                    inBlockComment = false;
-                }
-                continue;
-            }
+    /**
+     * The next statement, reading the script up to its end.
+     *
+     * @throws UncheckedIOException if the script cannot be read
+     */
+    @Override
+    public String next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String statement = this.next;
+        this.next = null;
+        return statement;
+    }
 
-            // Inside dollar-quote: only look for its closing tag
-            if (inDollarQuote) {
-                current.append(c);
-
-                // If the remaining substring starts with the closing tag, close it.
-                if (c == '$' && dollarTag != null) {
-                    int tagLen = dollarTag.length();
-                    if (i + tagLen <= len && sql.startsWith(dollarTag, i)) {
-                        // we already appended current char '$', append rest of tag (excluding first '$')
-                        for (int k = 1; k < tagLen; k++) {
-                            current.append(sql.charAt(i + k));
-                        }
-                        i += tagLen - 1;
-                        inDollarQuote = false;
-                        dollarTag = null;
-                    }
-                }
-                continue;
+    private String split() throws IOException {
+        while (true) {
+            if (!this.eof && this.text.length() - this.i < LOOKAHEAD) {
+                this.fill(BUFFER_SIZE);
             }
-
-            if (inBacktick) {
-                current.append(c);
-
-                // MySQL escape for backtick inside identifier is `` (double backtick)
-                if (c == '`') {
-                    if (next == '`') {
-                        current.append(next);
-                        i++;
-                    } else {
-                        inBacktick = false;
-                    }
-                }
-                continue;
+            if (this.i >= this.text.length()) {
+                String leftover = this.current.toString().trim();
+                this.current.setLength(0);
+                return leftover.isEmpty() ? null : leftover;
             }
 
-            if (inSquareBracket) {
-                current.append(c);
-
-                // SQL Server escape for ']' inside identifier is ']]'
-                if (c == ']') {
-                    if (next == ']') {
-                        current.append(next);
-                        i++;
-                    } else {
-                        inSquareBracket = false;
-                    }
-                }
-                continue;
-            }
+            char c = this.text.charAt(this.i);
 
-            // Double-quoted identifier (Postgres)
-            if (!inSingleQuote && c == '"') {
-                TokenState state = flushToken(token, beginDepth, sawEndToken, inDeclareSection,
-                    plsqlDdlDepth, sawCreate, sawOr, sawReplace, lastTokenHolder);
-                beginDepth = state.beginDepth;
-                sawEndToken = state.sawEndToken;
-                inDeclareSection = state.inDeclareSection;
-                plsqlDdlDepth = state.plsqlDdlDepth;
-                sawCreate = state.sawCreate;
-                sawOr = state.sawOr;
-                sawReplace = state.sawReplace;
-
-                current.append(c);
-
-                if (inDoubleQuote) {
-                    // Escaped double quote inside identifier => ""
-                    if (next == '"') {
-                        current.append(next);
-                        i++;
-                    } else {
-                        inDoubleQuote = false;
-                    }
-                } else {
-                    inDoubleQuote = true;
+            // Strings, quoted identifiers, comments and dollar-quoted strings are kept as is
+            int end = SqlLexer.skip(this.text, this.i);
+            if (end > this.i) {
+                if (end == this.text.length() && !this.eof) {
+                    // it may go on, or its closing quote be doubled, in what is not read yet
+                    this.fill(this.text.length() - this.i);
+                    continue;
                 }
-                continue;
-            }
-
-            // Start comments (only when not in a single quote)
-            if (!inSingleQuote && !inDoubleQuote && c == '-' && next == '-') {
-                TokenState state = flushToken(token, beginDepth, sawEndToken, inDeclareSection,
-                    plsqlDdlDepth, sawCreate, sawOr, sawReplace, lastTokenHolder);
-                beginDepth = state.beginDepth;
-                sawEndToken = state.sawEndToken;
-                inDeclareSection = state.inDeclareSection;
-                plsqlDdlDepth = state.plsqlDdlDepth;
-                sawCreate = state.sawCreate;
-                sawOr = state.sawOr;
-                sawReplace = state.sawReplace;
-
-                inLineComment = true;
-                current.append(c); // keep the comment text
-                continue;
-            }
 
-            if (!inSingleQuote && !inDoubleQuote && c == '/' && next == '*') {
-                TokenState state = flushToken(token, beginDepth, sawEndToken, inDeclareSection,
-                    plsqlDdlDepth, sawCreate, sawOr, sawReplace, lastTokenHolder);
-                beginDepth = state.beginDepth;
-                sawEndToken = state.sawEndToken;
-                inDeclareSection = state.inDeclareSection;
-                plsqlDdlDepth = state.plsqlDdlDepth;
-                sawCreate = state.sawCreate;
-                sawOr = state.sawOr;
-                sawReplace = state.sawReplace;
-
-                inBlockComment = true;
-                current.append(c); // keep the comment text
-                continue;
-            }
+                TokenState state = this.flushToken();
 
-            // Start / end single-quoted strings (handle doubled quotes '')
-            if (c == '\'') {
-                TokenState state = flushToken(token, beginDepth, sawEndToken, inDeclareSection,
-                    plsqlDdlDepth, sawCreate, sawOr, sawReplace, lastTokenHolder);
-                beginDepth = state.beginDepth;
-                sawEndToken = state.sawEndToken;
-                inDeclareSection = state.inDeclareSection;
-                plsqlDdlDepth = state.plsqlDdlDepth;
-                sawCreate = state.sawCreate;
-                sawOr = state.sawOr;
-                sawReplace = state.sawReplace;
-
-                current.append(c);
-
-                if (inSingleQuote) {
-                    // If next is also a quote => escaped quote inside the string
-                    if (next == '\'') {
-                        current.append(next);
-                        i++;
-                    } else {
-                        inSingleQuote = false;
-                    }
-                } else {
-                    inSingleQuote = true;
+                if (c == '$' && "DO".equals(state.lastTokenUpper)) {
+                    doDollarBlock = true;
                 }
-                continue;
-            }
-
-            // Backtick-quoted identifier (MySQL/MariaDB/Snowflake/BigQuery)
-            if (!inSingleQuote && !inDoubleQuote && c == '`') {
-                // flush token
-                TokenState state = flushToken(token, beginDepth, sawEndToken, inDeclareSection,
-                    plsqlDdlDepth, sawCreate, sawOr, sawReplace, lastTokenHolder);
-                beginDepth = state.beginDepth;
-                sawEndToken = state.sawEndToken;
-                inDeclareSection = state.inDeclareSection;
-                plsqlDdlDepth = state.plsqlDdlDepth;
-                sawCreate = state.sawCreate;
-                sawOr = state.sawOr;
-                sawReplace = state.sawReplace;
-                lastTokenUpper = state.lastTokenUpper;
-
-                inBacktick = true;
-                current.append(c);
-                continue;
-            }
 
-            // SQL Server bracket-quoted identifier
-            if (!inSingleQuote && !inDoubleQuote && c == '[') {
-                TokenState state = flushToken(token, beginDepth, sawEndToken, inDeclareSection,
-                    plsqlDdlDepth, sawCreate, sawOr, sawReplace, lastTokenHolder);
-                beginDepth = state.beginDepth;
-                sawEndToken = state.sawEndToken;
-                inDeclareSection = state.inDeclareSection;
-                plsqlDdlDepth = state.plsqlDdlDepth;
-                sawCreate = state.sawCreate;
-                sawOr = state.sawOr;
-                sawReplace = state.sawReplace;
-
-                inSquareBracket = true;
-                current.append(c);
+                current.append(this.text, this.i, end);
+                this.i = end;
                 continue;
             }
+            this.i++;
 
-            // Start Postgres dollar-quoted string (only when not in a single quote)
-            if (!inSingleQuote && !inDoubleQuote && c == '$') {
-                // detect $tag$ (including $$)
-                int closing = sql.indexOf('$', i + 1);
-                if (closing != -1) {
-                    String candidate = sql.substring(i, closing + 1); // "$$" or "$tag$"
-                    // Valid tag: starts/ends with $, contains only letters/digits/underscore between
-                    if (candidate.length() >= 2 && isValidDollarTag(candidate)) {
-                        TokenState state = flushToken(token, beginDepth, sawEndToken, inDeclareSection,
-                            plsqlDdlDepth, sawCreate, sawOr, sawReplace, lastTokenHolder);
-                        beginDepth = state.beginDepth;
-                        sawEndToken = state.sawEndToken;
-                        inDeclareSection = state.inDeclareSection;
-                        plsqlDdlDepth = state.plsqlDdlDepth;
-                        sawCreate = state.sawCreate;
-                        sawOr = state.sawOr;
-                        sawReplace = state.sawReplace;
-                        lastTokenUpper = state.lastTokenUpper;
-
-                        if ("DO".equals(lastTokenUpper)) {
-                            doDollarBlock = true;
-                        }
+            // Normal character
+            current.append(c);
 
-                        inDollarQuote = true;
-                        dollarTag = candidate;
-                        current.append(candidate);
-                        i = closing; // we consumed up to the second '$'
-                        continue;
-                    }
+            // Track BEGIN/END (strings, comments and dollar quotes were skipped above)
+            if (SqlLexer.isWordChar(c)) {
+                token.append(c);
+            } else {
+                if (!token.isEmpty()) {
+                    this.flushToken();
                 }
-            }
 
-            // Normal character
-            current.append(c);
+                if (c == ';') {
+                    // Close PL/SQL DDL unit on final "END ...;"
+                    if (plsqlDdlDepth > 0 && sawEndToken) {
+                        plsqlDdlDepth = Math.max(0, plsqlDdlDepth - 1);
+                        sawEndToken = false;
 
-            // Track BEGIN/END only outside strings/comments/dollar
-            if (!inSingleQuote && !inDoubleQuote) {
-                if (isWordChar(c)) {
-                    token.append(c);
-                } else {
-                    if (!token.isEmpty()) {
-                        TokenState state = flushToken(token, beginDepth, sawEndToken, inDeclareSection,
-                            plsqlDdlDepth, sawCreate, sawOr, sawReplace, lastTokenHolder);
-                        beginDepth = state.beginDepth;
-                        sawEndToken = state.sawEndToken;
-                        inDeclareSection = state.inDeclareSection;
-                        plsqlDdlDepth = state.plsqlDdlDepth;
-                        sawCreate = state.sawCreate;
-                        sawOr = state.sawOr;
-                        sawReplace = state.sawReplace;
+                        if (plsqlDdlDepth == 0 && beginDepth == 0) {
+                            String statement = current.toString().trim();
+                            current.setLength(0);
+                            doDollarBlock = false;
+                            inDeclareSection = false; // reset oracle declare state
+                            return statement;
+                        }
                     }
 
-                    if (c == ';') {
-                        // Close PL/SQL DDL unit on final "END ...;"
-                        if (plsqlDdlDepth > 0 && sawEndToken) {
-                            plsqlDdlDepth = Math.max(0, plsqlDdlDepth - 1);
-                            sawEndToken = false;
-
-                            if (plsqlDdlDepth == 0 && beginDepth == 0) {
-                                statements.add(current.toString().trim());
-                                current.setLength(0);
-                                doDollarBlock = false;
-                                inDeclareSection = false; // reset oracle declare state
-                                continue;
-                            }
-                        }
+                    if (beginDepth > 0 && sawEndToken) {
+                        beginDepth = Math.max(0, beginDepth - 1);
+                        sawEndToken = false;
 
-                        if (beginDepth > 0 && sawEndToken) {
-                            beginDepth = Math.max(0, beginDepth - 1);
-                            sawEndToken = false;
-
-                            if (beginDepth == 0) {
-                                statements.add(current.toString().trim());
-                                current.setLength(0);
-                                doDollarBlock = false;
-                                inDeclareSection = false; // reset oracle declare state
-                                continue;
-                            }
-                        } else {
-                            sawEndToken = false;
+                        if (beginDepth == 0) {
+                            String statement = current.toString().trim();
+                            current.setLength(0);
+                            doDollarBlock = false;
+                            inDeclareSection = false; // reset oracle declare state
+                            return statement;
                         }
-                    } else if (!Character.isWhitespace(c)) {
+                    } else {
                         sawEndToken = false;
                     }
+                } else if (!Character.isWhitespace(c)) {
+                    sawEndToken = false;
                 }
             }
 
             // Split on semicolon only when not inside string and not inside BEGIN...END
             // (and not inside PL/SQL DDL unit like CREATE PACKAGE / CREATE TRIGGER ...)
-            if (beginDepth == 0 && plsqlDdlDepth == 0 && c == ';' && !inSingleQuote && !inDoubleQuote) {
+            if (beginDepth == 0 && plsqlDdlDepth == 0 && c == ';') {
                 String s = current.toString().trim();
+                boolean dollarBlock = doDollarBlock;
+                current.setLength(0);
+                doDollarBlock = false;
                 if (!s.isEmpty()) {
                     // strip trailing ';'
-                    if (doDollarBlock) {
-                        statements.add(s);
-                    } else {
-                        statements.add(s.substring(0, s.length() - 1));
-                    }
+                    return dollarBlock ? s : s.substring(0, s.length() - 1);
                 }
-                current.setLength(0);
-                doDollarBlock = false;
             }
         }
+    }
 
-        String leftover = current.toString().trim();
-        if (!leftover.isEmpty()) {
-            statements.add(leftover);
+    /**
+     * Read at least {@code size} more characters, or up to the end of the script, dropping the ones already split.
+     */
+    private void fill(int size) throws IOException {
+        StringBuilder buffer = new StringBuilder(this.text.length() - this.i + size);
+        buffer.append(this.text, this.i, this.text.length());
+
+        char[] chunk = new char[Math.max(size, BUFFER_SIZE)];
+        int read = 0;
+        while (read < size) {
+            int n = this.reader.read(chunk, read, chunk.length - read);
+            if (n < 0) {
+                this.eof = true;
+                break;
+            }
+            read += n;
         }
+        buffer.append(chunk, 0, read);
 
-        return statements.toArray(new String[0]);
+        this.text = buffer.toString();
+        this.i = 0;
+    }
+
+    private TokenState flushToken() {
+        TokenState state = flushToken(token, beginDepth, sawEndToken, inDeclareSection,
+            plsqlDdlDepth, sawCreate, sawOr, sawReplace, lastTokenHolder);
+        beginDepth = state.beginDepth;
+        sawEndToken = state.sawEndToken;
+        inDeclareSection = state.inDeclareSection;
+        plsqlDdlDepth = state.plsqlDdlDepth;
+        sawCreate = state.sawCreate;
+        sawOr = state.sawOr;
+        sawReplace = state.sawReplace;
+        return state;
     }
 
     /**
@@ -441,25 +312,6 @@ public class SqlSplitter {
             plsqlDdlDepth, sawCreate, sawOr, sawReplace, lastTokenHolder[0]);
     }
 
-    private static boolean isValidDollarTag(String tag) {
-        // "$$" is valid
-        if ("$$".equals(tag)) return true;
-
-        // "$tag$" where tag is [A-Za-z0-9_]+
-        if (tag.length() < 3) return false;
-        if (tag.charAt(0) != '$' || tag.charAt(tag.length() - 1) != '$') return false;
-
-        for (int i = 1; i < tag.length() - 1; i++) {
-            char ch = tag.charAt(i);
-            if (!(Character.isLetterOrDigit(ch) || ch == '_')) return false;
-        }
-        return true;
-    }
-
-    private static boolean isWordChar(char c) {
-        return Character.isLetterOrDigit(c) || c == '_';
-    }
-
     private record TokenState(
         int beginDepth,
         boolean sawEndToken,
@@ -0,0 +1,245 @@
+package io.kestra.plugin.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Prepared statements of one pooled connection, kept open from one borrow to the next so the driver and the server do
+ * not parse and plan the same SQL again. Statements are keyed by SQL text and result set options, and the least
+ * recently used one is closed once more than the size of the borrow are cached.
+ * <p>
+ * A cached statement is used by one caller at a time: closing it clears its parameters, pending batch and result set,
+ * restores its fetch size, max rows and query timeout, and puts it back in the cache. A statement failing to do so is
+ * closed for good.
+ * <p>
+ * Statements are prepared on the physical connection, not on the pool proxy that would close them with the borrow.
+ */
+final class StatementCache {
+    private final Connection connection;
+    // least recently used first: a statement leaves the map while it is used and goes back at the end
+    private final LinkedHashMap<String, Cached> idle = new LinkedHashMap<>();
+    private final Set<Lease> leased = Collections.newSetFromMap(new IdentityHashMap<>());
+    private boolean closed;
+
+    StatementCache(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Whether {@code Connection.prepareStatement} called with these arguments can be cached: only the
+     * {@code (sql)} and {@code (sql, resultSetType, resultSetConcurrency)} variants are.
+     */
+    static boolean cacheable(Object[] args) {
+        return args != null && (args.length == 1 || args.length == 3) && args[0] instanceof String;
+    }
+
+    /**
+     * A statement for the given {@code Connection.prepareStatement} arguments, {@code owner} being the connection the
+     * caller sees, or null if the driver does not support caching it.
+     */
+    PreparedStatement prepare(Connection owner, Object[] args, int size) throws SQLException {
+        String key = key(args);
+
+        Cached cached;
+        synchronized (this) {
+            cached = this.closed ? null : this.idle.remove(key);
+        }
+        if (cached != null && cached.statement.isClosed()) {
+            cached = null;
+        }
+
+        if (cached == null) {
+            PreparedStatement statement = args.length == 1
+                ? this.connection.prepareStatement((String) args[0])
+                : this.connection.prepareStatement((String) args[0], (int) args[1], (int) args[2]);
+            try {
+                cached = new Cached(key, statement, statement.getFetchSize(), statement.getMaxRows(), statement.getQueryTimeout());
+            } catch (SQLException | RuntimeException e) {
+                // a driver not supporting one of them, the statement could not be restored
+                statement.close();
+                return null;
+            }
+        }
+
+        Lease lease = new Lease(owner, cached, size);
+        synchronized (this) {
+            this.leased.add(lease);
+        }
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, lease);
+    }
+
+    /**
+     * Give back the statements still in use, when their connection goes back to the pool.
+     */
+    void giveBackAll() {
+        List<Lease> leases;
+        synchronized (this) {
+            leases = new ArrayList<>(this.leased);
+        }
+        leases.forEach(Lease::release);
+    }
+
+    synchronized int size() {
+        return this.idle.size();
+    }
+
+    /**
+     * Close every cached statement, statements in use are closed when they are given back.
+     */
+    void close() {
+        List<Cached> statements;
+        synchronized (this) {
+            this.closed = true;
+            statements = new ArrayList<>(this.idle.values());
+            this.idle.clear();
+        }
+        statements.forEach(Cached::close);
+    }
+
+    boolean isConnectionClosed() {
+        try {
+            return this.connection.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private void giveBack(Lease lease) {
+        synchronized (this) {
+            this.leased.remove(lease);
+        }
+
+        Cached cached = lease.cached;
+        PreparedStatement statement = cached.statement;
+        try {
+            if (statement.isClosed()) {
+                return;
+            }
+
+            ResultSet resultSet = statement.getResultSet();
+            if (resultSet != null) {
+                resultSet.close();
+            }
+            statement.clearParameters();
+            if (lease.batched) {
+                statement.clearBatch();
+            }
+            statement.clearWarnings();
+            if (statement.getFetchSize() != cached.fetchSize) {
+                statement.setFetchSize(cached.fetchSize);
+            }
+            if (statement.getMaxRows() != cached.maxRows) {
+                statement.setMaxRows(cached.maxRows);
+            }
+            if (statement.getQueryTimeout() != cached.queryTimeout) {
+                statement.setQueryTimeout(cached.queryTimeout);
+            }
+        } catch (SQLException | RuntimeException e) {
+            cached.close();
+            return;
+        }
+
+        List<Cached> evicted = new ArrayList<>();
+        synchronized (this) {
+            if (this.closed || this.idle.containsKey(cached.key)) {
+                // the same SQL was prepared again while this one was in use, keep only one
+                evicted.add(cached);
+            } else {
+                this.idle.put(cached.key, cached);
+            }
+
+            Iterator<Map.Entry<String, Cached>> eldest = this.idle.entrySet().iterator();
+            while (this.idle.size() > lease.size && eldest.hasNext()) {
+                evicted.add(eldest.next().getValue());
+                eldest.remove();
+            }
+        }
+        evicted.forEach(Cached::close);
+    }
+
+    private static String key(Object[] args) {
+        if (args.length == 1) {
+            return (String) args[0];
+        }
+        return args[0] + "\u0000" + args[1] + "\u0000" + args[2];
+    }
+
+    /**
+     * One use of a cached statement, until closed.
+     */
+    private final class Lease implements InvocationHandler {
+        private final Connection owner;
+        private final Cached cached;
+        private final int size;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile boolean batched;
+
+        private Lease(Connection owner, Cached cached, int size) {
+            this.owner = owner;
+            this.cached = cached;
+            this.size = size;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    this.release();
+                    return null;
+                }
+                case "isClosed" -> {
+                    return this.released.get() || this.cached.statement.isClosed();
+                }
+                case "getConnection" -> {
+                    return this.owner;
+                }
+                case "addBatch" -> this.batched = true;
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                }
+            }
+
+            try {
+                return method.invoke(this.cached.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void release() {
+            if (this.released.compareAndSet(false, true)) {
+                giveBack(this);
+            }
+        }
+    }
+
+    private record Cached(String key, PreparedStatement statement, int fetchSize, int maxRows, int queryTimeout) {
+        private void close() {
+            try {
+                this.statement.close();
+            } catch (SQLException | RuntimeException ignored) {
+                // the statement is dropped anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,559 @@
+package io.kestra.plugin.jdbc;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Which statements of a script must run after which, so that the others can run concurrently.
+ * <p>
+ * The tables each statement reads and writes are inferred from its tokens: a statement runs after the earlier ones
+ * writing a table it reads or writes, and after the earlier ones reading a table it writes. Names are compared without
+ * their schema, so tables of the same name in different schemas are ordered too.
+ * <p>
+ * What cannot be inferred is ordered conservatively: a statement whose kind is unknown (DO, CALL, GRANT, ...) runs
+ * after every earlier statement and before every later one, and REFRESH MATERIALIZED VIEW is taken as reading every
+ * table. Reads through views and functions are not seen, such dependencies must be declared.
+ * <p>
+ * Statements changing the session (SET, USE, temporary tables, ...) are reported by {@link #changesSession()}: their
+ * effect would be lost on the other connections, so such scripts must run sequentially.
+ */
+final class StatementGraph {
+    private static final Set<String> SESSION_KEYWORDS = Set.of(
+        "SET", "RESET", "USE", "DECLARE", "PREPARE", "DEALLOCATE", "LISTEN", "UNLISTEN", "DISCARD", "LOCK",
+        "BEGIN", "START", "COMMIT", "END", "ROLLBACK", "SAVEPOINT", "RELEASE"
+    );
+
+    // keywords ending a FROM list, the word after a table name is otherwise its alias
+    private static final Set<String> CLAUSE_KEYWORDS = Set.of(
+        "WHERE", "GROUP", "ORDER", "HAVING", "LIMIT", "OFFSET", "FETCH", "UNION", "INTERSECT", "EXCEPT", "MINUS",
+        "JOIN", "INNER", "LEFT", "RIGHT", "FULL", "CROSS", "NATURAL", "OUTER", "LATERAL", "ON", "USING", "WINDOW",
+        "RETURNING", "SET", "VALUES", "SELECT", "FOR", "WITH", "WHEN", "INTO", "TABLESAMPLE", "QUALIFY", "AS"
+    );
+
+    private final List<int[]> dependencies;
+    private final int sessionStatement;
+
+    private StatementGraph(List<int[]> dependencies, int sessionStatement) {
+        this.dependencies = dependencies;
+        this.sessionStatement = sessionStatement;
+    }
+
+    /**
+     * The graph of the given statements.
+     *
+     * @param statements the statements, in script order
+     * @param infer whether to infer the dependencies from the tables, otherwise only the declared ones are used
+     * @param declared statement number (1-based) to the numbers of the earlier statements it runs after
+     */
+    static StatementGraph of(List<String> statements, boolean infer, Map<Integer, List<Integer>> declared) {
+        List<Access> accesses = statements.stream().map(StatementGraph::access).toList();
+
+        int sessionStatement = -1;
+        for (int i = 0; i < accesses.size(); i++) {
+            if (accesses.get(i).session()) {
+                sessionStatement = i;
+                break;
+            }
+        }
+
+        List<int[]> dependencies = new ArrayList<>(statements.size());
+        for (int i = 0; i < statements.size(); i++) {
+            Set<Integer> after = new TreeSet<>();
+            if (infer) {
+                for (int j = 0; j < i; j++) {
+                    if (accesses.get(i).conflicts(accesses.get(j))) {
+                        after.add(j);
+                    }
+                }
+            }
+
+            for (Integer number : declared.getOrDefault(i + 1, List.of())) {
+                if (number == null || number < 1 || number > i) {
+                    throw new IllegalArgumentException("Statement " + (i + 1) + " can only depend on earlier statements, not on " + number);
+                }
+                after.add(number - 1);
+            }
+
+            dependencies.add(after.stream().mapToInt(Integer::intValue).toArray());
+        }
+        declared.keySet().stream()
+            .filter(number -> number < 1 || number > statements.size())
+            .findFirst()
+            .ifPresent(number -> {
+                throw new IllegalArgumentException("No statement " + number + ", the script has " + statements.size() + " statements");
+            });
+
+        return new StatementGraph(dependencies, sessionStatement);
+    }
+
+    /**
+     * The indexes (0-based) of the earlier statements the given one runs after.
+     */
+    int[] dependencies(int index) {
+        return this.dependencies.get(index);
+    }
+
+    int size() {
+        return this.dependencies.size();
+    }
+
+    /**
+     * Whether a statement changes the session, see the class documentation.
+     */
+    boolean changesSession() {
+        return this.sessionStatement >= 0;
+    }
+
+    /**
+     * The number (1-based) of the first statement changing the session, -1 if none does.
+     */
+    int sessionStatement() {
+        return this.sessionStatement < 0 ? -1 : this.sessionStatement + 1;
+    }
+
+    /**
+     * The tables a statement reads and writes.
+     *
+     * @param readsAll whether it may read any table
+     * @param barrier whether its effect is unknown, it then runs after all earlier statements and before all later ones
+     * @param session whether it changes the session
+     */
+    record Access(Set<String> reads, Set<String> writes, boolean readsAll, boolean barrier, boolean session) {
+        boolean conflicts(Access earlier) {
+            if (this.barrier || earlier.barrier) {
+                return true;
+            }
+            if ((this.readsAll && !earlier.writes.isEmpty()) || (earlier.readsAll && !this.writes.isEmpty())) {
+                return true;
+            }
+            return intersects(earlier.writes, this.reads) || intersects(earlier.writes, this.writes) || intersects(earlier.reads, this.writes);
+        }
+
+        private static boolean intersects(Set<String> a, Set<String> b) {
+            return a.stream().anyMatch(b::contains);
+        }
+    }
+
+    static Access access(String sql) {
+        return new Parser(tokens(sql)).parse();
+    }
+
+    /**
+     * Words (upper case for keywords), quoted identifiers and punctuation of the SQL, without literals and comments.
+     */
+    static List<Token> tokens(String sql) {
+        List<Token> tokens = new ArrayList<>();
+        int len = sql.length();
+        int i = 0;
+        while (i < len) {
+            char c = sql.charAt(i);
+            int end = SqlLexer.skip(sql, i);
+            if (end > i) {
+                if (c == '"' || c == '`' || c == '[') {
+                    tokens.add(new Token(sql.substring(i + 1, Math.max(i + 1, end - 1)), true));
+                }
+                i = end;
+            } else if (SqlLexer.isWordChar(c)) {
+                int start = i;
+                while (i < len && SqlLexer.isWordChar(sql.charAt(i))) {
+                    i++;
+                }
+                tokens.add(new Token(sql.substring(start, i), false));
+            } else {
+                if (!Character.isWhitespace(c)) {
+                    tokens.add(new Token(String.valueOf(c), false));
+                }
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * @param quoted a quoted identifier, never a keyword
+     */
+    record Token(String text, boolean quoted) {
+        boolean is(String keyword) {
+            return !this.quoted && this.text.equalsIgnoreCase(keyword);
+        }
+
+        boolean isWord() {
+            return this.quoted || (!this.text.isEmpty() && SqlLexer.isWordChar(this.text.charAt(0)));
+        }
+
+        String keyword() {
+            return this.quoted ? "" : this.text.toUpperCase(Locale.ROOT);
+        }
+    }
+
+    private static final class Parser {
+        // keywords following INSERT or DELETE in place of a table name
+        private static final Set<String> NOT_TARGETS = Set.of("VALUES", "SELECT", "DEFAULT", "WHERE", "WHEN", "OUTPUT", "RETURNING", "EXEC", "EXECUTE", "WITH");
+
+        private final List<Token> tokens;
+        private final Set<String> reads = new HashSet<>();
+        private final Set<String> writes = new HashSet<>();
+        private final Set<String> ctes = new HashSet<>();
+        private boolean readsAll;
+        private int i;
+
+        private Parser(List<Token> tokens) {
+            this.tokens = tokens;
+        }
+
+        private Access parse() {
+            // a statement may start with parentheses, e.g. (SELECT ...) UNION (SELECT ...)
+            int first = 0;
+            while (first < this.tokens.size() && this.tokens.get(first).is("(")) {
+                first++;
+            }
+            if (first == this.tokens.size()) {
+                return new Access(Set.of(), Set.of(), false, false, false);
+            }
+
+            String keyword = this.tokens.get(first).keyword();
+            String second = this.keywordAt(first + 1);
+            if (SESSION_KEYWORDS.contains(keyword) || (keyword.equals("ALTER") && second.equals("SESSION")) || this.sqlServerTemporary()) {
+                return barrier(true);
+            }
+
+            boolean known = switch (keyword) {
+                case "SELECT", "WITH", "INSERT", "UPDATE", "DELETE", "MERGE", "VALUES", "UPSERT", "REPLACE" -> true;
+                case "TABLE" -> this.name(first + 1, this.reads);
+                case "CREATE" -> this.create(first + 1);
+                case "DROP" -> this.drop(first + 1);
+                case "ALTER" -> this.alter(first + 1);
+                case "TRUNCATE" -> this.names(this.skip(first + 1, "TABLE", "ONLY"), this.writes);
+                case "REFRESH" -> this.refresh(first + 1);
+                case "ANALYZE", "ANALYSE" -> this.maintenance(first + 1, this.reads);
+                case "VACUUM", "OPTIMIZE" -> this.maintenance(first + 1, this.writes);
+                case "COPY" -> this.names(first + 1, this.writes);
+                default -> false;
+            };
+            if (!known) {
+                return barrier(false);
+            }
+            if (keyword.equals("CREATE") && this.temporary(first + 1)) {
+                return barrier(true);
+            }
+
+            this.scan(first);
+
+            this.reads.removeAll(this.ctes);
+            this.writes.removeAll(this.ctes);
+            return new Access(Set.copyOf(this.reads), Set.copyOf(this.writes), this.readsAll, false, false);
+        }
+
+        private static Access barrier(boolean session) {
+            return new Access(Set.of(), Set.of(), true, true, session);
+        }
+
+        /**
+         * Reads and writes found anywhere in the statement: FROM, JOIN, INSERT INTO, UPDATE, DELETE FROM, MERGE INTO, ...
+         */
+        private void scan(int from) {
+            for (int k = from; k < this.tokens.size(); k++) {
+                Token token = this.tokens.get(k);
+                String previous = k > 0 ? this.keywordAt(k - 1) : "";
+                switch (token.keyword()) {
+                    case "WITH" -> this.ctes(k + 1);
+                    case "FROM", "JOIN" -> {
+                        if (!previous.equals("DELETE")) {
+                            this.fromList(k + 1, this.reads);
+                        }
+                    }
+                    case "USING", "REFERENCES" -> this.name(k + 1, this.reads);
+                    // INSERT INTO, MERGE INTO, but also SELECT ... INTO creating a table
+                    case "INTO" -> this.name(this.skip(k + 1, "TABLE"), this.writes);
+                    case "UPDATE" -> {
+                        // not ON UPDATE CASCADE, ON CONFLICT DO UPDATE SET nor FOR [NO KEY] UPDATE
+                        if (!Set.of("ON", "DO", "FOR", "KEY").contains(previous) && !this.keywordAt(k + 1).equals("SET")) {
+                            this.name(this.skip(k + 1, "ONLY"), this.writes);
+                        }
+                    }
+                    case "INSERT" -> {
+                        // INSERT t VALUES (SQL Server), INSERT OVERWRITE TABLE t (Hive, Spark), INSERT INTO is seen as INTO
+                        int target = this.skip(this.skipTop(k + 1), "IGNORE", "LOW_PRIORITY", "DELAYED", "HIGH_PRIORITY", "OVERWRITE", "TABLE");
+                        if (!this.keywordAt(target).equals("INTO")) {
+                            this.target(target);
+                        }
+                    }
+                    case "DELETE" -> {
+                        // DELETE FROM t, but also DELETE t WHERE ... and DELETE t FROM t JOIN u (SQL Server, Oracle)
+                        if (!previous.equals("ON")) {
+                            this.target(this.skip(this.skipTop(k + 1), "FROM", "ONLY"));
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        /**
+         * The table written by an INSERT or DELETE, unless a clause follows instead, e.g. in MERGE ... THEN INSERT VALUES.
+         */
+        private void target(int k) {
+            int end = this.nameEnd(k);
+            if (end == k || NOT_TARGETS.contains(this.keywordAt(k))) {
+                return;
+            }
+
+            // DELETE o FROM orders o JOIN ...: the target is an alias of a table of the FROM list
+            String name = this.nameAt(end);
+            if (end == k + 1 && this.keywordAt(end).equals("FROM")) {
+                for (int j = end + 1; j < this.tokens.size() && !this.tokens.get(j).is("WHERE"); j++) {
+                    int tableEnd = this.nameEnd(j);
+                    if (tableEnd == j || !Set.of("FROM", "JOIN", ",").contains(this.keywordAt(j - 1))) {
+                        continue;
+                    }
+                    if (this.nameAt(tableEnd).equals(name)) {
+                        break;
+                    }
+                    int alias = this.skip(tableEnd, "AS");
+                    if (alias < this.tokens.size() && this.tokens.get(alias).isWord() && normalize(this.tokens.get(alias).text()).equals(name)) {
+                        name = this.nameAt(tableEnd);
+                        break;
+                    }
+                }
+            }
+            this.writes.add(name);
+        }
+
+        /**
+         * After a SQL Server TOP (n) [PERCENT] clause.
+         */
+        private int skipTop(int k) {
+            if (!this.keywordAt(k).equals("TOP")) {
+                return k;
+            }
+            k++;
+            if (this.keywordAt(k).equals("(")) {
+                while (k < this.tokens.size() && !this.tokens.get(k).is(")")) {
+                    k++;
+                }
+            }
+            return this.skip(k + 1, "PERCENT");
+        }
+
+        /**
+         * Whether the statement uses a SQL Server #temporary table, only visible to its session.
+         */
+        private boolean sqlServerTemporary() {
+            for (int k = 0; k + 1 < this.tokens.size(); k++) {
+                if (this.tokens.get(k).is("#") && this.tokens.get(k + 1).isWord()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean create(int k) {
+            k = this.skip(k, "OR", "REPLACE", "GLOBAL", "LOCAL", "TEMP", "TEMPORARY", "UNLOGGED", "TRANSIENT", "VOLATILE", "EXTERNAL", "UNIQUE", "CLUSTERED", "NONCLUSTERED", "MATERIALIZED");
+            String kind = this.keywordAt(k);
+            return switch (kind) {
+                case "TABLE", "VIEW" -> {
+                    this.name(this.skip(k + 1, "IF", "NOT", "EXISTS"), this.writes);
+                    yield true;
+                }
+                case "INDEX" -> {
+                    // CREATE INDEX [CONCURRENTLY] [IF NOT EXISTS] [name] ON [ONLY] table: builds read the table
+                    int on = k + 1;
+                    while (on < this.tokens.size() && !this.tokens.get(on).is("ON")) {
+                        on++;
+                    }
+                    int index = this.skip(k + 1, "CONCURRENTLY", "IF", "NOT", "EXISTS");
+                    if (index < on) {
+                        this.name(index, this.writes);
+                    }
+                    yield this.name(this.skip(on + 1, "ONLY"), this.reads);
+                }
+                default -> false;
+            };
+        }
+
+        private boolean temporary(int k) {
+            for (int j = k; j < this.tokens.size(); j++) {
+                String keyword = this.tokens.get(j).keyword();
+                if (keyword.equals("TEMP") || keyword.equals("TEMPORARY")) {
+                    return true;
+                }
+                if (keyword.equals("TABLE") || keyword.equals("VIEW") || keyword.equals("INDEX")) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        private boolean drop(int k) {
+            k = this.skip(k, "MATERIALIZED");
+            String kind = this.keywordAt(k);
+            if (!kind.equals("TABLE") && !kind.equals("VIEW") && !kind.equals("INDEX")) {
+                return false;
+            }
+            return this.names(this.skip(k + 1, "CONCURRENTLY", "IF", "EXISTS"), this.writes);
+        }
+
+        private boolean alter(int k) {
+            k = this.skip(k, "MATERIALIZED");
+            String kind = this.keywordAt(k);
+            if (!kind.equals("TABLE") && !kind.equals("VIEW") && !kind.equals("INDEX")) {
+                return false;
+            }
+            return this.name(this.skip(k + 1, "IF", "EXISTS", "ONLY"), this.writes);
+        }
+
+        private boolean refresh(int k) {
+            if (!this.keywordAt(k).equals("MATERIALIZED") || !this.keywordAt(k + 1).equals("VIEW")) {
+                return false;
+            }
+            // the tables of the view are unknown
+            this.readsAll = true;
+            return this.name(this.skip(k + 2, "CONCURRENTLY"), this.writes);
+        }
+
+        /**
+         * ANALYZE / VACUUM [options] table [(columns)] [, ...], without table they work on the whole database.
+         */
+        private boolean maintenance(int k, Set<String> target) {
+            if (k < this.tokens.size() && this.tokens.get(k).is("(")) {
+                k = this.closing(k) + 1;
+            }
+            k = this.skip(k, "FULL", "FREEZE", "VERBOSE", "ANALYZE", "ANALYSE", "SKIP_LOCKED", "TABLE");
+            return this.names(k, target);
+        }
+
+        /**
+         * WITH [RECURSIVE] name [(columns)] AS [[NOT] MATERIALIZED] (...) [, ...]: the names are not tables.
+         */
+        private void ctes(int k) {
+            k = this.skip(k, "RECURSIVE");
+            while (k < this.tokens.size() && this.tokens.get(k).isWord()) {
+                this.ctes.add(normalize(this.tokens.get(k).text()));
+                k++;
+                if (k < this.tokens.size() && this.tokens.get(k).is("(")) {
+                    k = this.closing(k) + 1;
+                }
+                k = this.skip(k, "AS", "NOT", "MATERIALIZED");
+                if (k >= this.tokens.size() || !this.tokens.get(k).is("(")) {
+                    return;
+                }
+                k = this.closing(k) + 1;
+                if (k >= this.tokens.size() || !this.tokens.get(k).is(",")) {
+                    return;
+                }
+                k++;
+            }
+        }
+
+        /**
+         * FROM a [[AS] alias] [, b [[AS] alias]] ...
+         */
+        private void fromList(int k, Set<String> target) {
+            while (true) {
+                k = this.skip(k, "ONLY", "LATERAL");
+                int end = this.nameEnd(k);
+                if (end == k) {
+                    return;
+                }
+                target.add(this.nameAt(end));
+                k = end;
+                if (k < this.tokens.size() && this.tokens.get(k).is("(")) {
+                    // a table function, its arguments are not tables
+                    k = this.closing(k) + 1;
+                }
+                k = this.skip(k, "AS");
+                if (k < this.tokens.size() && this.tokens.get(k).isWord() && !CLAUSE_KEYWORDS.contains(this.tokens.get(k).keyword())) {
+                    k++;
+                }
+                if (k >= this.tokens.size() || !this.tokens.get(k).is(",")) {
+                    return;
+                }
+                k++;
+            }
+        }
+
+        private boolean names(int k, Set<String> target) {
+            boolean found = false;
+            while (true) {
+                int end = this.nameEnd(k);
+                if (end == k) {
+                    return found;
+                }
+                target.add(this.nameAt(end));
+                found = true;
+                k = end;
+                if (k < this.tokens.size() && this.tokens.get(k).is("(")) {
+                    k = this.closing(k) + 1;
+                }
+                if (k >= this.tokens.size() || !this.tokens.get(k).is(",")) {
+                    return found;
+                }
+                k++;
+            }
+        }
+
+        private boolean name(int k, Set<String> target) {
+            int end = this.nameEnd(k);
+            if (end == k) {
+                return false;
+            }
+            target.add(this.nameAt(end));
+            return true;
+        }
+
+        /**
+         * End (exclusive) of the dotted name starting at {@code k}, {@code k} if none starts there.
+         */
+        private int nameEnd(int k) {
+            if (k >= this.tokens.size() || !this.tokens.get(k).isWord()) {
+                return k;
+            }
+            int end = k + 1;
+            while (end + 1 < this.tokens.size() && this.tokens.get(end).is(".") && this.tokens.get(end + 1).isWord()) {
+                end += 2;
+            }
+            return end;
+        }
+
+        /**
+         * The table of a dotted name, without its schema and catalog.
+         */
+        private String nameAt(int end) {
+            return normalize(this.tokens.get(end - 1).text());
+        }
+
+        private int closing(int open) {
+            int depth = 0;
+            for (int k = open; k < this.tokens.size(); k++) {
+                if (this.tokens.get(k).is("(")) {
+                    depth++;
+                } else if (this.tokens.get(k).is(")") && --depth == 0) {
+                    return k;
+                }
+            }
+            return this.tokens.size();
+        }
+
+        private int skip(int k, String... keywords) {
+            Set<String> skipped = Set.of(keywords);
+            while (k < this.tokens.size() && skipped.contains(this.tokens.get(k).keyword())) {
+                k++;
+            }
+            return k;
+        }
+
+        private String keywordAt(int k) {
+            return k >= 0 && k < this.tokens.size() ? this.tokens.get(k).keyword() : "";
+        }
+
+        private static String normalize(String name) {
+            return name.toLowerCase(Locale.ROOT);
+        }
+    }
+}
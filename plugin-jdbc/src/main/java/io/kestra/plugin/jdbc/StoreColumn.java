@@ -0,0 +1,160 @@
+package io.kestra.plugin.jdbc;
+
+import io.kestra.core.serializers.JacksonMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Typed description of a result set column for the columnar store formats, resolved once from the
+ * {@link ResultSetMetaData}. The static helpers coerce the values returned by the cell converters to the
+ * column physical type.
+ */
+public record StoreColumn(String name, Kind kind, int precision, int scale) {
+    private static final int MAX_DECIMAL_PRECISION = 38;
+
+    public static StoreColumn[] of(ColumnPlan plan, ResultSetMetaData meta) throws SQLException {
+        StoreColumn[] columns = new StoreColumn[plan.size()];
+        Set<String> names = new HashSet<>();
+
+        for (int i = 0; i < columns.length; i++) {
+            // columnar field names must be unique, duplicated labels (e.g. joins on `id`) get a positional suffix
+            String name = plan.label(i);
+            if (!names.add(name)) {
+                name = name + "_" + (i + 1);
+                names.add(name);
+            }
+
+            int precision = meta.getPrecision(i + 1);
+            int scale = meta.getScale(i + 1);
+            columns[i] = new StoreColumn(name, Kind.of(meta.getColumnType(i + 1), precision, scale), precision, scale);
+        }
+
+        return columns;
+    }
+
+    public IllegalArgumentException unsupported(Object value, String format, Exception cause) {
+        return new IllegalArgumentException("Unable to write value of type '" + value.getClass().getName() +
+            "' for column '" + this.name + "' as " + format + " " + this.kind, cause);
+    }
+
+    /**
+     * Physical layout of a column, resolved from its JDBC type. Anything without a natural columnar mapping is
+     * written as a UTF-8 string, complex values (arrays, maps) as JSON.
+     */
+    public enum Kind {
+        BOOLEAN, INT, LONG, FLOAT, DOUBLE, DECIMAL, DATE, TIME, TIMESTAMP, BINARY, STRING;
+
+        static Kind of(int sqlType, int precision, int scale) {
+            return switch (sqlType) {
+                case Types.BIT, Types.BOOLEAN -> BOOLEAN;
+                case Types.TINYINT, Types.SMALLINT, Types.INTEGER -> INT;
+                case Types.BIGINT -> LONG;
+                case Types.REAL -> FLOAT;
+                case Types.FLOAT, Types.DOUBLE -> DOUBLE;
+                // unbounded numerics (e.g. Postgres `numeric` without precision) are kept as text to avoid any rounding
+                case Types.NUMERIC, Types.DECIMAL ->
+                    precision > 0 && precision <= MAX_DECIMAL_PRECISION && scale >= 0 && scale <= precision ? DECIMAL : STRING;
+                case Types.DATE -> DATE;
+                case Types.TIME, Types.TIME_WITH_TIMEZONE -> TIME;
+                case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> TIMESTAMP;
+                case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB -> BINARY;
+                default -> STRING;
+            };
+        }
+    }
+
+    public static boolean asBoolean(Object value) {
+        return value instanceof Boolean b ? b : asNumber(value).intValue() != 0;
+    }
+
+    public static Number asNumber(Object value) {
+        return switch (value) {
+            case Number number -> number;
+            case Boolean bool -> bool ? 1 : 0;
+            case String string -> new BigDecimal(string);
+            default -> throw new IllegalArgumentException("Not a number");
+        };
+    }
+
+    public BigDecimal asDecimal(Object value) {
+        BigDecimal decimal = switch (value) {
+            case BigDecimal d -> d;
+            case Double d -> BigDecimal.valueOf(d);
+            case Float f -> BigDecimal.valueOf(f);
+            case Number number -> new BigDecimal(number.toString());
+            case String string -> new BigDecimal(string);
+            default -> throw new IllegalArgumentException("Not a decimal");
+        };
+
+        return decimal.setScale(this.scale, RoundingMode.HALF_UP);
+    }
+
+    public static LocalDate asDate(Object value) {
+        return switch (value) {
+            case LocalDate date -> date;
+            case LocalDateTime dateTime -> dateTime.toLocalDate();
+            case ZonedDateTime dateTime -> dateTime.toLocalDate();
+            case OffsetDateTime dateTime -> dateTime.toLocalDate();
+            case java.sql.Date date -> date.toLocalDate();
+            case String string -> LocalDate.parse(string);
+            default -> throw new IllegalArgumentException("Not a date");
+        };
+    }
+
+    public static long asTimeMicros(Object value) {
+        LocalTime time = switch (value) {
+            case LocalTime t -> t;
+            case OffsetTime t -> t.toLocalTime();
+            case LocalDateTime dateTime -> dateTime.toLocalTime();
+            case ZonedDateTime dateTime -> dateTime.toLocalTime();
+            case OffsetDateTime dateTime -> dateTime.toLocalTime();
+            case java.sql.Time t -> t.toLocalTime();
+            case String string -> LocalTime.parse(string);
+            default -> throw new IllegalArgumentException("Not a time");
+        };
+
+        return time.toNanoOfDay() / 1_000;
+    }
+
+    public static long asTimestampMicros(Object value, ZoneId zoneId) {
+        Instant instant = switch (value) {
+            case Instant i -> i;
+            case ZonedDateTime dateTime -> dateTime.toInstant();
+            case OffsetDateTime dateTime -> dateTime.toInstant();
+            case LocalDateTime dateTime -> dateTime.atZone(zoneId).toInstant();
+            case LocalDate date -> date.atStartOfDay(zoneId).toInstant();
+            case java.sql.Timestamp timestamp -> timestamp.toInstant();
+            case String string -> Instant.parse(string);
+            default -> throw new IllegalArgumentException("Not a timestamp");
+        };
+
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    public static String asString(Object value) {
+        if (value instanceof String string) {
+            return string;
+        }
+
+        if (value instanceof Map<?, ?> || value instanceof Collection<?> || value.getClass().isArray()) {
+            try {
+                return JacksonMapper.ofJson().writeValueAsString(value);
+            } catch (IOException e) {
+                throw new IllegalArgumentException(e);
+            }
+        }
+
+        return value.toString();
+    }
+}
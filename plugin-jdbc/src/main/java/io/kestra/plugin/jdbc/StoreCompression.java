@@ -0,0 +1,38 @@
+package io.kestra.plugin.jdbc;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import io.kestra.core.serializers.FileSerde;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression applied to ION files written when {@code fetchType} is {@code STORE}.
+ */
+public enum StoreCompression {
+    NONE(""),
+    GZIP(".gz"),
+    ZSTD(".zst");
+
+    private final String extension;
+
+    StoreCompression(String extension) {
+        this.extension = extension;
+    }
+
+    public String extension() {
+        return this.extension;
+    }
+
+    /**
+     * Wrap the output with the compressor; closing the returned stream finishes the compressed data and closes the output.
+     */
+    OutputStream wrap(OutputStream output) throws IOException {
+        return switch (this) {
+            case NONE -> output;
+            case GZIP -> new GZIPOutputStream(output, FileSerde.BUFFER_SIZE);
+            case ZSTD -> new ZstdOutputStream(output);
+        };
+    }
+}
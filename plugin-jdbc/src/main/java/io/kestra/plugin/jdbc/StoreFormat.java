@@ -0,0 +1,25 @@
+package io.kestra.plugin.jdbc;
+
+/**
+ * File format used to write rows to internal storage when {@code fetchType} is {@code STORE}.
+ */
+public enum StoreFormat {
+    ION(".ion"),
+    ION_BINARY(".10n"),
+    PARQUET(".parquet"),
+    ARROW(".arrows");
+
+    private final String extension;
+
+    StoreFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String extension() {
+        return this.extension;
+    }
+
+    boolean isIon() {
+        return this == ION || this == ION_BINARY;
+    }
+}
@@ -0,0 +1,306 @@
+package io.kestra.plugin.jdbc;
+
+import io.kestra.core.serializers.FileSerde;
+
+import java.io.*;
+import java.net.URI;
+import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Streams STORE results to internal storage while they are being fetched, like {@code CopyOut} does: rows are
+ * written on the calling thread (which owns the JDBC statement) into a bounded pipe, and a virtual thread uploads
+ * the other end. A full pipe blocks the fetch, so memory use is bounded and no local temp file is needed.
+ * <p>
+ * If fetching fails, the upload stream fails instead of ending, so a truncated result is never stored as a
+ * complete file; if the upload fails, the fetch stops on its next write and the upload error is reported.
+ */
+final class StorePipeline {
+    static final int PIPE_BUFFER_SIZE = 1024 * 1024;
+
+    private final AtomicReference<Exception> uploadError = new AtomicReference<>();
+    private final PipedInputStream pipedIn;
+    private final PipedOutputStream pipedOut;
+    private final AbortableInputStream uploadInput;
+    private final ExecutorService executor;
+    private final Future<URI> uploadFuture;
+    private final PipeOutputStream output;
+    private final BlockingTimeOutputStream blocking;
+    private long completeNanos;
+
+    private StorePipeline(Upload upload) throws IOException {
+        this.pipedIn = new PipedInputStream(PIPE_BUFFER_SIZE);
+        this.pipedOut = new PipedOutputStream(this.pipedIn);
+        this.uploadInput = new AbortableInputStream(this.pipedIn);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.uploadFuture = this.executor.submit(() -> {
+            try {
+                return upload.upload(this.uploadInput);
+            } catch (Exception e) {
+                this.uploadError.set(e);
+                throw e;
+            } finally {
+                // unblock the producer if the upload stops before the end of the stream
+                this.pipedIn.close();
+            }
+        });
+        this.blocking = new BlockingTimeOutputStream(this.pipedOut);
+        this.output = new PipeOutputStream(new BufferedOutputStream(this.blocking, FileSerde.BUFFER_SIZE));
+    }
+
+    @FunctionalInterface
+    interface Upload {
+        URI upload(InputStream input) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface Producer {
+        long write(OutputStream output) throws SQLException, IOException;
+    }
+
+    record Result(URI uri, long size, long blockedNanos, long waitNanos) {}
+
+    /**
+     * Start the upload; the caller writes to {@link #output()} then either {@link #complete()} or {@link #abort(Exception)}.
+     */
+    static StorePipeline open(Upload upload) throws IOException {
+        return new StorePipeline(upload);
+    }
+
+    static Result run(Upload upload, Producer producer) throws SQLException, IOException {
+        return start(upload, producer).await();
+    }
+
+    /**
+     * Write the whole result and end the stream, without waiting for the upload to end.
+     */
+    static Pending start(Upload upload, Producer producer) throws SQLException, IOException {
+        StorePipeline pipeline = open(upload);
+
+        long size;
+        try {
+            size = producer.write(pipeline.output());
+        } catch (IOException e) {
+            throw pipeline.abort(e);
+        } catch (SQLException | RuntimeException e) {
+            pipeline.abort(e);
+            throw e;
+        }
+
+        pipeline.end();
+        return new Pending(pipeline, size);
+    }
+
+    /**
+     * A result written up to its end, whose upload may still be running.
+     */
+    static final class Pending {
+        private final StorePipeline pipeline;
+        private final long size;
+
+        private Pending(StorePipeline pipeline, long size) {
+            this.pipeline = pipeline;
+            this.size = size;
+        }
+
+        long size() {
+            return this.size;
+        }
+
+        /**
+         * Wait for the upload to end.
+         */
+        Result await() throws IOException {
+            URI uri = this.pipeline.awaitUpload();
+            return new Result(uri, this.size, this.pipeline.blockedNanos(), this.pipeline.waitNanos());
+        }
+    }
+
+    /**
+     * The producer side of the pipe. Closing it only flushes: closing the pipe signals a complete result, so it must
+     * only happen in {@link #complete()}, never from a format writer closing its output on failure.
+     */
+    OutputStream output() {
+        return this.output;
+    }
+
+    /**
+     * Number of bytes written to the pipe so far.
+     */
+    long bytesWritten() {
+        return this.output.count;
+    }
+
+    /**
+     * Time the producer spent blocked on a full pipe, i.e. waiting for the upload to catch up.
+     */
+    long blockedNanos() {
+        return this.blocking.nanos;
+    }
+
+    /**
+     * Time the producer spent waiting for the upload: blocked on a full pipe, then in {@link #complete()}.
+     */
+    long waitNanos() {
+        return this.blocking.nanos + this.completeNanos;
+    }
+
+    /**
+     * End the stream and wait for the upload to finish.
+     */
+    URI complete() throws IOException {
+        this.end();
+        return this.awaitUpload();
+    }
+
+    private void end() throws IOException {
+        long start = System.nanoTime();
+        try {
+            this.output.closePipe();
+        } catch (IOException e) {
+            throw abort(e);
+        } finally {
+            this.completeNanos += System.nanoTime() - start;
+        }
+    }
+
+    private URI awaitUpload() throws IOException {
+        long start = System.nanoTime();
+        try {
+            return await();
+        } catch (IOException e) {
+            throw abort(e);
+        } finally {
+            this.executor.close();
+            this.completeNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Abort the upload after a failure on the producer side. For an I/O failure, returns the exception to report:
+     * a broken pipe only means the upload died first, so the upload cause is returned instead.
+     */
+    IOException abort(Exception failure) {
+        // flag the stream before closing the pipe, so the upload sees an error instead of a clean end of stream
+        this.uploadInput.aborted = true;
+        try {
+            this.pipedOut.close();
+        } catch (IOException ignored) {
+            // the upload side is already gone, nothing more to release
+        }
+        this.executor.close();
+
+        if (!(failure instanceof IOException ioFailure)) {
+            return null;
+        }
+
+        Exception uploadCause = this.uploadError.get();
+        if (uploadCause == null || uploadCause == failure) {
+            return ioFailure;
+        }
+
+        uploadCause.addSuppressed(failure);
+        return uploadCause instanceof IOException ioException ? ioException : new IOException("Unable to upload results to internal storage", uploadCause);
+    }
+
+    private URI await() throws IOException {
+        try {
+            return this.uploadFuture.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ioException ? ioException : new IOException("Unable to upload results to internal storage", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while uploading results to internal storage");
+        }
+    }
+
+    private static final class AbortableInputStream extends FilterInputStream {
+        private volatile boolean aborted;
+
+        private AbortableInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            return checked(super.read());
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return checked(super.read(b, off, len));
+        }
+
+        private int checked(int result) throws IOException {
+            if (this.aborted) {
+                throw new IOException("Fetching results failed, upload to internal storage aborted");
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Sits right on the pipe, under the buffer, so only writes of a full buffer are timed.
+     */
+    private static final class BlockingTimeOutputStream extends FilterOutputStream {
+        private long nanos;
+
+        private BlockingTimeOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            long start = System.nanoTime();
+            try {
+                this.out.write(b);
+            } finally {
+                this.nanos += System.nanoTime() - start;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            try {
+                this.out.write(b, off, len);
+            } finally {
+                this.nanos += System.nanoTime() - start;
+            }
+        }
+    }
+
+    private static final class PipeOutputStream extends FilterOutputStream {
+        private long count;
+
+        private PipeOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.out.write(b);
+            this.count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.out.write(b, off, len);
+            this.count += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.out.flush();
+        }
+
+        private void closePipe() throws IOException {
+            this.out.close();
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package io.kestra.plugin.jdbc;
+
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Splits STORE results into several files. Rows either roll over to a new shard once the current one holds
+ * {@code maxRows} rows or {@code maxBytes} bytes, or are routed to one of {@code count} shards by a hash of the key
+ * columns, so rows with the same key always land in the same shard.
+ * <p>
+ * Every shard is its own {@link StorePipeline}: it is uploaded while it is written and its URI is known as soon as
+ * it is closed. A new result set has its own columns, so it always starts new shards.
+ */
+final class StoreShards {
+    private final StorePipeline.Upload upload;
+    private final Format format;
+    private final long maxRows;
+    private final long maxBytes;
+    private final List<String> keys;
+    private final Shard[] shards;
+    private final List<URI> uris = new ArrayList<>();
+    private long blockedNanos;
+    private long waitNanos;
+
+    private ColumnPlan plan;
+    private ResultSetMetaData meta;
+    private int[] keyColumns;
+    private Object[] values;
+    private Object[] keyValues;
+
+    private StoreShards(StorePipeline.Upload upload, Format format, long maxRows, long maxBytes, List<String> keys, int count) {
+        this.upload = upload;
+        this.format = format;
+        this.maxRows = maxRows;
+        this.maxBytes = maxBytes;
+        this.keys = keys;
+        this.shards = new Shard[count];
+    }
+
+    /**
+     * Roll over to a new shard after {@code maxRows} rows or {@code maxBytes} bytes, whichever comes first; a limit of
+     * 0 or less is ignored. Bytes are counted as written to storage, after compression.
+     */
+    static StoreShards rolling(StorePipeline.Upload upload, Format format, long maxRows, long maxBytes) {
+        if (maxRows <= 0 && maxBytes <= 0) {
+            throw new IllegalArgumentException("A rolling shard needs a maximum number of rows or bytes");
+        }
+        return new StoreShards(upload, format, maxRows, maxBytes, List.of(), 1);
+    }
+
+    /**
+     * Route every row to one of {@code count} shards by the hash of its {@code keys} columns.
+     */
+    static StoreShards hashed(StorePipeline.Upload upload, Format format, List<String> keys, int count) {
+        if (keys.isEmpty()) {
+            throw new IllegalArgumentException("Hash sharding needs at least one key column");
+        }
+        if (count < 1) {
+            throw new IllegalArgumentException("Hash sharding needs a shard count of at least 1, got " + count);
+        }
+        return new StoreShards(upload, format, 0, 0, keys, count);
+    }
+
+    void start(ColumnPlan plan, ResultSetMetaData meta) throws SQLException, IOException {
+        closeAll();
+
+        this.plan = plan;
+        this.meta = meta;
+        this.values = new Object[plan.size()];
+        this.keyColumns = new int[this.keys.size()];
+        this.keyValues = new Object[this.keys.size()];
+
+        List<String> labels = Arrays.asList(plan.labels());
+        for (int i = 0; i < this.keyColumns.length; i++) {
+            this.keyColumns[i] = labels.indexOf(this.keys.get(i));
+            if (this.keyColumns[i] < 0) {
+                throw new IllegalArgumentException("Shard key column '" + this.keys.get(i) + "' not found in result columns " + labels);
+            }
+        }
+    }
+
+    void write(ResultSet rs) throws SQLException, IOException {
+        for (int i = 0; i < this.values.length; i++) {
+            this.values[i] = this.plan.read(rs, i);
+        }
+
+        int index = 0;
+        if (this.keyColumns.length > 0) {
+            for (int i = 0; i < this.keyColumns.length; i++) {
+                this.keyValues[i] = this.values[this.keyColumns[i]];
+            }
+            index = Math.floorMod(Arrays.deepHashCode(this.keyValues), this.shards.length);
+        }
+
+        Shard shard = this.shards[index];
+        if (shard == null) {
+            shard = this.shards[index] = new Shard(StorePipeline.open(this.upload));
+            shard.writer = this.format.open(shard.pipeline.output(), this.plan, this.meta);
+        }
+
+        shard.writer.write(this.values);
+        shard.rows++;
+
+        if ((this.maxRows > 0 && shard.rows >= this.maxRows) || (this.maxBytes > 0 && shard.pipeline.bytesWritten() >= this.maxBytes)) {
+            close(index, true);
+        }
+    }
+
+    /**
+     * Close the remaining shards and return the URI of every shard, in the order they were closed.
+     */
+    List<URI> complete() throws IOException {
+        try {
+            closeAll();
+        } catch (IOException e) {
+            throw abort(e);
+        } catch (RuntimeException e) {
+            abort(e);
+            throw e;
+        }
+        return List.copyOf(this.uris);
+    }
+
+    /**
+     * Time spent in {@link #write(ResultSet)} waiting for the upload of the closed shards, see {@link StorePipeline#blockedNanos()}.
+     */
+    long blockedNanos() {
+        return this.blockedNanos;
+    }
+
+    /**
+     * Time spent waiting for the upload of the closed shards, see {@link StorePipeline#waitNanos()}.
+     */
+    long waitNanos() {
+        return this.waitNanos;
+    }
+
+    /**
+     * Abort every open shard, see {@link StorePipeline#abort(Exception)}. Shards already closed stay in storage.
+     */
+    IOException abort(Exception failure) {
+        IOException reported = failure instanceof IOException ioException ? ioException : null;
+        for (int i = 0; i < this.shards.length; i++) {
+            if (this.shards[i] != null) {
+                IOException aborted = this.shards[i].pipeline.abort(failure);
+                if (aborted != null && aborted != failure) {
+                    reported = aborted;
+                }
+                this.shards[i] = null;
+            }
+        }
+        return reported;
+    }
+
+    private void closeAll() throws IOException {
+        for (int i = 0; i < this.shards.length; i++) {
+            if (this.shards[i] != null) {
+                close(i, false);
+            }
+        }
+    }
+
+    private void close(int index, boolean writing) throws IOException {
+        Shard shard = this.shards[index];
+        this.shards[index] = null;
+
+        try {
+            shard.writer.close();
+        } catch (IOException e) {
+            throw shard.pipeline.abort(e);
+        } catch (RuntimeException e) {
+            shard.pipeline.abort(e);
+            throw e;
+        }
+        this.uris.add(shard.pipeline.complete());
+
+        // a shard rolled over while writing a row also waited for its upload to end during the write
+        this.blockedNanos += writing ? shard.pipeline.waitNanos() : shard.pipeline.blockedNanos();
+        this.waitNanos += shard.pipeline.waitNanos();
+    }
+
+    private static final class Shard {
+        private final StorePipeline pipeline;
+        private RowWriter writer;
+        private long rows;
+
+        private Shard(StorePipeline pipeline) {
+            this.pipeline = pipeline;
+        }
+    }
+
+    /**
+     * A format writer for a single shard; closing it ends the file.
+     */
+    interface RowWriter {
+        void write(Object[] row) throws IOException;
+
+        void close() throws IOException;
+    }
+
+    /**
+     * Opens a {@link RowWriter} on the output of a new shard.
+     */
+    @FunctionalInterface
+    interface Format {
+        RowWriter open(OutputStream output, ColumnPlan plan, ResultSetMetaData meta) throws SQLException, IOException;
+
+        static Format of(StoreFormat format, StoreCompression compression, long rowGroupSize, int batchSize, ZoneId zoneId) {
+            return (output, plan, meta) -> {
+                OutputStream encoded = compression.wrap(output);
+                return switch (format) {
+                    case ION -> {
+                        var writer = new IonRowWriter(encoded, plan);
+                        yield rowWriter(writer::write, encoded::close);
+                    }
+                    case ION_BINARY -> {
+                        SequenceWriter sequence = IonRowWriter.binarySequence(encoded);
+                        var writer = new IonRowWriter(sequence, plan);
+                        yield rowWriter(writer::write, () -> {
+                            sequence.close();
+                            encoded.close();
+                        });
+                    }
+                    case PARQUET, ARROW -> {
+                        var writer = ColumnarFormats.open(format, encoded, new ColumnarRowWriter.Options(rowGroupSize, batchSize, zoneId)).start(plan, meta);
+                        yield rowWriter(writer::write, writer::close);
+                    }
+                };
+            };
+        }
+    }
+
+    private interface RowWrite {
+        void write(Object[] row) throws IOException;
+    }
+
+    private interface Finish {
+        void close() throws IOException;
+    }
+
+    private static RowWriter rowWriter(RowWrite write, Finish finish) {
+        return new RowWriter() {
+            @Override
+            public void write(Object[] row) throws IOException {
+                write.write(row);
+            }
+
+            @Override
+            public void close() throws IOException {
+                finish.close();
+            }
+        };
+    }
+}
@@ -0,0 +1,197 @@
+package io.kestra.plugin.jdbc;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Worker-wide cache for TLS and key-pair material, addressed by the hash of its content.
+ * <p>
+ * Drivers that only accept file paths get a stable path for a given content, so the connection properties, and the
+ * pool key derived from them, stay the same from one execution to the next instead of pointing to a new temp file
+ * each time. Parsed or decrypted keys are kept in memory so they are not parsed again on every connection.
+ * <p>
+ * Files are written in a directory created for this JVM, only accessible by the worker user, and only files written
+ * there by this cache are handed out. Certificates are kept until the JVM exits. Secret files, like a decrypted client
+ * key, are only kept while a connection needs them: the task connecting and, once created, the pool opening new
+ * connections with the same properties, see {@link #retain(Properties)} and {@link #release(Properties)}.
+ */
+public final class TlsMaterialCache {
+    private static final boolean POSIX = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    private static final int MAX_PARSED = 256;
+
+    private static final Map<String, Object> PARSED = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            return size() > MAX_PARSED;
+        }
+    });
+
+    // by content hash and suffix, the files written by this cache
+    private static final ConcurrentHashMap<String, Path> FILES = new ConcurrentHashMap<>();
+    // by path, the number of connections and pools using a secret file
+    private static final Map<String, Integer> SECRETS = new HashMap<>();
+    private static Path directory;
+
+    private TlsMaterialCache() {
+    }
+
+    /**
+     * Path of a file holding the given content, written on first use and kept until the JVM exits.
+     */
+    public static Path file(byte[] content, String suffix) throws IOException {
+        return cached(hash(content) + suffix, content);
+    }
+
+    /**
+     * Path of a file holding the given secret content, e.g. a decrypted key. The file is used by the connection
+     * built from the properties it is put in: it is deleted once that connection is opened, unless a pool using the
+     * same properties still needs it.
+     */
+    public static Path secretFile(byte[] content, String suffix) throws IOException {
+        String key = hash(content) + suffix;
+        synchronized (SECRETS) {
+            Path file = cached(key, content);
+            SECRETS.merge(file.toString(), 1, Integer::sum);
+            return file;
+        }
+    }
+
+    public static Path file(String content, String suffix) throws IOException {
+        return file(content.getBytes(StandardCharsets.UTF_8), suffix);
+    }
+
+    /**
+     * The value parsed from the given material, only loaded the first time this material is seen in this namespace.
+     * Failures are not cached.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T, E extends Exception> T parsed(String namespace, Loader<T, E> loader, String... material) throws E {
+        var key = new StringBuilder(namespace);
+        for (String part : material) {
+            // NUL separated, like the pool key, so ("ab", "c") and ("a", "bc") don't collide
+            key.append('\u0000').append(part == null ? "" : part);
+        }
+        String hash = hash(key.toString().getBytes(StandardCharsets.UTF_8));
+
+        Object cached = PARSED.get(hash);
+        if (cached != null) {
+            return (T) cached;
+        }
+
+        T value = loader.load();
+        PARSED.put(hash, value);
+        return value;
+    }
+
+    @FunctionalInterface
+    public interface Loader<T, E extends Exception> {
+        T load() throws E;
+    }
+
+    /**
+     * Keep the secret files of these connection properties, for a pool opening connections with them.
+     */
+    static void retain(Properties props) {
+        synchronized (SECRETS) {
+            for (String name : props.stringPropertyNames()) {
+                SECRETS.computeIfPresent(props.getProperty(name), (path, users) -> users + 1);
+            }
+        }
+    }
+
+    /**
+     * Release the secret files of these connection properties, deleting the ones no connection nor pool needs anymore.
+     */
+    static void release(Properties props) {
+        synchronized (SECRETS) {
+            for (String name : props.stringPropertyNames()) {
+                String path = props.getProperty(name);
+                Integer users = SECRETS.get(path);
+                if (users == null) {
+                    continue;
+                }
+                if (users > 1) {
+                    SECRETS.put(path, users - 1);
+                    continue;
+                }
+
+                SECRETS.remove(path);
+                FILES.values().remove(Path.of(path));
+                try {
+                    Files.deleteIfExists(Path.of(path));
+                } catch (IOException ignored) {
+                    // deleted when the JVM exits anyway
+                }
+            }
+        }
+    }
+
+    private static Path cached(String name, byte[] content) throws IOException {
+        try {
+            return FILES.computeIfAbsent(name, key -> {
+                try {
+                    return write(key, content);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Path write(String name, byte[] content) throws IOException {
+        Path directory = directory();
+        Path file = directory.resolve(name);
+        // write aside then move, so a concurrent reader never sees a partial file
+        Path temp = Files.createTempFile(directory, "tls", null, permissions("rw-------"));
+        try {
+            Files.write(temp, content);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    /**
+     * The directory of this JVM, created on first use: a fresh one, so nobody else could put files in it before.
+     */
+    private static synchronized Path directory() throws IOException {
+        if (directory == null) {
+            Path created = Files.createTempDirectory("kestra-jdbc-tls", permissions("rwx------")).toAbsolutePath();
+            // registered first, so it is deleted after the files it holds
+            created.toFile().deleteOnExit();
+            directory = created;
+        }
+        return directory;
+    }
+
+    private static FileAttribute<?>[] permissions(String posixPermissions) {
+        return POSIX
+            ? new FileAttribute<?>[]{PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString(posixPermissions))}
+            : new FileAttribute<?>[0];
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
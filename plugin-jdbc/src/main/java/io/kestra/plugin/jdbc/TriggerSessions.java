@@ -0,0 +1,403 @@
+package io.kestra.plugin.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * The connection of each polling trigger, kept open from one poll to the next with the prepared statements of its SQL
+ * and the {@link ColumnPlan} of its rows, keyed by trigger UID (tenant, namespace, flow and trigger id).
+ * <p>
+ * The connection is opened for the trigger alone, outside {@link JdbcConnectionPool} and maxDatabaseConcurrency: held
+ * by a trigger for as long as it polls, a pooled connection or a permit would never be available to tasks again.
+ * It is checked with {@link Connection#isValid} before each poll, and the session is closed with its connection when
+ * it is not valid anymore, when the flow revision changes, when a poll fails or aborts the connection, once it has
+ * not been polled for the idle TTL of the pools ({@code kestra.jdbc.pool.idle-ttl}), and least recently polled first
+ * beyond {@code kestra.jdbc.trigger.max-sessions} (default 100) sessions.
+ * <p>
+ * A session is used by one poll at a time: it leaves the map while polling and goes back once the poll succeeded, so
+ * a concurrent poll of the same trigger opens a session of its own and the last one to end is kept.
+ */
+@Slf4j
+final class TriggerSessions {
+    static final String MAX_SESSIONS_PROPERTY = "kestra.jdbc.trigger.max-sessions";
+    static final int DEFAULT_MAX_SESSIONS = 100;
+    // the query and its afterSQL
+    static final int STATEMENTS = 2;
+    static final int VALIDATION_TIMEOUT_SECONDS = 5;
+
+    private static final AtomicBoolean HOUSEKEEPING_STARTED = new AtomicBoolean(false);
+    private static final long HOUSEKEEPING_PERIOD_SECONDS = 30;
+
+    // least recently polled first
+    private final LinkedHashMap<String, Session> idle = new LinkedHashMap<>();
+    private final long idleTtlNanos;
+    private final int maxSessions;
+    private final LongSupplier clock;
+
+    TriggerSessions(Duration idleTtl, int maxSessions, LongSupplier clock) {
+        this.idleTtlNanos = idleTtl.toNanos();
+        this.maxSessions = maxSessions;
+        this.clock = clock;
+    }
+
+    @FunctionalInterface
+    interface Opener {
+        Connection open() throws Exception;
+    }
+
+    @FunctionalInterface
+    interface Poll<R> {
+        /**
+         * @param session null when the run context is not the one of a flow trigger, e.g. in tests
+         */
+        R run(Session session) throws Exception;
+    }
+
+    /**
+     * Run a poll of the trigger of the run context variables with its session, opening one if there is none for the
+     * current flow revision.
+     */
+    static <R> R poll(Map<String, Object> variables, Opener opener, Poll<R> poll) throws Exception {
+        startHousekeeping();
+        return Shared.SESSIONS.run(Id.of(variables), opener, poll);
+    }
+
+    /**
+     * The maximum number of sessions set by the given system property value, the default if unset or malformed.
+     */
+    static int maxSessions(String value) {
+        if (value == null) {
+            return DEFAULT_MAX_SESSIONS;
+        }
+        try {
+            int maxSessions = Integer.parseInt(value.trim());
+            if (maxSessions > 0) {
+                return maxSessions;
+            }
+        } catch (NumberFormatException ignored) {
+            // logged below
+        }
+        log.warn("Invalid {} '{}', expected a positive integer, using {}", MAX_SESSIONS_PROPERTY, value, DEFAULT_MAX_SESSIONS);
+        return DEFAULT_MAX_SESSIONS;
+    }
+
+    /**
+     * The trigger a run context evaluates, from its {@code flow} and {@code trigger} variables.
+     */
+    record Id(String uid, Object revision) {
+        /**
+         * @return null if the run context is not the one of a flow trigger
+         */
+        static Id of(Map<String, Object> variables) {
+            if (!(variables.get("flow") instanceof Map<?, ?> flow) || !(variables.get("trigger") instanceof Map<?, ?> trigger)) {
+                return null;
+            }
+            if (flow.get("namespace") == null || flow.get("id") == null || trigger.get("id") == null) {
+                return null;
+            }
+
+            String uid = String.join("_",
+                Objects.toString(flow.get("tenantId"), ""),
+                flow.get("namespace").toString(),
+                flow.get("id").toString(),
+                trigger.get("id").toString()
+            );
+            return new Id(uid, flow.get("revision"));
+        }
+    }
+
+    <R> R run(Id id, Opener opener, Poll<R> poll) throws Exception {
+        if (id == null) {
+            return poll.run(null);
+        }
+
+        Session session = this.take(id);
+        if (session == null) {
+            session = new Session(id.revision(), opener.open());
+        }
+
+        boolean polled = false;
+        try {
+            R result = poll.run(session);
+            polled = true;
+            return result;
+        } finally {
+            // a failed poll may leave the session in any state, the next one starts afresh
+            if (polled && !session.broken) {
+                this.giveBack(id.uid(), session);
+            } else {
+                session.close();
+            }
+        }
+    }
+
+    /**
+     * Close every session not polled for longer than the idle TTL.
+     */
+    void evictIdle() {
+        long now = this.clock.getAsLong();
+        List<Session> evicted = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Session> sessions = this.idle.values().iterator();
+            while (sessions.hasNext()) {
+                Session session = sessions.next();
+                if (now - session.lastPolled >= this.idleTtlNanos) {
+                    evicted.add(session);
+                    sessions.remove();
+                }
+            }
+        }
+        evicted.forEach(Session::close);
+    }
+
+    synchronized int size() {
+        return this.idle.size();
+    }
+
+    void close() {
+        List<Session> sessions;
+        synchronized (this) {
+            sessions = new ArrayList<>(this.idle.values());
+            this.idle.clear();
+        }
+        sessions.forEach(Session::close);
+    }
+
+    private Session take(Id id) {
+        Session session;
+        synchronized (this) {
+            session = this.idle.remove(id.uid());
+        }
+        if (session == null) {
+            return null;
+        }
+
+        // the flow may have changed any property of the trigger, down to its connection
+        if (!Objects.equals(session.revision, id.revision()) || !session.isValid()) {
+            session.close();
+            return null;
+        }
+        return session;
+    }
+
+    private void giveBack(String uid, Session session) {
+        session.lastPolled = this.clock.getAsLong();
+
+        List<Session> evicted = new ArrayList<>();
+        synchronized (this) {
+            Session previous = this.idle.remove(uid);
+            if (previous != null) {
+                // a concurrent poll of the same trigger ended first, keep the session of the last one
+                evicted.add(previous);
+            }
+            this.idle.put(uid, session);
+
+            Iterator<Session> eldest = this.idle.values().iterator();
+            while (this.idle.size() > this.maxSessions && eldest.hasNext()) {
+                evicted.add(eldest.next());
+                eldest.remove();
+            }
+        }
+        evicted.forEach(Session::close);
+    }
+
+    private static void startHousekeeping() {
+        if (HOUSEKEEPING_STARTED.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(Shared.SESSIONS::close, "kestra-jdbc-trigger-sessions-shutdown"));
+
+            ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "kestra-jdbc-trigger-sessions-eviction");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.scheduleWithFixedDelay(() -> {
+                try {
+                    Shared.SESSIONS.evictIdle();
+                } catch (RuntimeException ignored) {
+                    // a failing close must not cancel the next evictions
+                }
+            }, HOUSEKEEPING_PERIOD_SECONDS, HOUSEKEEPING_PERIOD_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    // the worker-wide sessions, created on first use from the system properties
+    private static final class Shared {
+        private static final TriggerSessions SESSIONS = new TriggerSessions(
+            JdbcConnectionPool.idleTtl(System.getProperty(JdbcConnectionPool.IDLE_TTL_PROPERTY)),
+            maxSessions(System.getProperty(MAX_SESSIONS_PROPERTY)),
+            System::nanoTime
+        );
+    }
+
+    /**
+     * The connection of one trigger with its prepared statements and column plan.
+     */
+    static final class Session {
+        private final Object revision;
+        private final Connection connection;
+        private final StatementCache statements;
+        private final Connection handle;
+        private PlannedCellConverter cellConverter;
+        private volatile boolean broken;
+        private volatile long lastPolled;
+
+        private Session(Object revision, Connection connection) {
+            this.revision = revision;
+            this.connection = connection;
+            this.statements = new StatementCache(connection);
+            this.handle = this.handle();
+        }
+
+        /**
+         * The connection as seen by a poll: closing it ends the poll, its transaction is rolled back and its
+         * statements go back to the session. The same one is handed to each poll, so column readers bound to it stay
+         * valid.
+         */
+        Connection connection() {
+            return this.handle;
+        }
+
+        /**
+         * A cell converter reusing the column plan of the previous poll as long as the columns are the same, wrapping
+         * the converter of the first poll.
+         */
+        AbstractCellConverter cellConverter(Supplier<AbstractCellConverter> converter) {
+            if (this.cellConverter == null) {
+                this.cellConverter = new PlannedCellConverter(converter.get());
+            }
+            return this.cellConverter;
+        }
+
+        private boolean isValid() {
+            try {
+                return this.connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException | RuntimeException e) {
+                return false;
+            }
+        }
+
+        private void close() {
+            this.statements.close();
+            try {
+                this.connection.close();
+            } catch (SQLException | RuntimeException ignored) {
+                // the connection is dropped anyway
+            }
+        }
+
+        private Connection handle() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close" -> {
+                        this.endPoll();
+                        return null;
+                    }
+                    case "abort" -> {
+                        // a statement may still be running, its state is unknown
+                        this.broken = true;
+                        JdbcConnectionInterface.abort(this.connection, (Executor) args[0]);
+                        return null;
+                    }
+                    case "prepareStatement" -> {
+                        if (!this.broken && StatementCache.cacheable(args)) {
+                            PreparedStatement statement = this.statements.prepare((Connection) proxy, args, STATEMENTS);
+                            if (statement != null) {
+                                return statement;
+                            }
+                        }
+                    }
+                    case "equals" -> {
+                        return proxy == args[0];
+                    }
+                    case "hashCode" -> {
+                        return System.identityHashCode(proxy);
+                    }
+                    default -> {
+                    }
+                }
+
+                try {
+                    return method.invoke(this.connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+
+        private void endPoll() {
+            // statements left open by the poll
+            this.statements.giveBackAll();
+            try {
+                if (!this.connection.isClosed() && !this.connection.getAutoCommit()) {
+                    this.connection.rollback();
+                    this.connection.setAutoCommit(true);
+                }
+            } catch (SQLException | RuntimeException e) {
+                this.broken = true;
+            }
+        }
+    }
+
+    /**
+     * Hands out the column plan of the previous result set again when the new one has the same column labels and
+     * types, building a new one with the wrapped converter otherwise.
+     */
+    private static final class PlannedCellConverter extends AbstractCellConverter {
+        private final AbstractCellConverter converter;
+        private String[] labels;
+        private int[] types;
+        private ColumnPlan plan;
+
+        private PlannedCellConverter(AbstractCellConverter converter) {
+            super(converter.zoneId);
+            this.converter = converter;
+        }
+
+        @Override
+        public Object convertCell(int columnIndex, ResultSet rs, Connection connection) throws SQLException {
+            return this.converter.convertCell(columnIndex, rs, connection);
+        }
+
+        @Override
+        public ColumnPlan plan(ResultSet rs, Connection connection) throws SQLException {
+            ResultSetMetaData meta = rs.getMetaData();
+            int count = meta.getColumnCount();
+
+            String[] labels = new String[count];
+            int[] types = new int[count];
+            for (int i = 0; i < count; i++) {
+                labels[i] = meta.getColumnLabel(i + 1);
+                types[i] = meta.getColumnType(i + 1);
+            }
+
+            if (this.plan == null || !Arrays.equals(labels, this.labels) || !Arrays.equals(types, this.types)) {
+                this.plan = this.converter.plan(rs, connection);
+                this.labels = labels;
+                this.types = types;
+            }
+            return this.plan;
+        }
+    }
+}
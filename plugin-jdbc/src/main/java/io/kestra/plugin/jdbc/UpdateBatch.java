@@ -0,0 +1,63 @@
+package io.kestra.plugin.jdbc;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Which statements of a script can be sent together with {@link java.sql.Statement#executeBatch()}, one round trip for
+ * a run of them instead of one each.
+ * <p>
+ * Only statements known to return no rows are: INSERT, UPDATE, DELETE and MERGE without RETURNING or OUTPUT clause,
+ * and the DDL of tables, indexes and sequences, which SQL Server also accepts in the middle of a batch (unlike views,
+ * procedures, functions and triggers). Anything else, and statements starting with WITH or a parenthesis, run on their
+ * own.
+ */
+final class UpdateBatch {
+    // statements held at most before the batch is sent, so a script read from a file is not held in memory
+    static final int MAX_SIZE = 1000;
+
+    private static final Set<String> DML = Set.of("INSERT", "UPDATE", "DELETE", "MERGE", "UPSERT", "REPLACE");
+
+    private static final Set<String> DDL = Set.of("CREATE", "ALTER", "DROP");
+
+    private static final Set<String> OTHERS = Set.of("TRUNCATE", "COMMENT", "GRANT", "REVOKE");
+
+    private static final Set<String> BATCHED_OBJECTS = Set.of("TABLE", "INDEX", "SEQUENCE");
+
+    // the words that may come between CREATE, ALTER or DROP and the kind of object
+    private static final Set<String> OBJECT_MODIFIERS = Set.of(
+        "OR", "REPLACE", "GLOBAL", "LOCAL", "TEMP", "TEMPORARY", "UNLOGGED", "TRANSIENT", "VOLATILE", "EXTERNAL",
+        "UNIQUE", "CLUSTERED", "NONCLUSTERED", "BITMAP", "FOREIGN"
+    );
+
+    private UpdateBatch() {
+    }
+
+    /**
+     * Whether the statement returns no rows and can be added to a batch.
+     */
+    static boolean batchable(String sql) {
+        List<StatementGraph.Token> tokens = StatementGraph.tokens(sql);
+        if (tokens.isEmpty()) {
+            return false;
+        }
+
+        String keyword = tokens.getFirst().keyword();
+        if (DDL.contains(keyword)) {
+            int k = 1;
+            while (k < tokens.size() && OBJECT_MODIFIERS.contains(tokens.get(k).keyword())) {
+                k++;
+            }
+            return k < tokens.size() && BATCHED_OBJECTS.contains(tokens.get(k).keyword());
+        }
+        if (OTHERS.contains(keyword)) {
+            return true;
+        }
+        if (!DML.contains(keyword)) {
+            return false;
+        }
+
+        // INSERT ... RETURNING (PostgreSQL, Oracle), INSERT ... OUTPUT inserted.id (SQL Server) return rows
+        return tokens.stream().noneMatch(token -> token.is("RETURNING") || token.is("OUTPUT"));
+    }
+}
@@ -0,0 +1,98 @@
+package io.kestra.plugin.jdbc;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Copy of the per-cell dispatch as it was before {@link ColumnPlan}: every cell reads the value, scans the simple
+ * types list and, for the driver converters extending it, reads the column type name from the metadata again.
+ * Only used as the reference of {@link CellConverterBenchmark}, do not change it along with {@link AbstractCellConverter}.
+ */
+public abstract class BaselineCellConverter extends AbstractCellConverter {
+    private static final List<Class<?>> SIMPLE_TYPES = List.of(
+        java.lang.String.class,
+        java.lang.Boolean.class,
+        java.lang.Integer.class,
+        java.lang.Short.class,
+        java.lang.Long.class,
+        java.lang.Float.class,
+        java.lang.Double.class,
+        java.math.BigDecimal.class,
+        byte[].class
+    );
+
+    public BaselineCellConverter(ZoneId zoneId) {
+        super(zoneId);
+    }
+
+    /**
+     * The baseline of a converter without its own dispatch.
+     */
+    public static BaselineCellConverter generic(ZoneId zoneId) {
+        return new BaselineCellConverter(zoneId) {
+            @Override
+            public Object convertCell(int columnIndex, ResultSet rs, Connection connection) throws SQLException {
+                return convert(columnIndex, rs);
+            }
+        };
+    }
+
+    @Override
+    protected Object convert(int columnIndex, ResultSet rs) throws SQLException {
+        Object data = rs.getObject(columnIndex);
+        if (data == null) {
+            return null;
+        }
+
+        final Class<?> clazz = data.getClass();
+
+        // For "simple" types, we return the data as-is
+        if (SIMPLE_TYPES.contains(clazz)) {
+            return data;
+        }
+
+        if (clazz.equals(java.math.BigInteger.class)) {
+            return data.toString();
+        }
+
+        if (clazz.equals(java.math.BigDecimal.class)) {
+            return data.toString();
+        }
+
+        if (clazz.equals(java.sql.Date.class)) {
+            return ((Date) data).toLocalDate();
+        }
+
+        if (clazz.equals(java.sql.Time.class)) {
+            return ((java.sql.Time) data).toLocalTime();
+        }
+
+        if (clazz.equals(java.sql.Timestamp.class)) {
+            return ((Timestamp) data).toInstant().atZone(zoneId);
+        }
+
+        if (clazz.equals(java.util.UUID.class)) {
+            return data.toString();
+        }
+
+        if (data instanceof LocalDate) {
+            return data;
+        }
+
+        if (data instanceof LocalTime) {
+            return data;
+        }
+
+        String columnName = rs.getMetaData().getColumnLabel(columnIndex);
+        String columnTypeName = rs.getMetaData().getColumnTypeName(columnIndex);
+
+        throw new IllegalArgumentException("Data of type '" + clazz + "' for column '" + columnName + "' is not supported, the column type is '" + columnTypeName + "'");
+    }
+}
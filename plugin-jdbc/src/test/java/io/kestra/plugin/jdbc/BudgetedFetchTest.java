@@ -0,0 +1,105 @@
+package io.kestra.plugin.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BudgetedFetchTest {
+    private static final URI URI = java.net.URI.create("kestra:///fetch.ion");
+
+    private final AtomicReference<byte[]> uploaded = new AtomicReference<>();
+
+    private final StorePipeline.Upload upload = input -> {
+        this.uploaded.set(input.readAllBytes());
+        return URI;
+    };
+
+    @Test
+    void keepsRowsUnderBudget() throws IOException {
+        var fetch = new BudgetedFetch(10, 1024 * 1024, FetchBudgetAction.STORE, this.upload, StoreCompression.NONE);
+
+        fetch(fetch, 10);
+
+        assertThat(fetch.spilled(), is(false));
+        assertThat(fetch.rows(), hasSize(10));
+        assertThat(fetch.rows().getLast(), is(Map.of("id", 9, "name", "row-9")));
+        assertThat(this.uploaded.get(), nullValue());
+    }
+
+    @Test
+    void spillsEveryRowOverRowBudget() throws IOException {
+        var fetch = new BudgetedFetch(10, 0, FetchBudgetAction.STORE, this.upload, StoreCompression.NONE);
+
+        fetch(fetch, 25);
+
+        assertThat(fetch.spilled(), is(true));
+        assertThat(fetch.complete(), is(URI));
+
+        List<Object> stored = new ArrayList<>();
+        IonRowReader.readAll(new ByteArrayInputStream(this.uploaded.get())).forEach(stored::add);
+        assertThat(stored, hasSize(25));
+        assertThat(stored.getFirst(), is(Map.of("id", 0, "name", "row-0")));
+        assertThat(stored.getLast(), is(Map.of("id", 24, "name", "row-24")));
+    }
+
+    @Test
+    void spillsOverMemoryBudget() throws IOException {
+        var fetch = new BudgetedFetch(0, 4096, FetchBudgetAction.STORE, this.upload, StoreCompression.GZIP);
+
+        fetch(fetch, 100);
+
+        assertThat(fetch.spilled(), is(true));
+        assertThat(fetch.estimatedBytes(), greaterThan(4096L));
+        fetch.complete();
+
+        List<Object> stored = new ArrayList<>();
+        IonRowReader.readAll(new ByteArrayInputStream(this.uploaded.get())).forEach(stored::add);
+        assertThat(stored, hasSize(100));
+    }
+
+    @Test
+    void failsOverBudget() {
+        var fetch = new BudgetedFetch(10, 0, FetchBudgetAction.FAIL, this.upload, StoreCompression.NONE);
+
+        var exception = assertThrows(IllegalStateException.class, () -> fetch(fetch, 25));
+
+        assertThat(exception.getMessage(), containsString("fetchRowBudget"));
+        assertThat(this.uploaded.get(), nullValue());
+    }
+
+    @Test
+    void estimatesValueSizes() {
+        assertThat(BudgetedFetch.estimateSize(null), is(0L));
+        assertThat(BudgetedFetch.estimateSize("a".repeat(1000)), greaterThan(BudgetedFetch.estimateSize("a")));
+        assertThat(BudgetedFetch.estimateSize(new byte[1000]), greaterThanOrEqualTo(1000L));
+        assertThat(BudgetedFetch.estimateSize(new BigDecimal("12345678901234567890.12")), greaterThan(BudgetedFetch.estimateSize(1)));
+        assertThat(BudgetedFetch.estimateSize(Map.of("a", "x".repeat(100))), greaterThan(BudgetedFetch.estimateSize("x".repeat(100))));
+        assertThat(BudgetedFetch.estimateSize(List.of(1, 2, 3)), greaterThan(3 * BudgetedFetch.estimateSize(1)));
+    }
+
+    private static void fetch(BudgetedFetch fetch, int rows) {
+        int[] cursor = new int[1];
+        var handler = fetch.handler(new ColumnPlan(
+            new String[]{"id", "name"},
+            new ColumnPlan.ColumnReader[]{
+                rs -> cursor[0],
+                rs -> "row-" + cursor[0]
+            }
+        ));
+
+        for (cursor[0] = 0; cursor[0] < rows; cursor[0]++) {
+            handler.accept(null);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package io.kestra.plugin.jdbc;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Compares the per-row cost of the per-cell dispatch as it was before the column plan (a {@link BaselineCellConverter},
+ * driven by the former fetch loop) with the per-ResultSet {@link ColumnPlan} of the current converter.
+ * Timings are only logged, never asserted; the tests calling {@link #run} are disabled and meant to be run manually,
+ * while {@link #assertSameRows} is a plain unit check that both convert a row identically.
+ */
+@Slf4j
+public final class CellConverterBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    private CellConverterBenchmark() {}
+
+    public static void assertSameRows(BaselineCellConverter baseline, AbstractCellConverter converter, StubResultSet.Column... columns) throws SQLException {
+        assertThat(plan(converter, new StubResultSet(1, columns).resultSet()), is(perCell(baseline, new StubResultSet(1, columns).resultSet())));
+    }
+
+    public static void run(String name, BaselineCellConverter baseline, AbstractCellConverter converter, int rows, StubResultSet.Column... columns) throws SQLException {
+        assertSameRows(baseline, converter, columns);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            perCell(baseline, new StubResultSet(rows, columns).resultSet());
+            plan(converter, new StubResultSet(rows, columns).resultSet());
+        }
+
+        long[] perCell = new long[MEASURED_ROUNDS];
+        long[] plan = new long[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            perCell(baseline, new StubResultSet(rows, columns).resultSet());
+            perCell[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            plan(converter, new StubResultSet(rows, columns).resultSet());
+            plan[i] = System.nanoTime() - start;
+        }
+
+        log.info(
+            "{}: {} columns, {} rows x {} rounds, median baseline per-cell {} ns/row, column plan {} ns/row",
+            name, columns.length, rows, MEASURED_ROUNDS,
+            String.format("%.1f", (double) median(perCell) / rows), String.format("%.1f", (double) median(plan) / rows)
+        );
+    }
+
+    // the fetch loop before the column plan: labels once per ResultSet, then one convertCell per cell
+    private static List<Map<String, Object>> perCell(BaselineCellConverter converter, ResultSet rs) throws SQLException {
+        List<Map<String, Object>> result = new ArrayList<>();
+        var meta = rs.getMetaData();
+        var labels = new String[meta.getColumnCount()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = meta.getColumnLabel(i + 1);
+        }
+
+        while (rs.next()) {
+            var map = new LinkedHashMap<String, Object>(labels.length * 2);
+            for (int i = 1; i <= labels.length; i++) {
+                map.put(labels[i - 1], converter.convertCell(i, rs, null));
+            }
+            result.add(map);
+        }
+        return result;
+    }
+
+    private static List<Map<String, Object>> plan(AbstractCellConverter converter, ResultSet rs) throws SQLException {
+        List<Map<String, Object>> result = new ArrayList<>();
+        var plan = converter.plan(rs, null);
+        while (rs.next()) {
+            result.add(plan.toMap(rs));
+        }
+        return result;
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,80 @@
+package io.kestra.plugin.jdbc;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class ColumnPlanTest {
+    private static final StubResultSet.Column[] COLUMNS = {
+        new StubResultSet.Column("id", "int4", 1),
+        new StubResultSet.Column("name", "varchar", "John"),
+        new StubResultSet.Column("amount", "numeric", new BigDecimal("12.50")),
+        new StubResultSet.Column("birth", "date", Date.valueOf(LocalDate.of(1990, 1, 2))),
+        new StubResultSet.Column("created", "timestamp", Timestamp.valueOf(LocalDateTime.of(2024, 5, 6, 7, 8, 9))),
+        new StubResultSet.Column("uuid", "uuid", UUID.fromString("4b6e4d3c-1c1e-4a36-9f7b-7a8a5e0c9f10")),
+        new StubResultSet.Column("missing", "varchar", null)
+    };
+
+    private static AbstractCellConverter converter() {
+        return new AbstractCellConverter(ZoneId.of("UTC")) {
+            @Override
+            public Object convertCell(int columnIndex, ResultSet rs, Connection connection) throws SQLException {
+                return super.convert(columnIndex, rs);
+            }
+        };
+    }
+
+    @Test
+    void planConvertsRowsInColumnOrder() throws SQLException {
+        var rs = new StubResultSet(1, COLUMNS).resultSet();
+        var plan = converter().plan(rs, null);
+
+        assertThat(rs.next(), is(true));
+        var row = plan.toMap(rs);
+
+        assertThat(row.keySet(), contains("id", "name", "amount", "birth", "created", "uuid", "missing"));
+        assertThat(row.get("id"), is(1));
+        assertThat(row.get("birth"), is(LocalDate.of(1990, 1, 2)));
+        assertThat(row.get("uuid"), is("4b6e4d3c-1c1e-4a36-9f7b-7a8a5e0c9f10"));
+        assertThat(row.get("missing"), is(nullValue()));
+        assertThat(plan.label(2), is("amount"));
+    }
+
+    @Test
+    void metadataIsReadOncePerResultSet() throws SQLException {
+        var stub = new StubResultSet(1_000, COLUMNS);
+        var rs = stub.resultSet();
+        var plan = converter().plan(rs, null);
+        int afterPlan = stub.metadataCalls();
+
+        while (rs.next()) {
+            plan.toMap(rs);
+        }
+
+        assertThat(stub.metadataCalls(), is(afterPlan));
+    }
+
+    @Test
+    void planMatchesPerCellDispatch() throws SQLException {
+        CellConverterBenchmark.assertSameRows(BaselineCellConverter.generic(ZoneId.of("UTC")), converter(), COLUMNS);
+    }
+
+    @Test
+    @Disabled("Benchmark, run manually")
+    void benchmark() throws SQLException {
+        CellConverterBenchmark.run("generic", BaselineCellConverter.generic(ZoneId.of("UTC")), converter(), 100_000, COLUMNS);
+    }
+}
@@ -0,0 +1,86 @@
+package io.kestra.plugin.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class DatabaseInfoTest {
+    private final AtomicInteger metaDataReads = new AtomicInteger();
+    private final AtomicInteger queries = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private final Connection connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+        case "getMetaData" -> {
+            metaDataReads.incrementAndGet();
+            yield Proxy.newProxyInstance(DatabaseMetaData.class.getClassLoader(), new Class<?>[]{DatabaseMetaData.class}, (metaData, call, callArgs) -> switch (call.getName()) {
+                case "getDatabaseProductName" -> "PostgreSQL";
+                case "getDriverName" -> "PostgreSQL JDBC Driver";
+                case "getURL" -> "jdbc:postgresql://localhost:5432/Kestra";
+                case "supportsTransactions" -> true;
+                case "supportsBatchUpdates" -> true;
+                default -> null;
+            });
+        }
+        case "createStatement" -> Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{Statement.class}, (statement, call, callArgs) -> switch (call.getName()) {
+            case "executeQuery" -> {
+                queries.incrementAndGet();
+                if (failures.getAndDecrement() > 0) {
+                    throw new SQLException("connection reset");
+                }
+                assertThat(callArgs[0], is("SELECT current_database()"));
+                var next = new AtomicInteger();
+                yield Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class}, (resultSet, row, rowArgs) -> switch (row.getName()) {
+                    case "next" -> next.getAndIncrement() == 0;
+                    case "getString" -> "kestra";
+                    default -> null;
+                });
+            }
+            default -> null;
+        });
+        case "getCatalog" -> "catalog";
+        case "isWrapperFor" -> false;
+        case "hashCode" -> System.identityHashCode(proxy);
+        case "equals" -> proxy == args[0];
+        default -> null;
+    });
+
+    @Test
+    void unpooledConnectionIsReadOnce() throws SQLException {
+        DatabaseInfo info = DatabaseInfo.of(connection);
+
+        assertThat(DatabaseInfo.of(connection), sameInstance(info));
+        assertThat(metaDataReads.get(), is(1));
+        assertThat(info.productName(), is("PostgreSQL"));
+        assertThat(info.product(), is("postgresql"));
+        assertThat(info.url(), is("jdbc:postgresql://localhost:5432/kestra"));
+    }
+
+    @Test
+    void databaseNameIsQueriedOnce() throws SQLException {
+        DatabaseInfo info = DatabaseInfo.read(connection);
+
+        assertThat(info.databaseName(connection), is("kestra"));
+        assertThat(info.databaseName(connection), is("kestra"));
+        assertThat(queries.get(), is(1));
+    }
+
+    @Test
+    void failedDatabaseNameLookupIsRetried() throws SQLException {
+        DatabaseInfo info = DatabaseInfo.read(connection);
+        failures.set(1);
+
+        assertThat(info.databaseName(connection), is("catalog"));
+        assertThat(info.databaseName(connection), is("kestra"));
+        assertThat(info.databaseName(connection), is("kestra"));
+        assertThat(queries.get(), is(2));
+    }
+}
@@ -0,0 +1,189 @@
+package io.kestra.plugin.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class ExecutionConnectionsTest {
+    private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(10);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final ExecutionConnections connections = new ExecutionConnections(clock::get);
+    private final FakeOpener opener = new FakeOpener();
+
+    @Test
+    void tasksOfTheSameExecutionReuseTheConnection() throws SQLException {
+        connections.lease("execution", "key", IDLE_TIMEOUT, opener).close();
+        Connection second = connections.lease("execution", "key", IDLE_TIMEOUT, opener);
+
+        assertThat(opener.opened, hasSize(1));
+        assertThat(second.isClosed(), is(false));
+        second.close();
+        assertThat(second.isClosed(), is(true));
+        assertThat(opener.opened.getFirst().closes.get(), is(0));
+    }
+
+    @Test
+    void otherExecutionsAndSettingsOpenTheirOwnConnection() throws SQLException {
+        connections.lease("execution", "key", IDLE_TIMEOUT, opener).close();
+        connections.lease("other", "key", IDLE_TIMEOUT, opener).close();
+        connections.lease("execution", "other", IDLE_TIMEOUT, opener).close();
+
+        assertThat(opener.opened, hasSize(3));
+        assertThat(connections.size(), is(3));
+    }
+
+    @Test
+    void connectionInUseIsNotShared() throws SQLException {
+        Connection first = connections.lease("execution", "key", IDLE_TIMEOUT, opener);
+        Connection second = connections.lease("execution", "key", IDLE_TIMEOUT, opener);
+
+        assertThat(opener.opened, hasSize(2));
+
+        // the parallel task owns its connection, closing it really closes it
+        second.close();
+        assertThat(opener.opened.get(1).closes.get(), is(1));
+        first.close();
+        assertThat(opener.opened.getFirst().closes.get(), is(0));
+        assertThat(connections.size(), is(1));
+    }
+
+    @Test
+    void pendingTransactionIsRolledBackOnHandBack() throws SQLException {
+        Connection connection = connections.lease("execution", "key", IDLE_TIMEOUT, opener);
+        connection.setAutoCommit(false);
+        connection.close();
+
+        FakeConnection opened = opener.opened.getFirst();
+        assertThat(opened.rollbacks.get(), is(1));
+        assertThat(opened.autoCommit.get(), is(true));
+        assertThat(opened.closes.get(), is(0));
+    }
+
+    @Test
+    void idleConnectionIsClosedAfterTheTimeout() throws SQLException {
+        connections.lease("execution", "key", IDLE_TIMEOUT, opener).close();
+
+        clock.set(IDLE_TIMEOUT.toNanos() - 1);
+        connections.evictIdle();
+        assertThat(connections.size(), is(1));
+
+        clock.set(IDLE_TIMEOUT.toNanos());
+        connections.evictIdle();
+        assertThat(connections.size(), is(0));
+        assertThat(opener.opened.getFirst().closes.get(), is(1));
+
+        connections.lease("execution", "key", IDLE_TIMEOUT, opener).close();
+        assertThat(opener.opened, hasSize(2));
+    }
+
+    @Test
+    void connectionInUseIsNotEvicted() throws SQLException {
+        Connection connection = connections.lease("execution", "key", IDLE_TIMEOUT, opener);
+
+        clock.set(IDLE_TIMEOUT.toNanos() * 2);
+        connections.evictIdle();
+
+        assertThat(connections.size(), is(1));
+        assertThat(connection.isClosed(), is(false));
+        connection.close();
+    }
+
+    @Test
+    void connectionClosedByAnotherThreadIsDiscarded() throws Exception {
+        Connection connection = connections.lease("execution", "key", IDLE_TIMEOUT, opener);
+
+        CompletableFuture.runAsync(() -> {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }).get();
+
+        assertThat(opener.opened.getFirst().closes.get(), is(1));
+        assertThat(connections.size(), is(0));
+    }
+
+    @Test
+    void abortedConnectionIsDiscarded() throws Exception {
+        Connection connection = connections.lease("execution", "key", IDLE_TIMEOUT, opener);
+
+        CompletableFuture.runAsync(() -> {
+            try {
+                connection.abort(Runnable::run);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }).get();
+        connection.close();
+
+        assertThat(opener.opened.getFirst().aborts.get(), is(1));
+        assertThat(opener.opened.getFirst().closes.get(), is(0));
+        assertThat(connections.size(), is(0));
+    }
+
+    @Test
+    void brokenConnectionIsReplaced() throws SQLException {
+        connections.lease("execution", "key", IDLE_TIMEOUT, opener).close();
+        opener.opened.getFirst().broken.set(true);
+
+        connections.lease("execution", "key", IDLE_TIMEOUT, opener).close();
+
+        assertThat(opener.opened, hasSize(2));
+        assertThat(connections.size(), is(1));
+    }
+
+    private static class FakeOpener implements ExecutionConnections.Opener {
+        private final List<FakeConnection> opened = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Connection open() {
+            var connection = new FakeConnection();
+            opened.add(connection);
+            return connection.proxy;
+        }
+    }
+
+    private static class FakeConnection {
+        private final AtomicInteger closes = new AtomicInteger();
+        private final AtomicInteger aborts = new AtomicInteger();
+        private final AtomicInteger rollbacks = new AtomicInteger();
+        private final AtomicBoolean autoCommit = new AtomicBoolean(true);
+        private final AtomicBoolean broken = new AtomicBoolean();
+
+        private final Connection proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "getAutoCommit" -> autoCommit.get();
+            case "setAutoCommit" -> {
+                autoCommit.set((Boolean) args[0]);
+                yield null;
+            }
+            case "rollback" -> {
+                rollbacks.incrementAndGet();
+                yield null;
+            }
+            case "close" -> {
+                closes.incrementAndGet();
+                yield null;
+            }
+            case "abort" -> {
+                aborts.incrementAndGet();
+                yield null;
+            }
+            case "isClosed" -> broken.get() || closes.get() > 0 || aborts.get() > 0;
+            default -> null;
+        });
+    }
+}
@@ -0,0 +1,80 @@
+package io.kestra.plugin.jdbc;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class IonRowReaderTest {
+    private static final StubResultSet.Column[] COLUMNS = {
+        new StubResultSet.Column("id", "int4", 1),
+        new StubResultSet.Column("name", "varchar", "John"),
+        new StubResultSet.Column("ratio", "float8", 0.25D),
+        new StubResultSet.Column("missing", "varchar", null)
+    };
+
+    private static AbstractCellConverter converter() {
+        return new AbstractCellConverter(ZoneId.of("UTC")) {
+            @Override
+            public Object convertCell(int columnIndex, ResultSet rs, Connection connection) throws SQLException {
+                return super.convert(columnIndex, rs);
+            }
+        };
+    }
+
+    static Stream<Arguments> encodings() {
+        return Stream.of(StoreFormat.ION, StoreFormat.ION_BINARY)
+            .flatMap(format -> Stream.of(StoreCompression.values()).map(compression -> Arguments.of(format, compression)));
+    }
+
+    @ParameterizedTest
+    @MethodSource("encodings")
+    void readsEveryEncoding(StoreFormat format, StoreCompression compression) throws SQLException, IOException {
+        int rows = 2_500;
+        var bytes = new ByteArrayOutputStream();
+        var rs = new StubResultSet(rows, COLUMNS).resultSet();
+        var plan = converter().plan(rs, null);
+
+        try (OutputStream output = compression.wrap(bytes)) {
+            if (format == StoreFormat.ION_BINARY) {
+                try (var sequence = IonRowWriter.binarySequence(output)) {
+                    var writer = new IonRowWriter(sequence, plan);
+                    while (rs.next()) {
+                        writer.write(rs);
+                    }
+                }
+            } else {
+                var writer = new IonRowWriter(output, plan);
+                while (rs.next()) {
+                    writer.write(rs);
+                }
+            }
+        }
+
+        List<Object> read = new ArrayList<>();
+        IonRowReader.readAll(new ByteArrayInputStream(bytes.toByteArray())).forEach(read::add);
+
+        assertThat(read, hasSize(rows));
+        @SuppressWarnings("unchecked")
+        var last = (Map<String, Object>) read.getLast();
+        assertThat(last.get("id"), is(1));
+        assertThat(last.get("name"), is("John"));
+        assertThat(last.get("ratio"), is(0.25D));
+        assertThat(last.get("missing"), nullValue());
+    }
+}
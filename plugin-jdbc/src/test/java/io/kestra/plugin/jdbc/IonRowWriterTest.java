@@ -0,0 +1,86 @@
+package io.kestra.plugin.jdbc;
+
+import io.kestra.core.serializers.FileSerde;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class IonRowWriterTest {
+    private static final StubResultSet.Column[] COLUMNS = {
+        new StubResultSet.Column("id", "int4", 1),
+        new StubResultSet.Column("name", "varchar", "John"),
+        new StubResultSet.Column("amount", "numeric", new BigDecimal("12.50")),
+        new StubResultSet.Column("birth", "date", Date.valueOf(LocalDate.of(1990, 1, 2))),
+        new StubResultSet.Column("created", "timestamp", Timestamp.valueOf(LocalDateTime.of(2024, 5, 6, 7, 8, 9))),
+        new StubResultSet.Column("tags", "_text", List.of("a", "b")),
+        new StubResultSet.Column("missing", "varchar", null)
+    };
+
+    private static AbstractCellConverter converter() {
+        return new AbstractCellConverter(ZoneId.of("UTC")) {
+            @Override
+            public Object convertCell(int columnIndex, ResultSet rs, Connection connection) throws SQLException {
+                // arrays are driver specific, keep them as-is like the driver converters do
+                Object value = rs.getObject(columnIndex);
+                return value instanceof List<?> ? value : super.convert(value, columnIndex, rs);
+            }
+        };
+    }
+
+    @Test
+    void writesSameBytesAsFileSerde() throws SQLException, IOException {
+        var rs = new StubResultSet(3, COLUMNS).resultSet();
+        var plan = converter().plan(rs, null);
+        var direct = new ByteArrayOutputStream();
+        var writer = new IonRowWriter(direct, plan);
+        while (rs.next()) {
+            writer.write(rs);
+        }
+
+        rs = new StubResultSet(3, COLUMNS).resultSet();
+        var viaMap = new ByteArrayOutputStream();
+        while (rs.next()) {
+            FileSerde.write(viaMap, plan.toMap(rs));
+        }
+
+        assertThat(direct.toString(StandardCharsets.UTF_8), is(viaMap.toString(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void rowsCanBeReadBack() throws SQLException, IOException {
+        var rs = new StubResultSet(2, COLUMNS).resultSet();
+        var output = new ByteArrayOutputStream();
+        var writer = new IonRowWriter(output, converter().plan(rs, null));
+        while (rs.next()) {
+            writer.write(rs);
+        }
+
+        try (var inputStream = new ByteArrayInputStream(output.toByteArray())) {
+            List<Object> rows = FileSerde.readAll(inputStream).collectList().block();
+
+            assertThat(rows, hasSize(2));
+            @SuppressWarnings("unchecked")
+            var row = (Map<String, Object>) rows.getFirst();
+            assertThat(row.get("id"), is(1));
+            assertThat(row.get("name"), is("John"));
+            assertThat(row.get("tags"), is(List.of("a", "b")));
+        }
+    }
+}
@@ -2,11 +2,22 @@ package io.kestra.plugin.jdbc;
 
 import org.junit.jupiter.api.Test;
 
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.hamcrest.Matchers.is;
-import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.*;
 
 class JdbcConnectionPoolTest {
     private static final String URL = "jdbc:sqlserver://localhost:1433";
@@ -34,4 +45,443 @@ class JdbcConnectionPoolTest {
             is(JdbcConnectionPool.poolKey(URL, props("false")))
         );
     }
+
+    @Test
+    void malformedSystemPropertiesFallBackToTheDefaults() {
+        assertThat(JdbcConnectionPool.idleTtl(null), is(JdbcConnectionPool.DEFAULT_IDLE_TTL));
+        assertThat(JdbcConnectionPool.idleTtl("PT5M"), is(Duration.ofMinutes(5)));
+        assertThat(JdbcConnectionPool.idleTtl("10 minutes"), is(JdbcConnectionPool.DEFAULT_IDLE_TTL));
+        assertThat(JdbcConnectionPool.idleTtl("-PT5M"), is(JdbcConnectionPool.DEFAULT_IDLE_TTL));
+
+        assertThat(JdbcConnectionPool.maxPools(null), is(JdbcConnectionPool.DEFAULT_MAX_POOLS));
+        assertThat(JdbcConnectionPool.maxPools(" 20 "), is(20));
+        assertThat(JdbcConnectionPool.maxPools("many"), is(JdbcConnectionPool.DEFAULT_MAX_POOLS));
+        assertThat(JdbcConnectionPool.maxPools("0"), is(JdbcConnectionPool.DEFAULT_MAX_POOLS));
+    }
+
+    @Test
+    void biggerPoolSizeGrowsThePool() throws SQLException {
+        var sources = new FakeSources();
+        var pool = new JdbcConnectionPool(sources, Duration.ofMinutes(10), 10, new AtomicLong()::get);
+
+        pool.borrow(URL, props("false"), 5);
+        pool.borrow(URL, props("false"), 20);
+        pool.borrow(URL, props("false"), 10);
+
+        assertThat(sources.created, hasSize(1));
+        assertThat(sources.created.getFirst().maximumPoolSize, is(20));
+    }
+
+    @Test
+    void borrowReportsPoolMetrics() throws SQLException {
+        var sources = new FakeSources();
+        var pool = new JdbcConnectionPool(sources, Duration.ofMinutes(10), 10, new AtomicLong()::get);
+        List<JdbcConnectionPool.Metrics> metrics = new ArrayList<>();
+
+        pool.borrow(URL, props("false"), 5, SessionReset.NONE, metrics::add);
+        sources.created.getFirst().active.set(3);
+        pool.borrow(URL, props("false"), 8, SessionReset.NONE, metrics::add);
+
+        assertThat(metrics, hasSize(2));
+        assertThat(metrics.getFirst().connectNanos(), greaterThan(0L));
+        assertThat(metrics.getFirst().maximumPoolSize(), is(5));
+        assertThat(metrics.getLast().connectNanos(), is(0L));
+        assertThat(metrics.getLast().waitNanos(), greaterThanOrEqualTo(0L));
+        assertThat(metrics.getLast().active(), is(3));
+        assertThat(metrics.getLast().maximumPoolSize(), is(8));
+    }
+
+    @Test
+    void sessionIsResetOnceWhenTheConnectionIsClosed() throws SQLException {
+        var sources = new FakeSources();
+        var pool = new JdbcConnectionPool(sources, Duration.ofMinutes(10), 10, new AtomicLong()::get);
+        var events = new ArrayList<String>();
+        List<Long> resets = new ArrayList<>();
+
+        var connection = pool.borrow(URL, props("false"), 5, resetRecording(events), new JdbcConnectionPool.Listener() {
+            @Override
+            public void borrowed(JdbcConnectionPool.Metrics metrics) {
+            }
+
+            @Override
+            public void reset(long nanos) {
+                resets.add(nanos);
+            }
+        });
+        connection.close();
+        connection.close();
+
+        var source = sources.created.getFirst();
+        assertThat(events, contains("begin", "reset"));
+        assertThat(resets, hasSize(1));
+        assertThat(source.closedConnections.get(), is(1));
+        assertThat(source.evicted.get(), is(0));
+    }
+
+    @Test
+    void failedResetEvictsTheConnection() throws SQLException {
+        var sources = new FakeSources();
+        var pool = new JdbcConnectionPool(sources, Duration.ofMinutes(10), 10, new AtomicLong()::get);
+
+        var connection = pool.borrow(URL, props("false"), 5, c -> {
+            throw new SQLException("reset failed");
+        }, metrics -> {});
+        connection.close();
+
+        var source = sources.created.getFirst();
+        assertThat(source.evicted.get(), is(1));
+        assertThat(source.closedConnections.get(), is(1));
+    }
+
+    @Test
+    void connectionClosedByAnotherThreadIsResetAndReused() throws Exception {
+        var sources = new FakeSources();
+        var pool = new JdbcConnectionPool(sources, Duration.ofMinutes(10), 10, new AtomicLong()::get);
+        var events = new CopyOnWriteArrayList<String>();
+
+        // a parallel lane or a background upload closing the connection once done with it
+        var connection = pool.borrow(URL, props("false"), 5, resetRecording(events), metrics -> {});
+        CompletableFuture.runAsync(() -> {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }).get();
+
+        var source = sources.created.getFirst();
+        assertThat(events, contains("begin", "reset"));
+        assertThat(source.evicted.get(), is(0));
+        assertThat(source.closedConnections.get(), is(1));
+    }
+
+    @Test
+    void abortedConnectionIsEvictedWithoutReset() throws Exception {
+        var sources = new FakeSources();
+        var pool = new JdbcConnectionPool(sources, Duration.ofMinutes(10), 10, new AtomicLong()::get);
+        var events = new CopyOnWriteArrayList<String>();
+
+        var connection = pool.borrow(URL, props("false"), 5, resetRecording(events), metrics -> {});
+        var kill = new Thread(() -> {
+            try {
+                connection.abort(Runnable::run);
+                connection.close();
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        kill.start();
+        kill.join();
+
+        var source = sources.created.getFirst();
+        assertThat(events, contains("begin"));
+        assertThat(source.evicted.get(), is(1));
+        assertThat(source.closedConnections.get(), is(1));
+    }
+
+    private static SessionReset resetRecording(List<String> events) {
+        return new SessionReset() {
+            @Override
+            public void begin(Connection connection) {
+                events.add("begin");
+            }
+
+            @Override
+            public void reset(Connection connection) {
+                events.add("reset");
+            }
+        };
+    }
+
+    @Test
+    void cachedStatementsOutliveTheBorrowAndCloseWithTheConnection() throws Exception {
+        var sources = new FakeSources();
+        var pool = new JdbcConnectionPool(sources, Duration.ofMinutes(10), 10, new AtomicLong()::get);
+
+        for (int i = 0; i < 2; i++) {
+            try (Connection connection = pool.borrow(URL, props("false"), 5, 10, SessionReset.NONE, metrics -> {})) {
+                connection.prepareStatement("SELECT 1").close();
+            }
+        }
+
+        FakeSource source = sources.created.getFirst();
+        assertThat(source.prepared, hasSize(1));
+        assertThat(source.prepared.getFirst().get(), is(false));
+
+        // killed task: the connection is evicted with its statements
+        Connection connection = pool.borrow(URL, props("false"), 5, 10, SessionReset.NONE, metrics -> {});
+        CompletableFuture.runAsync(() -> {
+            try {
+                connection.abort(Runnable::run);
+            } catch (SQLException e) {
+                throw new RuntimeException(e);
+            }
+        }).get();
+
+        assertThat(source.evicted.get(), is(1));
+        assertThat(source.prepared.getFirst().get(), is(true));
+    }
+
+    @Test
+    void noStatementCacheWithoutSize() throws SQLException {
+        var sources = new FakeSources();
+        var pool = new JdbcConnectionPool(sources, Duration.ofMinutes(10), 10, new AtomicLong()::get);
+
+        try (Connection connection = pool.borrow(URL, props("false"), 5, 0, SessionReset.NONE, metrics -> {})) {
+            connection.prepareStatement("SELECT 1");
+        }
+
+        assertThat(sources.created.getFirst().prepared, empty());
+    }
+
+    @Test
+    void noStatementCacheWhenTheResetDropsStatements() throws SQLException {
+        var sources = new FakeSources();
+        var pool = new JdbcConnectionPool(sources, Duration.ofMinutes(10), 10, new AtomicLong()::get);
+        SessionReset discard = connection -> {};
+        SessionReset reset = discard.droppingStatements();
+
+        try (Connection connection = pool.borrow(URL, props("false"), 5, 10, reset, metrics -> {})) {
+            connection.prepareStatement("SELECT 1");
+        }
+
+        assertThat(reset.dropsStatements(), is(true));
+        assertThat(sources.created.getFirst().prepared, empty());
+        assertThat(sources.created.getFirst().evicted.get(), is(0));
+    }
+
+    @Test
+    void databaseInfoIsReadOncePerPool() throws SQLException {
+        var sources = new FakeSources();
+        var pool = new JdbcConnectionPool(sources, Duration.ofMinutes(10), 10, new AtomicLong()::get);
+
+        DatabaseInfo first;
+        try (Connection connection = pool.borrow(URL, props("false"), 5)) {
+            first = DatabaseInfo.of(connection);
+        }
+        try (Connection connection = pool.borrow(URL, props("false"), 5)) {
+            assertThat(DatabaseInfo.of(connection), sameInstance(first));
+        }
+        try (Connection connection = pool.borrow(URL, props("true"), 5)) {
+            assertThat(DatabaseInfo.of(connection), not(sameInstance(first)));
+        }
+
+        assertThat(first.product(), is("microsoft sql server"));
+        assertThat(first.supportsTransactions(), is(true));
+        assertThat(sources.created.getFirst().metaDataReads.get(), is(1));
+    }
+
+    @Test
+    void idlePoolsAreEvictedUnlessInUse() throws SQLException {
+        var sources = new FakeSources();
+        var clock = new AtomicLong();
+        var pool = new JdbcConnectionPool(sources, Duration.ofMinutes(10), 10, clock::get);
+
+        pool.borrow(URL, props("true"), 5);
+        pool.borrow(URL, props("false"), 5);
+        sources.created.getFirst().active.set(1);
+
+        clock.addAndGet(Duration.ofMinutes(9).toNanos());
+        pool.evictIdle();
+        assertThat(pool.size(), is(2));
+
+        clock.addAndGet(Duration.ofMinutes(2).toNanos());
+        pool.evictIdle();
+        assertThat(pool.size(), is(1));
+        assertThat(sources.created.getFirst().closed, is(false));
+        assertThat(sources.created.getLast().closed, is(true));
+    }
+
+    @Test
+    void leastRecentlyUsedPoolsAreEvictedOverCapacity() throws SQLException {
+        var sources = new FakeSources();
+        var clock = new AtomicLong();
+        var pool = new JdbcConnectionPool(sources, Duration.ofMinutes(10), 3, clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            clock.incrementAndGet();
+            pool.borrow(URL + "/db" + i, props("false"), 5);
+        }
+        // db0 is used again, so db1 is now the least recently used
+        clock.incrementAndGet();
+        pool.borrow(URL + "/db0", props("false"), 5);
+        clock.incrementAndGet();
+        pool.borrow(URL + "/db3", props("false"), 5);
+
+        assertThat(pool.size(), is(3));
+        assertThat(sources.created.get(1).closed, is(true));
+        assertThat(sources.created.stream().filter(source -> source.closed).count(), is(1L));
+    }
+
+    @Test
+    void manyDistinctKeysUnderConcurrency() throws Exception {
+        var sources = new FakeSources();
+        var clock = new AtomicLong();
+        int maxPools = 20;
+        var pool = new JdbcConnectionPool(sources, Duration.ofMinutes(10), maxPools, clock::incrementAndGet);
+
+        int threads = 16;
+        int borrowsPerThread = 2_000;
+        var failures = new ConcurrentLinkedQueue<Throwable>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            var start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    var random = ThreadLocalRandom.current();
+                    for (int i = 0; i < borrowsPerThread; i++) {
+                        // a few hot keys shared by every thread and a long tail of tenant specific ones
+                        String url = random.nextInt(4) == 0 ? URL + "/hot" + random.nextInt(3) : URL + "/tenant" + seed + "_" + i;
+                        try {
+                            pool.borrow(url, props("false"), 1 + random.nextInt(10));
+                        } catch (Throwable e) {
+                            failures.add(e);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        }
+
+        assertThat(failures, empty());
+        // every pool ever created is either still registered or closed, none leaked
+        long open = sources.created.stream().filter(source -> !source.closed).count();
+        assertThat(open, is((long) pool.size()));
+        assertThat(pool.size(), lessThanOrEqualTo(maxPools + threads));
+        // no connection was handed out from a closed pool
+        assertThat(sources.borrowedFromClosed.get(), is(0));
+
+        clock.addAndGet(Duration.ofMinutes(11).toNanos());
+        pool.evictIdle();
+        assertThat(pool.size(), is(0));
+        assertThat(sources.created.stream().allMatch(source -> source.closed), is(true));
+    }
+
+    private static class FakeSources implements JdbcConnectionPool.SourceFactory {
+        private final List<FakeSource> created = new CopyOnWriteArrayList<>();
+        private final AtomicInteger borrowedFromClosed = new AtomicInteger();
+
+        @Override
+        public JdbcConnectionPool.Source create(String jdbcUrl, Properties props, int maxPoolSize) {
+            var source = new FakeSource(this, maxPoolSize);
+            this.created.add(source);
+            return source;
+        }
+    }
+
+    private static class FakeSource implements JdbcConnectionPool.Source {
+        private final FakeSources sources;
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger closedConnections = new AtomicInteger();
+        private final AtomicInteger evicted = new AtomicInteger();
+        private final AtomicInteger metaDataReads = new AtomicInteger();
+        // close state of the statements prepared on the physical connection
+        private final List<AtomicBoolean> prepared = new CopyOnWriteArrayList<>();
+        private final Connection physical = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "prepareStatement" -> {
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                default -> {
+                    return null;
+                }
+            }
+            var closed = new AtomicBoolean();
+            this.prepared.add(closed);
+            return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (statement, call, callArgs) -> switch (call.getName()) {
+                case "close" -> {
+                    closed.set(true);
+                    yield null;
+                }
+                case "isClosed" -> closed.get();
+                case "getFetchSize", "getMaxRows", "getQueryTimeout" -> 0;
+                default -> null;
+            });
+        });
+        private volatile int maximumPoolSize;
+        private volatile boolean closed;
+
+        private FakeSource(FakeSources sources, int maximumPoolSize) {
+            this.sources = sources;
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        @Override
+        public Connection getConnection() {
+            if (this.closed) {
+                this.sources.borrowedFromClosed.incrementAndGet();
+            }
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "getAutoCommit" -> true;
+                case "getMetaData" -> {
+                    this.metaDataReads.incrementAndGet();
+                    yield Proxy.newProxyInstance(DatabaseMetaData.class.getClassLoader(), new Class<?>[]{DatabaseMetaData.class}, (metaData, call, callArgs) -> switch (call.getName()) {
+                        case "getDatabaseProductName" -> "Microsoft SQL Server";
+                        case "getDriverName" -> "Microsoft JDBC Driver for SQL Server";
+                        case "getURL" -> URL;
+                        case "supportsTransactions" -> true;
+                        case "supportsBatchUpdates" -> true;
+                        default -> null;
+                    });
+                }
+                case "isWrapperFor" -> false;
+                case "close" -> {
+                    this.closedConnections.incrementAndGet();
+                    yield null;
+                }
+                default -> null;
+            });
+        }
+
+        @Override
+        public int activeConnections() {
+            return this.active.get();
+        }
+
+        @Override
+        public int idleConnections() {
+            return 0;
+        }
+
+        @Override
+        public int pendingThreads() {
+            return 0;
+        }
+
+        @Override
+        public int maximumPoolSize() {
+            return this.maximumPoolSize;
+        }
+
+        @Override
+        public void maximumPoolSize(int size) {
+            this.maximumPoolSize = size;
+        }
+
+        @Override
+        public void evict(Connection connection) {
+            this.evicted.incrementAndGet();
+        }
+
+        @Override
+        public Connection physical(Connection connection) {
+            return this.physical;
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+    }
 }
@@ -0,0 +1,149 @@
+package io.kestra.plugin.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class NamedParametersTest {
+    @Test
+    void placeholdersAreReplacedInOrder() {
+        NamedParameters compiled = NamedParameters.compile("SELECT * FROM t WHERE a = :a AND b IN (:b, :a) AND c = :c_1");
+
+        assertThat(compiled.sql(), is("SELECT * FROM t WHERE a = ? AND b IN (?, ?) AND c = ?"));
+        assertThat(compiled.indexes().keySet(), contains("a", "b", "c_1"));
+        assertThat(compiled.indexes().get("a"), is(new int[]{1, 3}));
+        assertThat(compiled.indexes().get("b"), is(new int[]{2}));
+        assertThat(compiled.indexes().get("c_1"), is(new int[]{4}));
+    }
+
+    @Test
+    void literalsAndCommentsAreLeftAlone() {
+        String sql = """
+            SELECT ':a', ":b", `:c`, [:d], $$ :e $$, $tag$ :f $tag$ -- :g
+            /* :h */ FROM t WHERE x = :x""";
+
+        NamedParameters compiled = NamedParameters.compile(sql);
+
+        assertThat(compiled.sql(), is(sql.replace(":x", "?")));
+        assertThat(compiled.indexes().keySet(), contains("x"));
+    }
+
+    @Test
+    void escapedQuotesDoNotEndTheLiteral() {
+        NamedParameters compiled = NamedParameters.compile("SELECT 'it''s :not' WHERE a = :a");
+
+        assertThat(compiled.sql(), is("SELECT 'it''s :not' WHERE a = ?"));
+        assertThat(compiled.indexes().keySet(), contains("a"));
+    }
+
+    @Test
+    void castsAndAssignmentsAreNotPlaceholders() {
+        NamedParameters compiled = NamedParameters.compile("SELECT :a::int, x::text; BEGIN v := :b; END;");
+
+        assertThat(compiled.sql(), is("SELECT ?::int, x::text; BEGIN v := ?; END;"));
+        assertThat(compiled.indexes().keySet(), contains("a", "b"));
+    }
+
+    @Test
+    void sqlWithoutPlaceholderIsUnchanged() {
+        String sql = "SELECT 1";
+
+        assertThat(NamedParameters.compile(sql).sql(), sameInstance(sql));
+        assertThat(NamedParameters.compile(sql).indexes().isEmpty(), is(true));
+    }
+
+    @Test
+    void compiledSqlIsCached() {
+        String sql = "SELECT :cached";
+
+        assertThat(NamedParameters.of(sql), sameInstance(NamedParameters.of(new String(sql))));
+    }
+
+    @Test
+    void listsAreExpandedToPowerOfTwoBuckets() {
+        NamedParameters compiled = NamedParameters.of("SELECT * FROM t WHERE id IN (:ids) AND a = :a");
+
+        assertThat(compiled.expand(Map.of("ids", List.of(1), "a", 1)).sql(), is("SELECT * FROM t WHERE id IN (?) AND a = ?"));
+        assertThat(compiled.expand(Map.of("ids", List.of(1, 2, 3), "a", 1)).sql(), is("SELECT * FROM t WHERE id IN (?, ?, ?, ?) AND a = ?"));
+        assertThat(compiled.expand(Map.of("ids", new int[]{1, 2, 3, 4, 5}, "a", 1)).indexes().get("ids"), is(new int[]{1, 2, 3, 4, 5, 6, 7, 8}));
+        assertThat(compiled.expand(Map.of("ids", List.of(), "a", 1)).sql(), is("SELECT * FROM t WHERE id IN (?) AND a = ?"));
+        assertThat(compiled.expand(Map.of("ids", 1, "a", 1)), sameInstance(compiled));
+    }
+
+    @Test
+    void similarSizesShareTheExpandedSql() {
+        NamedParameters compiled = NamedParameters.of("SELECT * FROM t WHERE id IN (:ids)");
+
+        assertThat(compiled.expand(Map.of("ids", List.of(1, 2, 3))), sameInstance(compiled.expand(Map.of("ids", List.of(4, 5, 6, 7)))));
+    }
+
+    @Test
+    void expandedListIsPaddedWithItsLastElement() throws SQLException {
+        var bound = new Bound();
+        Map<String, Object> values = new HashMap<>();
+        values.put("ids", List.of("x", "y", "z"));
+        values.put("empty", List.of());
+        values.put("bytes", new byte[]{1});
+
+        NamedParameters.compile("SELECT :bytes WHERE id IN (:ids) OR id IN (:empty)").expand(values).bind(bound.statement, values);
+
+        assertThat(bound.values.size(), is(6));
+        assertThat(bound.values.subList(1, 6), contains("x", "y", "z", "z", null));
+        assertThat(bound.values.getFirst(), sameInstance(values.get("bytes")));
+    }
+
+    @Test
+    void anyOperandIsBoundAsArray() throws SQLException {
+        var bound = new Bound();
+        Map<String, Object> values = Map.of("ids", List.of(1L, 2L), "names", List.of("a"));
+
+        NamedParameters compiled = NamedParameters.compile("SELECT * FROM t WHERE id = any ( :ids ) AND name <> ALL(:names) AND x IN (:ids)").expand(values);
+        compiled.bind(bound.statement, values);
+
+        assertThat(compiled.sql(), is("SELECT * FROM t WHERE id = any ( ? ) AND name <> ALL(?) AND x IN (?, ?)"));
+        assertThat(bound.arrays, contains("bigint", "varchar"));
+        assertThat(bound.values.subList(2, 4), contains(1L, 2L));
+    }
+
+    private static class Bound {
+        private final List<Object> values = new ArrayList<>();
+        private final List<String> arrays = new ArrayList<>();
+
+        private final Connection connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            if (method.getName().equals("createArrayOf")) {
+                arrays.add((String) args[0]);
+                return Proxy.newProxyInstance(Array.class.getClassLoader(), new Class<?>[]{Array.class}, (array, m, a) -> null);
+            }
+            return null;
+        });
+
+        private final PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "setObject" -> {
+                    int index = (int) args[0];
+                    while (values.size() < index) {
+                        values.add(null);
+                    }
+                    values.set(index - 1, args[1]);
+                }
+                case "getConnection" -> {
+                    return connection;
+                }
+                default -> {
+                }
+            }
+            return null;
+        });
+    }
+}
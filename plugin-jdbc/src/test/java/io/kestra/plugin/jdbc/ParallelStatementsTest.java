@@ -0,0 +1,109 @@
+package io.kestra.plugin.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelStatementsTest {
+    @Test
+    void independentStatementsRunConcurrently() throws Exception {
+        var graph = StatementGraph.of(List.of("SELECT * FROM a", "SELECT * FROM b", "SELECT * FROM c"), true, Map.of());
+        // each statement waits for all three to be running, which only ends if they run at once
+        var running = new CountDownLatch(3);
+        var opened = new AtomicInteger();
+        var closed = new AtomicInteger();
+
+        ParallelStatements.run(graph, 3, new Recorder(running, null), () -> {
+            opened.incrementAndGet();
+            return new Recorder(running, closed);
+        });
+
+        assertThat(opened.get(), is(2));
+        assertThat(closed.get(), is(2));
+    }
+
+    @Test
+    void dependenciesRunFirst() throws Exception {
+        var graph = StatementGraph.of(List.of(
+            "CREATE TABLE a (id INT)",
+            "SELECT * FROM b",
+            "INSERT INTO a VALUES (1)",
+            "SELECT * FROM a"
+        ), true, Map.of());
+        var order = new CopyOnWriteArrayList<Integer>();
+        Lanes lanes = () -> new ParallelStatements.Lane() {
+            @Override
+            public void run(int index) {
+                order.add(index);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        ParallelStatements.run(graph, 4, lanes.open(), lanes::open);
+
+        assertThat(order, containsInAnyOrder(0, 1, 2, 3));
+        assertThat(order.indexOf(0), lessThan(order.indexOf(2)));
+        assertThat(order.indexOf(2), lessThan(order.indexOf(3)));
+    }
+
+    @Test
+    void failureStopsLaterStatements() {
+        var graph = StatementGraph.of(List.of("INSERT INTO a VALUES (1)", "SELECT * FROM a", "SELECT * FROM a"), true, Map.of());
+        var ran = new CopyOnWriteArrayList<Integer>();
+        var closed = new AtomicInteger();
+
+        var e = assertThrows(SQLException.class, () -> ParallelStatements.run(graph, 2, new ParallelStatements.Lane() {
+            @Override
+            public void run(int index) throws SQLException {
+                ran.add(index);
+                throw new SQLException("relation a does not exist");
+            }
+
+            @Override
+            public void close() {
+                closed.incrementAndGet();
+            }
+        }, () -> {
+            throw new IllegalStateException("no statement is ready for a second lane");
+        }));
+
+        assertThat(e.getMessage(), is("relation a does not exist"));
+        assertThat(ran, contains(0));
+        // the lane given by the caller is left to it
+        assertThat(closed.get(), is(0));
+    }
+
+    private interface Lanes {
+        ParallelStatements.Lane open();
+    }
+
+    private record Recorder(CountDownLatch running, AtomicInteger closed) implements ParallelStatements.Lane {
+        @Override
+        public void run(int index) throws Exception {
+            this.running.countDown();
+            if (!this.running.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("statements did not run concurrently");
+            }
+        }
+
+        @Override
+        public void close() {
+            if (this.closed != null) {
+                this.closed.incrementAndGet();
+            }
+        }
+    }
+}
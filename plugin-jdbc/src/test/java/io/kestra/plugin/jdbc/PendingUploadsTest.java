@@ -0,0 +1,103 @@
+package io.kestra.plugin.jdbc;
+
+import io.kestra.plugin.jdbc.AbstractJdbcBaseQuery.Output;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PendingUploadsTest {
+    @Test
+    void outputsGetTheirUriOnceUploaded() throws Exception {
+        var uploads = new PendingUploads(new PhaseTimers());
+        var uploadEnd = new CountDownLatch(1);
+        List<Output> outputs = new ArrayList<>();
+
+        Output.OutputBuilder<?, ?> output = Output.builder();
+        uploads.add(pending(URI.create("kestra:///first.ion"), uploadEnd), output.size(1L));
+        uploads.place(output, outputs);
+
+        assertThat(outputs, hasSize(1));
+        assertThat(outputs.getFirst().getUri(), nullValue());
+
+        uploadEnd.countDown();
+        uploads.awaitAll();
+
+        assertThat(outputs.getFirst().getUri(), is(URI.create("kestra:///first.ion")));
+        assertThat(outputs.getFirst().getSize(), is(1L));
+    }
+
+    @Test
+    void addingOverTheLimitWaitsForTheOldest() throws Exception {
+        var uploads = new PendingUploads(new PhaseTimers());
+        var uploadEnd = new CountDownLatch(1);
+        List<Output> outputs = new ArrayList<>();
+
+        Output.OutputBuilder<?, ?> oldest = Output.builder();
+        uploads.add(pending(URI.create("kestra:///0.ion"), new CountDownLatch(0)), oldest);
+        uploads.place(oldest, outputs);
+        for (int i = 1; i <= PendingUploads.MAX_PENDING; i++) {
+            Output.OutputBuilder<?, ?> output = Output.builder();
+            uploads.add(pending(URI.create("kestra:///" + i + ".ion"), uploadEnd), output);
+            uploads.place(output, outputs);
+        }
+
+        assertThat(outputs.getFirst().getUri(), is(URI.create("kestra:///0.ion")));
+        assertThat(outputs.getLast().getUri(), nullValue());
+
+        uploadEnd.countDown();
+        uploads.awaitAll();
+        assertThat(outputs.getLast().getUri(), is(URI.create("kestra:///" + PendingUploads.MAX_PENDING + ".ion")));
+    }
+
+    @Test
+    void failureIsThrownOnceAllUploadsEnded() throws Exception {
+        var uploads = new PendingUploads(new PhaseTimers());
+        List<Output> outputs = new ArrayList<>();
+
+        Output.OutputBuilder<?, ?> failed = Output.builder();
+        uploads.add(StorePipeline.start(
+            input -> {
+                input.transferTo(OutputStream.nullOutputStream());
+                throw new IOException("storage unavailable");
+            },
+            output -> 0
+        ), failed);
+        uploads.place(failed, outputs);
+
+        Output.OutputBuilder<?, ?> stored = Output.builder();
+        uploads.add(pending(URI.create("kestra:///stored.ion"), new CountDownLatch(0)), stored);
+        uploads.place(stored, outputs);
+
+        IOException exception = assertThrows(IOException.class, uploads::awaitAll);
+        assertThat(exception.getMessage(), is("storage unavailable"));
+        assertThat(outputs.getLast().getUri(), is(URI.create("kestra:///stored.ion")));
+    }
+
+    private static StorePipeline.Pending pending(URI uri, CountDownLatch uploadEnd) throws SQLException, IOException {
+        return StorePipeline.start(
+            input -> {
+                input.transferTo(OutputStream.nullOutputStream());
+                try {
+                    uploadEnd.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return uri;
+            },
+            output -> {
+                output.write(new byte[16]);
+                return 1;
+            }
+        );
+    }
+}
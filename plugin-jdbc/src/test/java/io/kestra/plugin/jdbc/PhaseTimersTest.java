@@ -0,0 +1,22 @@
+package io.kestra.plugin.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class PhaseTimersTest {
+    @Test
+    void blockedUploadIsMovedFromConvertToUpload() {
+        var timers = new PhaseTimers();
+
+        timers.add(PhaseTimers.Phase.FETCH, 100);
+        timers.add(PhaseTimers.Phase.CONVERT, 500);
+        timers.uploaded(200, 350);
+
+        assertThat(timers.nanos(PhaseTimers.Phase.FETCH), is(100L));
+        assertThat(timers.nanos(PhaseTimers.Phase.CONVERT), is(300L));
+        assertThat(timers.nanos(PhaseTimers.Phase.UPLOAD), is(350L));
+        assertThat(timers.nanos(PhaseTimers.Phase.EXECUTE), is(0L));
+    }
+}
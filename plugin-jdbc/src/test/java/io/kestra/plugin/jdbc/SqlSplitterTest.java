@@ -2,6 +2,12 @@ package io.kestra.plugin.jdbc;
 
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class SqlSplitterTest {
@@ -456,4 +462,79 @@ class SqlSplitterTest {
         assertEquals(1, queries.length);
         assertEquals(sql.trim(), queries[0]);
     }
+
+    @Test
+    void quoteInsideQuotedIdentifier() {
+        String sql = "SELECT 1 AS \"it's\"; SELECT 2";
+
+        String[] queries = SqlSplitter.getQueries(sql);
+
+        assertEquals(2, queries.length);
+        assertEquals("SELECT 1 AS \"it's\"", queries[0]);
+        assertEquals("SELECT 2", queries[1]);
+    }
+
+    @Test
+    void readerKeepsStateAcrossBuffers() {
+        String unit = """
+            INSERT INTO t VALUES ('it''s; not the end');
+            SELECT "quoted;identifier" FROM t; -- comment; too
+            /* block; comment */ SELECT 1;
+            DO $body$ BEGIN PERFORM 1; END $body$;
+            BEGIN
+              NULL;
+            END;
+            """;
+        String big = "x".repeat(70_000);
+
+        for (int padding = 0; padding < 64; padding += 7) {
+            StringBuilder script = new StringBuilder(" ".repeat(padding));
+            for (int i = 0; i < 200; i++) {
+                script.append(unit);
+            }
+            script.append("SELECT '").append(big).append("';\nSELECT 2");
+
+            String[] expected = SqlSplitter.getQueries(script.toString());
+            List<String> streamed = new ArrayList<>();
+            new SqlSplitter(new Trickle(script.toString())).forEachRemaining(streamed::add);
+
+            assertEquals(List.of(expected), streamed);
+        }
+    }
+
+    @Test
+    void readerYieldsStatementsBeforeTheEnd() {
+        var reader = new Trickle("SELECT 1; SELECT 2; " + "SELECT 3; ".repeat(100_000));
+        var splitter = new SqlSplitter(reader);
+
+        assertEquals("SELECT 1", splitter.next());
+        assertEquals("SELECT 2", splitter.next());
+        assertEquals(true, reader.read < 1_000_000);
+    }
+
+    /**
+     * A reader returning a few characters at a time, like a network stream.
+     */
+    private static class Trickle extends Reader {
+        private final StringReader reader;
+        private int read;
+
+        private Trickle(String text) {
+            this.reader = new StringReader(text);
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            int n = this.reader.read(buffer, offset, Math.min(length, 4093));
+            if (n > 0) {
+                this.read += n;
+            }
+            return n;
+        }
+
+        @Override
+        public void close() {
+            this.reader.close();
+        }
+    }
 }
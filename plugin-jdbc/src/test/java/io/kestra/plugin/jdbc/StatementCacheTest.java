@@ -0,0 +1,189 @@
+package io.kestra.plugin.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class StatementCacheTest {
+    private final FakeDriver driver = new FakeDriver();
+    private final Connection owner = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> null);
+    private final StatementCache cache = new StatementCache(driver.connection);
+
+    @Test
+    void statementIsPreparedOnce() throws SQLException {
+        cache.prepare(owner, new Object[]{"SELECT 1"}, 10).close();
+        PreparedStatement statement = cache.prepare(owner, new Object[]{"SELECT 1"}, 10);
+
+        assertThat(driver.prepared, hasSize(1));
+        assertThat(statement.isClosed(), is(false));
+        assertThat(statement.getConnection(), sameInstance(owner));
+        statement.close();
+        assertThat(statement.isClosed(), is(true));
+        assertThat(driver.prepared.getFirst().closed, is(false));
+    }
+
+    @Test
+    void sqlAndResultSetOptionsAreTheKey() throws SQLException {
+        cache.prepare(owner, new Object[]{"SELECT 1"}, 10).close();
+        cache.prepare(owner, new Object[]{"SELECT 2"}, 10).close();
+        cache.prepare(owner, new Object[]{"SELECT 1", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY}, 10).close();
+
+        assertThat(driver.prepared, hasSize(3));
+        assertThat(cache.size(), is(3));
+    }
+
+    @Test
+    void onlyPlainVariantsAreCacheable() {
+        assertThat(StatementCache.cacheable(new Object[]{"SELECT 1"}), is(true));
+        assertThat(StatementCache.cacheable(new Object[]{"SELECT 1", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY}), is(true));
+        assertThat(StatementCache.cacheable(new Object[]{"INSERT", new String[]{"id"}}), is(false));
+        assertThat(StatementCache.cacheable(new Object[]{"SELECT 1", 1, 1, 1}), is(false));
+    }
+
+    @Test
+    void statementInUseIsNotShared() throws SQLException {
+        PreparedStatement first = cache.prepare(owner, new Object[]{"SELECT 1"}, 10);
+        PreparedStatement second = cache.prepare(owner, new Object[]{"SELECT 1"}, 10);
+
+        assertThat(driver.prepared, hasSize(2));
+
+        first.close();
+        second.close();
+        assertThat(cache.size(), is(1));
+        assertThat(driver.prepared.get(1).closed, is(true));
+    }
+
+    @Test
+    void leastRecentlyUsedIsClosedOverTheSize() throws SQLException {
+        cache.prepare(owner, new Object[]{"SELECT 1"}, 2).close();
+        cache.prepare(owner, new Object[]{"SELECT 2"}, 2).close();
+        cache.prepare(owner, new Object[]{"SELECT 1"}, 2).close();
+        cache.prepare(owner, new Object[]{"SELECT 3"}, 2).close();
+
+        assertThat(cache.size(), is(2));
+        assertThat(driver.sql("SELECT 1").closed, is(false));
+        assertThat(driver.sql("SELECT 2").closed, is(true));
+        assertThat(driver.sql("SELECT 3").closed, is(false));
+    }
+
+    @Test
+    void stateIsClearedBeforeReuse() throws SQLException {
+        PreparedStatement statement = cache.prepare(owner, new Object[]{"INSERT"}, 10);
+        statement.setObject(1, "value");
+        statement.addBatch();
+        statement.setFetchSize(1000);
+        statement.setMaxRows(1);
+        statement.setQueryTimeout(30);
+        statement.close();
+
+        FakeStatement prepared = driver.prepared.getFirst();
+        assertThat(prepared.calls, hasItems("clearParameters", "clearBatch", "clearWarnings"));
+        assertThat(prepared.fetchSize, is(0));
+        assertThat(prepared.maxRows, is(0));
+        assertThat(prepared.queryTimeout, is(0));
+
+        prepared.calls.clear();
+        cache.prepare(owner, new Object[]{"INSERT"}, 10).close();
+        assertThat(prepared.calls, not(hasItem("clearBatch")));
+    }
+
+    @Test
+    void statementsLeftOpenAreGivenBack() throws SQLException {
+        PreparedStatement statement = cache.prepare(owner, new Object[]{"SELECT 1"}, 10);
+
+        cache.giveBackAll();
+
+        assertThat(statement.isClosed(), is(true));
+        assertThat(cache.size(), is(1));
+    }
+
+    @Test
+    void closeClosesCachedStatements() throws SQLException {
+        cache.prepare(owner, new Object[]{"SELECT 1"}, 10).close();
+        PreparedStatement inUse = cache.prepare(owner, new Object[]{"SELECT 2"}, 10);
+
+        cache.close();
+        assertThat(driver.sql("SELECT 1").closed, is(true));
+        assertThat(driver.sql("SELECT 2").closed, is(false));
+
+        inUse.close();
+        assertThat(driver.sql("SELECT 2").closed, is(true));
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    void statementClosedByTheDriverIsPreparedAgain() throws SQLException {
+        cache.prepare(owner, new Object[]{"SELECT 1"}, 10).close();
+        driver.prepared.getFirst().closed = true;
+
+        cache.prepare(owner, new Object[]{"SELECT 1"}, 10).close();
+
+        assertThat(driver.prepared, hasSize(2));
+    }
+
+    private static class FakeDriver {
+        private final List<FakeStatement> prepared = new CopyOnWriteArrayList<>();
+        private final Connection connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            if (method.getName().equals("prepareStatement")) {
+                var statement = new FakeStatement((String) args[0]);
+                prepared.add(statement);
+                return statement.proxy;
+            }
+            return null;
+        });
+
+        private FakeStatement sql(String sql) {
+            return prepared.stream().filter(statement -> statement.sql.equals(sql)).findFirst().orElseThrow();
+        }
+    }
+
+    private static class FakeStatement {
+        private final String sql;
+        private final List<String> calls = new ArrayList<>();
+        private volatile boolean closed;
+        private int fetchSize;
+        private int maxRows;
+        private int queryTimeout;
+
+        private final PreparedStatement proxy = (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+            calls.add(method.getName());
+            return switch (method.getName()) {
+                case "close" -> {
+                    closed = true;
+                    yield null;
+                }
+                case "isClosed" -> closed;
+                case "getFetchSize" -> fetchSize;
+                case "setFetchSize" -> {
+                    fetchSize = (int) args[0];
+                    yield null;
+                }
+                case "getMaxRows" -> maxRows;
+                case "setMaxRows" -> {
+                    maxRows = (int) args[0];
+                    yield null;
+                }
+                case "getQueryTimeout" -> queryTimeout;
+                case "setQueryTimeout" -> {
+                    queryTimeout = (int) args[0];
+                    yield null;
+                }
+                default -> null;
+            };
+        });
+
+        private FakeStatement(String sql) {
+            this.sql = sql;
+        }
+    }
+}
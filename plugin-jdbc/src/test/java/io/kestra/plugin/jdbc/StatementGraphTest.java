@@ -0,0 +1,127 @@
+package io.kestra.plugin.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StatementGraphTest {
+    @Test
+    void readsAndWrites() {
+        var insert = StatementGraph.access("INSERT INTO public.sales_daily SELECT d, sum(amount) FROM sales s JOIN \"Stores\" st ON s.store = st.id GROUP BY d");
+        assertThat(insert.writes(), containsInAnyOrder("sales_daily"));
+        assertThat(insert.reads(), containsInAnyOrder("sales", "stores"));
+
+        var update = StatementGraph.access("UPDATE ONLY orders o SET total = 0 FROM returns r WHERE o.id = r.id AND note <> 'FROM payments'");
+        assertThat(update.writes(), containsInAnyOrder("orders"));
+        assertThat(update.reads(), containsInAnyOrder("returns"));
+
+        var cte = StatementGraph.access("WITH recent AS (SELECT * FROM events) DELETE FROM archive WHERE id IN (SELECT id FROM recent)");
+        assertThat(cte.writes(), containsInAnyOrder("archive"));
+        assertThat(cte.reads(), containsInAnyOrder("events"));
+
+        var index = StatementGraph.access("CREATE INDEX IF NOT EXISTS idx_orders ON orders (id)");
+        assertThat(index.writes(), containsInAnyOrder("idx_orders"));
+        assertThat(index.reads(), containsInAnyOrder("orders"));
+    }
+
+    @Test
+    void writesWithoutFromOrInto() {
+        var delete = StatementGraph.access("DELETE orders WHERE id = 1");
+        assertThat(delete.writes(), containsInAnyOrder("orders"));
+
+        var deleteJoin = StatementGraph.access("DELETE o FROM orders o JOIN returns r ON o.id = r.id");
+        assertThat(deleteJoin.writes(), containsInAnyOrder("orders"));
+        assertThat(deleteJoin.reads(), containsInAnyOrder("orders", "returns"));
+
+        var deleteSameName = StatementGraph.access("DELETE orders FROM orders JOIN returns ON orders.id = returns.id");
+        assertThat(deleteSameName.writes(), containsInAnyOrder("orders"));
+
+        var deleteTop = StatementGraph.access("DELETE TOP (10) FROM dbo.orders WHERE total = 0");
+        assertThat(deleteTop.writes(), containsInAnyOrder("orders"));
+
+        var insert = StatementGraph.access("INSERT orders VALUES (1, 'John')");
+        assertThat(insert.writes(), containsInAnyOrder("orders"));
+
+        var overwrite = StatementGraph.access("INSERT OVERWRITE TABLE sales_daily SELECT * FROM sales");
+        assertThat(overwrite.writes(), containsInAnyOrder("sales_daily"));
+        assertThat(overwrite.reads(), containsInAnyOrder("sales"));
+
+        var merge = StatementGraph.access("MERGE INTO orders o USING staged s ON o.id = s.id WHEN MATCHED THEN DELETE WHEN NOT MATCHED THEN INSERT VALUES (s.id)");
+        assertThat(merge.writes(), containsInAnyOrder("orders"));
+        assertThat(merge.reads(), containsInAnyOrder("staged"));
+
+        var foreignKey = StatementGraph.access("CREATE TABLE lines (order_id INT REFERENCES orders ON DELETE CASCADE)");
+        assertThat(foreignKey.writes(), containsInAnyOrder("lines"));
+    }
+
+    @Test
+    void readsWaitForWritesWithoutFromOrInto() {
+        var graph = StatementGraph.of(List.of(
+            "DELETE orders WHERE id = 1",
+            "SELECT * FROM orders",
+            "INSERT returns VALUES (1)",
+            "SELECT * FROM returns"
+        ), true, Map.of());
+
+        assertThat(graph.dependencies(1), is(new int[]{0}));
+        assertThat(graph.dependencies(3), is(new int[]{2}));
+    }
+
+    @Test
+    void independentStatementsHaveNoDependency() {
+        var graph = StatementGraph.of(List.of(
+            "CREATE TABLE a (id INT)",
+            "CREATE TABLE b (id INT)",
+            "INSERT INTO a VALUES (1)",
+            "INSERT INTO b SELECT id FROM a",
+            "SELECT * FROM c"
+        ), true, Map.of());
+
+        assertThat(graph.dependencies(0).length, is(0));
+        assertThat(graph.dependencies(1).length, is(0));
+        assertThat(graph.dependencies(2), is(new int[]{0}));
+        assertThat(graph.dependencies(3), is(new int[]{0, 1, 2}));
+        assertThat(graph.dependencies(4).length, is(0));
+        assertThat(graph.changesSession(), is(false));
+    }
+
+    @Test
+    void unknownStatementsAreBarriers() {
+        var graph = StatementGraph.of(List.of(
+            "SELECT * FROM a",
+            "CALL refresh_all()",
+            "SELECT * FROM b"
+        ), true, Map.of());
+
+        assertThat(graph.dependencies(1), is(new int[]{0}));
+        assertThat(graph.dependencies(2), is(new int[]{1}));
+    }
+
+    @Test
+    void sessionStatementsAreReported() {
+        assertThat(StatementGraph.of(List.of("SELECT 1", "SET search_path TO x", "SELECT 2"), true, Map.of()).sessionStatement(), is(2));
+        assertThat(StatementGraph.of(List.of("SELECT 1", "CREATE TEMP TABLE t (id INT)"), true, Map.of()).changesSession(), is(true));
+        assertThat(StatementGraph.of(List.of("SELECT 1", "SELECT * INTO #t FROM a"), true, Map.of()).changesSession(), is(true));
+        assertThat(StatementGraph.of(List.of("SELECT 1", "SELECT '#t' FROM a"), true, Map.of()).changesSession(), is(false));
+    }
+
+    @Test
+    void declaredDependencies() {
+        var graph = StatementGraph.of(List.of(
+            "INSERT INTO a VALUES (1)",
+            "SELECT * FROM a_view",
+            "SELECT * FROM a"
+        ), false, Map.of(2, List.of(1)));
+
+        assertThat(graph.dependencies(1), is(new int[]{0}));
+        assertThat(graph.dependencies(2).length, is(0));
+
+        assertThrows(IllegalArgumentException.class, () -> StatementGraph.of(List.of("SELECT 1", "SELECT 2"), true, Map.of(1, List.of(2))));
+        assertThrows(IllegalArgumentException.class, () -> StatementGraph.of(List.of("SELECT 1", "SELECT 2"), true, Map.of(3, List.of(1))));
+    }
+}
@@ -0,0 +1,134 @@
+package io.kestra.plugin.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StorePipelineTest {
+    private static final URI URI = java.net.URI.create("kestra:///store.ion");
+
+    @Test
+    void uploadsWhileProducing() throws SQLException, IOException {
+        var uploaded = new ByteArrayOutputStream();
+
+        // larger than the pipe so the producer has to wait for the upload
+        int rows = StorePipeline.PIPE_BUFFER_SIZE / 8;
+        var result = StorePipeline.run(
+            input -> {
+                input.transferTo(uploaded);
+                return URI;
+            },
+            output -> {
+                for (int i = 0; i < rows; i++) {
+                    output.write("row %04d\n".formatted(i % 10_000).getBytes(), 0, 9);
+                }
+                return rows;
+            }
+        );
+
+        assertThat(result.uri(), is(URI));
+        assertThat(result.size(), is((long) rows));
+        assertThat(uploaded.size(), is(rows * 9));
+    }
+
+    @Test
+    void producerFailureAbortsUpload() {
+        var uploadFailure = new AtomicReference<Exception>();
+
+        SQLException exception = assertThrows(SQLException.class, () -> StorePipeline.run(
+            input -> {
+                try {
+                    input.transferTo(OutputStream.nullOutputStream());
+                } catch (IOException e) {
+                    uploadFailure.set(e);
+                    throw e;
+                }
+                return URI;
+            },
+            output -> {
+                output.write(new byte[1024]);
+                // format writers close their output when failing, that must not end the upload cleanly
+                output.close();
+                throw new SQLException("connection reset");
+            }
+        ));
+
+        assertThat(exception.getMessage(), is("connection reset"));
+        assertThat(uploadFailure.get(), instanceOf(IOException.class));
+    }
+
+    @Test
+    void uploadFailureIsReported() {
+        IOException exception = assertThrows(IOException.class, () -> StorePipeline.run(
+            input -> {
+                throw new IOException("storage unavailable");
+            },
+            output -> {
+                byte[] chunk = new byte[8192];
+                // keeps writing until the closed pipe fails the producer
+                while (true) {
+                    output.write(chunk);
+                }
+            }
+        ));
+
+        assertThat(exception.getMessage(), is("storage unavailable"));
+        assertThat(exception.getSuppressed(), arrayWithSize(1));
+    }
+
+    @Test
+    void startDoesNotWaitForTheUploadToEnd() throws SQLException, IOException {
+        var uploadEnd = new CountDownLatch(1);
+
+        var pending = StorePipeline.start(
+            input -> {
+                input.transferTo(OutputStream.nullOutputStream());
+                // e.g. the storage completing a multipart upload
+                try {
+                    uploadEnd.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return URI;
+            },
+            output -> {
+                output.write(new byte[1024]);
+                return 1;
+            }
+        );
+
+        assertThat(pending.size(), is(1L));
+        uploadEnd.countDown();
+
+        var result = pending.await();
+        assertThat(result.uri(), is(URI));
+        assertThat(result.size(), is(1L));
+    }
+
+    @Test
+    void uploadEndFailureIsReportedOnAwait() throws SQLException, IOException {
+        var pending = StorePipeline.start(
+            input -> {
+                input.transferTo(OutputStream.nullOutputStream());
+                throw new IOException("multipart upload failed");
+            },
+            output -> {
+                output.write(new byte[1024]);
+                return 1;
+            }
+        );
+
+        IOException exception = assertThrows(IOException.class, pending::await);
+        assertThat(exception.getMessage(), is("multipart upload failed"));
+    }
+}
@@ -0,0 +1,139 @@
+package io.kestra.plugin.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.function.IntUnaryOperator;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StoreShardsTest {
+    // one line per row, enough to check which rows landed in which shard
+    private static final StoreShards.Format LINES = (output, plan, meta) -> new StoreShards.RowWriter() {
+        @Override
+        public void write(Object[] row) throws IOException {
+            output.write((Arrays.toString(row) + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void close() throws IOException {
+            output.close();
+        }
+    };
+
+    private final Map<URI, List<String>> uploaded = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private final StorePipeline.Upload upload = input -> {
+        URI uri = URI.create("kestra:///shard-" + UUID.randomUUID() + ".ion");
+        String content = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        this.uploaded.put(uri, content.lines().toList());
+        return uri;
+    };
+
+    @Test
+    void rollsOverAfterMaxRows() throws SQLException, IOException {
+        var shards = StoreShards.rolling(this.upload, LINES, 4, 0);
+
+        List<URI> uris = write(shards, 10, row -> row);
+
+        assertThat(uris, hasSize(3));
+        assertThat(uris.stream().map(uri -> this.uploaded.get(uri).size()).toList(), contains(4, 4, 2));
+        assertThat(this.uploaded.get(uris.getFirst()).getFirst(), is("[0, row-0]"));
+        assertThat(this.uploaded.get(uris.getLast()).getLast(), is("[9, row-9]"));
+    }
+
+    @Test
+    void rollsOverAfterMaxBytes() throws SQLException, IOException {
+        // every line is "[n, row-n]\n", 11 bytes for a single digit
+        var shards = StoreShards.rolling(this.upload, LINES, 0, 30);
+
+        List<URI> uris = write(shards, 9, row -> row);
+
+        assertThat(uris.stream().map(uri -> this.uploaded.get(uri).size()).toList(), contains(3, 3, 3));
+    }
+
+    @Test
+    void routesRowsByKeyHash() throws SQLException, IOException {
+        var shards = StoreShards.hashed(this.upload, LINES, List.of("id"), 3);
+
+        List<URI> uris = write(shards, 60, row -> row % 7);
+
+        assertThat(uris, hasSize(lessThanOrEqualTo(3)));
+        assertThat(uris.stream().mapToInt(uri -> this.uploaded.get(uri).size()).sum(), is(60));
+
+        // every key ends up in a single shard
+        for (int key = 0; key < 7; key++) {
+            String prefix = "[" + key + ",";
+            long shardsWithKey = uris.stream()
+                .filter(uri -> this.uploaded.get(uri).stream().anyMatch(line -> line.startsWith(prefix)))
+                .count();
+            assertThat(shardsWithKey, is(1L));
+        }
+    }
+
+    @Test
+    void newResultSetStartsNewShards() throws SQLException, IOException {
+        var shards = StoreShards.rolling(this.upload, LINES, 100, 0);
+
+        shards.start(plan(new int[1], row -> row), null);
+        shards.write(null);
+        shards.start(plan(new int[1], row -> row), null);
+        shards.write(null);
+
+        assertThat(shards.complete(), hasSize(2));
+    }
+
+    @Test
+    void unknownKeyColumnFails() {
+        var shards = StoreShards.hashed(this.upload, LINES, List.of("missing"), 2);
+
+        var exception = assertThrows(IllegalArgumentException.class, () -> shards.start(plan(new int[1], row -> row), null));
+        assertThat(exception.getMessage(), containsString("missing"));
+    }
+
+    @Test
+    void failureAbortsOpenShards() throws SQLException, IOException {
+        var failures = Collections.synchronizedList(new ArrayList<Exception>());
+        var shards = StoreShards.rolling(input -> {
+            try {
+                input.transferTo(OutputStream.nullOutputStream());
+            } catch (IOException e) {
+                failures.add(e);
+                throw e;
+            }
+            return URI.create("kestra:///shard.ion");
+        }, LINES, 100, 0);
+
+        shards.start(plan(new int[1], row -> row), null);
+        shards.write(null);
+        shards.abort(new SQLException("connection reset"));
+
+        assertThat(failures, hasSize(1));
+    }
+
+    private List<URI> write(StoreShards shards, int rows, IntUnaryOperator key) throws SQLException, IOException {
+        int[] cursor = new int[1];
+        shards.start(plan(cursor, key), null);
+        for (cursor[0] = 0; cursor[0] < rows; cursor[0]++) {
+            shards.write(null);
+        }
+        return shards.complete();
+    }
+
+    private static ColumnPlan plan(int[] cursor, IntUnaryOperator key) {
+        return new ColumnPlan(
+            new String[]{"id", "name"},
+            new ColumnPlan.ColumnReader[]{
+                rs -> key.applyAsInt(cursor[0]),
+                rs -> "row-" + cursor[0]
+            }
+        );
+    }
+}
@@ -0,0 +1,95 @@
+package io.kestra.plugin.jdbc;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal in-memory {@link ResultSet} returning the same row {@code rows} times, used to exercise cell converters
+ * without a database. Only the accessors used by the converters are implemented.
+ */
+public final class StubResultSet {
+    public record Column(String label, String typeName, int sqlType, Object value) {
+        public Column(String label, String typeName, Object value) {
+            this(label, typeName, Types.OTHER, value);
+        }
+    }
+
+    private final List<Column> columns;
+    private final int rows;
+    private final AtomicInteger metadataCalls = new AtomicInteger();
+
+    private int cursor;
+    private boolean lastWasNull;
+
+    public StubResultSet(int rows, Column... columns) {
+        this.rows = rows;
+        this.columns = List.of(columns);
+    }
+
+    public int metadataCalls() {
+        return metadataCalls.get();
+    }
+
+    public ResultSet resultSet() {
+        var meta = (ResultSetMetaData) Proxy.newProxyInstance(
+            ResultSetMetaData.class.getClassLoader(),
+            new Class<?>[]{ResultSetMetaData.class},
+            (proxy, method, args) -> {
+                metadataCalls.incrementAndGet();
+                return switch (method.getName()) {
+                    case "getColumnCount" -> columns.size();
+                    case "getColumnLabel", "getColumnName" -> column(args).label();
+                    case "getColumnTypeName" -> column(args).typeName();
+                    case "getColumnType" -> column(args).sqlType();
+                    case "getPrecision" -> column(args).value() instanceof BigDecimal decimal ? decimal.precision() : 0;
+                    case "getScale" -> column(args).value() instanceof BigDecimal decimal ? decimal.scale() : 0;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                };
+            }
+        );
+
+        return (ResultSet) Proxy.newProxyInstance(
+            ResultSet.class.getClassLoader(),
+            new Class<?>[]{ResultSet.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "next" -> ++cursor <= rows;
+                case "getMetaData" -> meta;
+                case "wasNull" -> lastWasNull;
+                case "close" -> null;
+                case "getObject" -> {
+                    Object value = value(args);
+                    yield args.length == 2 && !((Class<?>) args[1]).isInstance(value) ? null : value;
+                }
+                case "getString" -> {
+                    Object value = value(args);
+                    yield value == null ? null : value.toString();
+                }
+                case "getFloat" -> {
+                    Object value = value(args);
+                    yield value == null ? 0F : ((Number) value).floatValue();
+                }
+                case "getDouble" -> {
+                    Object value = value(args);
+                    yield value == null ? 0D : ((Number) value).doubleValue();
+                }
+                case "getTimestamp", "getTime", "getDate" -> value(args);
+                default -> throw new UnsupportedOperationException(method.getName());
+            }
+        );
+    }
+
+    private Column column(Object[] args) {
+        return columns.get((Integer) args[0] - 1);
+    }
+
+    private Object value(Object[] args) {
+        Object value = column(args).value();
+        lastWasNull = value == null;
+        return value;
+    }
+}
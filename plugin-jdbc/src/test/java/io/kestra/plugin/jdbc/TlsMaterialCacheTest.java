@@ -0,0 +1,96 @@
+package io.kestra.plugin.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TlsMaterialCacheTest {
+    @Test
+    void sameContentSamePath() throws IOException {
+        String pem = "-----BEGIN CERTIFICATE-----\n" + UUID.randomUUID() + "\n-----END CERTIFICATE-----\n";
+
+        var first = TlsMaterialCache.file(pem, ".pem");
+        var second = TlsMaterialCache.file(pem, ".pem");
+        var other = TlsMaterialCache.file(pem + "\n", ".pem");
+
+        assertThat(second, is(first));
+        assertThat(other, not(first));
+        assertThat(first.getFileName().toString(), endsWith(".pem"));
+        assertThat(Files.readString(first), is(pem));
+    }
+
+    @Test
+    void parsedOnce() {
+        var loads = new AtomicInteger();
+        String key = UUID.randomUUID().toString();
+
+        String first = TlsMaterialCache.parsed("test", () -> key + "-" + loads.incrementAndGet(), key, "password");
+        String second = TlsMaterialCache.parsed("test", () -> key + "-" + loads.incrementAndGet(), key, "password");
+        String otherPassword = TlsMaterialCache.parsed("test", () -> key + "-" + loads.incrementAndGet(), key, null);
+
+        assertThat(first, is(key + "-1"));
+        assertThat(second, is(first));
+        assertThat(otherPassword, is(key + "-2"));
+        assertThat(loads.get(), is(2));
+    }
+
+    @Test
+    void failuresAreNotCached() throws IOException {
+        var loads = new AtomicInteger();
+        String key = UUID.randomUUID().toString();
+
+        assertThrows(IOException.class, () -> TlsMaterialCache.parsed("test", () -> {
+            loads.incrementAndGet();
+            throw new IOException("invalid key");
+        }, key));
+        String value = TlsMaterialCache.parsed("test", () -> "key-" + loads.incrementAndGet(), key);
+
+        assertThat(value, is("key-2"));
+    }
+
+    @Test
+    void filesAreWrittenInADirectoryOfTheirOwn() throws IOException {
+        String pem = "-----BEGIN CERTIFICATE-----\n" + UUID.randomUUID() + "\n-----END CERTIFICATE-----\n";
+
+        var file = TlsMaterialCache.file(pem, ".pem");
+
+        assertThat(file.getParent(), not(Path.of(System.getProperty("java.io.tmpdir"), "kestra-jdbc-tls")));
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(file.getParent())), is("rwx------"));
+            assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(file)), is("rw-------"));
+        }
+    }
+
+    @Test
+    void secretFilesAreDeletedOnceNoLongerNeeded() throws IOException {
+        byte[] key = UUID.randomUUID().toString().getBytes(StandardCharsets.UTF_8);
+
+        var connecting = new Properties();
+        connecting.put("sslkey", TlsMaterialCache.secretFile(key, ".der").toString());
+        // a pool created by the connection keeps it for its next connections
+        TlsMaterialCache.retain(connecting);
+        TlsMaterialCache.release(connecting);
+        Path file = Path.of(connecting.getProperty("sslkey"));
+        assertThat(Files.readAllBytes(file), is(key));
+
+        TlsMaterialCache.release(connecting);
+        assertThat(Files.exists(file), is(false));
+
+        // written again for the next connection
+        var next = TlsMaterialCache.secretFile(key, ".der");
+        assertThat(next, is(file));
+        assertThat(Files.readAllBytes(next), is(key));
+    }
+}
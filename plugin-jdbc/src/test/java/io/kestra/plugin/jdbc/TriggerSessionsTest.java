@@ -0,0 +1,279 @@
+package io.kestra.plugin.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TriggerSessionsTest {
+    private static final Duration IDLE_TTL = Duration.ofMinutes(10);
+    private static final TriggerSessions.Id TRIGGER = new TriggerSessions.Id("tenant_namespace_flow_trigger", 1);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final TriggerSessions sessions = new TriggerSessions(IDLE_TTL, 2, clock::get);
+    private final FakeOpener opener = new FakeOpener();
+
+    @Test
+    void idFromTheVariablesOfATrigger() {
+        var variables = Map.<String, Object>of(
+            "flow", Map.of("tenantId", "tenant", "namespace", "namespace", "id", "flow", "revision", 3),
+            "trigger", Map.of("id", "trigger")
+        );
+
+        assertThat(TriggerSessions.Id.of(variables), is(new TriggerSessions.Id("tenant_namespace_flow_trigger", 3)));
+        assertThat(TriggerSessions.Id.of(Map.of()), nullValue());
+    }
+
+    @Test
+    void pollsOfTheSameTriggerReuseTheConnection() throws Exception {
+        poll(TRIGGER);
+        poll(TRIGGER);
+
+        assertThat(opener.opened, hasSize(1));
+        assertThat(opener.opened.getFirst().closes.get(), is(0));
+        assertThat(opener.opened.getFirst().validations.get(), is(1));
+        assertThat(sessions.size(), is(1));
+    }
+
+    @Test
+    void pollWithoutTriggerHasNoSession() throws Exception {
+        assertThat(sessions.run(null, opener, session -> session), nullValue());
+        assertThat(opener.opened, hasSize(0));
+    }
+
+    @Test
+    void preparedStatementIsKeptAcrossPolls() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            sessions.run(TRIGGER, opener, session -> {
+                try (Connection connection = session.connection();
+                     PreparedStatement statement = connection.prepareStatement("SELECT 1", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                    statement.setMaxRows(1);
+                    return statement.execute();
+                }
+            });
+        }
+
+        FakeConnection connection = opener.opened.getFirst();
+        assertThat(connection.prepares.get(), is(1));
+        assertThat(connection.statementCloses.get(), is(0));
+    }
+
+    @Test
+    void columnPlanIsKeptForTheSameColumns() throws Exception {
+        var plans = new AtomicInteger();
+        var converter = new AbstractCellConverter(ZoneId.of("UTC")) {
+            @Override
+            public Object convertCell(int columnIndex, ResultSet rs, Connection connection) throws SQLException {
+                return rs.getObject(columnIndex);
+            }
+
+            @Override
+            public ColumnPlan plan(ResultSet rs, Connection connection) throws SQLException {
+                plans.incrementAndGet();
+                return super.plan(rs, connection);
+            }
+        };
+        var id = new StubResultSet.Column("id", "int4", Types.INTEGER, 1);
+        var name = new StubResultSet.Column("name", "varchar", Types.VARCHAR, "John");
+
+        var first = sessions.run(TRIGGER, opener, session -> session.cellConverter(() -> converter).plan(new StubResultSet(1, id).resultSet(), session.connection()));
+        var second = sessions.run(TRIGGER, opener, session -> session.cellConverter(() -> converter).plan(new StubResultSet(1, id).resultSet(), session.connection()));
+        assertThat(second, sameInstance(first));
+        assertThat(plans.get(), is(1));
+
+        var third = sessions.run(TRIGGER, opener, session -> session.cellConverter(() -> converter).plan(new StubResultSet(1, id, name).resultSet(), session.connection()));
+        assertThat(third, not(sameInstance(first)));
+        assertThat(third.labels(), is(new String[]{"id", "name"}));
+        assertThat(plans.get(), is(2));
+    }
+
+    @Test
+    void pendingTransactionIsRolledBackAtTheEndOfThePoll() throws Exception {
+        sessions.run(TRIGGER, opener, session -> {
+            session.connection().setAutoCommit(false);
+            session.connection().close();
+            return null;
+        });
+
+        FakeConnection connection = opener.opened.getFirst();
+        assertThat(connection.rollbacks.get(), is(1));
+        assertThat(connection.autoCommit.get(), is(true));
+        assertThat(connection.closes.get(), is(0));
+        assertThat(sessions.size(), is(1));
+    }
+
+    @Test
+    void invalidConnectionIsReplaced() throws Exception {
+        poll(TRIGGER);
+        opener.opened.getFirst().valid.set(false);
+
+        poll(TRIGGER);
+
+        assertThat(opener.opened, hasSize(2));
+        assertThat(opener.opened.getFirst().closes.get(), is(1));
+        assertThat(sessions.size(), is(1));
+    }
+
+    @Test
+    void newFlowRevisionClosesTheSession() throws Exception {
+        poll(TRIGGER);
+        poll(new TriggerSessions.Id(TRIGGER.uid(), 2));
+
+        assertThat(opener.opened, hasSize(2));
+        assertThat(opener.opened.getFirst().closes.get(), is(1));
+        assertThat(opener.opened.get(1).validations.get(), is(0));
+        assertThat(sessions.size(), is(1));
+    }
+
+    @Test
+    void failedPollClosesTheSession() throws Exception {
+        poll(TRIGGER);
+
+        assertThrows(SQLException.class, () -> sessions.run(TRIGGER, opener, session -> {
+            throw new SQLException("boom");
+        }));
+
+        assertThat(opener.opened.getFirst().closes.get(), is(1));
+        assertThat(sessions.size(), is(0));
+    }
+
+    @Test
+    void abortedConnectionIsNotKept() throws Exception {
+        sessions.run(TRIGGER, opener, session -> {
+            session.connection().abort(Runnable::run);
+            return null;
+        });
+
+        assertThat(opener.opened.getFirst().aborts.get(), is(1));
+        assertThat(sessions.size(), is(0));
+    }
+
+    @Test
+    void idleSessionIsClosedAfterTheTtl() throws Exception {
+        poll(TRIGGER);
+
+        clock.set(IDLE_TTL.toNanos() - 1);
+        sessions.evictIdle();
+        assertThat(sessions.size(), is(1));
+
+        clock.set(IDLE_TTL.toNanos());
+        sessions.evictIdle();
+        assertThat(sessions.size(), is(0));
+        assertThat(opener.opened.getFirst().closes.get(), is(1));
+    }
+
+    @Test
+    void leastRecentlyPolledSessionIsClosedBeyondTheMaximum() throws Exception {
+        poll(new TriggerSessions.Id("first", 1));
+        poll(new TriggerSessions.Id("second", 1));
+        poll(new TriggerSessions.Id("first", 1));
+        poll(new TriggerSessions.Id("third", 1));
+
+        assertThat(sessions.size(), is(2));
+        assertThat(opener.opened, hasSize(3));
+        assertThat(opener.opened.get(0).closes.get(), is(0));
+        assertThat(opener.opened.get(1).closes.get(), is(1));
+    }
+
+    @Test
+    void maxSessionsFromTheSystemProperty() {
+        assertThat(TriggerSessions.maxSessions(null), is(TriggerSessions.DEFAULT_MAX_SESSIONS));
+        assertThat(TriggerSessions.maxSessions("10"), is(10));
+        assertThat(TriggerSessions.maxSessions("ten"), is(TriggerSessions.DEFAULT_MAX_SESSIONS));
+        assertThat(TriggerSessions.maxSessions("0"), is(TriggerSessions.DEFAULT_MAX_SESSIONS));
+    }
+
+    private void poll(TriggerSessions.Id id) throws Exception {
+        sessions.run(id, opener, session -> {
+            session.connection().close();
+            return null;
+        });
+    }
+
+    private static class FakeOpener implements TriggerSessions.Opener {
+        private final List<FakeConnection> opened = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Connection open() {
+            var connection = new FakeConnection();
+            opened.add(connection);
+            return connection.proxy;
+        }
+    }
+
+    private static class FakeConnection {
+        private final AtomicInteger closes = new AtomicInteger();
+        private final AtomicInteger aborts = new AtomicInteger();
+        private final AtomicInteger rollbacks = new AtomicInteger();
+        private final AtomicInteger validations = new AtomicInteger();
+        private final AtomicInteger prepares = new AtomicInteger();
+        private final AtomicInteger statementCloses = new AtomicInteger();
+        private final AtomicBoolean autoCommit = new AtomicBoolean(true);
+        private final AtomicBoolean valid = new AtomicBoolean(true);
+
+        private final Connection proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "getAutoCommit" -> autoCommit.get();
+            case "setAutoCommit" -> {
+                autoCommit.set((Boolean) args[0]);
+                yield null;
+            }
+            case "rollback" -> {
+                rollbacks.incrementAndGet();
+                yield null;
+            }
+            case "isValid" -> {
+                validations.incrementAndGet();
+                yield valid.get();
+            }
+            case "prepareStatement" -> {
+                prepares.incrementAndGet();
+                yield statement();
+            }
+            case "close" -> {
+                closes.incrementAndGet();
+                yield null;
+            }
+            case "abort" -> {
+                aborts.incrementAndGet();
+                yield null;
+            }
+            case "isClosed" -> closes.get() > 0 || aborts.get() > 0;
+            default -> null;
+        });
+
+        private PreparedStatement statement() {
+            AtomicInteger maxRows = new AtomicInteger();
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> switch (method.getName()) {
+                case "getFetchSize", "getQueryTimeout" -> 0;
+                case "getMaxRows" -> maxRows.get();
+                case "setMaxRows" -> {
+                    maxRows.set((Integer) args[0]);
+                    yield null;
+                }
+                case "execute" -> true;
+                case "isClosed" -> false;
+                case "close" -> {
+                    statementCloses.incrementAndGet();
+                    yield null;
+                }
+                default -> null;
+            });
+        }
+    }
+}
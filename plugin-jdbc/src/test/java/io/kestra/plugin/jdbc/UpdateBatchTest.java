@@ -0,0 +1,37 @@
+package io.kestra.plugin.jdbc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class UpdateBatchTest {
+    @Test
+    void statementsReturningNoRowsAreBatchable() {
+        assertThat(UpdateBatch.batchable("INSERT INTO employee(id, name) VALUES (1, 'John')"), is(true));
+        assertThat(UpdateBatch.batchable("update employee set name = 'RETURNING' where id = 1"), is(true));
+        assertThat(UpdateBatch.batchable("DELETE FROM employee -- RETURNING *"), is(true));
+        assertThat(UpdateBatch.batchable("CREATE TABLE IF NOT EXISTS employee(id INT)"), is(true));
+        assertThat(UpdateBatch.batchable("CREATE UNIQUE INDEX idx_employee ON employee(id)"), is(true));
+        assertThat(UpdateBatch.batchable("DROP TABLE IF EXISTS employee"), is(true));
+        assertThat(UpdateBatch.batchable("TRUNCATE TABLE employee"), is(true));
+    }
+
+    @Test
+    void statementsReturningRowsAreNot() {
+        assertThat(UpdateBatch.batchable("SELECT * FROM employee"), is(false));
+        assertThat(UpdateBatch.batchable("(SELECT 1) UNION (SELECT 2)"), is(false));
+        assertThat(UpdateBatch.batchable("WITH moved AS (DELETE FROM a RETURNING *) INSERT INTO b SELECT * FROM moved"), is(false));
+        assertThat(UpdateBatch.batchable("INSERT INTO employee(name) VALUES ('John') RETURNING id"), is(false));
+        assertThat(UpdateBatch.batchable("INSERT INTO employee(name) OUTPUT inserted.id VALUES ('John')"), is(false));
+        assertThat(UpdateBatch.batchable("CALL refresh()"), is(false));
+        assertThat(UpdateBatch.batchable("SET search_path TO kestra"), is(false));
+    }
+
+    @Test
+    void objectsSqlServerWantsAloneAreNot() {
+        assertThat(UpdateBatch.batchable("CREATE OR REPLACE VIEW v AS SELECT 1"), is(false));
+        assertThat(UpdateBatch.batchable("CREATE PROCEDURE p AS SELECT 1"), is(false));
+        assertThat(UpdateBatch.batchable("ALTER FUNCTION f() OWNER TO kestra"), is(false));
+    }
+}